@@ -1,6 +1,9 @@
 package com.example.fitproof;
 
 import android.os.Bundle;
+import android.view.View;
+import android.widget.ImageView;
+import android.widget.TextView;
 
 import com.google.android.material.navigation.NavigationView;
 
@@ -11,7 +14,11 @@ import androidx.navigation.ui.NavigationUI;
 import androidx.drawerlayout.widget.DrawerLayout;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.fitproof.data.AppExecutors;
+import com.example.fitproof.data.profile.ProfileCache;
+import com.example.fitproof.data.sync.PrefetchScheduler;
 import com.example.fitproof.databinding.ActivityMainBinding;
+import com.example.fitproof.ui.Fonts;
 
 public class MainActivity extends AppCompatActivity {
 
@@ -21,6 +28,7 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        Fonts.preload(this);
 
         binding = ActivityMainBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
@@ -32,12 +40,32 @@ public class MainActivity extends AppCompatActivity {
         // Passing each menu ID as a set of Ids because each
         // menu should be considered as top level destinations.
         mAppBarConfiguration = new AppBarConfiguration.Builder(
-                R.id.nav_home, R.id.nav_my_proof , R.id.nav_login)
+                R.id.nav_home, R.id.nav_my_proof , R.id.nav_history, R.id.nav_login, R.id.nav_traces)
                 .setOpenableLayout(drawer)
                 .build();
         NavController navController = Navigation.findNavController(this, R.id.nav_host_fragment_content_main);
         NavigationUI.setupActionBarWithNavController(this, navController, mAppBarConfiguration);
         NavigationUI.setupWithNavController(navigationView, navController);
+        navigationView.getMenu().findItem(R.id.nav_traces).setVisible(BuildConfig.DEBUG);
+        ProfileCache.getInstance(this).getProfile().observe(this, profile ->
+                bindProfileHeader(navigationView.getHeaderView(0), profile));
+
+        // WorkManager's first call opens its database; that has no place on the startup path.
+        AppExecutors.diskIO().execute(() -> PrefetchScheduler.schedule(getApplicationContext()));
+    }
+
+    /** Draws the drawer header from the cached profile, or as a guest when nobody is signed in. */
+    private void bindProfileHeader(View header, ProfileCache.Profile profile) {
+        TextView name = header.findViewById(R.id.Name);
+        TextView email = header.findViewById(R.id.Gmail);
+        ImageView avatar = header.findViewById(R.id.profileImage);
+        name.setText(profile != null ? profile.getName() : "Guest");
+        email.setText(profile != null ? profile.getEmail() : "");
+        if (profile != null && profile.getAvatar() != null) {
+            avatar.setImageBitmap(profile.getAvatar());
+        } else {
+            avatar.setImageResource(R.drawable.default_avatar);
+        }
     }
 
     @Override
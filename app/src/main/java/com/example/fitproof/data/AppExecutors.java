@@ -0,0 +1,36 @@
+package com.example.fitproof.data;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Process-wide background executors. Disk work is serialized on one thread so SQLite writes
+ * never contend with each other; parsing Fit responses and formatting what screens show runs on
+ * its own thread so neither waits on the other or on the main thread.
+ */
+public final class AppExecutors {
+
+    private static final ExecutorService DISK_IO = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "fitproof-disk");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private static final ExecutorService COMPUTE = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "fitproof-compute");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private AppExecutors() {
+    }
+
+    public static Executor diskIO() {
+        return DISK_IO;
+    }
+
+    public static Executor compute() {
+        return COMPUTE;
+    }
+}
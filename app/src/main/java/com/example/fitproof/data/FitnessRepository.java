@@ -0,0 +1,255 @@
+package com.example.fitproof.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.Nullable;
+
+import com.example.fitproof.BuildConfig;
+import com.example.fitproof.data.dashboard.DashboardSnapshotStore;
+import com.example.fitproof.data.dashboard.DashboardSync;
+import com.example.fitproof.data.fit.CoalescingDataSource;
+import com.example.fitproof.data.fit.FitDataSource;
+import com.example.fitproof.data.fit.FitMetric;
+import com.example.fitproof.data.fit.GoogleFitDataSource;
+import com.example.fitproof.data.fit.LocalFitDataSource;
+import com.example.fitproof.data.fit.MetricGroups;
+import com.example.fitproof.data.store.BucketStore;
+import com.example.fitproof.data.store.FitnessDatabase;
+import com.example.fitproof.data.store.ScopedBucketStore;
+import com.example.fitproof.data.store.SqliteBucketStore;
+import com.example.fitproof.data.sync.IncrementalSync;
+import com.example.fitproof.data.sync.MinuteSync;
+import com.example.fitproof.data.sync.Prefetcher;
+import com.google.android.gms.auth.api.signin.GoogleSignIn;
+import com.google.android.gms.auth.api.signin.GoogleSignInAccount;
+import com.google.android.gms.fitness.FitnessOptions;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The one owner of the Fit clients. Screens and workers get their {@link FitnessOptions}, account
+ * and syncs from here, and every read goes through a shared {@link CoalescingDataSource}, so Home
+ * and My Proof asking for the same thing at the same time cost one round trip.
+ *
+ * <p>Nothing here touches Play Services until a screen first asks for data. The {@code benchmark}
+ * build reads from a {@link LocalFitDataSource} instead (see {@link #usesLocalData()}).
+ *
+ * <p>Everything on disk belongs to one account at a time. The first read for a different account,
+ * or an explicit {@link #claimStore}, clears it, and so does {@link #clearLocalData()} at sign-out.
+ * The syncs of each account write through their own {@link ScopedBucketStore}, which is closed
+ * before the clear is queued, so a read still in flight for the old account cannot write back.
+ */
+public final class FitnessRepository {
+
+    // Long enough to cover flipping between screens, short enough that a resumed screen is fresh.
+    static final long SHARED_RESULT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    // Shorter than the prefetch period so a missed window still catches up, long enough that
+    // back-to-back triggers (sign-in + periodic run) only hit Fit once.
+    static final long PREFETCH_MIN_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(15);
+
+    private static final String PREFS = "fitness_store";
+    private static final String KEY_OWNER = "owner_account_id";
+    // Owner after a sign-out: nobody, but anything written since must go before the next account.
+    private static final String UNOWNED = "";
+
+    private static volatile FitnessRepository instance;
+
+    public static FitnessRepository getInstance(Context context) {
+        if (instance == null) {
+            synchronized (FitnessRepository.class) {
+                if (instance == null) {
+                    instance = new FitnessRepository(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private final Context context;
+    private final BucketStore store;
+    private final Map<Set<FitMetric>, FitnessOptions> options = new HashMap<>();
+
+    private String accountId;
+    private ScopedBucketStore scope;
+    private CoalescingDataSource source;
+    private DashboardSync dashboardSync;
+    private IncrementalSync incrementalSync;
+    private MinuteSync minuteSync;
+    private Prefetcher prefetcher;
+    private boolean prefetchDashboard;
+    private boolean prefetchDays;
+    private boolean prefetchMinutes;
+
+    private FitnessRepository(Context context) {
+        this.context = context;
+        this.store = new SqliteBucketStore(FitnessDatabase.getInstance(context));
+    }
+
+    public synchronized FitnessOptions getFitnessOptions(Set<FitMetric> metrics) {
+        FitnessOptions cached = options.get(metrics);
+        if (cached == null) {
+            cached = GoogleFitDataSource.fitnessOptionsFor(metrics);
+            options.put(EnumSet.copyOf(metrics), cached);
+        }
+        return cached;
+    }
+
+    /** The account to read {@code metrics} with; an extension account if nobody has signed in. */
+    public GoogleSignInAccount getAccount(Set<FitMetric> metrics) {
+        return GoogleSignIn.getAccountForExtension(context, getFitnessOptions(metrics));
+    }
+
+    @Nullable
+    public GoogleSignInAccount getSignedInAccount() {
+        return GoogleSignIn.getLastSignedInAccount(context);
+    }
+
+    public boolean hasPermissions(Set<FitMetric> metrics) {
+        return GoogleSignIn.hasPermissions(getAccount(metrics), getFitnessOptions(metrics));
+    }
+
+    public BucketStore getBucketStore() {
+        return store;
+    }
+
+    /** True in the benchmark build: no sign-in or permissions are needed and Fit is never called. */
+    public static boolean usesLocalData() {
+        return BuildConfig.LOCAL_FIT_DATA;
+    }
+
+    public synchronized FitDataSource getDataSource() {
+        if (usesLocalData()) {
+            if (source == null) {
+                useSource(new LocalFitDataSource());
+            }
+            return source;
+        }
+        GoogleSignInAccount account = getAccount(MetricGroups.ALL);
+        if (source == null || !Objects.equals(accountId, account.getId())) {
+            accountId = account.getId();
+            // The old account's scope closes first, so none of its writes can follow the clear.
+            useSource(new GoogleFitDataSource(context, account));
+            claimStore(accountId);
+        }
+        return source;
+    }
+
+    private void useSource(FitDataSource fit) {
+        closeScope();
+        scope = new ScopedBucketStore(store);
+        source = new CoalescingDataSource(fit, SHARED_RESULT_MILLIS);
+        dashboardSync = new DashboardSync(source, scope, AppExecutors.diskIO());
+        incrementalSync = new IncrementalSync(source, scope, AppExecutors.diskIO());
+        minuteSync = new MinuteSync(source, scope, AppExecutors.diskIO());
+        prefetcher = null;
+    }
+
+    private void closeScope() {
+        if (scope != null) {
+            scope.close();
+            scope = null;
+        }
+    }
+
+    public synchronized DashboardSync getDashboardSync() {
+        getDataSource();
+        return dashboardSync;
+    }
+
+    public synchronized IncrementalSync getIncrementalSync() {
+        getDataSource();
+        return incrementalSync;
+    }
+
+    public synchronized MinuteSync getMinuteSync() {
+        getDataSource();
+        return minuteSync;
+    }
+
+    /** Prefetches whichever metric groups the user has granted; null when there is no account. */
+    @Nullable
+    public synchronized Prefetcher getPrefetcher() {
+        if (getSignedInAccount() == null) {
+            return null;
+        }
+        getDataSource();
+        boolean dashboard = hasPermissions(MetricGroups.DASHBOARD);
+        boolean days = hasPermissions(MetricGroups.PROOF);
+        boolean minutes = hasPermissions(MetricGroups.RAW);
+        if (prefetcher == null || dashboard != prefetchDashboard || days != prefetchDays
+                || minutes != prefetchMinutes) {
+            prefetchDashboard = dashboard;
+            prefetchDays = days;
+            prefetchMinutes = minutes;
+            prefetcher = new Prefetcher(dashboard ? dashboardSync : null, days ? incrementalSync : null,
+                    minutes ? minuteSync : null, scope, AppExecutors.diskIO(), System::currentTimeMillis,
+                    PREFETCH_MIN_INTERVAL_MILLIS);
+        }
+        return prefetcher;
+    }
+
+    /**
+     * Makes {@code account} the owner of what is on disk, clearing it first if it was filled for
+     * another account. Queued on the disk executor, so it lands before any read or sync started
+     * after this call.
+     */
+    public void claimStore(GoogleSignInAccount account) {
+        claimStore(account.getId());
+    }
+
+    private void claimStore(@Nullable String id) {
+        // Extension accounts carry no id; there is nobody to hand the store to yet.
+        if (id == null || usesLocalData()) return;
+        AppExecutors.diskIO().execute(() -> {
+            SharedPreferences prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+            String owner = prefs.getString(KEY_OWNER, null);
+            if (id.equals(owner)) return;
+            // Null is a store nobody has written to yet; UNOWNED was cleared at sign-out but may
+            // have been written to since, e.g. by a dashboard snapshot saved after the clear.
+            if (owner != null) {
+                clearOnDisk();
+            }
+            prefs.edit().putString(KEY_OWNER, id).apply();
+        });
+    }
+
+    /**
+     * Sign-out: drops the shared Fit results and deletes every stored bucket, synced span, watermark
+     * (prefetch and minute ingest included), streak, issued proof and dashboard snapshot, so the next
+     * account starts from nothing. Proofs waiting in the outbox are left to publish: they are already
+     * signed and publishing does not need the Fit account. Receipts of published batches are kept.
+     */
+    public Task<Void> clearLocalData() {
+        synchronized (this) {
+            closeScope();
+            source = null;
+            accountId = null;
+            prefetcher = null;
+        }
+        return Tasks.call(AppExecutors.diskIO(), () -> {
+            clearOnDisk();
+            context.getSharedPreferences(PREFS, Context.MODE_PRIVATE).edit().putString(KEY_OWNER, UNOWNED).apply();
+            return null;
+        });
+    }
+
+    private void clearOnDisk() {
+        store.clear();
+        new DashboardSnapshotStore(context).clear();
+    }
+
+    /** For an explicit "sync now": the next read of anything goes to Fit instead of the shared results. */
+    public synchronized void invalidate() {
+        if (source != null) {
+            source.invalidate();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.fitproof.data.dashboard;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.Nullable;
+
+import com.example.fitproof.data.fit.TimeBuckets;
+
+/**
+ * The last synced {@link DashboardSummary} as a handful of preference values, so a cold start can
+ * show the dashboard before the bucket store is even opened. Only valid for the day it was taken.
+ */
+public class DashboardSnapshotStore {
+
+    private static final String PREFS = "dashboard_snapshot";
+    private static final String KEY_TODAY_STEPS = "today_steps";
+    private static final String KEY_TODAY_CALORIES = "today_calories";
+    private static final String KEY_WEEKLY_AVG_STEPS = "weekly_avg_steps";
+    private static final String KEY_WEEKLY_AVG_CALORIES = "weekly_avg_calories";
+    private static final String KEY_STREAK = "streak";
+    private static final String KEY_LONGEST_STREAK = "longest_streak";
+    private static final String KEY_DAY_COUNT = "day_count";
+    private static final String KEY_LAST_SYNC = "last_sync";
+
+    private final SharedPreferences prefs;
+
+    public DashboardSnapshotStore(Context context) {
+        prefs = context.getApplicationContext().getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+
+    /** The snapshot if it was taken on the day containing {@code now}, otherwise null. */
+    @Nullable
+    public DashboardSummary load(long now) {
+        long lastSync = prefs.getLong(KEY_LAST_SYNC, 0);
+        if (lastSync == 0 || TimeBuckets.startOfDay(lastSync) != TimeBuckets.startOfDay(now)) {
+            return null;
+        }
+        return new DashboardSummary(
+                prefs.getInt(KEY_TODAY_STEPS, 0),
+                prefs.getFloat(KEY_TODAY_CALORIES, 0f),
+                prefs.getFloat(KEY_WEEKLY_AVG_STEPS, 0f),
+                prefs.getFloat(KEY_WEEKLY_AVG_CALORIES, 0f),
+                prefs.getInt(KEY_STREAK, 0),
+                prefs.getInt(KEY_LONGEST_STREAK, 0),
+                prefs.getInt(KEY_DAY_COUNT, 0),
+                lastSync);
+    }
+
+    public void save(DashboardSummary summary) {
+        prefs.edit()
+                .putInt(KEY_TODAY_STEPS, summary.getTodaySteps())
+                .putFloat(KEY_TODAY_CALORIES, summary.getTodayCalories())
+                .putFloat(KEY_WEEKLY_AVG_STEPS, summary.getWeeklyAvgSteps())
+                .putFloat(KEY_WEEKLY_AVG_CALORIES, summary.getWeeklyAvgCalories())
+                .putInt(KEY_STREAK, summary.getStreak())
+                .putInt(KEY_LONGEST_STREAK, summary.getLongestStreak())
+                .putInt(KEY_DAY_COUNT, summary.getDayCount())
+                .putLong(KEY_LAST_SYNC, summary.getLastSyncTime())
+                .apply();
+    }
+
+    public void clear() {
+        prefs.edit().clear().apply();
+    }
+}
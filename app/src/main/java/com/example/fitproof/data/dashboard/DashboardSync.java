@@ -0,0 +1,162 @@
+package com.example.fitproof.data.dashboard;
+
+import com.example.fitproof.data.fit.FitBucket;
+import com.example.fitproof.data.fit.FitDataSource;
+import com.example.fitproof.data.fit.FitMetric;
+import com.example.fitproof.data.fit.FitQuery;
+import com.example.fitproof.data.fit.MetricGroups;
+import com.example.fitproof.data.fit.TimeBuckets;
+import com.example.fitproof.data.store.BucketStore;
+import com.example.fitproof.data.sync.ChunkedRead;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+
+/**
+ * Delta sync for the 7-day dashboard. The day rows of the window stay in the {@link BucketStore};
+ * each sync only re-requests the open day and whatever came after the last successful sync, at
+ * day granularity, then rebuilds the summary from the stored days plus the delta.
+ *
+ * <p>Days that have closed since the last sync are folded into the persisted {@link StreakIndex}
+ * for each threshold, one constant-time step per day. Only the first sync, or one after the index
+ * fell behind the window, reads older step history, and only once.
+ */
+public class DashboardSync {
+
+    public static final Set<FitMetric> METRICS = MetricGroups.DASHBOARD;
+
+    static final String LAST_SYNC_KEY = "dashboard";
+    // How far back the first sync looks for a streak already in progress.
+    static final int BACKFILL_DAYS = 365;
+    // History is read at day granularity, so a chunk can cover far more days than an hourly one.
+    static final int HISTORY_DAYS_PER_CHUNK = 90;
+    private static final Set<FitMetric> HISTORY_METRICS = EnumSet.of(FitMetric.STEPS);
+
+    private final FitDataSource source;
+    private final BucketStore store;
+    private final Executor diskExecutor;
+    private final LongSupplier clock;
+
+    public DashboardSync(FitDataSource source, BucketStore store, Executor diskExecutor) {
+        this(source, store, diskExecutor, System::currentTimeMillis);
+    }
+
+    public DashboardSync(FitDataSource source, BucketStore store, Executor diskExecutor, LongSupplier clock) {
+        this.source = source;
+        this.store = store;
+        this.diskExecutor = diskExecutor;
+        this.clock = clock;
+    }
+
+    /** The summary as of the last successful sync, without any network traffic. */
+    public Task<DashboardSummary> loadCached() {
+        return Tasks.call(diskExecutor, () -> {
+            long todayStart = TimeBuckets.startOfDay(clock.getAsLong());
+            return DashboardAggregator.summarize(storedWindow(todayStart), todayStart,
+                    store.getLastSync(LAST_SYNC_KEY), store.getStreakIndex(DashboardAggregator.STREAK_STEP_THRESHOLD));
+        });
+    }
+
+    public Task<DashboardSummary> sync() {
+        long now = clock.getAsLong();
+        long todayStart = TimeBuckets.startOfDay(now);
+        long windowStart = TimeBuckets.addDays(todayStart, -(DashboardAggregator.WINDOW_DAYS - 1));
+        long windowEnd = TimeBuckets.nextDay(todayStart);
+
+        return Tasks.call(diskExecutor, () -> new long[]{
+                        deltaStart(store.getLastSync(LAST_SYNC_KEY), todayStart, windowStart),
+                        unindexedStart(todayStart, windowStart)})
+                .onSuccessTask(diskExecutor, starts -> {
+                    Task<List<FitBucket>> delta = source.readAggregates(
+                            new FitQuery(METRICS, starts[0], windowEnd, FitQuery.DAY_BUCKET));
+                    Task<List<FitBucket>> history = starts[1] < windowStart
+                            ? readHistory(starts[1], windowStart)
+                            : Tasks.forResult(Collections.<FitBucket>emptyList());
+                    return Tasks.whenAll(delta, history).continueWith(diskExecutor, all -> {
+                        if (!delta.isSuccessful()) {
+                            throw delta.getException();
+                        }
+                        store.putBuckets(FitQuery.DAY_BUCKET, METRICS, delta.getResult());
+                        store.setLastSync(LAST_SYNC_KEY, now);
+                        // Without the history on disk the missing days would be indexed as inactive,
+                        // so a failed history read leaves the index where it was until the next sync.
+                        if (history.isSuccessful()) {
+                            store.putBuckets(FitQuery.DAY_BUCKET, HISTORY_METRICS, history.getResult());
+                            advanceStreaks(starts[1], todayStart);
+                        }
+
+                        TreeMap<Long, FitBucket> days = new TreeMap<>();
+                        for (FitBucket day : storedWindow(todayStart)) {
+                            days.put(day.getStartTime(), day);
+                        }
+                        for (FitBucket day : delta.getResult()) {
+                            days.put(day.getStartTime(), day);
+                        }
+                        return DashboardAggregator.summarize(new ArrayList<>(days.values()), todayStart, now,
+                                store.getStreakIndex(DashboardAggregator.STREAK_STEP_THRESHOLD));
+                    });
+                });
+    }
+
+    /**
+     * Days before the one the last sync ran on were complete when it ran, so the delta starts at
+     * that day (or today, if that is earlier); a first sync or a stale one reads the whole window.
+     */
+    static long deltaStart(long lastSync, long todayStart, long windowStart) {
+        if (lastSync <= 0) {
+            return windowStart;
+        }
+        return Math.max(windowStart, Math.min(todayStart, TimeBuckets.startOfDay(lastSync)));
+    }
+
+    /** The first day some streak index has not folded in yet, at most {@link #BACKFILL_DAYS} before the window. */
+    private long unindexedStart(long todayStart, long windowStart) {
+        long backfillStart = TimeBuckets.addDays(windowStart, -BACKFILL_DAYS);
+        long from = todayStart;
+        for (int threshold : DashboardAggregator.STREAK_THRESHOLDS) {
+            StreakIndex index = store.getStreakIndex(threshold);
+            from = Math.min(from, index == null || index.getFinalizedThrough() == 0
+                    ? backfillStart : TimeBuckets.nextDay(index.getFinalizedThrough()));
+        }
+        return Math.max(from, backfillStart);
+    }
+
+    private Task<List<FitBucket>> readHistory(long start, long end) {
+        return ChunkedRead.read(start, end, HISTORY_DAYS_PER_CHUNK, diskExecutor, (chunkStart, chunkEnd) ->
+                source.readAggregates(new FitQuery(HISTORY_METRICS, chunkStart, chunkEnd, FitQuery.DAY_BUCKET)));
+    }
+
+    /** Folds every closed day in [from, today) into each index; days an index already has are skipped. */
+    private void advanceStreaks(long from, long todayStart) {
+        if (from >= todayStart) return;
+        List<FitBucket> rows = store.getBuckets(FitQuery.DAY_BUCKET, from, todayStart);
+        for (int threshold : DashboardAggregator.STREAK_THRESHOLDS) {
+            StreakIndex stored = store.getStreakIndex(threshold);
+            StreakIndex index = stored != null ? stored : StreakIndex.empty(threshold);
+            int row = 0;
+            for (long day = from; day < todayStart; day = TimeBuckets.nextDay(day)) {
+                while (row < rows.size() && rows.get(row).getStartTime() < day) {
+                    row++;
+                }
+                boolean hasRow = row < rows.size() && rows.get(row).getStartTime() == day;
+                index = index.finalizeDay(day, hasRow ? rows.get(row).getSteps() : 0);
+            }
+            if (index != stored) {
+                store.putStreakIndex(index);
+            }
+        }
+    }
+
+    private List<FitBucket> storedWindow(long todayStart) {
+        long windowStart = TimeBuckets.addDays(todayStart, -(DashboardAggregator.WINDOW_DAYS - 1));
+        return store.getBuckets(FitQuery.DAY_BUCKET, windowStart, TimeBuckets.nextDay(todayStart));
+    }
+}
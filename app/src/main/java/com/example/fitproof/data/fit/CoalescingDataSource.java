@@ -0,0 +1,101 @@
+package com.example.fitproof.data.fit;
+
+import com.google.android.gms.tasks.Task;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * {@link FitDataSource} that never sends the same read twice at once: a query equal to one still
+ * in flight (same data types, range and bucket size) gets the same {@link Task}, and a result that
+ * landed less than {@code maxAgeMillis} ago is handed out again without a round trip.
+ * Failed reads are forgotten so the next caller retries.
+ */
+public class CoalescingDataSource implements FitDataSource {
+
+    private static final int MAX_ENTRIES = 32;
+
+    private final FitDataSource delegate;
+    private final LongSupplier clock;
+    private final long maxAgeMillis;
+
+    private final Map<Object, Entry<?>> entries = new LinkedHashMap<Object, Entry<?>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Entry<?>> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    public CoalescingDataSource(FitDataSource delegate, long maxAgeMillis) {
+        this(delegate, maxAgeMillis, System::currentTimeMillis);
+    }
+
+    public CoalescingDataSource(FitDataSource delegate, long maxAgeMillis, LongSupplier clock) {
+        this.delegate = delegate;
+        this.maxAgeMillis = maxAgeMillis;
+        this.clock = clock;
+    }
+
+    @Override
+    public Task<List<FitBucket>> readAggregates(FitQuery query) {
+        return share(query, () -> delegate.readAggregates(query));
+    }
+
+    @Override
+    public Task<FitSeries> readMinutes(long startTime, long endTime) {
+        return share(Arrays.asList("minutes", startTime, endTime),
+                () -> delegate.readMinutes(startTime, endTime));
+    }
+
+    @Override
+    public Task<List<FitSession>> readSessions(long startTime, long endTime) {
+        return share(Arrays.asList("sessions", startTime, endTime),
+                () -> delegate.readSessions(startTime, endTime));
+    }
+
+    /** Drops finished results so the next read of every key goes to Fit; in-flight reads are still shared. */
+    public synchronized void invalidate() {
+        Iterator<Entry<?>> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().task.isComplete()) {
+                it.remove();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized <T> Task<T> share(Object key, Supplier<Task<T>> read) {
+        Entry<T> entry = (Entry<T>) entries.get(key);
+        if (entry != null && (!entry.task.isComplete()
+                || entry.task.isSuccessful() && clock.getAsLong() - entry.completedAt < maxAgeMillis)) {
+            return entry.task;
+        }
+        Entry<T> fresh = new Entry<>(read.get());
+        entries.put(key, fresh);
+        fresh.task.addOnCompleteListener(Runnable::run, task -> landed(key, fresh));
+        return fresh.task;
+    }
+
+    private synchronized void landed(Object key, Entry<?> entry) {
+        if (entry.task.isSuccessful()) {
+            entry.completedAt = clock.getAsLong();
+        } else if (entries.get(key) == entry) {
+            entries.remove(key);
+        }
+    }
+
+    private static final class Entry<T> {
+        final Task<T> task;
+        // Stamped by landed(); a result seen complete before that counts as brand new.
+        long completedAt = Long.MAX_VALUE;
+
+        Entry(Task<T> task) {
+            this.task = task;
+        }
+    }
+}
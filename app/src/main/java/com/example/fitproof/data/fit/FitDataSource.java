@@ -0,0 +1,24 @@
+package com.example.fitproof.data.fit;
+
+import com.google.android.gms.tasks.Task;
+
+import java.util.List;
+
+/**
+ * Read side of Google Fit as the app uses it. Implemented by {@link GoogleFitDataSource};
+ * tests substitute a local fake so sync logic can run without a device.
+ */
+public interface FitDataSource {
+
+    /** One round trip returning every metric in the query, one bucket per bucket interval. */
+    Task<List<FitBucket>> readAggregates(FitQuery query);
+
+    /**
+     * One round trip returning the raw {@link MetricGroups#RAW} points in [startTime, endTime),
+     * binned one row per minute (see {@link MinuteBins}).
+     */
+    Task<FitSeries> readMinutes(long startTime, long endTime);
+
+    /** One round trip returning the sessions overlapping the range. */
+    Task<List<FitSession>> readSessions(long startTime, long endTime);
+}
@@ -0,0 +1,360 @@
+package com.example.fitproof.data.fit;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.fitproof.data.AppExecutors;
+import com.example.fitproof.data.analysis.HeartRateAccumulator;
+import com.example.fitproof.data.analysis.HeartRateSummary;
+import com.example.fitproof.data.sync.Span;
+import com.google.android.gms.auth.api.signin.GoogleSignInAccount;
+import com.google.android.gms.fitness.Fitness;
+import com.google.android.gms.fitness.FitnessActivities;
+import com.google.android.gms.fitness.FitnessOptions;
+import com.google.android.gms.fitness.data.Bucket;
+import com.google.android.gms.fitness.data.DataPoint;
+import com.google.android.gms.fitness.data.DataSource;
+import com.google.android.gms.fitness.data.DataSet;
+import com.google.android.gms.fitness.data.DataType;
+import com.google.android.gms.fitness.data.Field;
+import com.google.android.gms.fitness.data.Session;
+import com.google.android.gms.fitness.request.DataReadRequest;
+import com.google.android.gms.fitness.request.SessionReadRequest;
+import com.google.android.gms.fitness.result.DataReadResponse;
+import com.google.android.gms.fitness.result.SessionReadResponse;
+import com.google.android.gms.tasks.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every read is recorded as a {@link Span}: its range, latency, rows and raw points parsed, and
+ * whether it failed.
+ */
+public class GoogleFitDataSource implements FitDataSource {
+
+    private static final String TAG = "GoogleFitDataSource";
+
+    /** Turns a response into results, filling in the span's counts along the way. */
+    private interface Parser<R, T> {
+        T parse(R response, Span.Timer span);
+    }
+
+    private final Context context;
+    private final GoogleSignInAccount account;
+    private final Executor parseExecutor;
+
+    public GoogleFitDataSource(Context context, GoogleSignInAccount account) {
+        this(context, account, AppExecutors.compute());
+    }
+
+    /** Responses are converted on {@code parseExecutor}; the Fit client would otherwise hand them over on the main thread. */
+    public GoogleFitDataSource(Context context, GoogleSignInAccount account, Executor parseExecutor) {
+        this.context = context.getApplicationContext();
+        this.account = account;
+        this.parseExecutor = parseExecutor;
+    }
+
+    @Override
+    public Task<List<FitBucket>> readAggregates(FitQuery query) {
+        DataReadRequest.Builder builder = new DataReadRequest.Builder();
+        for (FitMetric metric : query.getMetrics()) {
+            builder.aggregate(inputTypeFor(metric));
+        }
+        DataReadRequest request = builder
+                .setTimeRange(query.getStartTime(), query.getEndTime(), TimeUnit.MILLISECONDS)
+                .bucketByTime((int) query.getBucketMillis(), TimeUnit.MILLISECONDS)
+                .build();
+
+        Span.Timer span = Span.start(Span.FIT_AGGREGATES)
+                .setDetail(query.getMetrics() + " per " + query.getBucketMillis() + " ms")
+                .setRange(query.getStartTime(), query.getEndTime());
+        return traced(Fitness.getHistoryClient(context, account).readData(request), span, (response, timer) -> {
+            List<FitBucket> buckets = toSeries(response).toBuckets();
+            timer.setBuckets(buckets.size()).setPoints(countPoints(response));
+            return buckets;
+        });
+    }
+
+    @Override
+    public Task<FitSeries> readMinutes(long startTime, long endTime) {
+        DataReadRequest.Builder builder = new DataReadRequest.Builder();
+        for (FitMetric metric : MetricGroups.RAW) {
+            builder.read(mergedSourceFor(metric));
+        }
+        DataReadRequest request = builder
+                .setTimeRange(startTime, endTime, TimeUnit.MILLISECONDS)
+                .build();
+
+        Span.Timer span = Span.start(Span.FIT_MINUTES).setDetail(MetricGroups.RAW.toString())
+                .setRange(startTime, endTime);
+        return traced(Fitness.getHistoryClient(context, account).readData(request), span, (response, timer) -> {
+            FitSeries minutes = toMinutes(response, startTime, endTime);
+            timer.setBuckets(minutes.size()).setPoints(countPoints(response));
+            return minutes;
+        });
+    }
+
+    @Override
+    public Task<List<FitSession>> readSessions(long startTime, long endTime) {
+        SessionReadRequest request = new SessionReadRequest.Builder()
+                .setTimeInterval(startTime, endTime, TimeUnit.MILLISECONDS)
+                .read(DataType.TYPE_STEP_COUNT_DELTA)
+                .read(DataType.TYPE_DISTANCE_DELTA)
+                .read(DataType.TYPE_HEART_RATE_BPM)
+                .read(DataType.TYPE_SPEED)
+                .read(DataType.TYPE_ACTIVITY_SEGMENT)
+                .build();
+
+        Span.Timer span = Span.start(Span.FIT_SESSIONS).setDetail("sessions").setRange(startTime, endTime);
+        return traced(Fitness.getSessionsClient(context, account).readSession(request), span, (response, timer) -> {
+            List<FitSession> sessions = toSessions(response);
+            int points = 0;
+            for (Session session : response.getSessions()) {
+                for (DataSet dataSet : response.getDataSet(session)) {
+                    points += dataSet.getDataPoints().size();
+                }
+            }
+            timer.setBuckets(sessions.size()).setPoints(points);
+            return sessions;
+        });
+    }
+
+    /** Parses on {@code parseExecutor} and ends {@code span} with the outcome, failed reads included. */
+    private <R, T> Task<T> traced(Task<R> read, Span.Timer span, Parser<R, T> parser) {
+        return read.continueWith(parseExecutor, task -> {
+            if (!task.isSuccessful()) {
+                Exception error = task.getException() != null
+                        ? task.getException() : new CancellationException("Fit read cancelled");
+                Log.w(TAG, span.fail(error).toString());
+                throw error;
+            }
+            try {
+                T result = parser.parse(task.getResult(), span);
+                Log.d(TAG, span.end().toString());
+                return result;
+            } catch (RuntimeException e) {
+                span.fail(e);
+                throw e;
+            }
+        });
+    }
+
+    private static int countPoints(DataReadResponse response) {
+        int points = 0;
+        for (Bucket bucket : response.getBuckets()) {
+            for (DataSet dataSet : bucket.getDataSets()) {
+                points += dataSet.getDataPoints().size();
+            }
+        }
+        for (DataSet dataSet : response.getDataSets()) {
+            points += dataSet.getDataPoints().size();
+        }
+        return points;
+    }
+
+    public static DataType inputTypeFor(FitMetric metric) {
+        switch (metric) {
+            case STEPS:
+                return DataType.TYPE_STEP_COUNT_DELTA;
+            case CALORIES:
+                return DataType.TYPE_CALORIES_EXPENDED;
+            case DISTANCE:
+                return DataType.TYPE_DISTANCE_DELTA;
+            case HEART_POINTS:
+                return DataType.TYPE_HEART_POINTS;
+            case SPEED:
+                return DataType.TYPE_SPEED;
+            case HEART_RATE:
+                return DataType.TYPE_HEART_RATE_BPM;
+            case ACTIVITY:
+                return DataType.TYPE_ACTIVITY_SEGMENT;
+            default:
+                throw new IllegalArgumentException("Unknown metric " + metric);
+        }
+    }
+
+    public static DataType aggregateTypeFor(FitMetric metric) {
+        switch (metric) {
+            case STEPS:
+                return DataType.AGGREGATE_STEP_COUNT_DELTA;
+            case CALORIES:
+                return DataType.AGGREGATE_CALORIES_EXPENDED;
+            case DISTANCE:
+                return DataType.AGGREGATE_DISTANCE_DELTA;
+            case HEART_POINTS:
+                return DataType.AGGREGATE_HEART_POINTS;
+            case SPEED:
+                return DataType.AGGREGATE_SPEED_SUMMARY;
+            case HEART_RATE:
+                return DataType.AGGREGATE_HEART_RATE_SUMMARY;
+            case ACTIVITY:
+                return DataType.AGGREGATE_ACTIVITY_SUMMARY;
+            default:
+                throw new IllegalArgumentException("Unknown metric " + metric);
+        }
+    }
+
+    /**
+     * The stream Google Fit merges from every source of a raw type. Reading the type itself would
+     * return each source separately, and a phone plus a watch would count the same steps twice.
+     */
+    private static DataSource mergedSourceFor(FitMetric metric) {
+        String stream;
+        switch (metric) {
+            case STEPS:
+                stream = "estimated_steps";
+                break;
+            case DISTANCE:
+                stream = "merge_distance_delta";
+                break;
+            case SPEED:
+                stream = "merge_speed";
+                break;
+            case HEART_RATE:
+                stream = "merge_heart_rate_bpm";
+                break;
+            default:
+                throw new IllegalArgumentException("No raw stream for " + metric);
+        }
+        return new DataSource.Builder()
+                .setAppPackageName("com.google.android.gms")
+                .setDataType(inputTypeFor(metric))
+                .setType(DataSource.TYPE_DERIVED)
+                .setStreamName(stream)
+                .build();
+    }
+
+    /** Read access to the raw and aggregate types behind {@code metrics}. */
+    public static FitnessOptions fitnessOptionsFor(Set<FitMetric> metrics) {
+        FitnessOptions.Builder builder = FitnessOptions.builder();
+        for (FitMetric metric : metrics) {
+            builder.addDataType(inputTypeFor(metric), FitnessOptions.ACCESS_READ);
+            builder.addDataType(aggregateTypeFor(metric), FitnessOptions.ACCESS_READ);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Converts the response into columns in one pass. The data type of each data set is matched
+     * once, not per point, and each point is read through the one field that type carries.
+     */
+    private static FitSeries toSeries(DataReadResponse response) {
+        List<Bucket> buckets = response.getBuckets();
+        FitSeries.Builder series = new FitSeries.Builder(buckets.size());
+        for (Bucket bucket : buckets) {
+            series.add(bucket.getStartTime(TimeUnit.MILLISECONDS), bucket.getEndTime(TimeUnit.MILLISECONDS));
+            for (DataSet dataSet : bucket.getDataSets()) {
+                addDataSet(series, dataSet);
+            }
+        }
+        return series.build();
+    }
+
+    private static void addDataSet(FitSeries.Builder series, DataSet dataSet) {
+        DataType type = dataSet.getDataType();
+        List<DataPoint> points = dataSet.getDataPoints();
+        if (type.equals(DataType.AGGREGATE_STEP_COUNT_DELTA)) {
+            for (DataPoint dp : points) {
+                series.addSteps(dp.getValue(Field.FIELD_STEPS).asInt());
+            }
+        } else if (type.equals(DataType.AGGREGATE_CALORIES_EXPENDED)) {
+            for (DataPoint dp : points) {
+                series.addCalories(dp.getValue(Field.FIELD_CALORIES).asFloat());
+            }
+        } else if (type.equals(DataType.AGGREGATE_DISTANCE_DELTA)) {
+            for (DataPoint dp : points) {
+                series.addDistance(dp.getValue(Field.FIELD_DISTANCE).asFloat());
+            }
+        } else if (type.equals(DataType.AGGREGATE_HEART_POINTS)) {
+            for (DataPoint dp : points) {
+                series.addHeartPoints(dp.getValue(Field.FIELD_INTENSITY).asFloat());
+            }
+        } else if (type.equals(DataType.AGGREGATE_SPEED_SUMMARY)) {
+            for (DataPoint dp : points) {
+                series.setAverageSpeed(dp.getValue(Field.FIELD_AVERAGE).asFloat());
+            }
+        } else if (type.equals(DataType.AGGREGATE_HEART_RATE_SUMMARY)) {
+            for (DataPoint dp : points) {
+                series.setAverageHeartRate(dp.getValue(Field.FIELD_AVERAGE).asFloat());
+            }
+        } else if (type.equals(DataType.AGGREGATE_ACTIVITY_SUMMARY)) {
+            for (DataPoint dp : points) {
+                String activity = dp.getValue(Field.FIELD_ACTIVITY).asActivity();
+                series.addActivity(activity);
+                if (isActive(activity)) {
+                    series.addActiveMillis(dp.getValue(Field.FIELD_DURATION).asInt());
+                }
+            }
+        }
+    }
+
+    private static FitSeries toMinutes(DataReadResponse response, long startTime, long endTime) {
+        MinuteBins bins = new MinuteBins(startTime, endTime);
+        for (DataSet dataSet : response.getDataSets()) {
+            DataType type = dataSet.getDataType();
+            List<DataPoint> points = dataSet.getDataPoints();
+            if (type.equals(DataType.TYPE_STEP_COUNT_DELTA)) {
+                for (DataPoint dp : points) {
+                    bins.addSteps(dp.getStartTime(TimeUnit.MILLISECONDS), dp.getEndTime(TimeUnit.MILLISECONDS),
+                            dp.getValue(Field.FIELD_STEPS).asInt());
+                }
+            } else if (type.equals(DataType.TYPE_DISTANCE_DELTA)) {
+                for (DataPoint dp : points) {
+                    bins.addDistance(dp.getStartTime(TimeUnit.MILLISECONDS), dp.getEndTime(TimeUnit.MILLISECONDS),
+                            dp.getValue(Field.FIELD_DISTANCE).asFloat());
+                }
+            } else if (type.equals(DataType.TYPE_SPEED)) {
+                for (DataPoint dp : points) {
+                    bins.addSpeed(dp.getEndTime(TimeUnit.MILLISECONDS), dp.getValue(Field.FIELD_SPEED).asFloat());
+                }
+            } else if (type.equals(DataType.TYPE_HEART_RATE_BPM)) {
+                for (DataPoint dp : points) {
+                    bins.addHeartRate(dp.getEndTime(TimeUnit.MILLISECONDS), dp.getValue(Field.FIELD_BPM).asFloat());
+                }
+            }
+        }
+        return bins.build();
+    }
+
+    private static boolean isActive(String activity) {
+        return !FitnessActivities.STILL.equals(activity)
+                && !FitnessActivities.UNKNOWN.equals(activity)
+                && !activity.startsWith(FitnessActivities.SLEEP);
+    }
+
+    private static List<FitSession> toSessions(SessionReadResponse response) {
+        List<FitSession> sessions = new ArrayList<>(response.getSessions().size());
+        for (Session session : response.getSessions()) {
+            int steps = 0;
+            float distance = 0f;
+            float heartRate = 0f;
+            float speed = 0f;
+            HeartRateAccumulator heart = new HeartRateAccumulator();
+            for (DataSet dataSet : response.getDataSet(session)) {
+                DataType type = dataSet.getDataType();
+                for (DataPoint dp : dataSet.getDataPoints()) {
+                    if (type.equals(DataType.TYPE_STEP_COUNT_DELTA)) {
+                        steps += dp.getValue(Field.FIELD_STEPS).asInt();
+                    } else if (type.equals(DataType.TYPE_DISTANCE_DELTA)) {
+                        distance += dp.getValue(Field.FIELD_DISTANCE).asFloat();
+                    } else if (type.equals(DataType.TYPE_HEART_RATE_BPM)) {
+                        heartRate = dp.getValue(Field.FIELD_BPM).asFloat();
+                        heart.add(dp.getTimestamp(TimeUnit.MILLISECONDS), heartRate);
+                    } else if (type.equals(DataType.TYPE_SPEED)) {
+                        speed = dp.getValue(Field.FIELD_SPEED).asFloat();
+                    }
+                }
+            }
+            HeartRateSummary heartSummary = heart.summarize();
+            sessions.add(new FitSession(session.getName(), session.getActivity(),
+                    session.getStartTime(TimeUnit.MILLISECONDS), session.getEndTime(TimeUnit.MILLISECONDS),
+                    steps, distance, heartRate, speed, heartSummary.hasData() ? heartSummary : null));
+        }
+        return sessions;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.fitproof.data.fit;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Made-up Fit history for the {@code benchmark} build, so startup can be measured on any device
+ * without an account, permissions or network. Every read answers after {@link #ROUND_TRIP_MILLIS},
+ * about what a Fit history read takes on a warm binder, and the same bucket always gets the same
+ * numbers.
+ */
+public class LocalFitDataSource implements FitDataSource {
+
+    static final long ROUND_TRIP_MILLIS = 300;
+
+    private final ScheduledExecutorService server = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = new Thread(r, "fitproof-local-fit");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public Task<List<FitBucket>> readAggregates(FitQuery query) {
+        return answer(() -> {
+            List<FitBucket> buckets = new ArrayList<>();
+            for (long t = query.getStartTime(); t < query.getEndTime(); t = next(t, query.getBucketMillis())) {
+                long end = Math.min(next(t, query.getBucketMillis()), query.getEndTime());
+                buckets.add(bucket(t, end, query));
+            }
+            return buckets;
+        });
+    }
+
+    @Override
+    public Task<FitSeries> readMinutes(long startTime, long endTime) {
+        return answer(() -> {
+            MinuteBins bins = new MinuteBins(startTime, endTime);
+            for (long t = startTime; t < endTime; t += FitQuery.MINUTE_BUCKET) {
+                long end = Math.min(t + FitQuery.MINUTE_BUCKET, endTime);
+                int steps = new Random(t).nextInt(4) == 0 ? 80 : 0;
+                bins.addSteps(t, end, steps);
+                bins.addDistance(t, end, steps * 0.75f);
+                bins.addHeartRate(t, steps > 0 ? 105f : 68f);
+            }
+            return bins.build();
+        });
+    }
+
+    @Override
+    public Task<List<FitSession>> readSessions(long startTime, long endTime) {
+        return answer(() -> {
+            long start = TimeBuckets.startOfDay(startTime) + TimeUnit.HOURS.toMillis(7);
+            if (start < startTime || start >= endTime) {
+                return Collections.emptyList();
+            }
+            return Collections.singletonList(new FitSession("Morning run", "running",
+                    start, start + TimeUnit.MINUTES.toMillis(32), 4200, 5100f, 152f, 2.7f));
+        });
+    }
+
+    private <T> Task<T> answer(Callable<T> result) {
+        TaskCompletionSource<T> source = new TaskCompletionSource<>();
+        server.schedule(() -> {
+            try {
+                source.setResult(result.call());
+            } catch (Exception e) {
+                source.setException(e);
+            }
+        }, ROUND_TRIP_MILLIS, TimeUnit.MILLISECONDS);
+        return source.getTask();
+    }
+
+    private static long next(long time, long bucketMillis) {
+        return bucketMillis == FitQuery.DAY_BUCKET ? TimeBuckets.nextDay(time) : time + bucketMillis;
+    }
+
+    private static FitBucket bucket(long start, long end, FitQuery query) {
+        Random random = new Random(start);
+        double share = (double) (end - start) / FitQuery.DAY_BUCKET;
+        int steps = (int) ((4_000 + random.nextInt(8_000)) * share);
+        FitBucket.Builder bucket = new FitBucket.Builder(start, end);
+        for (FitMetric metric : query.getMetrics()) {
+            switch (metric) {
+                case STEPS:
+                    bucket.addSteps(steps);
+                    break;
+                case CALORIES:
+                    bucket.addCalories((float) ((1_700 + random.nextInt(600)) * share));
+                    break;
+                case DISTANCE:
+                    bucket.addDistance(steps * 0.75f);
+                    break;
+                case HEART_POINTS:
+                    bucket.addHeartPoints((float) (random.nextInt(40) * share));
+                    break;
+                case SPEED:
+                    bucket.setAverageSpeed(1.3f);
+                    break;
+                case HEART_RATE:
+                    bucket.setAverageHeartRate(82f);
+                    break;
+                case ACTIVITY:
+                    bucket.addActivity("walking").addActiveMillis((long) (steps * 0.6 * 1000));
+                    break;
+            }
+        }
+        return bucket.build();
+    }
+}
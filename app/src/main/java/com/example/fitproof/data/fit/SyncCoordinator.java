@@ -0,0 +1,62 @@
+package com.example.fitproof.data.fit;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fan-in for the parts of a {@link SyncPlan}. The listener fires exactly once, after every
+ * expected part has either succeeded or failed, regardless of the order they land in.
+ */
+public final class SyncCoordinator {
+
+    public interface Listener {
+        /** @param failures the parts that failed, keyed by part name; empty when all succeeded */
+        void onAllPartsLanded(Map<String, Exception> failures);
+    }
+
+    private final Set<String> pending;
+    private final Map<String, Exception> failures = new LinkedHashMap<>();
+    private final Listener listener;
+    private boolean finished;
+
+    public SyncCoordinator(Collection<String> parts, Listener listener) {
+        this.pending = new HashSet<>(parts);
+        this.listener = listener;
+    }
+
+    public void partSucceeded(String part) {
+        land(part, null);
+    }
+
+    public void partFailed(String part, Exception e) {
+        land(part, e);
+    }
+
+    /** Fires the listener immediately when the plan turned out to have no parts. */
+    public void startIfEmpty() {
+        land(null, null);
+    }
+
+    public synchronized boolean isFinished() {
+        return finished;
+    }
+
+    private void land(String part, Exception e) {
+        Map<String, Exception> result;
+        synchronized (this) {
+            if (finished) return;
+            if (part != null) {
+                if (!pending.remove(part)) return;
+                if (e != null) failures.put(part, e);
+            }
+            if (!pending.isEmpty()) return;
+            finished = true;
+            result = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+        }
+        listener.onAllPartsLanded(result);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.fitproof.data.fit;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The set of round trips one sync needs. Built by {@link SyncPlanner}.
+ */
+public final class SyncPlan {
+
+    public static final String PART_AGGREGATES = "aggregates";
+    public static final String PART_SESSIONS = "sessions";
+
+    private final FitQuery aggregateQuery;
+    private final boolean readSessions;
+    private final long startTime;
+    private final long endTime;
+
+    SyncPlan(@Nullable FitQuery aggregateQuery, boolean readSessions, long startTime, long endTime) {
+        this.aggregateQuery = aggregateQuery;
+        this.readSessions = readSessions;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    /** The single multi-aggregate read, or null when the plan only reads sessions. */
+    @Nullable
+    public FitQuery getAggregateQuery() {
+        return aggregateQuery;
+    }
+
+    public boolean readsSessions() {
+        return readSessions;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    /** Names of the parts a {@link SyncCoordinator} has to wait for. */
+    public List<String> getParts() {
+        List<String> parts = new ArrayList<>(2);
+        if (aggregateQuery != null) parts.add(PART_AGGREGATES);
+        if (readSessions) parts.add(PART_SESSIONS);
+        return Collections.unmodifiableList(parts);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.fitproof.data.fit;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Collects the metrics a screen wants for a range and folds them into as few round trips as
+ * the Fit APIs allow: every aggregate rides on one bucketed history read, sessions need their own.
+ */
+public final class SyncPlanner {
+
+    private final long startTime;
+    private final long endTime;
+    private final Set<FitMetric> metrics = EnumSet.noneOf(FitMetric.class);
+    private long bucketMillis = FitQuery.DAY_BUCKET;
+    private boolean sessions;
+
+    private SyncPlanner(long startTime, long endTime) {
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    public static SyncPlanner forRange(long startTime, long endTime) {
+        return new SyncPlanner(startTime, endTime);
+    }
+
+    public SyncPlanner aggregate(FitMetric... requested) {
+        for (FitMetric metric : requested) {
+            metrics.add(metric);
+        }
+        return this;
+    }
+
+    public SyncPlanner aggregate(Collection<FitMetric> requested) {
+        metrics.addAll(requested);
+        return this;
+    }
+
+    public SyncPlanner bucketBy(long bucketMillis) {
+        this.bucketMillis = bucketMillis;
+        return this;
+    }
+
+    public SyncPlanner withSessions() {
+        this.sessions = true;
+        return this;
+    }
+
+    public SyncPlan build() {
+        FitQuery query = metrics.isEmpty() ? null : new FitQuery(metrics, startTime, endTime, bucketMillis);
+        return new SyncPlan(query, sessions, startTime, endTime);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.fitproof.data.history;
+
+import androidx.annotation.Nullable;
+
+import com.example.fitproof.data.fit.FitBucket;
+
+/** One calendar day of the history list: its stored day totals, if any, and the proofs issued for it. */
+public final class HistoryDay {
+
+    private final long dayStart;
+    @Nullable private final FitBucket totals;
+    private final int proofCount;
+
+    public HistoryDay(long dayStart, @Nullable FitBucket totals, int proofCount) {
+        this.dayStart = dayStart;
+        this.totals = totals;
+        this.proofCount = proofCount;
+    }
+
+    public long getDayStart() {
+        return dayStart;
+    }
+
+    /** The day bucket on disk, or null for a day inside the history that was never synced. */
+    @Nullable
+    public FitBucket getTotals() {
+        return totals;
+    }
+
+    public int getProofCount() {
+        return proofCount;
+    }
+
+    public boolean hasData() {
+        return totals != null && (totals.getSteps() > 0 || totals.getActiveMillis() > 0);
+    }
+
+    /** Same day, same numbers; what the list diffs rows on after a refresh. */
+    public boolean sameContents(HistoryDay other) {
+        if (dayStart != other.dayStart || proofCount != other.proofCount) return false;
+        if (totals == null || other.totals == null) return totals == other.totals;
+        return totals.getSteps() == other.totals.getSteps()
+                && totals.getDistanceMeters() == other.totals.getDistanceMeters()
+                && totals.getActiveMillis() == other.totals.getActiveMillis()
+                && totals.getCalories() == other.totals.getCalories()
+                && totals.getActivities().equals(other.totals.getActivities());
+    }
+}
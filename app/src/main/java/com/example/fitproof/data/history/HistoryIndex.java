@@ -0,0 +1,67 @@
+package com.example.fitproof.data.history;
+
+import com.example.fitproof.data.fit.FitBucket;
+import com.example.fitproof.data.fit.FitQuery;
+import com.example.fitproof.data.fit.TimeBuckets;
+import com.example.fitproof.data.store.BucketStore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every calendar day from today back to the oldest day bucket on disk, addressed by position:
+ * 0 is today, 1 yesterday and so on. A page is two range queries on the store's primary key and
+ * day index, so any stretch of five years of history costs the same to load as the first week.
+ * Built and read on the disk executor.
+ */
+public final class HistoryIndex {
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final BucketStore store;
+    private final long todayStart;
+    private final int size;
+
+    public HistoryIndex(BucketStore store, long now) {
+        this.store = store;
+        this.todayStart = TimeBuckets.startOfDay(now);
+        long first = store.getFirstBucketStart(FitQuery.DAY_BUCKET);
+        // Rounding absorbs the hour DST days gain or lose.
+        this.size = first < 0 || first > todayStart
+                ? 0 : (int) Math.round((double) (todayStart - first) / DAY_MILLIS) + 1;
+    }
+
+    /** Days in the history, today included. 0 before anything has been synced. */
+    public int size() {
+        return size;
+    }
+
+    public long dayAt(int position) {
+        return TimeBuckets.addDays(todayStart, -position);
+    }
+
+    /** Days {@code from} to {@code from + count}, newest first, cut at the end of the history. */
+    public List<HistoryDay> load(int from, int count) {
+        int to = Math.min(from + count, size);
+        if (from >= to) {
+            return new ArrayList<>();
+        }
+        long oldest = dayAt(to - 1);
+        long end = TimeBuckets.nextDay(dayAt(from));
+        Map<Long, FitBucket> byDay = new HashMap<>();
+        for (FitBucket bucket : store.getBuckets(FitQuery.DAY_BUCKET, oldest, end)) {
+            byDay.put(bucket.getStartTime(), bucket);
+        }
+        Map<Long, Integer> proofs = store.getProofCounts(oldest, end);
+        List<HistoryDay> days = new ArrayList<>(to - from);
+        for (int position = from; position < to; position++) {
+            long day = dayAt(position);
+            Integer issued = proofs.get(day);
+            days.add(new HistoryDay(day, byDay.get(day), issued != null ? issued : 0));
+        }
+        return days;
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.fitproof.data.profile;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+import com.example.fitproof.R;
+import com.example.fitproof.data.AppExecutors;
+import com.google.android.gms.auth.api.signin.GoogleSignInAccount;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The signed-in user's name, email and avatar, kept on disk so the drawer header can be drawn at
+ * startup without asking Play Services who is signed in or downloading the photo again. The
+ * avatar is fetched once at sign-in, already cut to the header's size, and stored as a PNG next to
+ * the preferences. Reads and writes run on {@link AppExecutors#diskIO()}; screens observe
+ * {@link #getProfile()}, which holds null while nobody is signed in.
+ */
+public final class ProfileCache {
+
+    private static final String TAG = "ProfileCache";
+    private static final String PREFS = "profile";
+    private static final String KEY_NAME = "name";
+    private static final String KEY_EMAIL = "email";
+    private static final String AVATAR_FILE = "profile_avatar.png";
+
+    private static volatile ProfileCache instance;
+
+    public static ProfileCache getInstance(Context context) {
+        if (instance == null) {
+            synchronized (ProfileCache.class) {
+                if (instance == null) {
+                    instance = new ProfileCache(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private final Context context;
+    private final SharedPreferences prefs;
+    private final File avatarFile;
+    private final MutableLiveData<Profile> profile = new MutableLiveData<>();
+    // Bumped on logout, so a photo still downloading for the old account is dropped.
+    private final AtomicInteger generation = new AtomicInteger();
+    private boolean loaded;
+
+    private ProfileCache(Context context) {
+        this.context = context;
+        this.prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        this.avatarFile = new File(context.getFilesDir(), AVATAR_FILE);
+    }
+
+    /** The cached profile, read from disk on first use. */
+    public LiveData<Profile> getProfile() {
+        synchronized (this) {
+            if (!loaded) {
+                loaded = true;
+                AppExecutors.diskIO().execute(() -> profile.postValue(load()));
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * Caches {@code account}. Its photo is fetched at header size on Glide's own threads; only
+     * writing it waits on the disk executor, so a slow download never holds up database work.
+     */
+    public void remember(GoogleSignInAccount account) {
+        String name = account.getDisplayName();
+        String email = account.getEmail();
+        Uri photo = account.getPhotoUrl();
+        int signIn = generation.get();
+        if (photo == null) {
+            AppExecutors.diskIO().execute(() -> store(signIn, name, email, null));
+            return;
+        }
+        int size = context.getResources().getDimensionPixelSize(R.dimen.nav_header_avatar_size);
+        Glide.with(context).asBitmap().load(photo).centerCrop()
+                .listener(new RequestListener<Bitmap>() {
+                    @Override
+                    public boolean onResourceReady(@NonNull Bitmap avatar, @NonNull Object model,
+                                                   Target<Bitmap> target, @NonNull DataSource source,
+                                                   boolean isFirstResource) {
+                        AppExecutors.diskIO().execute(() -> store(signIn, name, email, avatar));
+                        return false;
+                    }
+
+                    @Override
+                    public boolean onLoadFailed(@Nullable GlideException e, @Nullable Object model,
+                                                @NonNull Target<Bitmap> target, boolean isFirstResource) {
+                        // The header falls back to the default avatar; the next sign-in tries again.
+                        Log.w(TAG, "Avatar download failed", e);
+                        AppExecutors.diskIO().execute(() -> store(signIn, name, email, null));
+                        return false;
+                    }
+                })
+                .submit(size, size);
+    }
+
+    /**
+     * {@link #remember} for an account that signed in before this cache existed; does nothing once
+     * a profile is stored, so opening the login screen never downloads the photo again.
+     */
+    public void rememberIfMissing(GoogleSignInAccount account) {
+        AppExecutors.diskIO().execute(() -> {
+            if (!hasProfile()) {
+                remember(account);
+            }
+        });
+    }
+
+    /** Forgets the profile and its avatar; called on logout. */
+    public void clear() {
+        generation.incrementAndGet();
+        AppExecutors.diskIO().execute(() -> {
+            prefs.edit().clear().apply();
+            avatarFile.delete();
+            profile.postValue(null);
+        });
+    }
+
+    private boolean hasProfile() {
+        return prefs.contains(KEY_NAME) || prefs.contains(KEY_EMAIL);
+    }
+
+    private void store(int signIn, @Nullable String name, @Nullable String email, @Nullable Bitmap avatar) {
+        if (signIn != generation.get()) {
+            return;
+        }
+        if (avatar != null) {
+            writeAvatar(avatar);
+        } else {
+            avatarFile.delete();
+        }
+        prefs.edit()
+                .putString(KEY_NAME, name)
+                .putString(KEY_EMAIL, email)
+                .apply();
+        profile.postValue(new Profile(name, email, avatar));
+    }
+
+    @Nullable
+    private Profile load() {
+        if (!hasProfile()) {
+            return null;
+        }
+        Bitmap avatar = avatarFile.exists() ? BitmapFactory.decodeFile(avatarFile.getPath()) : null;
+        return new Profile(prefs.getString(KEY_NAME, null), prefs.getString(KEY_EMAIL, null), avatar);
+    }
+
+    private void writeAvatar(Bitmap avatar) {
+        File partial = new File(avatarFile.getPath() + ".tmp");
+        try (OutputStream out = new FileOutputStream(partial)) {
+            avatar.compress(Bitmap.CompressFormat.PNG, 100, out);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not store avatar", e);
+            partial.delete();
+            return;
+        }
+        if (!partial.renameTo(avatarFile)) {
+            partial.delete();
+        }
+    }
+
+    /** What the drawer header shows for a signed-in user. */
+    public static final class Profile {
+        @Nullable private final String name;
+        @Nullable private final String email;
+        @Nullable private final Bitmap avatar;
+
+        Profile(@Nullable String name, @Nullable String email, @Nullable Bitmap avatar) {
+            this.name = name;
+            this.email = email;
+            this.avatar = avatar;
+        }
+
+        @Nullable
+        public String getName() {
+            return name;
+        }
+
+        @Nullable
+        public String getEmail() {
+            return email;
+        }
+
+        /** Already sized for the header, or null to show the default avatar. */
+        @Nullable
+        public Bitmap getAvatar() {
+            return avatar;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.fitproof.data.store;
+
+import androidx.annotation.Nullable;
+
+import com.example.fitproof.data.dashboard.StreakIndex;
+import com.example.fitproof.data.fit.FitBucket;
+import com.example.fitproof.data.fit.FitMetric;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Local time-series of Fit aggregates at minute, hour and day resolution, plus a per-metric record of
+ * which span has been synced, the streak index per step threshold and the days proofs were issued
+ * for. Implementations are called from the disk executor only.
+ */
+public interface BucketStore {
+
+    /** Told on the disk executor after a write that changes what the history shows. */
+    interface OnChangeListener {
+        void onStoreChanged();
+    }
+
+    /** Buckets of the given size whose start falls in [start, end), oldest first. */
+    List<FitBucket> getBuckets(long bucketMillis, long start, long end);
+
+    /** Upserts buckets, writing only the columns that belong to {@code metrics}. */
+    void putBuckets(long bucketMillis, Set<FitMetric> metrics, List<FitBucket> buckets);
+
+    /** Drops buckets of the given size that start before {@code before}. */
+    void deleteBuckets(long bucketMillis, long before);
+
+    /** Start of the oldest stored bucket of the given size, or -1 when there is none. */
+    long getFirstBucketStart(long bucketMillis);
+
+    @Nullable
+    SyncedRange getSyncedRange(FitMetric metric);
+
+    void setSyncedRange(FitMetric metric, SyncedRange range);
+
+    /** When the sync identified by {@code key} last succeeded, or 0 if it never did. */
+    long getLastSync(String key);
+
+    void setLastSync(String key, long time);
+
+    @Nullable
+    StreakIndex getStreakIndex(int threshold);
+
+    void putStreakIndex(StreakIndex index);
+
+    /** Records that proof {@code proofId} was issued for the day starting at {@code dayStart}. */
+    void putProof(String proofId, long dayStart, long issuedAt);
+
+    /** Proofs issued per day start, for days starting in [start, end). Days without one are absent. */
+    Map<Long, Integer> getProofCounts(long start, long end);
+
+    /** Deletes everything: buckets, synced spans, sync watermarks, streak indexes and proofs. */
+    void clear();
+
+    /** Notifies {@code listener} of day-bucket writes and deletes, proofs and {@link #clear()}. */
+    void addOnChangeListener(OnChangeListener listener);
+
+    void removeOnChangeListener(OnChangeListener listener);
+}
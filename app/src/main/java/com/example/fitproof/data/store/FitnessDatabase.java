@@ -0,0 +1,115 @@
+package com.example.fitproof.data.store;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+public class FitnessDatabase extends SQLiteOpenHelper {
+
+    private static final String DATABASE_NAME = "fitness.db";
+    private static final int DATABASE_VERSION = 6;
+
+    static final String TABLE_BUCKETS = "buckets";
+    static final String TABLE_SYNCED_RANGES = "synced_ranges";
+    static final String TABLE_SYNC_STATE = "sync_state";
+    static final String TABLE_STREAKS = "streaks";
+    static final String TABLE_PROOFS = "proofs";
+    // Every table holding one account's data.
+    static final String[] TABLES = {
+            TABLE_BUCKETS, TABLE_SYNCED_RANGES, TABLE_SYNC_STATE, TABLE_STREAKS, TABLE_PROOFS};
+
+    private static volatile FitnessDatabase instance;
+
+    public static FitnessDatabase getInstance(Context context) {
+        if (instance == null) {
+            synchronized (FitnessDatabase.class) {
+                if (instance == null) {
+                    instance = new FitnessDatabase(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private FitnessDatabase(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        // Metric columns are nullable: NULL means "never synced", which is not the same as 0.
+        db.execSQL("CREATE TABLE " + TABLE_BUCKETS + " ("
+                + "bucket_millis INTEGER NOT NULL, "
+                + "start_time INTEGER NOT NULL, "
+                + "end_time INTEGER NOT NULL, "
+                + "steps INTEGER, "
+                + "calories REAL, "
+                + "distance REAL, "
+                + "heart_points REAL, "
+                + "avg_speed REAL, "
+                + "active_millis INTEGER, "
+                + "activities TEXT, "
+                + "avg_heart_rate REAL, "
+                + "PRIMARY KEY (bucket_millis, start_time))");
+        createSyncedRanges(db);
+        createSyncState(db);
+        createStreaks(db);
+        createProofs(db);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            createSyncState(db);
+        }
+        if (oldVersion < 3) {
+            createStreaks(db);
+        }
+        if (oldVersion < 4) {
+            db.execSQL("ALTER TABLE " + TABLE_BUCKETS + " ADD COLUMN avg_heart_rate REAL");
+        }
+        if (oldVersion < 5) {
+            createProofs(db);
+        }
+        if (oldVersion < 6) {
+            // One row per metric becomes one row per synced span; existing ranges are single spans.
+            db.execSQL("ALTER TABLE " + TABLE_SYNCED_RANGES + " RENAME TO synced_ranges_v5");
+            createSyncedRanges(db);
+            db.execSQL("INSERT INTO " + TABLE_SYNCED_RANGES + " (metric, synced_from, synced_until) "
+                    + "SELECT metric, synced_from, synced_until FROM synced_ranges_v5");
+            db.execSQL("DROP TABLE synced_ranges_v5");
+        }
+    }
+
+    private static void createSyncedRanges(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_SYNCED_RANGES + " ("
+                + "metric TEXT NOT NULL, "
+                + "synced_from INTEGER NOT NULL, "
+                + "synced_until INTEGER NOT NULL, "
+                + "PRIMARY KEY (metric, synced_from))");
+    }
+
+    private static void createSyncState(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_SYNC_STATE + " ("
+                + "sync_key TEXT PRIMARY KEY, "
+                + "last_sync INTEGER NOT NULL)");
+    }
+
+    private static void createStreaks(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_STREAKS + " ("
+                + "threshold INTEGER PRIMARY KEY, "
+                + "finalized_through INTEGER NOT NULL, "
+                + "current_streak INTEGER NOT NULL, "
+                + "longest_streak INTEGER NOT NULL, "
+                + "last_active_day INTEGER NOT NULL)");
+    }
+
+    private static void createProofs(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_PROOFS + " ("
+                + "proof_id TEXT PRIMARY KEY, "
+                + "day_start INTEGER NOT NULL, "
+                + "issued_at INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX proofs_by_day ON " + TABLE_PROOFS + " (day_start)");
+    }
+}
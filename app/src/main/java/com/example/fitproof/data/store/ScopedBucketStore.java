@@ -0,0 +1,120 @@
+package com.example.fitproof.data.store;
+
+import androidx.annotation.Nullable;
+
+import com.example.fitproof.data.dashboard.StreakIndex;
+import com.example.fitproof.data.fit.FitBucket;
+import com.example.fitproof.data.fit.FitMetric;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The shared store as seen by the syncs of one account. Once {@link #close()}d, at sign-out or
+ * when another account takes over, every write through it is dropped: a read that was already in
+ * flight for the old account cannot put its buckets, spans or watermarks back after the store was
+ * cleared. Reads still go through, so a closed scope only ever sees what the store holds.
+ */
+public final class ScopedBucketStore implements BucketStore {
+
+    private final BucketStore store;
+    private volatile boolean closed;
+
+    public ScopedBucketStore(BucketStore store) {
+        this.store = store;
+    }
+
+    /** Drops every later write. Call before queuing the clear, so no write can land after it. */
+    public void close() {
+        closed = true;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public List<FitBucket> getBuckets(long bucketMillis, long start, long end) {
+        return store.getBuckets(bucketMillis, start, end);
+    }
+
+    @Override
+    public void putBuckets(long bucketMillis, Set<FitMetric> metrics, List<FitBucket> buckets) {
+        if (closed) return;
+        store.putBuckets(bucketMillis, metrics, buckets);
+    }
+
+    @Override
+    public void deleteBuckets(long bucketMillis, long before) {
+        if (closed) return;
+        store.deleteBuckets(bucketMillis, before);
+    }
+
+    @Override
+    public long getFirstBucketStart(long bucketMillis) {
+        return store.getFirstBucketStart(bucketMillis);
+    }
+
+    @Nullable
+    @Override
+    public SyncedRange getSyncedRange(FitMetric metric) {
+        return store.getSyncedRange(metric);
+    }
+
+    @Override
+    public void setSyncedRange(FitMetric metric, SyncedRange range) {
+        if (closed) return;
+        store.setSyncedRange(metric, range);
+    }
+
+    @Override
+    public long getLastSync(String key) {
+        return store.getLastSync(key);
+    }
+
+    @Override
+    public void setLastSync(String key, long time) {
+        if (closed) return;
+        store.setLastSync(key, time);
+    }
+
+    @Nullable
+    @Override
+    public StreakIndex getStreakIndex(int threshold) {
+        return store.getStreakIndex(threshold);
+    }
+
+    @Override
+    public void putStreakIndex(StreakIndex index) {
+        if (closed) return;
+        store.putStreakIndex(index);
+    }
+
+    @Override
+    public void putProof(String proofId, long dayStart, long issuedAt) {
+        if (closed) return;
+        store.putProof(proofId, dayStart, issuedAt);
+    }
+
+    @Override
+    public Map<Long, Integer> getProofCounts(long start, long end) {
+        return store.getProofCounts(start, end);
+    }
+
+    @Override
+    public void clear() {
+        if (closed) return;
+        store.clear();
+    }
+
+    @Override
+    public void addOnChangeListener(OnChangeListener listener) {
+        store.addOnChangeListener(listener);
+    }
+
+    @Override
+    public void removeOnChangeListener(OnChangeListener listener) {
+        store.removeOnChangeListener(listener);
+    }
+}
@@ -0,0 +1,311 @@
+package com.example.fitproof.data.store;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.text.TextUtils;
+
+import androidx.annotation.Nullable;
+
+import com.example.fitproof.data.dashboard.StreakIndex;
+import com.example.fitproof.data.fit.FitBucket;
+import com.example.fitproof.data.fit.FitMetric;
+import com.example.fitproof.data.fit.FitQuery;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class SqliteBucketStore implements BucketStore {
+
+    private static final String[] COLUMNS = {
+            "start_time", "end_time", "steps", "calories", "distance",
+            "heart_points", "avg_speed", "active_millis", "activities", "avg_heart_rate"
+    };
+
+    private final FitnessDatabase database;
+    private final List<OnChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    public SqliteBucketStore(FitnessDatabase database) {
+        this.database = database;
+    }
+
+    @Override
+    public List<FitBucket> getBuckets(long bucketMillis, long start, long end) {
+        List<FitBucket> buckets = new ArrayList<>();
+        try (Cursor cursor = database.getReadableDatabase().query(FitnessDatabase.TABLE_BUCKETS, COLUMNS,
+                "bucket_millis = ? AND start_time >= ? AND start_time < ?",
+                new String[]{String.valueOf(bucketMillis), String.valueOf(start), String.valueOf(end)},
+                null, null, "start_time ASC")) {
+            while (cursor.moveToNext()) {
+                FitBucket.Builder builder = new FitBucket.Builder(cursor.getLong(0), cursor.getLong(1))
+                        .addSteps(cursor.getInt(2))
+                        .addCalories(cursor.getFloat(3))
+                        .addDistance(cursor.getFloat(4))
+                        .addHeartPoints(cursor.getFloat(5))
+                        .setAverageSpeed(cursor.getFloat(6))
+                        .addActiveMillis(cursor.getLong(7))
+                        .setAverageHeartRate(cursor.getFloat(9));
+                String activities = cursor.getString(8);
+                if (!TextUtils.isEmpty(activities)) {
+                    for (String activity : activities.split(",")) {
+                        builder.addActivity(activity);
+                    }
+                }
+                buckets.add(builder.build());
+            }
+        }
+        return buckets;
+    }
+
+    @Override
+    public void putBuckets(long bucketMillis, Set<FitMetric> metrics, List<FitBucket> buckets) {
+        if (buckets.isEmpty()) return;
+
+        Map<String, Integer> columns = new LinkedHashMap<>();
+        for (FitMetric metric : metrics) {
+            for (String column : columnsFor(metric)) {
+                columns.put(column, columns.size() + 4);
+            }
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(FitnessDatabase.TABLE_BUCKETS)
+                .append(" (bucket_millis, start_time, end_time");
+        StringBuilder values = new StringBuilder("?, ?, ?");
+        StringBuilder updates = new StringBuilder("end_time = excluded.end_time");
+        for (String column : columns.keySet()) {
+            sql.append(", ").append(column);
+            values.append(", ?");
+            updates.append(", ").append(column).append(" = excluded.").append(column);
+        }
+        sql.append(") VALUES (").append(values).append(") ON CONFLICT (bucket_millis, start_time) DO UPDATE SET ")
+                .append(updates);
+
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.beginTransaction();
+        try (SQLiteStatement statement = db.compileStatement(sql.toString())) {
+            for (FitBucket bucket : buckets) {
+                statement.clearBindings();
+                statement.bindLong(1, bucketMillis);
+                statement.bindLong(2, bucket.getStartTime());
+                statement.bindLong(3, bucket.getEndTime());
+                for (Map.Entry<String, Integer> column : columns.entrySet()) {
+                    bindColumn(statement, column.getValue(), column.getKey(), bucket);
+                }
+                statement.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        if (bucketMillis == FitQuery.DAY_BUCKET) {
+            notifyChanged();
+        }
+    }
+
+    @Override
+    public void deleteBuckets(long bucketMillis, long before) {
+        int deleted = database.getWritableDatabase().delete(FitnessDatabase.TABLE_BUCKETS,
+                "bucket_millis = ? AND start_time < ?",
+                new String[]{String.valueOf(bucketMillis), String.valueOf(before)});
+        if (deleted > 0 && bucketMillis == FitQuery.DAY_BUCKET) {
+            notifyChanged();
+        }
+    }
+
+    @Override
+    public long getFirstBucketStart(long bucketMillis) {
+        // MIN over the (bucket_millis, start_time) primary key is a single index lookup.
+        try (Cursor cursor = database.getReadableDatabase().rawQuery(
+                "SELECT MIN(start_time) FROM " + FitnessDatabase.TABLE_BUCKETS + " WHERE bucket_millis = ?",
+                new String[]{String.valueOf(bucketMillis)})) {
+            return cursor.moveToFirst() && !cursor.isNull(0) ? cursor.getLong(0) : -1;
+        }
+    }
+
+    @Nullable
+    @Override
+    public SyncedRange getSyncedRange(FitMetric metric) {
+        SyncedRange range = null;
+        try (Cursor cursor = database.getReadableDatabase().query(FitnessDatabase.TABLE_SYNCED_RANGES,
+                new String[]{"synced_from", "synced_until"}, "metric = ?", new String[]{metric.name()},
+                null, null, "synced_from")) {
+            while (cursor.moveToNext()) {
+                range = range == null
+                        ? new SyncedRange(cursor.getLong(0), cursor.getLong(1))
+                        : range.extend(cursor.getLong(0), cursor.getLong(1));
+            }
+        }
+        return range;
+    }
+
+    @Override
+    public void setSyncedRange(FitMetric metric, SyncedRange range) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(FitnessDatabase.TABLE_SYNCED_RANGES, "metric = ?", new String[]{metric.name()});
+            ContentValues values = new ContentValues();
+            for (int i = 0; i < range.getSpanCount(); i++) {
+                values.put("metric", metric.name());
+                values.put("synced_from", range.getFrom(i));
+                values.put("synced_until", range.getUntil(i));
+                db.insertOrThrow(FitnessDatabase.TABLE_SYNCED_RANGES, null, values);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    @Override
+    public long getLastSync(String key) {
+        try (Cursor cursor = database.getReadableDatabase().query(FitnessDatabase.TABLE_SYNC_STATE,
+                new String[]{"last_sync"}, "sync_key = ?", new String[]{key}, null, null, null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    @Override
+    public void setLastSync(String key, long time) {
+        ContentValues values = new ContentValues();
+        values.put("sync_key", key);
+        values.put("last_sync", time);
+        database.getWritableDatabase().insertWithOnConflict(FitnessDatabase.TABLE_SYNC_STATE, null, values,
+                SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    @Nullable
+    @Override
+    public StreakIndex getStreakIndex(int threshold) {
+        try (Cursor cursor = database.getReadableDatabase().query(FitnessDatabase.TABLE_STREAKS,
+                new String[]{"finalized_through", "current_streak", "longest_streak", "last_active_day"},
+                "threshold = ?", new String[]{String.valueOf(threshold)}, null, null, null)) {
+            return cursor.moveToFirst()
+                    ? new StreakIndex(threshold, cursor.getLong(0), cursor.getInt(1), cursor.getInt(2), cursor.getLong(3))
+                    : null;
+        }
+    }
+
+    @Override
+    public void putStreakIndex(StreakIndex index) {
+        ContentValues values = new ContentValues();
+        values.put("threshold", index.getThreshold());
+        values.put("finalized_through", index.getFinalizedThrough());
+        values.put("current_streak", index.getCurrent());
+        values.put("longest_streak", index.getLongest());
+        values.put("last_active_day", index.getLastActiveDay());
+        database.getWritableDatabase().insertWithOnConflict(FitnessDatabase.TABLE_STREAKS, null, values,
+                SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    @Override
+    public void clear() {
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (String table : FitnessDatabase.TABLES) {
+                db.delete(table, null, null);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        notifyChanged();
+    }
+
+    @Override
+    public void putProof(String proofId, long dayStart, long issuedAt) {
+        ContentValues values = new ContentValues();
+        values.put("proof_id", proofId);
+        values.put("day_start", dayStart);
+        values.put("issued_at", issuedAt);
+        database.getWritableDatabase().insertWithOnConflict(FitnessDatabase.TABLE_PROOFS, null, values,
+                SQLiteDatabase.CONFLICT_REPLACE);
+        notifyChanged();
+    }
+
+    @Override
+    public void addOnChangeListener(OnChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeOnChangeListener(OnChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public Map<Long, Integer> getProofCounts(long start, long end) {
+        Map<Long, Integer> counts = new HashMap<>();
+        try (Cursor cursor = database.getReadableDatabase().rawQuery(
+                "SELECT day_start, COUNT(*) FROM " + FitnessDatabase.TABLE_PROOFS
+                        + " WHERE day_start >= ? AND day_start < ? GROUP BY day_start",
+                new String[]{String.valueOf(start), String.valueOf(end)})) {
+            while (cursor.moveToNext()) {
+                counts.put(cursor.getLong(0), cursor.getInt(1));
+            }
+        }
+        return counts;
+    }
+
+    private void notifyChanged() {
+        for (OnChangeListener listener : listeners) {
+            listener.onStoreChanged();
+        }
+    }
+
+    private static String[] columnsFor(FitMetric metric) {
+        switch (metric) {
+            case STEPS:
+                return new String[]{"steps"};
+            case CALORIES:
+                return new String[]{"calories"};
+            case DISTANCE:
+                return new String[]{"distance"};
+            case HEART_POINTS:
+                return new String[]{"heart_points"};
+            case SPEED:
+                return new String[]{"avg_speed"};
+            case HEART_RATE:
+                return new String[]{"avg_heart_rate"};
+            case ACTIVITY:
+                return new String[]{"active_millis", "activities"};
+            default:
+                throw new IllegalArgumentException("Unknown metric " + metric);
+        }
+    }
+
+    private static void bindColumn(SQLiteStatement statement, int index, String column, FitBucket bucket) {
+        switch (column) {
+            case "steps":
+                statement.bindLong(index, bucket.getSteps());
+                break;
+            case "calories":
+                statement.bindDouble(index, bucket.getCalories());
+                break;
+            case "distance":
+                statement.bindDouble(index, bucket.getDistanceMeters());
+                break;
+            case "heart_points":
+                statement.bindDouble(index, bucket.getHeartPoints());
+                break;
+            case "avg_speed":
+                statement.bindDouble(index, bucket.getAverageSpeed());
+                break;
+            case "avg_heart_rate":
+                statement.bindDouble(index, bucket.getAverageHeartRate());
+                break;
+            case "active_millis":
+                statement.bindLong(index, bucket.getActiveMillis());
+                break;
+            case "activities":
+                statement.bindString(index, TextUtils.join(",", bucket.getActivities()));
+                break;
+        }
+    }
+}
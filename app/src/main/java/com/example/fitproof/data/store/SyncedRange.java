@@ -0,0 +1,108 @@
+package com.example.fitproof.data.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The spans of time a metric has been synced for and can be served from disk: sorted, disjoint and
+ * never touching, so a day read two years back is kept as its own span instead of forcing everything
+ * in between to be fetched. Each span's {@code until} is a high-water mark: nothing before it, back
+ * to the span's {@code from}, will be fetched again.
+ */
+public final class SyncedRange {
+
+    private final long[] froms;
+    private final long[] untils;
+
+    public SyncedRange(long from, long until) {
+        this(new long[]{from}, new long[]{until});
+    }
+
+    private SyncedRange(long[] froms, long[] untils) {
+        this.froms = froms;
+        this.untils = untils;
+    }
+
+    public int getSpanCount() {
+        return froms.length;
+    }
+
+    public long getFrom(int span) {
+        return froms[span];
+    }
+
+    public long getUntil(int span) {
+        return untils[span];
+    }
+
+    /** Start of the earliest span. */
+    public long getFrom() {
+        return froms[0];
+    }
+
+    /** End of the latest span. */
+    public long getUntil() {
+        return untils[untils.length - 1];
+    }
+
+    public boolean covers(long start, long end) {
+        for (int i = 0; i < froms.length; i++) {
+            if (start >= froms[i] && end <= untils[i]) return true;
+        }
+        return false;
+    }
+
+    /** The parts of [start, end) no span covers, in order, as {@code {from, until}} pairs. */
+    public List<long[]> gaps(long start, long end) {
+        List<long[]> gaps = new ArrayList<>();
+        long cursor = start;
+        for (int i = 0; i < froms.length && cursor < end; i++) {
+            if (untils[i] <= cursor) continue;
+            if (froms[i] >= end) break;
+            if (froms[i] > cursor) {
+                gaps.add(new long[]{cursor, froms[i]});
+            }
+            cursor = untils[i];
+        }
+        if (cursor < end) {
+            gaps.add(new long[]{cursor, end});
+        }
+        return gaps;
+    }
+
+    /** Union with [start, end); spans it overlaps or touches are merged into one. */
+    public SyncedRange extend(long start, long end) {
+        long[] newFroms = new long[froms.length + 1];
+        long[] newUntils = new long[untils.length + 1];
+        int count = 0;
+        int i = 0;
+        while (i < froms.length && untils[i] < start) {
+            newFroms[count] = froms[i];
+            newUntils[count++] = untils[i++];
+        }
+        long mergedFrom = start;
+        long mergedUntil = end;
+        while (i < froms.length && froms[i] <= end) {
+            mergedFrom = Math.min(mergedFrom, froms[i]);
+            mergedUntil = Math.max(mergedUntil, untils[i++]);
+        }
+        newFroms[count] = mergedFrom;
+        newUntils[count++] = mergedUntil;
+        while (i < froms.length) {
+            newFroms[count] = froms[i];
+            newUntils[count++] = untils[i++];
+        }
+        return new SyncedRange(Arrays.copyOf(newFroms, count), Arrays.copyOf(newUntils, count));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder spans = new StringBuilder("SyncedRange{");
+        for (int i = 0; i < froms.length; i++) {
+            if (i > 0) spans.append(", ");
+            spans.append(froms[i]).append('-').append(untils[i]);
+        }
+        return spans.append('}').toString();
+    }
+}
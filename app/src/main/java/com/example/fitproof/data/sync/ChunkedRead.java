@@ -0,0 +1,179 @@
+package com.example.fitproof.data.sync;
+
+import com.example.fitproof.data.fit.TimeBuckets;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Reads a long range as day-aligned chunks with at most {@code maxInFlight} reads outstanding,
+ * then hands back the chunk results concatenated in time order. A 90-day range costs about
+ * {@code 90 / (daysPerChunk * maxInFlight)} round trips of wall time instead of one per day, and
+ * no single read asks Fit for more buckets than it answers in one response.
+ *
+ * <p>The first failed chunk fails the whole read and no further chunks are started.
+ */
+public final class ChunkedRead<T> {
+
+    /** A week of hourly buckets (168) stays well inside what one Fit history response carries. */
+    public static final int DAYS_PER_CHUNK = 7;
+    // Enough to hide round-trip latency; more just queues up behind the Fit binder.
+    public static final int MAX_IN_FLIGHT = 3;
+
+    public interface Reader<T> {
+        Task<List<T>> read(long start, long end);
+    }
+
+    private final List<long[]> chunks;
+    private final List<List<T>> results;
+    private final Reader<T> reader;
+    private final Executor executor;
+    private final TaskCompletionSource<List<T>> done = new TaskCompletionSource<>();
+
+    private int next;
+    private int landed;
+    private int inFlight;
+    private int maxObservedInFlight;
+    private boolean failed;
+
+    private ChunkedRead(List<long[]> chunks, Reader<T> reader, Executor executor) {
+        this.chunks = chunks;
+        this.reader = reader;
+        this.executor = executor;
+        this.results = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            results.add(null);
+        }
+    }
+
+    public static <T> Task<List<T>> read(long start, long end, Executor executor, Reader<T> reader) {
+        return read(start, end, DAYS_PER_CHUNK, executor, reader);
+    }
+
+    /**
+     * Reads several disjoint spans as one: each is cut into chunks of its own, and all of them
+     * share the {@link #MAX_IN_FLIGHT} limit. Results come back in the order of {@code spans}.
+     */
+    public static <T> Task<List<T>> read(List<long[]> spans, Executor executor, Reader<T> reader) {
+        List<long[]> chunks = new ArrayList<>();
+        for (long[] span : spans) {
+            chunks.addAll(chunks(span[0], span[1], DAYS_PER_CHUNK));
+        }
+        return start(chunks, MAX_IN_FLIGHT, executor, reader).done.getTask();
+    }
+
+    /** For reads coarser than hourly, where a chunk can span more days. */
+    public static <T> Task<List<T>> read(long start, long end, int daysPerChunk, Executor executor,
+                                         Reader<T> reader) {
+        return start(start, end, daysPerChunk, MAX_IN_FLIGHT, executor, reader).done.getTask();
+    }
+
+    static <T> ChunkedRead<T> start(long start, long end, int daysPerChunk, int maxInFlight,
+                                    Executor executor, Reader<T> reader) {
+        if (daysPerChunk < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("daysPerChunk and maxInFlight must be positive");
+        }
+        return start(chunks(start, end, daysPerChunk), maxInFlight, executor, reader);
+    }
+
+    private static <T> ChunkedRead<T> start(List<long[]> chunks, int maxInFlight, Executor executor,
+                                            Reader<T> reader) {
+        ChunkedRead<T> read = new ChunkedRead<>(chunks, reader, executor);
+        if (read.chunks.isEmpty()) {
+            read.done.setResult(new ArrayList<>());
+            return read;
+        }
+        for (int i = 0; i < maxInFlight; i++) {
+            read.launchNext();
+        }
+        return read;
+    }
+
+    /**
+     * [start, end) cut at local midnights every {@code daysPerChunk} days. The first and last
+     * chunk keep the caller's own edges, so a range starting mid-day is not widened.
+     */
+    static List<long[]> chunks(long start, long end, int daysPerChunk) {
+        List<long[]> chunks = new ArrayList<>();
+        long chunkStart = start;
+        while (chunkStart < end) {
+            long chunkEnd = Math.min(end, TimeBuckets.addDays(TimeBuckets.startOfDay(chunkStart), daysPerChunk));
+            chunks.add(new long[]{chunkStart, chunkEnd});
+            chunkStart = chunkEnd;
+        }
+        return chunks;
+    }
+
+    Task<List<T>> getTask() {
+        return done.getTask();
+    }
+
+    int getChunkCount() {
+        return chunks.size();
+    }
+
+    synchronized int getMaxObservedInFlight() {
+        return maxObservedInFlight;
+    }
+
+    private void launchNext() {
+        int index;
+        synchronized (this) {
+            if (failed || next == chunks.size()) return;
+            index = next++;
+            inFlight++;
+            maxObservedInFlight = Math.max(maxObservedInFlight, inFlight);
+        }
+        long[] chunk = chunks.get(index);
+        Task<List<T>> task;
+        try {
+            task = reader.read(chunk[0], chunk[1]);
+        } catch (RuntimeException e) {
+            fail(e);
+            return;
+        }
+        task.addOnCompleteListener(executor, result -> {
+            if (result.isSuccessful()) {
+                landed(index, result.getResult());
+            } else {
+                fail(result.getException());
+            }
+        });
+    }
+
+    private void landed(int index, List<T> result) {
+        List<T> all = null;
+        synchronized (this) {
+            inFlight--;
+            if (failed) return;
+            results.set(index, result);
+            if (++landed == chunks.size()) {
+                int size = 0;
+                for (List<T> part : results) {
+                    size += part.size();
+                }
+                all = new ArrayList<>(size);
+                for (List<T> part : results) {
+                    all.addAll(part);
+                }
+            }
+        }
+        if (all != null) {
+            done.setResult(all);
+        } else {
+            launchNext();
+        }
+    }
+
+    private void fail(Exception e) {
+        synchronized (this) {
+            inFlight--;
+            if (failed) return;
+            failed = true;
+        }
+        done.trySetException(e);
+    }
+}
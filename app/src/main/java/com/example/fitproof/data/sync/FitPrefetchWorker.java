@@ -0,0 +1,46 @@
+package com.example.fitproof.data.sync;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.fitproof.data.FitnessRepository;
+import com.google.android.gms.tasks.Tasks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/** Background pull of the dashboard window, yesterday/today and the raw minutes into the local store. */
+public class FitPrefetchWorker extends Worker {
+
+    private static final String TAG = "FitPrefetchWorker";
+    private static final long TIMEOUT_SECONDS = 120;
+
+    public FitPrefetchWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Prefetcher prefetcher = FitnessRepository.getInstance(getApplicationContext()).getPrefetcher();
+        if (prefetcher == null) {
+            Log.d(TAG, "Not signed in, nothing to prefetch");
+            return Result.success();
+        }
+        try {
+            boolean fetched = Tasks.await(prefetcher.prefetch(), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            Log.d(TAG, fetched ? "Prefetch complete" : "Prefetched recently, skipped");
+            return Result.success();
+        } catch (TimeoutException e) {
+            Log.e(TAG, "Prefetch timed out", e);
+            return Result.retry();
+        } catch (Exception e) {
+            Log.e(TAG, "Prefetch failed", e);
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.fitproof.data.sync;
+
+import com.example.fitproof.data.fit.FitBucket;
+import com.example.fitproof.data.fit.FitDataSource;
+import com.example.fitproof.data.fit.FitMetric;
+import com.example.fitproof.data.fit.FitQuery;
+import com.example.fitproof.data.fit.FitSeries;
+import com.example.fitproof.data.fit.TimeBuckets;
+import com.example.fitproof.data.store.BucketStore;
+import com.example.fitproof.data.store.SyncedRange;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Serves Fit aggregates from the local {@link BucketStore} and only asks Google Fit for the part
+ * of a range past each metric's high-water mark. Fetched data is stored hourly and rolled up into
+ * day rows, so any later read of a settled range never leaves the device. Only the part of the
+ * requested range that is missing is fetched, in chunks when it is long (see {@link ChunkedRead});
+ * what lands far from earlier syncs is kept as a separate span of the {@link SyncedRange}.
+ *
+ * <p>This is the only writer of hour and day rows. {@link MinuteSync} keeps minute rows for the
+ * same raw metrics but never rolls them into these, so a day reads the same wherever it is shown.
+ */
+public class IncrementalSync {
+
+    // Wearables keep uploading for a while after the fact, so the watermark stays this far
+    // behind "now" and the most recent hours are fetched again on the next sync.
+    static final long SETTLE_MILLIS = TimeUnit.HOURS.toMillis(2);
+
+    private final FitDataSource source;
+    private final BucketStore store;
+    private final Executor diskExecutor;
+    private final LongSupplier clock;
+
+    public IncrementalSync(FitDataSource source, BucketStore store, Executor diskExecutor) {
+        this(source, store, diskExecutor, System::currentTimeMillis);
+    }
+
+    public IncrementalSync(FitDataSource source, BucketStore store, Executor diskExecutor, LongSupplier clock) {
+        this.source = source;
+        this.store = store;
+        this.diskExecutor = diskExecutor;
+        this.clock = clock;
+    }
+
+    /**
+     * Buckets of {@code bucketMillis} ({@link FitQuery#HOUR_BUCKET} or {@link FitQuery#DAY_BUCKET})
+     * for [start, end), fetching only what the store does not already hold.
+     */
+    public Task<List<FitBucket>> load(Set<FitMetric> metrics, long start, long end, long bucketMillis) {
+        return Tasks.call(diskExecutor, () -> missingSpans(metrics, start, end))
+                .continueWithTask(diskExecutor, task -> {
+                    List<long[]> missing = task.getResult();
+                    if (missing.isEmpty()) {
+                        return Tasks.forResult(null);
+                    }
+                    return readHours(metrics, missing)
+                            .continueWith(diskExecutor, read -> {
+                                storeFetched(metrics, missing, read.getResult());
+                                return null;
+                            });
+                })
+                .continueWith(diskExecutor, task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
+                    return store.getBuckets(bucketMillis, start, end);
+                });
+    }
+
+    /** Like {@link #load} but never touches the network; resolves to null when the range is not settled. */
+    public Task<List<FitBucket>> loadCached(Set<FitMetric> metrics, long start, long end, long bucketMillis) {
+        return Tasks.call(diskExecutor, () -> missingSpans(metrics, start, end).isEmpty()
+                ? store.getBuckets(bucketMillis, start, end) : null);
+    }
+
+    /** Whatever the store holds for [start, end), settled or not. Never touches the network. */
+    public Task<List<FitBucket>> peek(long start, long end, long bucketMillis) {
+        return Tasks.call(diskExecutor, () -> store.getBuckets(bucketMillis, start, end));
+    }
+
+    /**
+     * The spans to fetch so every metric covers [start, end), in order and disjoint, each starting
+     * on the hour; empty if nothing is missing. What some span already covers for every metric is
+     * left out, so gaps at both ends of a synced stretch do not re-read the stretch between them.
+     */
+    List<long[]> missingSpans(Set<FitMetric> metrics, long start, long end) {
+        // The union of every metric's gaps, kept sorted and merged the way synced spans are.
+        SyncedRange missing = null;
+        for (FitMetric metric : metrics) {
+            SyncedRange range = store.getSyncedRange(metric);
+            List<long[]> gaps = range == null
+                    ? Collections.singletonList(new long[]{start, end}) : range.gaps(start, end);
+            for (long[] gap : gaps) {
+                if (gap[0] >= gap[1]) continue;
+                long from = TimeBuckets.startOfHour(gap[0]);
+                missing = missing == null ? new SyncedRange(from, gap[1]) : missing.extend(from, gap[1]);
+            }
+        }
+        List<long[]> spans = new ArrayList<>();
+        for (int i = 0; missing != null && i < missing.getSpanCount(); i++) {
+            spans.add(new long[]{missing.getFrom(i), missing.getUntil(i)});
+        }
+        return spans;
+    }
+
+    /** Hourly buckets for each span; a span longer than a week goes out as parallel weekly reads. */
+    private Task<List<FitBucket>> readHours(Set<FitMetric> metrics, List<long[]> spans) {
+        return ChunkedRead.read(spans, diskExecutor, (chunkStart, chunkEnd) ->
+                source.readAggregates(new FitQuery(metrics, chunkStart, chunkEnd, FitQuery.HOUR_BUCKET)));
+    }
+
+    private void storeFetched(Set<FitMetric> metrics, List<long[]> spans, List<FitBucket> hours) {
+        store.putBuckets(FitQuery.HOUR_BUCKET, metrics, hours);
+
+        long settledUntil = TimeBuckets.startOfHour(clock.getAsLong() - SETTLE_MILLIS);
+        for (long[] span : spans) {
+            // Every touched day is re-rolled from all of its stored hours, read back in one query.
+            long[] days = TimeBuckets.dayBoundaries(span[0], span[1]);
+            FitSeries stored = FitSeries.of(store.getBuckets(FitQuery.HOUR_BUCKET, days[0], days[days.length - 1]));
+            store.putBuckets(FitQuery.DAY_BUCKET, metrics, stored.rollup(days).toBuckets());
+
+            long settled = Math.min(span[1], settledUntil);
+            if (settled <= span[0]) continue;
+            for (FitMetric metric : metrics) {
+                SyncedRange range = store.getSyncedRange(metric);
+                store.setSyncedRange(metric, range == null
+                        ? new SyncedRange(span[0], settled)
+                        : range.extend(span[0], settled));
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.fitproof.data.sync;
+
+import com.example.fitproof.data.analysis.HeartRateAccumulator;
+import com.example.fitproof.data.analysis.HeartRateSummary;
+import com.example.fitproof.data.fit.FitBucket;
+import com.example.fitproof.data.fit.FitDataSource;
+import com.example.fitproof.data.fit.FitQuery;
+import com.example.fitproof.data.fit.FitSeries;
+import com.example.fitproof.data.fit.MetricGroups;
+import com.example.fitproof.data.fit.TimeBuckets;
+import com.example.fitproof.data.store.BucketStore;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Raw ingestion for what Fit records point by point ({@link MetricGroups#RAW}). Points are read
+ * once, binned per minute and stored at {@link FitQuery#MINUTE_BUCKET}, and the minute rows are
+ * all this class writes: the hour and day rows belong to {@link IncrementalSync}, which fills them
+ * from Fit's own aggregates and is the one record of them. {@link #query} answers a span from the
+ * stored minutes alone, rolled up on the fly to the coarsest level that still gives the span enough
+ * points; {@link #minutes} hands back the minute rows themselves and only goes to Fit for the part
+ * the ingest has not settled.
+ */
+public class MinuteSync {
+
+    static final String LAST_SYNC_KEY = "minutes";
+    // Where the stored minutes start: the first ingest, or the last one that could not pick up at the watermark.
+    static final String COVERED_FROM_KEY = "minutes_from";
+    // How far back the first ingest reads; older history only lives in IncrementalSync's rows.
+    static final int BACKFILL_DAYS = 7;
+    // Minute rows only serve intraday views and checks; IncrementalSync's hour and day rows outlive them.
+    static final int MINUTE_RETENTION_DAYS = 31;
+    // A day of minutes is at most 1440 points per type, comfortably one history response.
+    static final int DAYS_PER_CHUNK = 1;
+    // Spans up to this long are answered per minute, up to MAX_HOURLY_SPAN per hour, beyond that per day.
+    static final long MAX_MINUTE_SPAN = TimeUnit.HOURS.toMillis(6);
+    static final long MAX_HOURLY_SPAN = TimeUnit.DAYS.toMillis(3);
+
+    private final FitDataSource source;
+    private final BucketStore store;
+    private final Executor diskExecutor;
+    private final LongSupplier clock;
+
+    public MinuteSync(FitDataSource source, BucketStore store, Executor diskExecutor) {
+        this(source, store, diskExecutor, System::currentTimeMillis);
+    }
+
+    public MinuteSync(FitDataSource source, BucketStore store, Executor diskExecutor, LongSupplier clock) {
+        this.source = source;
+        this.store = store;
+        this.diskExecutor = diskExecutor;
+        this.clock = clock;
+    }
+
+    /**
+     * Reads the points that arrived since the last ingest and stores their minutes. Resolves to the
+     * new watermark: everything before it is settled and will not be read again.
+     */
+    public Task<Long> sync() {
+        long now = clock.getAsLong();
+        return Tasks.call(diskExecutor, () -> ingestStart(store.getLastSync(LAST_SYNC_KEY), now))
+                .onSuccessTask(diskExecutor, from -> readMinutes(from, now)
+                        .continueWith(diskExecutor, read -> {
+                            if (!read.isSuccessful()) {
+                                throw read.getException();
+                            }
+                            return storeMinutes(from, now, read.getResult());
+                        }));
+    }
+
+    /**
+     * Rows for [start, end) at {@link #bucketMillisFor} the span, rolled up from the stored minutes.
+     * Rolling up minutes rather than hours weighs speed and heart rate by sampled minutes: an hour
+     * with one reading does not count as much as an hour of them. Only the retained minutes are
+     * covered. Never touches the network.
+     */
+    public Task<List<FitBucket>> query(long start, long end) {
+        return Tasks.call(diskExecutor, () -> {
+            long bucketMillis = bucketMillisFor(end - start);
+            List<FitBucket> minutes = store.getBuckets(FitQuery.MINUTE_BUCKET, start, end);
+            if (bucketMillis == FitQuery.MINUTE_BUCKET) {
+                return minutes;
+            }
+            long[] boundaries = bucketMillis == FitQuery.HOUR_BUCKET
+                    ? TimeBuckets.hourBoundaries(start, end) : TimeBuckets.dayBoundaries(start, end);
+            return FitSeries.of(minutes).rollup(boundaries).toBuckets();
+        });
+    }
+
+    /** Heart-rate figures for [start, end), e.g. a day, from the stored minutes. Never touches the network. */
+    public Task<HeartRateSummary> heartRate(long start, long end) {
+        return Tasks.call(diskExecutor, () -> {
+            HeartRateAccumulator heart = new HeartRateAccumulator();
+            heart.addAll(FitSeries.of(store.getBuckets(FitQuery.MINUTE_BUCKET, start, end)));
+            return heart.summarize();
+        });
+    }
+
+    /**
+     * Minute rows for [start, end), e.g. a day to check. Whatever the ingest has settled is read
+     * from the store; the part before the stored minutes or after the watermark is read from Fit
+     * and not kept.
+     */
+    public Task<FitSeries> minutes(long start, long end) {
+        long now = clock.getAsLong();
+        return Tasks.call(diskExecutor, () -> storedSpan(now)).onSuccessTask(diskExecutor, stored -> {
+            long from = Math.max(start, stored[0]);
+            long until = Math.min(end, stored[1]);
+            if (from >= until) {
+                return source.readMinutes(start, end);
+            }
+            Task<FitSeries> before = readUnsettled(start, from);
+            Task<FitSeries> after = readUnsettled(until, end);
+            List<FitBucket> local = store.getBuckets(FitQuery.MINUTE_BUCKET, from, until);
+            return Tasks.whenAll(before, after).continueWith(diskExecutor, read -> {
+                if (!read.isSuccessful()) {
+                    throw read.getException();
+                }
+                List<FitBucket> rows = new ArrayList<>(before.getResult().toBuckets());
+                rows.addAll(local);
+                rows.addAll(after.getResult().toBuckets());
+                return FitSeries.of(rows);
+            });
+        });
+    }
+
+    /** An intraday chart gets minutes, a day or two gets hours, a week or more gets days. */
+    static long bucketMillisFor(long span) {
+        if (span <= MAX_MINUTE_SPAN) {
+            return FitQuery.MINUTE_BUCKET;
+        }
+        return span <= MAX_HOURLY_SPAN ? FitQuery.HOUR_BUCKET : FitQuery.DAY_BUCKET;
+    }
+
+    /** The watermark of the last ingest, or the start of the backfill if there was none or it is older. */
+    static long ingestStart(long watermark, long now) {
+        long backfillStart = TimeBuckets.addDays(TimeBuckets.startOfDay(now), -BACKFILL_DAYS);
+        return Math.max(watermark, backfillStart);
+    }
+
+    /** {start, end} of the minutes on disk that no later ingest will change; empty before the first. */
+    private long[] storedSpan(long now) {
+        long coveredFrom = store.getLastSync(COVERED_FROM_KEY);
+        if (coveredFrom == 0) {
+            return new long[]{0, 0};
+        }
+        long retained = TimeBuckets.addDays(TimeBuckets.startOfDay(now), -MINUTE_RETENTION_DAYS);
+        return new long[]{Math.max(coveredFrom, retained), store.getLastSync(LAST_SYNC_KEY)};
+    }
+
+    private Task<FitSeries> readUnsettled(long start, long end) {
+        return start < end ? source.readMinutes(start, end)
+                : Tasks.forResult(FitSeries.of(Collections.<FitBucket>emptyList()));
+    }
+
+    /** One read per day of the span, a few at a time, each handing back its own minute series. */
+    private Task<List<FitSeries>> readMinutes(long start, long end) {
+        return ChunkedRead.read(start, end, DAYS_PER_CHUNK, diskExecutor, (chunkStart, chunkEnd) ->
+                source.readMinutes(chunkStart, chunkEnd).onSuccessTask(diskExecutor,
+                        minutes -> Tasks.forResult(Collections.singletonList(minutes))));
+    }
+
+    private long storeMinutes(long from, long until, List<FitSeries> chunks) {
+        for (FitSeries minutes : chunks) {
+            store.putBuckets(FitQuery.MINUTE_BUCKET, MetricGroups.RAW, minutes.toBuckets());
+        }
+
+        // Late uploads land in the last couple of hours, so those are read again next time.
+        if (store.getLastSync(COVERED_FROM_KEY) == 0 || store.getLastSync(LAST_SYNC_KEY) < from) {
+            // First ingest, or one after a gap the backfill did not reach back over.
+            store.setLastSync(COVERED_FROM_KEY, from);
+        }
+        long watermark = Math.max(from, TimeBuckets.startOfHour(until - IncrementalSync.SETTLE_MILLIS));
+        store.setLastSync(LAST_SYNC_KEY, watermark);
+        store.deleteBuckets(FitQuery.MINUTE_BUCKET,
+                TimeBuckets.addDays(TimeBuckets.startOfDay(until), -MINUTE_RETENTION_DAYS));
+        return watermark;
+    }
+}
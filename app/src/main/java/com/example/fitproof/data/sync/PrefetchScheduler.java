@@ -0,0 +1,57 @@
+package com.example.fitproof.data.sync;
+
+import android.content.Context;
+
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules {@link FitPrefetchWorker}. Both entry points use unique work with KEEP, so a trigger
+ * that arrives while another is queued or running is dropped rather than stacked.
+ */
+public final class PrefetchScheduler {
+
+    static final String PERIODIC_WORK = "fit-prefetch";
+    static final String ONE_TIME_WORK = "fit-prefetch-now";
+
+    static final long PERIOD_MINUTES = 60;
+
+    private PrefetchScheduler() {
+    }
+
+    /** Idempotent: an already-scheduled periodic job keeps its place in the queue. */
+    public static void schedule(Context context) {
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                FitPrefetchWorker.class, PERIOD_MINUTES, TimeUnit.MINUTES)
+                .setConstraints(periodicConstraints())
+                .build();
+        WorkManager.getInstance(context)
+                .enqueueUniquePeriodicWork(PERIODIC_WORK, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    /** Prefetch as soon as there is a network; a request already queued or running absorbs this one. */
+    public static void requestNow(Context context) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(FitPrefetchWorker.class)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .build();
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(ONE_TIME_WORK, ExistingWorkPolicy.KEEP, request);
+    }
+
+    static Constraints periodicConstraints() {
+        return new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .setRequiresBatteryNotLow(true)
+                .setRequiresDeviceIdle(true)
+                .build();
+    }
+}
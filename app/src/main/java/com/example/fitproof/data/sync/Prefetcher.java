@@ -0,0 +1,89 @@
+package com.example.fitproof.data.sync;
+
+import androidx.annotation.Nullable;
+
+import com.example.fitproof.data.dashboard.DashboardSync;
+import com.example.fitproof.data.fit.FitQuery;
+import com.example.fitproof.data.fit.MetricGroups;
+import com.example.fitproof.data.fit.TimeBuckets;
+import com.example.fitproof.data.store.BucketStore;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+
+/**
+ * Warms the local store in the background so screens open on numbers that are already on disk:
+ * the dashboard window, the proof metrics for yesterday and today, and the raw minutes since the
+ * last ingest. Triggers that arrive while a run is in flight join it, and a run within
+ * {@code minIntervalMillis} of the last one is skipped.
+ */
+public class Prefetcher {
+
+    static final String LAST_PREFETCH_KEY = "prefetch";
+
+    @Nullable private final DashboardSync dashboard;
+    @Nullable private final IncrementalSync days;
+    @Nullable private final MinuteSync minutes;
+    private final BucketStore store;
+    private final Executor diskExecutor;
+    private final LongSupplier clock;
+    private final long minIntervalMillis;
+
+    private Task<Boolean> inFlight;
+
+    public Prefetcher(@Nullable DashboardSync dashboard, @Nullable IncrementalSync days,
+                      @Nullable MinuteSync minutes, BucketStore store, Executor diskExecutor,
+                      LongSupplier clock, long minIntervalMillis) {
+        this.dashboard = dashboard;
+        this.days = days;
+        this.minutes = minutes;
+        this.store = store;
+        this.diskExecutor = diskExecutor;
+        this.clock = clock;
+        this.minIntervalMillis = minIntervalMillis;
+    }
+
+    /** Resolves to true when this call (or the one it joined) hit the network, false when it was skipped. */
+    public synchronized Task<Boolean> prefetch() {
+        if (inFlight != null && !inFlight.isComplete()) {
+            return inFlight;
+        }
+        Task<Boolean> run = Tasks.call(diskExecutor, () -> store.getLastSync(LAST_PREFETCH_KEY))
+                .onSuccessTask(diskExecutor, lastPrefetch -> {
+                    long now = clock.getAsLong();
+                    if (lastPrefetch > 0 && now - lastPrefetch < minIntervalMillis) {
+                        return Tasks.forResult(false);
+                    }
+                    return Tasks.whenAll(startReads(now))
+                            .continueWith(diskExecutor, task -> {
+                                if (!task.isSuccessful()) {
+                                    throw task.getException();
+                                }
+                                store.setLastSync(LAST_PREFETCH_KEY, now);
+                                return true;
+                            });
+                });
+        inFlight = run;
+        return run;
+    }
+
+    private List<Task<?>> startReads(long now) {
+        List<Task<?>> reads = new ArrayList<>(3);
+        if (dashboard != null) {
+            reads.add(dashboard.sync());
+        }
+        if (days != null) {
+            long todayStart = TimeBuckets.startOfDay(now);
+            reads.add(days.load(MetricGroups.PROOF, TimeBuckets.addDays(todayStart, -1),
+                    TimeBuckets.nextDay(todayStart), FitQuery.DAY_BUCKET));
+        }
+        if (minutes != null) {
+            reads.add(minutes.sync());
+        }
+        return reads;
+    }
+}
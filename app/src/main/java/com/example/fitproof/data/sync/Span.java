@@ -0,0 +1,188 @@
+package com.example.fitproof.data.sync;
+
+import androidx.annotation.Nullable;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One Fit read or HTTP call: what was asked for, how long it took, how much came back and how it
+ * ended. Spans are recorded into a process-wide {@link SpanRing} as they finish; a
+ * {@link SyncTrace} summarises the ones that ran during its sync.
+ */
+public final class Span {
+
+    public static final String FIT_AGGREGATES = "fit.aggregates";
+    public static final String FIT_MINUTES = "fit.minutes";
+    public static final String FIT_SESSIONS = "fit.sessions";
+    public static final String HTTP = "http";
+
+    private static final SpanRing RING = new SpanRing(256);
+
+    private final String type;
+    private final String detail;
+    private final long rangeStart;
+    private final long rangeEnd;
+    private final long startedAt;
+    private final long startNanos;
+    private final long latencyNanos;
+    private final int buckets;
+    private final int points;
+    private final long bytes;
+    @Nullable private final String error;
+
+    private Span(Timer timer, long latencyNanos, @Nullable String error) {
+        this.type = timer.type;
+        this.detail = timer.detail;
+        this.rangeStart = timer.rangeStart;
+        this.rangeEnd = timer.rangeEnd;
+        this.startedAt = timer.startedAt;
+        this.startNanos = timer.startNanos;
+        this.latencyNanos = latencyNanos;
+        this.buckets = timer.buckets;
+        this.points = timer.points;
+        this.bytes = timer.bytes;
+        this.error = error;
+    }
+
+    /** Starts the clock on a call of {@code type}; nothing is recorded until it ends. */
+    public static Timer start(String type) {
+        return new Timer(type);
+    }
+
+    /** The last spans to finish, oldest first. */
+    public static List<Span> recent() {
+        return RING.snapshot();
+    }
+
+    /** How many spans have finished since the process started, including ones the ring has dropped. */
+    public static long recorded() {
+        return RING.getWritten();
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    /** The request's own description: the queried metrics, an HTTP method and path. */
+    public String getDetail() {
+        return detail;
+    }
+
+    /** The range read, or 0 for calls that have none. */
+    public long getRangeStart() {
+        return rangeStart;
+    }
+
+    public long getRangeEnd() {
+        return rangeEnd;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    /** {@link System#nanoTime()} at the start, to line spans up with a {@link SyncTrace}. */
+    long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+    }
+
+    long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    /** Rows returned: buckets, minute rows or sessions. */
+    public int getBuckets() {
+        return buckets;
+    }
+
+    /** Raw data points parsed to build those rows. */
+    public int getPoints() {
+        return points;
+    }
+
+    /** Bytes over the wire, both ways. 0 for Fit reads, which go over binder. */
+    public long getBytes() {
+        return bytes;
+    }
+
+    public boolean isFailed() {
+        return error != null;
+    }
+
+    @Nullable
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%s %s %d ms, %d rows, %d points, %d B%s", type, detail,
+                getLatencyMillis(), buckets, points, bytes, error != null ? ", failed: " + error : "");
+    }
+
+    /** A call in flight. Counts can be filled in as the response is parsed. */
+    public static final class Timer {
+        private final String type;
+        private final long startedAt = System.currentTimeMillis();
+        private final long startNanos = System.nanoTime();
+        private String detail = "";
+        private long rangeStart;
+        private long rangeEnd;
+        private int buckets;
+        private int points;
+        private long bytes;
+
+        private Timer(String type) {
+            this.type = type;
+        }
+
+        public Timer setDetail(String detail) {
+            this.detail = detail;
+            return this;
+        }
+
+        public Timer setRange(long start, long end) {
+            this.rangeStart = start;
+            this.rangeEnd = end;
+            return this;
+        }
+
+        public Timer setBuckets(int buckets) {
+            this.buckets = buckets;
+            return this;
+        }
+
+        public Timer setPoints(int points) {
+            this.points = points;
+            return this;
+        }
+
+        public Timer setBytes(long bytes) {
+            this.bytes = bytes;
+            return this;
+        }
+
+        /** Stops the clock and records the span as a success. */
+        public Span end() {
+            return record(null);
+        }
+
+        /** Stops the clock and records the span as failed with {@code error}. */
+        public Span fail(Throwable error) {
+            return record(error.getClass().getSimpleName() + (error.getMessage() != null ? ": "
+                    + error.getMessage() : ""));
+        }
+
+        private Span record(@Nullable String error) {
+            Span span = new Span(this, System.nanoTime() - startNanos, error);
+            RING.record(span);
+            return span;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.fitproof.data.sync;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The last {@code capacity} spans, written without locks: a writer claims a sequence number and
+ * stores into the slot it maps to, overwriting whatever was there. Recording costs one atomic
+ * increment and one store, so the Fit callbacks and OkHttp threads never wait on each other or on
+ * the debug screen reading.
+ */
+public final class SpanRing {
+
+    private final AtomicReferenceArray<Slot> slots;
+    private final int mask;
+    private final AtomicLong written = new AtomicLong();
+
+    /** {@code capacity} must be a power of two. */
+    public SpanRing(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two");
+        }
+        slots = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+    }
+
+    public void record(Span span) {
+        long sequence = written.getAndIncrement();
+        slots.set((int) (sequence & mask), new Slot(sequence, span));
+    }
+
+    /**
+     * The newest spans, oldest first. A slot a writer has claimed but not yet filled, or has
+     * already lapped, is left out rather than waited for.
+     */
+    public List<Span> snapshot() {
+        long end = written.get();
+        long start = Math.max(0, end - slots.length());
+        List<Span> spans = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            Slot slot = slots.get((int) (sequence & mask));
+            if (slot != null && slot.sequence == sequence) {
+                spans.add(slot.span);
+            }
+        }
+        return spans;
+    }
+
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    /** Spans recorded so far, including those already overwritten. */
+    public long getWritten() {
+        return written.get();
+    }
+
+    private static final class Slot {
+        final long sequence;
+        final Span span;
+
+        Slot(long sequence, Span span) {
+            this.sequence = sequence;
+            this.span = span;
+        }
+    }
+}
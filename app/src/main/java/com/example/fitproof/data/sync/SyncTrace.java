@@ -0,0 +1,159 @@
+package com.example.fitproof.data.sync;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wall time and main-thread time of one sync, from the tap (or screen open) that started it to the
+ * render that showed its result. Only work wrapped in {@link #onMain} counts as main-thread time.
+ * The last few finished traces are kept for the log and for debugging screens.
+ *
+ * <p>On finishing, a trace also collects the {@link Span}s that started while it ran, so each sync
+ * says which of its reads was slow. Syncs that overlap in time share the spans they overlap on.
+ */
+public final class SyncTrace {
+
+    private static final int KEEP = 32;
+    private static final Deque<SyncTrace> RECENT = new ArrayDeque<>(KEEP);
+
+    private final String name;
+    private final long startedAt;
+    private final long startNanos;
+    private long mainThreadNanos;
+    private long wallNanos = -1;
+    private List<Span> spans = Collections.emptyList();
+
+    private SyncTrace(String name) {
+        this.name = name;
+        this.startedAt = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+    }
+
+    public static SyncTrace begin(String name) {
+        return new SyncTrace(name);
+    }
+
+    /** Runs {@code work} and charges its duration to this sync, unless the sync already finished. */
+    public void onMain(Runnable work) {
+        long start = System.nanoTime();
+        try {
+            work.run();
+        } finally {
+            long spent = System.nanoTime() - start;
+            synchronized (this) {
+                if (wallNanos < 0) {
+                    mainThreadNanos += spent;
+                }
+            }
+        }
+    }
+
+    /** Stops the clock. Later calls, and later {@link #onMain} time, are ignored. */
+    public void finish() {
+        synchronized (this) {
+            if (wallNanos >= 0) return;
+            wallNanos = System.nanoTime() - startNanos;
+        }
+        List<Span> during = new ArrayList<>();
+        for (Span span : Span.recent()) {
+            if (span.getStartNanos() - startNanos >= 0 && span.getStartNanos() - startNanos <= wallNanos) {
+                during.add(span);
+            }
+        }
+        synchronized (this) {
+            spans = Collections.unmodifiableList(during);
+        }
+        synchronized (RECENT) {
+            if (RECENT.size() == KEEP) {
+                RECENT.removeFirst();
+            }
+            RECENT.addLast(this);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public synchronized long getMainThreadNanos() {
+        return mainThreadNanos;
+    }
+
+    /** Wall time of a finished sync, or -1 while it is still running. */
+    public synchronized long getWallMillis() {
+        return wallNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(wallNanos);
+    }
+
+    /** The calls that started during this sync, oldest first; empty until it finishes. */
+    public synchronized List<Span> getSpans() {
+        return spans;
+    }
+
+    /** The call that took longest, or null if the sync made none. */
+    @Nullable
+    public synchronized Span getSlowest() {
+        Span slowest = null;
+        for (Span span : spans) {
+            if (slowest == null || span.getLatencyNanos() > slowest.getLatencyNanos()) {
+                slowest = span;
+            }
+        }
+        return slowest;
+    }
+
+    /**
+     * One line per call type: how many, how many failed, total and slowest latency, rows, points
+     * and bytes. For the debug screen and its export.
+     */
+    public synchronized String summarize() {
+        Map<String, long[]> byType = new LinkedHashMap<>();
+        for (Span span : spans) {
+            long[] totals = byType.get(span.getType());
+            if (totals == null) {
+                totals = new long[6];
+                byType.put(span.getType(), totals);
+            }
+            totals[0]++;
+            if (span.isFailed()) totals[1]++;
+            totals[2] += span.getLatencyMillis();
+            totals[3] = Math.max(totals[3], span.getLatencyMillis());
+            totals[4] += span.getPoints();
+            totals[5] += span.getBytes();
+        }
+        StringBuilder summary = new StringBuilder(toString());
+        for (Map.Entry<String, long[]> entry : byType.entrySet()) {
+            long[] t = entry.getValue();
+            summary.append(String.format(Locale.US, "%n  %s x%d (%d failed): %d ms total, %d ms max, %d points, %d B",
+                    entry.getKey(), t[0], t[1], t[2], t[3], t[4], t[5]));
+        }
+        return summary.toString();
+    }
+
+    /** Finished traces, oldest first. */
+    public static List<SyncTrace> recent() {
+        synchronized (RECENT) {
+            return new ArrayList<>(RECENT);
+        }
+    }
+
+    @Override
+    public String toString() {
+        Span slowest = getSlowest();
+        return String.format(Locale.US, "%s: %d ms wall, %.2f ms on main thread, %d calls%s",
+                name, getWallMillis(), getMainThreadNanos() / 1e6, getSpans().size(),
+                slowest != null ? ", slowest " + slowest.getType() + " " + slowest.getLatencyMillis() + " ms" : "");
+    }
+}
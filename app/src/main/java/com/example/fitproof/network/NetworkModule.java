@@ -0,0 +1,97 @@
+package com.example.fitproof.network;
+
+import android.content.Context;
+
+import androidx.annotation.Nullable;
+
+import com.example.fitproof.BuildConfig;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.logging.HttpLoggingInterceptor;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * The app's one {@link OkHttpClient}: a shared connection pool, an on-disk response cache, and
+ * {@link NetworkStats} on every call. Logging follows the build type ({@code HTTP_LOG_LEVEL} in
+ * build.gradle) and never prints the Authorization header. Retrofit services are created once
+ * per base URL and reused.
+ */
+public final class NetworkModule {
+
+    static final String CACHE_DIRECTORY = "http";
+    static final long CACHE_BYTES = 10L * 1024 * 1024;
+    static final int MAX_IDLE_CONNECTIONS = 5;
+    static final long KEEP_ALIVE_MINUTES = 5;
+    static final long TIMEOUT_SECONDS = 30;
+
+    private static volatile NetworkModule instance;
+
+    private final OkHttpClient client;
+    private final NetworkStats stats = new NetworkStats();
+    private final Map<String, Object> services = new HashMap<>();
+
+    public static NetworkModule getInstance(Context context) {
+        if (instance == null) {
+            synchronized (NetworkModule.class) {
+                if (instance == null) {
+                    instance = new NetworkModule(
+                            new File(context.getApplicationContext().getCacheDir(), CACHE_DIRECTORY),
+                            HttpLoggingInterceptor.Level.valueOf(BuildConfig.HTTP_LOG_LEVEL));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** {@code cacheDir} may be null to run without a response cache. */
+    NetworkModule(@Nullable File cacheDir, HttpLoggingInterceptor.Level logLevel) {
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .connectTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .readTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .writeTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .eventListenerFactory(stats);
+        if (cacheDir != null) {
+            builder.cache(new Cache(cacheDir, CACHE_BYTES));
+        }
+        if (logLevel != HttpLoggingInterceptor.Level.NONE) {
+            HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
+            logging.setLevel(logLevel);
+            logging.redactHeader("Authorization");
+            builder.addInterceptor(logging);
+        }
+        client = builder.build();
+    }
+
+    public OkHttpClient getClient() {
+        return client;
+    }
+
+    public NetworkStats getStats() {
+        return stats;
+    }
+
+    /** A Retrofit {@code type} against {@code baseUrl}, with Gson bodies, built on first use. */
+    public synchronized <T> T getService(Class<T> type, String baseUrl) {
+        String key = type.getName() + ' ' + baseUrl;
+        Object service = services.get(key);
+        if (service == null) {
+            service = new Retrofit.Builder()
+                    .baseUrl(baseUrl)
+                    .client(client)
+                    .addConverterFactory(GsonConverterFactory.create())
+                    .build()
+                    .create(type);
+            services.put(key, service);
+        }
+        return type.cast(service);
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.fitproof.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.fitproof.data.sync.Span;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Response;
+
+/**
+ * Latency and byte counts for every call made through the shared client, fed by OkHttp's
+ * {@link EventListener} hooks. Keeps running totals plus the last {@link #RECENT_SIZE} requests
+ * for the debug screen. Byte counts are bodies only, as they went over the wire. Each call is also
+ * recorded as a {@link Span}, next to the Fit reads.
+ */
+public class NetworkStats implements EventListener.Factory {
+
+    static final int RECENT_SIZE = 64;
+
+    private final ArrayDeque<Sample> recent = new ArrayDeque<>(RECENT_SIZE);
+    private long requests;
+    private long failures;
+    private long cacheHits;
+    private long connectionsOpened;
+    private long bytesSent;
+    private long bytesReceived;
+    private long latencyNanos;
+
+    @NonNull
+    @Override
+    public EventListener create(@NonNull Call call) {
+        return new CallListener();
+    }
+
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(requests, failures, cacheHits, connectionsOpened, bytesSent, bytesReceived,
+                latencyNanos, new ArrayList<>(recent));
+    }
+
+    public synchronized void reset() {
+        recent.clear();
+        requests = failures = cacheHits = connectionsOpened = bytesSent = bytesReceived = latencyNanos = 0;
+    }
+
+    private synchronized void record(Sample sample) {
+        requests++;
+        if (sample.failed) failures++;
+        if (sample.cacheHit) cacheHits++;
+        if (sample.newConnection) connectionsOpened++;
+        bytesSent += sample.bytesSent;
+        bytesReceived += sample.bytesReceived;
+        latencyNanos += sample.latencyNanos;
+        if (recent.size() == RECENT_SIZE) {
+            recent.removeFirst();
+        }
+        recent.addLast(sample);
+    }
+
+    /** One listener per call; OkHttp calls it from whichever thread runs that call. */
+    private final class CallListener extends EventListener {
+
+        private long startNanos;
+        private Span.Timer span;
+        private String method = "";
+        private String path = "";
+        private int code = -1;
+        private boolean cacheHit;
+        private boolean newConnection;
+        private long sent;
+        private long received;
+
+        @Override
+        public void callStart(@NonNull Call call) {
+            startNanos = System.nanoTime();
+            span = Span.start(Span.HTTP);
+            method = call.request().method();
+            path = call.request().url().encodedPath();
+        }
+
+        @Override
+        public void connectStart(@NonNull Call call, @NonNull InetSocketAddress address, @NonNull Proxy proxy) {
+            newConnection = true;
+        }
+
+        @Override
+        public void requestBodyEnd(@NonNull Call call, long byteCount) {
+            sent += byteCount;
+        }
+
+        @Override
+        public void responseHeadersEnd(@NonNull Call call, @NonNull Response response) {
+            code = response.code();
+        }
+
+        @Override
+        public void responseBodyEnd(@NonNull Call call, long byteCount) {
+            received += byteCount;
+        }
+
+        @Override
+        public void cacheHit(@NonNull Call call, @NonNull Response response) {
+            cacheHit = true;
+            code = response.code();
+        }
+
+        @Override
+        public void callEnd(@NonNull Call call) {
+            finish(null);
+        }
+
+        @Override
+        public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+            finish(ioe);
+        }
+
+        private void finish(@Nullable IOException failure) {
+            record(new Sample(method, path, code, System.nanoTime() - startNanos, sent, received,
+                    cacheHit, newConnection, failure != null));
+            span.setDetail(method + " " + path + " " + code).setBytes(sent + received);
+            if (failure != null) {
+                span.fail(failure);
+            } else {
+                span.end();
+            }
+        }
+    }
+
+    /** One finished call. */
+    public static final class Sample {
+
+        private final String method;
+        private final String path;
+        private final int code;
+        private final long latencyNanos;
+        private final long bytesSent;
+        private final long bytesReceived;
+        private final boolean cacheHit;
+        private final boolean newConnection;
+        private final boolean failed;
+
+        Sample(String method, String path, int code, long latencyNanos, long bytesSent, long bytesReceived,
+               boolean cacheHit, boolean newConnection, boolean failed) {
+            this.method = method;
+            this.path = path;
+            this.code = code;
+            this.latencyNanos = latencyNanos;
+            this.bytesSent = bytesSent;
+            this.bytesReceived = bytesReceived;
+            this.cacheHit = cacheHit;
+            this.newConnection = newConnection;
+            this.failed = failed;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        /** HTTP status, or -1 if no response arrived. */
+        public int getCode() {
+            return code;
+        }
+
+        public long getLatencyMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+        }
+
+        public long getBytesSent() {
+            return bytesSent;
+        }
+
+        public long getBytesReceived() {
+            return bytesReceived;
+        }
+
+        public boolean isCacheHit() {
+            return cacheHit;
+        }
+
+        /** True if this call had to open a connection instead of reusing a pooled one. */
+        public boolean isNewConnection() {
+            return newConnection;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s %s %d %dms %dB/%dB%s%s", method, path, code,
+                    getLatencyMillis(), bytesSent, bytesReceived,
+                    cacheHit ? " cached" : "", newConnection ? " new-conn" : "");
+        }
+    }
+
+    /** Totals at one point in time, plus the most recent calls oldest first. */
+    public static final class Snapshot {
+
+        private final long requests;
+        private final long failures;
+        private final long cacheHits;
+        private final long connectionsOpened;
+        private final long bytesSent;
+        private final long bytesReceived;
+        private final long latencyNanos;
+        private final List<Sample> recent;
+
+        Snapshot(long requests, long failures, long cacheHits, long connectionsOpened, long bytesSent,
+                 long bytesReceived, long latencyNanos, List<Sample> recent) {
+            this.requests = requests;
+            this.failures = failures;
+            this.cacheHits = cacheHits;
+            this.connectionsOpened = connectionsOpened;
+            this.bytesSent = bytesSent;
+            this.bytesReceived = bytesReceived;
+            this.latencyNanos = latencyNanos;
+            this.recent = recent;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public long getCacheHits() {
+            return cacheHits;
+        }
+
+        public long getConnectionsOpened() {
+            return connectionsOpened;
+        }
+
+        public long getBytesSent() {
+            return bytesSent;
+        }
+
+        public long getBytesReceived() {
+            return bytesReceived;
+        }
+
+        public double getAverageLatencyMillis() {
+            return requests == 0 ? 0 : latencyNanos / 1e6 / requests;
+        }
+
+        public List<Sample> getRecent() {
+            return recent;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "%d requests (%d failed, %d cached), %d connections, %d B sent, %d B received, avg %.1f ms",
+                    requests, failures, cacheHits, connectionsOpened, bytesSent, bytesReceived,
+                    getAverageLatencyMillis());
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.fitproof.publish;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import retrofit2.Response;
+
+/**
+ * Drains a {@link ProofOutbox} into GitHub gists, many proofs per gist. Network errors and 5xx
+ * responses are retried with jittered exponential backoff; rate limits are honoured both when
+ * GitHub reports the quota as spent and when it rejects a request with 403/429. A wait longer
+ * than {@link #MAX_WAIT_MILLIS} ends the drain, leaving the rest of the outbox for a later run.
+ */
+public class GistPublisher {
+
+    static final int MAX_FILES_PER_GIST = 100;
+    // Gist contents past 1 MB are truncated by the API; stay well clear of it.
+    static final long MAX_BYTES_PER_GIST = 512 * 1024;
+    static final int MAX_ATTEMPTS = 5;
+    static final long INITIAL_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    static final long MAX_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    static final long MAX_WAIT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    // GitHub asks for at least a minute when a secondary limit gives no Retry-After.
+    static final long SECONDARY_LIMIT_WAIT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /** Blocks the draining thread; swapped out in tests. */
+    interface Sleeper {
+        void sleep(long millis) throws InterruptedException;
+    }
+
+    private final GitHubService service;
+    private final String authorization;
+    private final ProofOutbox outbox;
+    private final int maxFiles;
+    private final long maxBytes;
+    private final LongSupplier clock;
+    private final Sleeper sleeper;
+
+    // Epoch millis before which no request is sent, from the last rate limit headers seen.
+    private long rateLimitedUntil;
+
+    public GistPublisher(GitHubService service, String token, ProofOutbox outbox) {
+        this(service, token, outbox, MAX_FILES_PER_GIST, MAX_BYTES_PER_GIST,
+                System::currentTimeMillis, Thread::sleep);
+    }
+
+    GistPublisher(GitHubService service, String token, ProofOutbox outbox, int maxFiles, long maxBytes,
+                  LongSupplier clock, Sleeper sleeper) {
+        this.service = service;
+        this.authorization = "token " + token;
+        this.outbox = outbox;
+        this.maxFiles = maxFiles;
+        this.maxBytes = maxBytes;
+        this.clock = clock;
+        this.sleeper = sleeper;
+    }
+
+    /** Publishes until the outbox is empty, a wait is too long, or GitHub rejects a batch outright. */
+    @WorkerThread
+    public synchronized DrainResult drain() throws IOException, InterruptedException {
+        DrainResult result = new DrainResult();
+        while (true) {
+            List<ProofOutbox.Entry> batch = outbox.peek(maxFiles, maxBytes);
+            if (batch.isEmpty()) {
+                return result;
+            }
+            Map<String, Object> body = gistBody(batch);
+            int attempt = 0;
+            while (true) {
+                long wait = rateLimitedUntil - clock.getAsLong();
+                if (wait > MAX_WAIT_MILLIS) {
+                    return result.deferUntil(rateLimitedUntil);
+                } else if (wait > 0) {
+                    sleeper.sleep(wait);
+                }
+
+                attempt++;
+                result.requests++;
+                Response<JsonObject> response;
+                try {
+                    response = service.createGist(authorization, GitHubService.ACCEPT, body).execute();
+                } catch (IOException e) {
+                    if (attempt == MAX_ATTEMPTS) {
+                        return result.deferUntil(clock.getAsLong() + backoffMillis(attempt)).fail(e.toString());
+                    }
+                    sleeper.sleep(backoffMillis(attempt));
+                    continue;
+                }
+
+                readRateLimit(response);
+                if (response.isSuccessful()) {
+                    outbox.remove(batch);
+                    result.published += batch.size();
+                    JsonObject gist = response.body();
+                    if (gist != null && gist.has("html_url")) {
+                        result.gistUrls.add(gist.get("html_url").getAsString());
+                    }
+                    break;
+                }
+
+                int code = response.code();
+                if (code == 429 || (code == 403 && isRateLimited(response))) {
+                    rateLimitedUntil = Math.max(rateLimitedUntil, retryAt(response));
+                } else if (code >= 500 || code == 408) {
+                    if (attempt < MAX_ATTEMPTS) {
+                        sleeper.sleep(backoffMillis(attempt));
+                    }
+                } else {
+                    // 401, 404, 422...: sending the same batch again will not help.
+                    return result.fail("HTTP " + code + ": " + errorBody(response));
+                }
+                if (attempt == MAX_ATTEMPTS) {
+                    return result.deferUntil(Math.max(rateLimitedUntil, clock.getAsLong() + backoffMillis(attempt)))
+                            .fail("HTTP " + code + " after " + attempt + " attempts");
+                }
+            }
+        }
+    }
+
+    private static Map<String, Object> gistBody(List<ProofOutbox.Entry> batch) {
+        Map<String, Object> files = new HashMap<>();
+        for (ProofOutbox.Entry entry : batch) {
+            Map<String, Object> file = new HashMap<>();
+            file.put("content", new String(entry.getContent(), StandardCharsets.UTF_8));
+            files.put(entry.getName(), file);
+        }
+        String date = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault()).format(new Date());
+        Map<String, Object> gist = new HashMap<>();
+        gist.put("description", batch.size() == 1
+                ? "Workout Proof - " + date
+                : "Workout Proofs - " + date + " (" + batch.size() + ")");
+        gist.put("public", true);
+        gist.put("files", files);
+        return gist;
+    }
+
+    /** Half the capped exponential delay, plus up to as much again at random. */
+    static long backoffMillis(int attempt) {
+        long delay = Math.min(MAX_BACKOFF_MILLIS, INITIAL_BACKOFF_MILLIS << Math.min(attempt - 1, 20));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private void readRateLimit(Response<?> response) {
+        if ("0".equals(response.headers().get("X-RateLimit-Remaining"))) {
+            long reset = resetMillis(response);
+            if (reset > 0) {
+                rateLimitedUntil = Math.max(rateLimitedUntil, reset);
+            }
+        }
+    }
+
+    private static boolean isRateLimited(Response<?> response) {
+        return response.headers().get("Retry-After") != null
+                || "0".equals(response.headers().get("X-RateLimit-Remaining"));
+    }
+
+    private long retryAt(Response<?> response) {
+        String retryAfter = response.headers().get("Retry-After");
+        if (retryAfter != null) {
+            try {
+                return clock.getAsLong() + TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+            } catch (NumberFormatException ignored) {
+                // An HTTP date; fall through to the reset header or the default.
+            }
+        }
+        long reset = resetMillis(response);
+        return reset > 0 ? reset : clock.getAsLong() + SECONDARY_LIMIT_WAIT_MILLIS;
+    }
+
+    private static long resetMillis(Response<?> response) {
+        String reset = response.headers().get("X-RateLimit-Reset");
+        if (reset == null) return 0;
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(reset.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String errorBody(Response<?> response) {
+        try {
+            return response.errorBody() != null ? response.errorBody().string() : response.message();
+        } catch (IOException e) {
+            return response.message();
+        }
+    }
+
+    /** What one {@link #drain()} managed. */
+    public static final class DrainResult {
+
+        private int published;
+        private int requests;
+        private final List<String> gistUrls = new ArrayList<>();
+        private long retryAt;
+        @Nullable private String error;
+
+        DrainResult deferUntil(long retryAt) {
+            this.retryAt = retryAt;
+            return this;
+        }
+
+        DrainResult fail(String error) {
+            this.error = error;
+            return this;
+        }
+
+        public int getPublished() {
+            return published;
+        }
+
+        /** Gist requests sent, retries included. */
+        public int getRequests() {
+            return requests;
+        }
+
+        public List<String> getGistUrls() {
+            return Collections.unmodifiableList(gistUrls);
+        }
+
+        /** Epoch millis to try again at, or 0 if the outbox was drained or the failure is permanent. */
+        public long getRetryAt() {
+            return retryAt;
+        }
+
+        @Nullable
+        public String getError() {
+            return error;
+        }
+
+        /** True when the outbox was emptied. */
+        public boolean isComplete() {
+            return retryAt == 0 && error == null;
+        }
+
+        @Override
+        public String toString() {
+            return "DrainResult{published=" + published + ", requests=" + requests
+                    + ", retryAt=" + retryAt + ", error=" + error + '}';
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.fitproof.publish;
+
+import com.google.gson.JsonObject;
+
+import java.util.Map;
+
+import retrofit2.Call;
+import retrofit2.http.Body;
+import retrofit2.http.Header;
+import retrofit2.http.POST;
+
+/** The slice of the GitHub REST API used to publish proofs. */
+public interface GitHubService {
+
+    String BASE_URL = "https://api.github.com/";
+    String ACCEPT = "application/vnd.github.v3+json";
+
+    @POST("gists")
+    Call<JsonObject> createGist(
+            @Header("Authorization") String token,
+            @Header("Accept") String acceptHeader,
+            @Body Map<String, Object> body
+    );
+}
@@ -0,0 +1,151 @@
+package com.example.fitproof.publish;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Proofs waiting to be published, one file each in a private directory. A proof is written to a
+ * temporary file, synced and renamed into place, so after a crash or a kill it is either fully in
+ * the outbox or not at all. File names carry a sequence number, which keeps publishing in the
+ * order proofs were made.
+ */
+public class ProofOutbox {
+
+    public static final String DIRECTORY = "proof_outbox";
+
+    static final String SUFFIX = ".json";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final int SEQUENCE_DIGITS = 19;
+
+    private final File dir;
+    private long nextSequence;
+
+    public ProofOutbox(File dir) throws IOException {
+        this.dir = dir;
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create outbox " + dir);
+        }
+        long last = 0;
+        for (File file : listFiles()) {
+            String name = file.getName();
+            if (name.endsWith(TMP_SUFFIX)) {
+                // A write that never reached its rename; the proof was never accepted.
+                Files.deleteIfExists(file.toPath());
+            } else if (name.endsWith(SUFFIX)) {
+                last = Math.max(last, sequenceOf(name));
+            }
+        }
+        nextSequence = last + 1;
+    }
+
+    /**
+     * Adds a proof that will be published as {@code name} (letters, digits, '.', '-' and '_').
+     * Durable once this returns.
+     */
+    public synchronized Entry enqueue(String name, byte[] content) throws IOException {
+        if (!name.matches("[A-Za-z0-9._-]+")) {
+            throw new IllegalArgumentException("Bad proof file name " + name);
+        }
+        String fileName = String.format(Locale.US, "%0" + SEQUENCE_DIGITS + "d-%s", nextSequence++, name);
+        File tmp = new File(dir, fileName + TMP_SUFFIX);
+        File file = new File(dir, fileName + SUFFIX);
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(content);
+            out.getFD().sync();
+        }
+        if (!tmp.renameTo(file)) {
+            Files.deleteIfExists(tmp.toPath());
+            throw new IOException("Cannot move " + tmp + " into the outbox");
+        }
+        return new Entry(file, name, content);
+    }
+
+    /**
+     * The oldest pending proofs, at most {@code maxEntries} of them and no more than
+     * {@code maxBytes} in total, except that the first entry is always returned.
+     */
+    public synchronized List<Entry> peek(int maxEntries, long maxBytes) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        long bytes = 0;
+        for (File file : pendingFiles()) {
+            if (entries.size() == maxEntries) break;
+            long length = file.length();
+            if (!entries.isEmpty() && bytes + length > maxBytes) break;
+            String fileName = file.getName();
+            String name = fileName.substring(SEQUENCE_DIGITS + 1, fileName.length() - SUFFIX.length());
+            entries.add(new Entry(file, name, Files.readAllBytes(file.toPath())));
+            bytes += length;
+        }
+        return entries;
+    }
+
+    /** Drops entries once they are published. Entries already gone are ignored. */
+    public synchronized void remove(List<Entry> entries) throws IOException {
+        for (Entry entry : entries) {
+            Files.deleteIfExists(entry.file.toPath());
+        }
+    }
+
+    public synchronized int size() {
+        return pendingFiles().size();
+    }
+
+    private List<File> pendingFiles() {
+        List<File> pending = new ArrayList<>();
+        for (File file : listFiles()) {
+            if (file.getName().endsWith(SUFFIX)) {
+                pending.add(file);
+            }
+        }
+        // Zero-padded sequence numbers sort in enqueue order.
+        Collections.sort(pending);
+        return pending;
+    }
+
+    private List<File> listFiles() {
+        File[] files = dir.listFiles();
+        return files == null ? Collections.emptyList() : Arrays.asList(files);
+    }
+
+    private static long sequenceOf(String fileName) {
+        try {
+            return Long.parseLong(fileName.substring(0, SEQUENCE_DIGITS));
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
+    /** A pending proof and the file name it is published under. */
+    public static final class Entry {
+
+        private final File file;
+        private final String name;
+        private final byte[] content;
+
+        Entry(File file, String name, byte[] content) {
+            this.file = file;
+            this.name = name;
+            this.content = content;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public byte[] getContent() {
+            return content;
+        }
+
+        @Override
+        public String toString() {
+            return file.getName();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.fitproof.publish;
+
+import android.content.Context;
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Data;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.fitproof.BuildConfig;
+import com.example.fitproof.network.NetworkModule;
+
+import java.io.File;
+import java.io.IOException;
+
+/** Publishes whatever is in the {@link ProofOutbox}; the outbox survives any failure here. */
+public class ProofPublishWorker extends Worker {
+
+    private static final String TAG = "ProofPublishWorker";
+
+    public static final String KEY_PUBLISHED = "published";
+    public static final String KEY_GIST_URLS = "gist_urls";
+    public static final String KEY_ERROR = "error";
+
+    public ProofPublishWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    public static ProofOutbox openOutbox(Context context) throws IOException {
+        return new ProofOutbox(new File(context.getFilesDir(), ProofOutbox.DIRECTORY));
+    }
+
+    public static ReceiptArchive openReceipts(Context context) throws IOException {
+        return new ReceiptArchive(new File(context.getFilesDir(), ReceiptArchive.DIRECTORY));
+    }
+
+    public static boolean isTokenConfigured() {
+        return !TextUtils.isEmpty(BuildConfig.GITHUB_TOKEN)
+                && !BuildConfig.GITHUB_TOKEN.equals("Personal Access Token");
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        if (!isTokenConfigured()) {
+            Log.w(TAG, "GitHub token not configured, proofs stay in the outbox");
+            return Result.failure(error("GitHub token not configured"));
+        }
+        try {
+            GitHubService service = NetworkModule.getInstance(getApplicationContext())
+                    .getService(GitHubService.class, GitHubService.BASE_URL);
+            GistPublisher publisher = new GistPublisher(service, BuildConfig.GITHUB_TOKEN,
+                    openOutbox(getApplicationContext()));
+            GistPublisher.DrainResult result = publisher.drain();
+            Log.d(TAG, result.toString());
+
+            if (result.getRetryAt() > 0) {
+                PublishScheduler.requestAfter(getApplicationContext(),
+                        Math.max(0, result.getRetryAt() - System.currentTimeMillis()));
+            } else if (result.getError() != null) {
+                return Result.failure(error(result.getError()));
+            }
+            return Result.success(new Data.Builder()
+                    .putInt(KEY_PUBLISHED, result.getPublished())
+                    .putStringArray(KEY_GIST_URLS, result.getGistUrls().toArray(new String[0]))
+                    .build());
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot read the outbox", e);
+            return Result.retry();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+    }
+
+    private static Data error(String message) {
+        return new Data.Builder().putString(KEY_ERROR, message).build();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.fitproof.publish;
+
+import android.content.Context;
+
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules {@link ProofPublishWorker}. Requests append to one unique chain, so a proof queued
+ * while a drain is running is picked up by the drain that follows rather than dropped.
+ */
+public final class PublishScheduler {
+
+    static final String WORK = "proof-publish";
+
+    static final long BACKOFF_SECONDS = 30;
+
+    private PublishScheduler() {
+    }
+
+    /** Drains the outbox once there is a network. Returns the id of the request to observe. */
+    public static UUID requestNow(Context context) {
+        return enqueue(context, 0);
+    }
+
+    /** Drains the outbox no earlier than {@code delayMillis} from now, e.g. after a rate limit. */
+    static UUID requestAfter(Context context, long delayMillis) {
+        return enqueue(context, delayMillis);
+    }
+
+    private static UUID enqueue(Context context, long delayMillis) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(ProofPublishWorker.class)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .setInitialDelay(delayMillis, TimeUnit.MILLISECONDS)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, BACKOFF_SECONDS, TimeUnit.SECONDS)
+                .build();
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(WORK, ExistingWorkPolicy.APPEND_OR_REPLACE, request);
+        return request.getId();
+    }
+}
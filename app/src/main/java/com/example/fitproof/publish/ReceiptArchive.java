@@ -0,0 +1,88 @@
+package com.example.fitproof.publish;
+
+import com.example.fitproof.proof.MerkleBatch;
+import com.example.fitproof.proof.MerkleReceipt;
+import com.example.fitproof.proof.ProofEncoder;
+import com.example.fitproof.proof.ProofFormatException;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The per-day half of a range proof. Only a batch's root is published; each day's full proof and
+ * its {@link MerkleReceipt} stay here, as {@code <dayStart>-<root prefix>.proof.json} and
+ * {@code .receipt.json}, written the same crash-safe way as the {@link ProofOutbox}.
+ */
+public class ReceiptArchive {
+
+    public static final String DIRECTORY = "proof_receipts";
+
+    static final String PROOF_SUFFIX = ".proof.json";
+    static final String RECEIPT_SUFFIX = ".receipt.json";
+    private static final String TMP_SUFFIX = ".tmp";
+    // 64 bits of the root keep receipts from different batches for the same day apart.
+    private static final int ROOT_PREFIX_CHARS = 16;
+
+    private final File dir;
+
+    public ReceiptArchive(File dir) throws IOException {
+        this.dir = dir;
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create receipt archive " + dir);
+        }
+    }
+
+    /** Stores every day of the batch. Durable once this returns. */
+    public synchronized void save(MerkleBatch batch) throws IOException {
+        ProofEncoder encoder = new ProofEncoder();
+        String root = batch.getTree().getRootHex().substring(0, ROOT_PREFIX_CHARS);
+        for (int i = 0; i < batch.getProofs().size(); i++) {
+            String base = batch.getProofs().get(i).getDayStart() + "-" + root;
+            write(base + PROOF_SUFFIX, encoder.encode(batch.getProofs().get(i)));
+            write(base + RECEIPT_SUFFIX, batch.receipt(i).encode());
+        }
+    }
+
+    /** Receipts kept for the day starting at {@code dayStart}, one per batch that covered it. */
+    public synchronized List<MerkleReceipt> receiptsFor(long dayStart) throws IOException {
+        List<MerkleReceipt> receipts = new ArrayList<>();
+        String prefix = dayStart + "-";
+        for (File file : listFiles()) {
+            String name = file.getName();
+            if (!name.startsWith(prefix) || !name.endsWith(RECEIPT_SUFFIX)) continue;
+            try {
+                receipts.add(MerkleReceipt.decode(Files.readAllBytes(file.toPath())));
+            } catch (ProofFormatException e) {
+                throw new IOException("Corrupt receipt " + file, e);
+            }
+        }
+        return receipts;
+    }
+
+    private void write(String name, byte[] content) throws IOException {
+        File tmp = new File(dir, name + TMP_SUFFIX);
+        File file = new File(dir, name);
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(content);
+            out.getFD().sync();
+        }
+        if (!tmp.renameTo(file)) {
+            Files.deleteIfExists(tmp.toPath());
+            throw new IOException("Cannot move " + tmp + " into the receipt archive");
+        }
+    }
+
+    private List<File> listFiles() {
+        File[] files = dir.listFiles();
+        if (files == null) return Collections.emptyList();
+        List<File> sorted = new ArrayList<>(Arrays.asList(files));
+        Collections.sort(sorted);
+        return sorted;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.fitproof.ui;
+
+import android.content.Context;
+import android.graphics.Typeface;
+import android.util.SparseArray;
+
+import androidx.annotation.FontRes;
+import androidx.core.content.res.ResourcesCompat;
+
+import com.example.fitproof.R;
+import com.example.fitproof.data.AppExecutors;
+
+/**
+ * Process-wide Typeface cache. Every Inter style is a weight instance of the one variable font in
+ * {@code res/font}, so resolving the first style maps the file and the rest only pin the weight
+ * axis; each style is resolved once per process and shared by every screen after that.
+ */
+public final class Fonts {
+
+    private static final int[] INTER = {
+            R.font.inter_regular, R.font.inter_medium, R.font.inter_semibold, R.font.inter_bold
+    };
+
+    private static final SparseArray<Typeface> CACHE = new SparseArray<>();
+
+    private Fonts() {
+    }
+
+    public static Typeface get(Context context, @FontRes int font) {
+        synchronized (CACHE) {
+            Typeface typeface = CACHE.get(font);
+            if (typeface == null) {
+                typeface = ResourcesCompat.getFont(context.getApplicationContext(), font);
+                CACHE.put(font, typeface);
+            }
+            return typeface;
+        }
+    }
+
+    /**
+     * Resolves every Inter style in the background. Layouts go through the same
+     * {@link ResourcesCompat} font cache, so by the time a text-heavy screen inflates its fonts are
+     * already parsed.
+     */
+    public static void preload(Context context) {
+        Context app = context.getApplicationContext();
+        AppExecutors.compute().execute(() -> {
+            for (int font : INTER) {
+                get(app, font);
+            }
+        });
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.fitproof.ui.debug;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+import androidx.fragment.app.Fragment;
+
+import com.example.fitproof.data.AppExecutors;
+import com.example.fitproof.data.sync.Span;
+import com.example.fitproof.data.sync.SyncTrace;
+import com.example.fitproof.databinding.FragmentTracesBinding;
+import com.example.fitproof.network.NetworkModule;
+import com.google.android.gms.tasks.Tasks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Debug builds only: the recent syncs with their per-call breakdown, every recent Fit and HTTP
+ * span, and the network totals. Export writes the same text to the app's external files, where
+ * it can be pulled without any permission.
+ */
+public class TracesFragment extends Fragment {
+
+    private FragmentTracesBinding binding;
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        binding = FragmentTracesBinding.inflate(inflater, container, false);
+        binding.btnRefreshTraces.setOnClickListener(v -> refresh());
+        binding.btnExportTraces.setOnClickListener(v -> export());
+        refresh();
+        return binding.getRoot();
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        binding = null;
+    }
+
+    private void refresh() {
+        binding.tvTraces.setText(render(requireContext()));
+    }
+
+    private void export() {
+        Context context = requireContext().getApplicationContext();
+        String report = render(context);
+        Tasks.call(AppExecutors.diskIO(), () -> write(context, report))
+                .addOnCompleteListener(ContextCompat.getMainExecutor(context), task -> {
+                    String message = task.isSuccessful()
+                            ? "Saved to " + task.getResult().getAbsolutePath()
+                            : "Export failed: " + task.getException().getMessage();
+                    Toast.makeText(context, message, Toast.LENGTH_LONG).show();
+                });
+    }
+
+    private static File write(Context context, String report) throws IOException {
+        File dir = context.getExternalFilesDir("traces");
+        if (dir == null || !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("No external files directory");
+        }
+        String name = new SimpleDateFormat("'traces-'yyyyMMdd-HHmmss'.txt'", Locale.US).format(new Date());
+        File file = new File(dir, name);
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(report.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    private static String render(Context context) {
+        SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss.SSS", Locale.US);
+        StringBuilder report = new StringBuilder();
+
+        List<SyncTrace> traces = SyncTrace.recent();
+        report.append("Syncs (newest first)\n");
+        for (int i = traces.size() - 1; i >= 0; i--) {
+            SyncTrace trace = traces.get(i);
+            report.append(time.format(new Date(trace.getStartedAt()))).append(' ')
+                    .append(trace.summarize()).append('\n');
+        }
+
+        List<Span> spans = Span.recent();
+        report.append("\nCalls (").append(spans.size()).append(" kept of ").append(Span.recorded())
+                .append(", newest first)\n");
+        for (int i = spans.size() - 1; i >= 0; i--) {
+            Span span = spans.get(i);
+            report.append(time.format(new Date(span.getStartedAt()))).append(' ').append(span).append('\n');
+        }
+
+        report.append("\nNetwork\n").append(NetworkModule.getInstance(context).getStats().snapshot()).append('\n');
+        return report.toString();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.fitproof.ui.history;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.fitproof.R;
+import com.example.fitproof.data.fit.FitBucket;
+import com.example.fitproof.data.history.HistoryDay;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One fixed-height row per day. Positions not loaded yet arrive as null and are drawn as an empty
+ * row with only the spacing of a real one, so the scrollbar shows the whole history from the start.
+ */
+final class HistoryAdapter extends PagingDataAdapter<HistoryDay, HistoryAdapter.Holder> {
+
+    interface OnDayClickListener {
+        void onDayClick(HistoryDay day);
+    }
+
+    private static final DiffUtil.ItemCallback<HistoryDay> DIFF = new DiffUtil.ItemCallback<HistoryDay>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull HistoryDay a, @NonNull HistoryDay b) {
+            return a.getDayStart() == b.getDayStart();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull HistoryDay a, @NonNull HistoryDay b) {
+            return a.sameContents(b);
+        }
+    };
+
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("EEE, MMM d, yyyy", Locale.getDefault());
+    private final OnDayClickListener listener;
+
+    HistoryAdapter(OnDayClickListener listener) {
+        super(DIFF);
+        this.listener = listener;
+    }
+
+    @NonNull
+    @Override
+    public Holder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View row = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_history_day, parent, false);
+        return new Holder(row);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull Holder holder, int position) {
+        HistoryDay day = getItem(position);
+        if (day == null) {
+            holder.date.setText("");
+            holder.summary.setText("");
+            holder.proofs.setVisibility(View.GONE);
+            holder.itemView.setOnClickListener(null);
+            return;
+        }
+        holder.date.setText(dateFormat.format(new Date(day.getDayStart())));
+        holder.summary.setText(summarize(day.getTotals()));
+        holder.proofs.setVisibility(day.getProofCount() > 0 ? View.VISIBLE : View.GONE);
+        holder.proofs.setText(day.getProofCount() == 1 ? "1 proof" : day.getProofCount() + " proofs");
+        holder.itemView.setOnClickListener(v -> listener.onDayClick(day));
+    }
+
+    /** "8,214 steps, 6.10 km, 54 min active", or why there is nothing to show. */
+    static String summarize(@Nullable FitBucket totals) {
+        if (totals == null) {
+            return "Not synced";
+        }
+        if (totals.getSteps() == 0 && totals.getActiveMillis() == 0) {
+            return "No activity";
+        }
+        return String.format(Locale.getDefault(), "%,d steps, %.2f km, %d min active", totals.getSteps(),
+                totals.getDistanceMeters() / 1000f, TimeUnit.MILLISECONDS.toMinutes(totals.getActiveMillis()));
+    }
+
+    static final class Holder extends RecyclerView.ViewHolder {
+        final TextView date;
+        final TextView summary;
+        final TextView proofs;
+
+        Holder(View row) {
+            super(row);
+            date = row.findViewById(R.id.tv_history_date);
+            summary = row.findViewById(R.id.tv_history_summary);
+            proofs = row.findViewById(R.id.tv_history_proofs);
+        }
+    }
+}
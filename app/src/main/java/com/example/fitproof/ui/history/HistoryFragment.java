@@ -0,0 +1,78 @@
+package com.example.fitproof.ui.history;
+
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.navigation.fragment.NavHostFragment;
+import androidx.paging.LoadState;
+
+import com.example.fitproof.R;
+import com.example.fitproof.databinding.FragmentHistoryBinding;
+import com.example.fitproof.ui.proof.MyProofFragment;
+
+import kotlin.Unit;
+
+/**
+ * Every synced day, newest first, read from the local store only. Tapping a day opens it in
+ * My Proof, which shows it from disk as well.
+ */
+public class HistoryFragment extends Fragment {
+
+    private FragmentHistoryBinding binding;
+    private HistoryAdapter adapter;
+    private boolean stale;
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        binding = FragmentHistoryBinding.inflate(inflater, container, false);
+        adapter = new HistoryAdapter(day -> {
+            Bundle args = new Bundle();
+            args.putLong(MyProofFragment.ARG_DAY_START, day.getDayStart());
+            NavHostFragment.findNavController(this).navigate(R.id.nav_my_proof, args);
+        });
+        binding.rvHistory.setHasFixedSize(true);
+        binding.rvHistory.setAdapter(adapter);
+        adapter.addLoadStateListener(states -> {
+            if (binding != null && states.getRefresh() instanceof LoadState.NotLoading) {
+                binding.tvHistoryEmpty.setVisibility(adapter.getItemCount() == 0 ? View.VISIBLE : View.GONE);
+            }
+            return Unit.INSTANCE;
+        });
+
+        HistoryViewModel viewModel = new ViewModelProvider(this).get(HistoryViewModel.class);
+        viewModel.getDays().observe(getViewLifecycleOwner(),
+                days -> adapter.submitData(getViewLifecycleOwner().getLifecycle(), days));
+        return binding.getRoot();
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+        // Syncs and proofs may have landed while another screen was up; reload around where it was.
+        if (stale) {
+            stale = false;
+            adapter.refresh();
+        }
+    }
+
+    @Override
+    public void onPause() {
+        super.onPause();
+        stale = true;
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        binding.rvHistory.setAdapter(null);
+        binding = null;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.fitproof.ui.history;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.concurrent.futures.CallbackToFutureAdapter;
+import androidx.paging.ListenableFuturePagingSource;
+import androidx.paging.PagingState;
+
+import com.example.fitproof.data.AppExecutors;
+import com.example.fitproof.data.fit.TimeBuckets;
+import com.example.fitproof.data.history.HistoryDay;
+import com.example.fitproof.data.history.HistoryIndex;
+import com.example.fitproof.data.store.BucketStore;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.List;
+
+import kotlin.Unit;
+
+/**
+ * Pages of {@link HistoryIndex} keyed by position, loaded on the disk executor. Every page reports
+ * how many days lie before and after it, so the list has its full length as placeholders from the
+ * first load and can jump straight to a day five years back.
+ *
+ * <p>The index is a snapshot, so the source invalidates itself when the store's days or proofs
+ * change, and a load after midnight answers {@link LoadResult.Invalid}: positions are counted from
+ * today, and the pager then reloads from a fresh source around the same position.
+ */
+final class HistoryPagingSource extends ListenableFuturePagingSource<Integer, HistoryDay> {
+
+    private final BucketStore store;
+    private final BucketStore.OnChangeListener onStoreChanged = this::invalidate;
+    // Built by the first load, on the disk executor, and fixed for this source's lifetime.
+    private volatile HistoryIndex index;
+
+    HistoryPagingSource(BucketStore store) {
+        this.store = store;
+        store.addOnChangeListener(onStoreChanged);
+        registerInvalidatedCallback(() -> {
+            store.removeOnChangeListener(onStoreChanged);
+            return Unit.INSTANCE;
+        });
+    }
+
+    @Override
+    public boolean getJumpingSupported() {
+        return true;
+    }
+
+    @NonNull
+    @Override
+    public ListenableFuture<LoadResult<Integer, HistoryDay>> loadFuture(@NonNull LoadParams<Integer> params) {
+        return CallbackToFutureAdapter.getFuture(completer -> {
+            AppExecutors.diskIO().execute(() -> {
+                try {
+                    completer.set(load(params));
+                } catch (RuntimeException e) {
+                    completer.set(new LoadResult.Error<>(e));
+                }
+            });
+            return "history page";
+        });
+    }
+
+    private LoadResult<Integer, HistoryDay> load(LoadParams<Integer> params) {
+        long now = System.currentTimeMillis();
+        if (index == null) {
+            index = new HistoryIndex(store, now);
+        } else if (index.dayAt(0) != TimeBuckets.startOfDay(now)) {
+            return new LoadResult.Invalid<>();
+        }
+        int size = index.size();
+        int key = params.getKey() != null ? params.getKey() : 0;
+        int loadSize = params.getLoadSize();
+        int from;
+        if (params instanceof LoadParams.Prepend) {
+            // The key is where the page after this one starts.
+            from = Math.max(0, key - loadSize);
+            loadSize = key - from;
+        } else if (params instanceof LoadParams.Refresh) {
+            // Centre the first page on the day the list was last showing.
+            from = Math.max(0, Math.min(key - loadSize / 2, size - loadSize));
+        } else {
+            from = key;
+        }
+        List<HistoryDay> days = index.load(from, loadSize);
+        int to = from + days.size();
+        return new LoadResult.Page<>(days,
+                from > 0 ? from : null,
+                to < size ? to : null,
+                from,
+                size - to);
+    }
+
+    @Nullable
+    @Override
+    public Integer getRefreshKey(@NonNull PagingState<Integer, HistoryDay> state) {
+        return state.getAnchorPosition();
+    }
+}
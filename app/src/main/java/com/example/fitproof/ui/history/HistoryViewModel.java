@@ -0,0 +1,58 @@
+package com.example.fitproof.ui.history;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.ViewModelKt;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
+
+import com.example.fitproof.data.FitnessRepository;
+import com.example.fitproof.data.history.HistoryDay;
+import com.example.fitproof.data.store.BucketStore;
+
+/**
+ * The history list as paged data, newest day first. Pages are a month of days and at most
+ * {@link #MAX_DAYS} stay in memory: pages far from the screen are dropped and reloaded from disk if
+ * scrolled back to, so five years of history holds no more than a few months at a time.
+ */
+public class HistoryViewModel extends AndroidViewModel {
+
+    static final int PAGE_DAYS = 30;
+    static final int PREFETCH_DAYS = 30;
+    static final int MAX_DAYS = 6 * PAGE_DAYS;
+    // A fling further than this skips the pages in between and loads where it lands.
+    static final int JUMP_DAYS = 3 * PAGE_DAYS;
+
+    private final LiveData<PagingData<HistoryDay>> days;
+    // The source the pager is reading; invalidated on clear so it stops listening to the store.
+    private volatile HistoryPagingSource source;
+
+    public HistoryViewModel(@NonNull Application application) {
+        super(application);
+        BucketStore store = FitnessRepository.getInstance(application).getBucketStore();
+        PagingConfig config = new PagingConfig(PAGE_DAYS, PREFETCH_DAYS, true, 2 * PAGE_DAYS, MAX_DAYS,
+                JUMP_DAYS);
+        Pager<Integer, HistoryDay> pager = new Pager<>(config, () -> {
+            source = new HistoryPagingSource(store);
+            return source;
+        });
+        days = PagingLiveData.cachedIn(PagingLiveData.getLiveData(pager), ViewModelKt.getViewModelScope(this));
+    }
+
+    public LiveData<PagingData<HistoryDay>> getDays() {
+        return days;
+    }
+
+    @Override
+    protected void onCleared() {
+        HistoryPagingSource current = source;
+        if (current != null) {
+            current.invalidate();
+        }
+    }
+}
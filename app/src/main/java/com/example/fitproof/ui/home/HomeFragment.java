@@ -4,6 +4,7 @@ import android.Manifest;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.os.Bundle;
+import android.os.Trace;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -17,37 +18,38 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.example.fitproof.R;
+import com.example.fitproof.data.FitnessRepository;
+import com.example.fitproof.data.fit.MetricGroups;
+import com.example.fitproof.data.profile.ProfileCache;
+import com.example.fitproof.data.sync.SyncTrace;
 import com.example.fitproof.databinding.FragmentHomeBinding;
 import com.google.android.gms.auth.api.signin.GoogleSignIn;
 import com.google.android.gms.auth.api.signin.GoogleSignInAccount;
 import com.google.android.gms.auth.api.signin.GoogleSignInClient;
 import com.google.android.gms.auth.api.signin.GoogleSignInOptions;
 import com.google.android.gms.common.api.ApiException;
-import com.google.android.gms.fitness.Fitness;
 import com.google.android.gms.fitness.FitnessOptions;
-import com.google.android.gms.fitness.data.DataType;
-import com.google.android.gms.fitness.data.Field;
-import com.google.android.gms.fitness.request.DataReadRequest;
-import com.google.android.gms.fitness.result.DataReadResponse;
 
 import java.text.SimpleDateFormat;
-import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
-import java.util.concurrent.TimeUnit;
 
 public class HomeFragment extends Fragment {
 
     private static final String TAG = "HomeFragment";
+    private static final String INFLATE_SECTION = "inflate:fragment_home";
     private static final int GOOGLE_FIT_PERMISSIONS_REQUEST_CODE = 1;
-    private static final int STREAK_STEP_THRESHOLD = 100; // Minimum steps to count as an active day
 
     private FragmentHomeBinding binding;
     private GoogleSignInClient googleSignInClient;
+    private FitnessRepository repository;
+    private HomeViewModel viewModel;
     private FitnessOptions fitnessOptions;
-    private long lastSyncTime = 0;
+    private boolean manualSyncPending;
+    private boolean reportedFullyDrawn;
 
     // Activity result launchers
     private final ActivityResultLauncher<Intent> signInLauncher = createSignInLauncher();
@@ -57,11 +59,24 @@ public class HomeFragment extends Fragment {
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
                              @Nullable Bundle savedInstanceState) {
-        binding = FragmentHomeBinding.inflate(inflater, container, false);
+        Trace.beginSection(INFLATE_SECTION);
+        try {
+            binding = FragmentHomeBinding.inflate(inflater, container, false);
+        } finally {
+            Trace.endSection();
+        }
+        viewModel = new ViewModelProvider(this).get(HomeViewModel.class);
 
-        initializeGoogleSignIn();
+        repository = FitnessRepository.getInstance(requireContext());
         setupSyncButton();
-        checkPermissions();
+        observeViewModel();
+        // Permission checks and the sign-in and Fit clients behind them stay off the first frame:
+        // the dashboard is drawn from the cached snapshot first, and this runs once it is on screen.
+        binding.getRoot().post(() -> {
+            if (binding != null) {
+                checkPermissions();
+            }
+        });
 
         // Use binding directly
         SimpleDateFormat sdf = new SimpleDateFormat("EEEE, MMMM d", Locale.getDefault());
@@ -72,18 +87,22 @@ public class HomeFragment extends Fragment {
         return binding.getRoot();
     }
 
-    private void initializeGoogleSignIn() {
-        GoogleSignInOptions gso = new GoogleSignInOptions.Builder(GoogleSignInOptions.DEFAULT_SIGN_IN)
-                .requestEmail()
-                .build();
-        googleSignInClient = GoogleSignIn.getClient(requireContext(), gso);
-
-        fitnessOptions = FitnessOptions.builder()
-                .addDataType(DataType.TYPE_STEP_COUNT_DELTA, FitnessOptions.ACCESS_READ)
-                .addDataType(DataType.AGGREGATE_STEP_COUNT_DELTA, FitnessOptions.ACCESS_READ)
-                .addDataType(DataType.TYPE_CALORIES_EXPENDED, FitnessOptions.ACCESS_READ)
-                .addDataType(DataType.AGGREGATE_CALORIES_EXPENDED, FitnessOptions.ACCESS_READ)
-                .build();
+    /** Built on first use; most starts are already signed in and never need it. */
+    private GoogleSignInClient signInClient() {
+        if (googleSignInClient == null) {
+            GoogleSignInOptions gso = new GoogleSignInOptions.Builder(GoogleSignInOptions.DEFAULT_SIGN_IN)
+                    .requestEmail()
+                    .build();
+            googleSignInClient = GoogleSignIn.getClient(requireContext(), gso);
+        }
+        return googleSignInClient;
+    }
+
+    private FitnessOptions fitnessOptions() {
+        if (fitnessOptions == null) {
+            fitnessOptions = repository.getFitnessOptions(MetricGroups.DASHBOARD);
+        }
+        return fitnessOptions;
     }
 
     private void setupSyncButton() {
@@ -93,6 +112,15 @@ public class HomeFragment extends Fragment {
         });
     }
 
+    private void observeViewModel() {
+        viewModel.getState().observe(getViewLifecycleOwner(), this::displayFitnessData);
+        viewModel.getSyncError().observe(getViewLifecycleOwner(), e -> {
+            if (e == null) return;
+            viewModel.consumeSyncError();
+            handleDataFetchFailure(e);
+        });
+    }
+
     private ActivityResultLauncher<Intent> createSignInLauncher() {
         return registerForActivityResult(new ActivityResultContracts.StartActivityForResult(), result -> {
             if (result.getResultCode() == requireActivity().RESULT_OK) {
@@ -114,6 +142,10 @@ public class HomeFragment extends Fragment {
     }
 
     private void checkPermissions() {
+        if (FitnessRepository.usesLocalData()) {
+            viewModel.syncIfStale();
+            return;
+        }
         if (ContextCompat.checkSelfPermission(requireContext(), Manifest.permission.ACTIVITY_RECOGNITION)
                 != PackageManager.PERMISSION_GRANTED) {
             permissionLauncher.launch(Manifest.permission.ACTIVITY_RECOGNITION);
@@ -123,21 +155,21 @@ public class HomeFragment extends Fragment {
     }
 
     private void checkGoogleFitPermissions() {
-        GoogleSignInAccount account = GoogleSignIn.getLastSignedInAccount(requireContext());
+        GoogleSignInAccount account = repository.getSignedInAccount();
         if (account == null) {
             initiateGoogleSignIn();
             return;
         }
 
-        if (!GoogleSignIn.hasPermissions(account, fitnessOptions)) {
-            GoogleSignIn.requestPermissions(this, GOOGLE_FIT_PERMISSIONS_REQUEST_CODE, account, fitnessOptions);
+        if (!GoogleSignIn.hasPermissions(account, fitnessOptions())) {
+            GoogleSignIn.requestPermissions(this, GOOGLE_FIT_PERMISSIONS_REQUEST_CODE, account, fitnessOptions());
         } else {
             fetchGoogleFitData(false);
         }
     }
 
     private void initiateGoogleSignIn() {
-        signInLauncher.launch(googleSignInClient.getSignInIntent());
+        signInLauncher.launch(signInClient().getSignInIntent());
     }
 
     private void handleSignInResult(Intent data) {
@@ -145,6 +177,8 @@ public class HomeFragment extends Fragment {
             GoogleSignInAccount account = GoogleSignIn.getSignedInAccountFromIntent(data)
                     .getResult(ApiException.class);
             if (account != null) {
+                ProfileCache.getInstance(requireContext()).remember(account);
+                FitnessRepository.getInstance(requireContext()).claimStore(account);
                 fetchGoogleFitData(false);
             }
         } catch (ApiException e) {
@@ -167,44 +201,23 @@ public class HomeFragment extends Fragment {
     }
 
     private void fetchGoogleFitData(boolean isManualSync) {
-        GoogleSignInAccount account = GoogleSignIn.getLastSignedInAccount(requireContext());
-        if (account == null) {
+        if (!FitnessRepository.usesLocalData() && repository.getSignedInAccount() == null) {
             Log.w(TAG, "No signed-in account, initiating sign-in");
             showToast("Please sign in to Google Fit");
             initiateGoogleSignIn();
             return;
         }
 
-        // Set time range: today for current data, last 7 days for weekly average and streak
-        Calendar cal = Calendar.getInstance();
-        cal.set(Calendar.HOUR_OF_DAY, 0);
-        cal.set(Calendar.MINUTE, 0);
-        cal.set(Calendar.SECOND, 0);
-        cal.set(Calendar.MILLISECOND, 0);
-        long endTime = cal.getTimeInMillis() + TimeUnit.DAYS.toMillis(1); // Include today
-        long startTime = cal.getTimeInMillis() - TimeUnit.DAYS.toMillis(6); // Last 7 days
-
-        DataReadRequest readRequest = new DataReadRequest.Builder()
-                .aggregate(DataType.TYPE_STEP_COUNT_DELTA)
-                .aggregate(DataType.TYPE_CALORIES_EXPENDED)
-                .setTimeRange(startTime, endTime, TimeUnit.MILLISECONDS)
-                .bucketByTime(1, TimeUnit.DAYS)
-                .build();
-
-        Log.d(TAG, "Sending DataReadRequest for steps and calories");
-        Fitness.getHistoryClient(requireContext(), account)
-                .readData(readRequest)
-                .addOnSuccessListener(dataReadResponse -> {
-                    lastSyncTime = System.currentTimeMillis();
-                    displayFitnessData(dataReadResponse);
-                    if (isManualSync) {
-                        showToast("Sync completed");
-                    }
-                })
-                .addOnFailureListener(e -> handleDataFetchFailure(e, isManualSync));
+        Log.d(TAG, "Syncing dashboard delta for steps and calories");
+        if (isManualSync) {
+            manualSyncPending = true;
+            viewModel.sync(true);
+        } else {
+            viewModel.syncIfStale();
+        }
     }
 
-    private void handleDataFetchFailure(Exception e, boolean isManualSync) {
+    private void handleDataFetchFailure(Exception e) {
         String errorMessage = "Failed to fetch data: " + e.getMessage();
         if (e instanceof ApiException) {
             ApiException apiException = (ApiException) e;
@@ -216,95 +229,56 @@ public class HomeFragment extends Fragment {
         }
         Log.e(TAG, errorMessage, e);
         showToast(errorMessage);
-        if (isManualSync) {
-            lastSyncTime = 0; // Reset sync time on failure
-            updateSyncTimeUI();
+        if (manualSyncPending) {
+            manualSyncPending = false;
+            binding.tvLastSync.setText(HomeState.lastSyncText(0)); // Reset sync time on failure
         }
     }
 
-    private void displayFitnessData(DataReadResponse dataReadResponse) {
-        if (!isAdded() || getActivity() == null) {
+    private void displayFitnessData(HomeState state) {
+        if (!isAdded() || getActivity() == null || binding == null) {
             Log.w(TAG, "Fragment not attached, skipping UI update");
             return;
         }
 
-        int todaySteps = 0;
-        float todayCalories = 0f;
-        float totalSteps = 0;
-        float totalCalories = 0f;
-        int activeDays = 0;
-        int streak = 0;
-        boolean isPreviousDayActive = true; // For streak calculation
-
-        if (dataReadResponse.getBuckets().isEmpty()) {
-            showToast("No fitness data available");
-            updateUI(todaySteps, todayCalories, 0, 0, 0);
+        SyncTrace trace = state.getTrace();
+        // A finished trace means this state was already shown once (e.g. before a rotation).
+        if (trace == null || trace.getWallMillis() >= 0) {
+            updateUI(state);
+            reportFullyDrawn(state);
             return;
         }
-
-        // Process each daily bucket (7 days, including today)
-        for (var bucket : dataReadResponse.getBuckets()) {
-            int dailySteps = 0;
-            float dailyCalories = 0f;
-
-            for (var dataSet : bucket.getDataSets()) {
-                if (dataSet.isEmpty()) continue;
-                for (var dp : dataSet.getDataPoints()) {
-                    for (var field : dp.getDataType().getFields()) {
-                        if (field.equals(Field.FIELD_STEPS)) {
-                            dailySteps += dp.getValue(field).asInt();
-                        } else if (field.equals(Field.FIELD_CALORIES)) {
-                            dailyCalories += dp.getValue(field).asFloat();
-                        }
-                    }
-                }
+        trace.onMain(() -> {
+            updateUI(state);
+            if (!state.hasData()) {
+                showToast("No fitness data available");
             }
-
-            // Check if the bucket is for today (last bucket)
-            if (bucket.getEndTime(TimeUnit.MILLISECONDS) == dataReadResponse.getBuckets()
-                    .get(dataReadResponse.getBuckets().size() - 1)
-                    .getEndTime(TimeUnit.MILLISECONDS)) {
-                todaySteps = dailySteps;
-                todayCalories = dailyCalories;
+            if (manualSyncPending) {
+                manualSyncPending = false;
+                showToast("Sync completed");
             }
-
-            // Accumulate for weekly average
-            totalSteps += dailySteps;
-            totalCalories += dailyCalories;
-
-            // Streak calculation: count days with steps >= STREAK_STEP_THRESHOLD
-            if (dailySteps >= STREAK_STEP_THRESHOLD) {
-                activeDays++;
-                if (isPreviousDayActive) {
-                    streak++;
-                }
-            } else {
-                isPreviousDayActive = false;
-            }
-        }
-
-        // Calculate weekly averages
-        float weeklyAvgSteps = totalSteps / 7;
-        float weeklyAvgCalories = totalCalories / 7;
-
-        updateUI(todaySteps, todayCalories, weeklyAvgSteps, weeklyAvgCalories, streak);
+        });
+        trace.finish();
+        Log.d(TAG, trace.toString());
+        reportFullyDrawn(state);
     }
 
-    private void updateUI(int todaySteps, float todayCalories, float weeklyAvgSteps, float weeklyAvgCalories, int streak) {
-        binding.stepsCount.setText("Steps: " + todaySteps);
-        binding.calories.setText("Calories: " + String.format("%.1f", todayCalories));
-        binding.weeklyAvg.setText(String.format("Weekly Avg: %.0f steps, %.1f cal", weeklyAvgSteps, weeklyAvgCalories));
-        binding.streak.setText("Streak: " + streak + " days");
-        updateSyncTimeUI();
+    /**
+     * Startup is done once real numbers are on screen: cached ones, or whatever the first sync
+     * found. This is the time-to-data the startup benchmark reads as time to full display.
+     */
+    private void reportFullyDrawn(HomeState state) {
+        if (reportedFullyDrawn || !state.hasData() && state.getTrace() == null) return;
+        reportedFullyDrawn = true;
+        requireActivity().reportFullyDrawn();
     }
 
-    private void updateSyncTimeUI() {
-        if (lastSyncTime == 0) {
-            binding.tvLastSync.setText("Last Sync: Never");
-        } else {
-            SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy HH:mm", Locale.getDefault());
-            binding.tvLastSync.setText("Last Sync: " + sdf.format(new Date(lastSyncTime)));
-        }
+    private void updateUI(HomeState state) {
+        binding.stepsCount.setText(state.getStepsText());
+        binding.calories.setText(state.getCaloriesText());
+        binding.weeklyAvg.setText(state.getWeeklyAvgText());
+        binding.streak.setText(state.getStreakText());
+        binding.tvLastSync.setText(state.getLastSyncText());
     }
 
     private void showToast(String message) {
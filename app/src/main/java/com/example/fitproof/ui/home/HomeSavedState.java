@@ -0,0 +1,54 @@
+package com.example.fitproof.ui.home;
+
+import androidx.annotation.Nullable;
+import androidx.lifecycle.SavedStateHandle;
+
+import com.example.fitproof.data.dashboard.DashboardSummary;
+
+/**
+ * The last {@link DashboardSummary} as {@link HomeViewModel} keeps it in its {@link SavedStateHandle}:
+ * one primitive per field, so it survives process death without a custom parcelable.
+ */
+final class HomeSavedState {
+
+    private static final String KEY_TODAY_STEPS = "today_steps";
+    private static final String KEY_TODAY_CALORIES = "today_calories";
+    private static final String KEY_WEEKLY_AVG_STEPS = "weekly_avg_steps";
+    private static final String KEY_WEEKLY_AVG_CALORIES = "weekly_avg_calories";
+    private static final String KEY_STREAK = "streak";
+    private static final String KEY_LONGEST_STREAK = "longest_streak";
+    private static final String KEY_DAY_COUNT = "day_count";
+    private static final String KEY_LAST_SYNC = "last_sync";
+
+    private HomeSavedState() {
+    }
+
+    /** The saved summary, or null if nothing was saved or it predates the longest-streak field. */
+    @Nullable
+    static DashboardSummary restore(SavedStateHandle savedState) {
+        Long lastSync = savedState.get(KEY_LAST_SYNC);
+        if (lastSync == null || savedState.get(KEY_LONGEST_STREAK) == null) {
+            return null;
+        }
+        return new DashboardSummary(
+                savedState.<Integer>get(KEY_TODAY_STEPS),
+                savedState.<Float>get(KEY_TODAY_CALORIES),
+                savedState.<Float>get(KEY_WEEKLY_AVG_STEPS),
+                savedState.<Float>get(KEY_WEEKLY_AVG_CALORIES),
+                savedState.<Integer>get(KEY_STREAK),
+                savedState.<Integer>get(KEY_LONGEST_STREAK),
+                savedState.<Integer>get(KEY_DAY_COUNT),
+                lastSync);
+    }
+
+    static void save(SavedStateHandle savedState, DashboardSummary summary) {
+        savedState.set(KEY_TODAY_STEPS, summary.getTodaySteps());
+        savedState.set(KEY_TODAY_CALORIES, summary.getTodayCalories());
+        savedState.set(KEY_WEEKLY_AVG_STEPS, summary.getWeeklyAvgSteps());
+        savedState.set(KEY_WEEKLY_AVG_CALORIES, summary.getWeeklyAvgCalories());
+        savedState.set(KEY_STREAK, summary.getStreak());
+        savedState.set(KEY_LONGEST_STREAK, summary.getLongestStreak());
+        savedState.set(KEY_DAY_COUNT, summary.getDayCount());
+        savedState.set(KEY_LAST_SYNC, summary.getLastSyncTime());
+    }
+}
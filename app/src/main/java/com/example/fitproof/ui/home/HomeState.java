@@ -0,0 +1,80 @@
+package com.example.fitproof.ui.home;
+
+import androidx.annotation.Nullable;
+
+import com.example.fitproof.data.dashboard.DashboardSummary;
+import com.example.fitproof.data.sync.SyncTrace;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Everything the Home cards show, already formatted. Built off the main thread so rendering is
+ * only {@code setText} calls.
+ */
+public final class HomeState {
+
+    private final String stepsText;
+    private final String caloriesText;
+    private final String weeklyAvgText;
+    private final String streakText;
+    private final String lastSyncText;
+    private final boolean hasData;
+    @Nullable private final SyncTrace trace;
+
+    private HomeState(DashboardSummary summary, @Nullable SyncTrace trace) {
+        this.stepsText = "Steps: " + summary.getTodaySteps();
+        this.caloriesText = "Calories: " + String.format("%.1f", summary.getTodayCalories());
+        this.weeklyAvgText = String.format("Weekly Avg: %.0f steps, %.1f cal",
+                summary.getWeeklyAvgSteps(), summary.getWeeklyAvgCalories());
+        this.streakText = summary.getLongestStreak() > summary.getStreak()
+                ? "Streak: " + summary.getStreak() + " days (best " + summary.getLongestStreak() + ")"
+                : "Streak: " + summary.getStreak() + " days";
+        this.lastSyncText = lastSyncText(summary.getLastSyncTime());
+        this.hasData = summary.hasData();
+        this.trace = trace;
+    }
+
+    /** {@code trace} is the live sync that produced the summary, or null for what was on disk. */
+    public static HomeState from(DashboardSummary summary, @Nullable SyncTrace trace) {
+        return new HomeState(summary, trace);
+    }
+
+    public static String lastSyncText(long lastSyncTime) {
+        if (lastSyncTime == 0) {
+            return "Last Sync: Never";
+        }
+        SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy HH:mm", Locale.getDefault());
+        return "Last Sync: " + sdf.format(new Date(lastSyncTime));
+    }
+
+    public String getStepsText() {
+        return stepsText;
+    }
+
+    public String getCaloriesText() {
+        return caloriesText;
+    }
+
+    public String getWeeklyAvgText() {
+        return weeklyAvgText;
+    }
+
+    public String getStreakText() {
+        return streakText;
+    }
+
+    public String getLastSyncText() {
+        return lastSyncText;
+    }
+
+    public boolean hasData() {
+        return hasData;
+    }
+
+    @Nullable
+    public SyncTrace getTrace() {
+        return trace;
+    }
+}
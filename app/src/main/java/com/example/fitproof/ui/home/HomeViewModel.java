@@ -1,19 +1,153 @@
 package com.example.fitproof.ui.home;
 
+import android.app.Application;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.ViewModel;
+import androidx.lifecycle.SavedStateHandle;
+
+import com.example.fitproof.data.AppExecutors;
+import com.example.fitproof.data.FitnessRepository;
+import com.example.fitproof.data.dashboard.DashboardSnapshotStore;
+import com.example.fitproof.data.dashboard.DashboardSummary;
+import com.example.fitproof.data.fit.TimeBuckets;
+import com.example.fitproof.data.sync.SyncTrace;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns the dashboard and its sync. The last summary is kept in the {@link SavedStateHandle} and in
+ * a {@link DashboardSnapshotStore}, so a recreated fragment, or a process restored after death,
+ * renders straight away and only goes to Fit once the data is {@link #STALE_MILLIS} old.
+ * Results are formatted on the compute executor; the fragment only observes {@link HomeState}s.
+ */
+public class HomeViewModel extends AndroidViewModel {
+
+    private static final String TAG = "HomeViewModel";
+
+    static final long STALE_MILLIS = TimeUnit.MINUTES.toMillis(5);
 
-public class HomeViewModel extends ViewModel {
+    private final FitnessRepository repository;
+    private final SavedStateHandle savedState;
+    private final DashboardSnapshotStore snapshots;
+    private final Executor compute = AppExecutors.compute();
+    private final Executor main;
+    private final MutableLiveData<HomeState> state = new MutableLiveData<>();
+    private final MutableLiveData<Exception> syncError = new MutableLiveData<>();
+    // Bumped by every sync so a slower cached read can never overwrite a fresher result.
+    private final AtomicInteger generation = new AtomicInteger();
 
-    private final MutableLiveData<String> mText;
+    private final Task<?> restored;
+    private volatile long lastSyncTime;
+    private boolean syncing;
+
+    public HomeViewModel(@NonNull Application application, @NonNull SavedStateHandle savedState) {
+        super(application);
+        this.repository = FitnessRepository.getInstance(application);
+        this.savedState = savedState;
+        this.snapshots = new DashboardSnapshotStore(application);
+        this.main = ContextCompat.getMainExecutor(application);
+
+        DashboardSummary saved = HomeSavedState.restore(savedState);
+        if (saved != null) {
+            lastSyncTime = saved.getLastSyncTime();
+            state.setValue(HomeState.from(saved, null));
+            restored = Tasks.forResult(null);
+        } else {
+            restored = loadCached();
+        }
+    }
+
+    public LiveData<HomeState> getState() {
+        return state;
+    }
+
+    public LiveData<Exception> getSyncError() {
+        return syncError;
+    }
+
+    public void consumeSyncError() {
+        syncError.setValue(null);
+    }
+
+    /**
+     * Syncs unless a sync is running or the dashboard was synced less than {@link #STALE_MILLIS} ago
+     * today. Decided once whatever was on disk has been read, so a cold start does not sync blindly.
+     */
+    public void syncIfStale() {
+        restored.addOnCompleteListener(main, task -> syncIfStaleNow());
+    }
+
+    private void syncIfStaleNow() {
+        long now = System.currentTimeMillis();
+        if (syncing || (now - lastSyncTime < STALE_MILLIS
+                && TimeBuckets.startOfDay(lastSyncTime) == TimeBuckets.startOfDay(now))) {
+            Log.d(TAG, "Dashboard is fresh, skipping sync");
+            return;
+        }
+        sync(false);
+    }
+
+    public void sync(boolean manual) {
+        if (manual) {
+            repository.invalidate();
+        }
+        syncing = true;
+        SyncTrace trace = SyncTrace.begin(manual ? "home-manual" : "home");
+        int started = generation.incrementAndGet();
+        repository.getDashboardSync().sync()
+                .continueWith(compute, task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
+                    snapshots.save(task.getResult());
+                    return task.getResult();
+                })
+                .addOnCompleteListener(main, task -> {
+                    syncing = false;
+                    if (task.isSuccessful()) {
+                        DashboardSummary summary = task.getResult();
+                        lastSyncTime = summary.getLastSyncTime();
+                        HomeSavedState.save(savedState, summary);
+                        compute.execute(() -> post(started, HomeState.from(summary, trace)));
+                    } else {
+                        trace.finish();
+                        Log.e(TAG, "Dashboard sync failed", task.getException());
+                        syncError.setValue(task.getException());
+                    }
+                });
+    }
 
-    public HomeViewModel() {
-        mText = new MutableLiveData<>();
-        mText.setValue("This is home fragment");
+    /** Snapshot first (a preference read), then the day rows in the bucket store if it is from another day. */
+    private Task<Void> loadCached() {
+        int started = generation.get();
+        return Tasks.call(AppExecutors.diskIO(), () -> snapshots.load(System.currentTimeMillis()))
+                .continueWithTask(compute, task -> task.getResult() != null
+                        ? Tasks.forResult(task.getResult())
+                        : repository.getDashboardSync().loadCached())
+                .continueWith(compute, task -> {
+                    DashboardSummary summary = task.getResult();
+                    if (summary.hasData()) {
+                        lastSyncTime = Math.max(lastSyncTime, summary.getLastSyncTime());
+                        post(started, HomeState.from(summary, null));
+                    }
+                    return null;
+                });
     }
 
-    public LiveData<String> getText() {
-        return mText;
+    private synchronized void post(int started, HomeState next) {
+        if (generation.get() == started) {
+            state.postValue(next);
+        } else if (next.getTrace() != null) {
+            next.getTrace().finish();
+        }
     }
-}
\ No newline at end of file
+}
@@ -7,16 +7,16 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
-import android.widget.ImageView;
-import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
-import com.bumptech.glide.Glide;
 import com.example.fitproof.R;
+import com.example.fitproof.data.FitnessRepository;
+import com.example.fitproof.data.profile.ProfileCache;
+import com.example.fitproof.data.sync.PrefetchScheduler;
 import com.google.android.gms.auth.api.signin.GoogleSignIn;
 import com.google.android.gms.auth.api.signin.GoogleSignInAccount;
 import com.google.android.gms.auth.api.signin.GoogleSignInClient;
@@ -24,7 +24,6 @@ import com.google.android.gms.auth.api.signin.GoogleSignInOptions;
 import com.google.android.gms.common.SignInButton;
 import com.google.android.gms.common.api.ApiException;
 import com.google.android.gms.tasks.Task;
-import com.google.android.material.navigation.NavigationView;
 
 public class LoginFragment extends Fragment {
 
@@ -56,7 +55,9 @@ public class LoginFragment extends Fragment {
         logoutButton.setOnClickListener(v -> {
             mGoogleSignInClient.signOut().addOnCompleteListener(requireActivity(), task -> {
                 Toast.makeText(getContext(), "Logged out successfully", Toast.LENGTH_SHORT).show();
-                updateNavHeader(null);
+                // The next account must not start from this one's name, photo or numbers.
+                ProfileCache.getInstance(requireContext()).clear();
+                FitnessRepository.getInstance(requireContext()).clearLocalData();
                 signInButton.setVisibility(View.VISIBLE);
                 logoutButton.setVisibility(View.GONE);
             });
@@ -65,7 +66,7 @@ public class LoginFragment extends Fragment {
         // Check if already signed in
         GoogleSignInAccount account = GoogleSignIn.getLastSignedInAccount(requireContext());
         if (account != null) {
-            updateNavHeader(account);
+            ProfileCache.getInstance(requireContext()).rememberIfMissing(account);
             signInButton.setVisibility(View.GONE);
             logoutButton.setVisibility(View.VISIBLE);
         } else {
@@ -96,9 +97,11 @@ public class LoginFragment extends Fragment {
             GoogleSignInAccount account = completedTask.getResult(ApiException.class);
             if (account != null) {
                 Toast.makeText(getContext(), "Welcome " + account.getDisplayName(), Toast.LENGTH_SHORT).show();
-                updateNavHeader(account);
+                ProfileCache.getInstance(requireContext()).remember(account);
+                FitnessRepository.getInstance(requireContext()).claimStore(account);
                 signInButton.setVisibility(View.GONE);
                 logoutButton.setVisibility(View.VISIBLE);
+                PrefetchScheduler.requestNow(requireContext());
             }
         } catch (ApiException e) {
             Log.e("GoogleSignIn", "Sign-in failed: code=" + e.getStatusCode(), e);
@@ -106,28 +109,4 @@ public class LoginFragment extends Fragment {
         }
     }
 
-    private void updateNavHeader(GoogleSignInAccount account) {
-        NavigationView navigationView = requireActivity().findViewById(R.id.nav_view);
-        View headerView = navigationView.getHeaderView(0);
-
-        TextView navUserName = headerView.findViewById(R.id.Name);
-        TextView navUserEmail = headerView.findViewById(R.id.Gmail);
-        ImageView navUserImage = headerView.findViewById(R.id.profileImage);
-
-        if (account != null) {
-            navUserName.setText(account.getDisplayName());
-            navUserEmail.setText(account.getEmail());
-
-            if (account.getPhotoUrl() != null) {
-                Glide.with(this).load(account.getPhotoUrl()).into(navUserImage);
-            } else {
-                navUserImage.setImageResource(R.drawable.default_avatar); // fallback image
-            }
-        } else {
-            navUserName.setText("Guest");
-            navUserEmail.setText("");
-            navUserImage.setImageResource(R.drawable.default_avatar);
-        }
-    }
-
 }
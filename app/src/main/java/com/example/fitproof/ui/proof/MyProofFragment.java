@@ -2,11 +2,11 @@ package com.example.fitproof.ui.proof;
 
 import android.app.AlertDialog;
 import android.app.DatePickerDialog;
+import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
-import android.os.Handler;
-import android.text.TextUtils;
+import android.os.Trace;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -15,101 +15,109 @@ import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.ProgressBar;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.cardview.widget.CardView;
+import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
+import androidx.core.util.Pair;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
 
 import com.example.fitproof.R;
+import com.example.fitproof.data.AppExecutors;
+import com.example.fitproof.data.FitnessRepository;
+import com.example.fitproof.data.analysis.PlausibilityReport;
+import com.example.fitproof.data.fit.FitSession;
+import com.example.fitproof.data.fit.MetricGroups;
+import com.example.fitproof.data.fit.TimeBuckets;
+import com.example.fitproof.data.store.BucketStore;
+import com.example.fitproof.data.sync.SyncTrace;
+import com.example.fitproof.proof.MerkleBatch;
+import com.example.fitproof.proof.ProofHasher;
+import com.example.fitproof.proof.WorkoutProof;
+import com.example.fitproof.publish.ProofPublishWorker;
+import com.example.fitproof.publish.PublishScheduler;
 import com.google.android.gms.auth.api.signin.GoogleSignIn;
 import com.google.android.gms.auth.api.signin.GoogleSignInAccount;
-import com.google.android.gms.common.api.ApiException;
-import com.google.android.gms.fitness.Fitness;
-import com.google.android.gms.fitness.FitnessActivities;
 import com.google.android.gms.fitness.FitnessOptions;
-import com.google.android.gms.fitness.data.Bucket;
-import com.google.android.gms.fitness.data.DataPoint;
-import com.google.android.gms.fitness.data.DataSet;
-import com.google.android.gms.fitness.data.DataType;
-import com.google.android.gms.fitness.data.Field;
-import com.google.android.gms.fitness.data.Session;
-import com.google.android.gms.fitness.request.DataReadRequest;
-import com.google.android.gms.fitness.request.SessionReadRequest;
+import com.google.android.gms.tasks.Tasks;
 import com.google.android.material.button.MaterialButton;
+import com.google.android.material.datepicker.CalendarConstraints;
+import com.google.android.material.datepicker.DateValidatorPointBackward;
+import com.google.android.material.datepicker.MaterialDatePicker;
 
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
+import java.util.List;
+import java.util.TimeZone;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
-import com.example.fitproof.BuildConfig;
-
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import org.apache.commons.codec.digest.DigestUtils;
-import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-import retrofit2.Retrofit;
-import retrofit2.converter.gson.GsonConverterFactory;
-import retrofit2.http.Body;
-import retrofit2.http.Header;
-import retrofit2.http.POST;
-
-interface GitHubService {
-    @POST("gists")
-    Call<JsonObject> createGist(
-            @Header("Authorization") String token,
-            @Header("Accept") String acceptHeader,
-            @Body Map<String, Object> body
-    );
-}
+import java.util.concurrent.Callable;
 
 public class MyProofFragment extends Fragment {
 
     private static final int GOOGLE_FIT_PERMISSIONS_REQUEST_CODE = 1001;
     private static final String TAG = "MyProofFragment";
-    private static final String GITHUB_API_BASE_URL = "https://api.github.com/";
-    private static final String GITHUB_TOKEN = BuildConfig.GITHUB_TOKEN;
+    private static final String INFLATE_SECTION = "inflate:fragment_my_proof";
+    /** Start of a day to open on instead of today, as picked from the history screen. */
+    public static final String ARG_DAY_START = "day_start";
+    // A year of days is already one Merkle path of 9 hashes; longer ranges gain nothing.
+    private static final int MAX_RANGE_DAYS = 366;
+    // Rows that fit in session_timeline_height.
+    private static final int TIMELINE_ROWS = 5;
 
     private TextView tvSelectedDate, tvWorkoutType, tvVerificationStatus;
     private TextView tvDurationValue, tvActivitySummary, tvHeartPtsValue, tvStepsValue, tvDistanceValue;
-    private TextView tvHeartRateValue, tvPaceValue, tvErrorMessage;
+    private TextView tvHeartRateValue, tvPaceValue, tvErrorMessage, tvSelectRange, tvSessionsTitle;
     private ImageView ivWorkoutIcon, ivVerificationIcon, ivRetry;
-    private LinearLayout layoutDateSelector, layoutVerificationBadge, layoutLoading;
+    private LinearLayout layoutDateSelector, layoutVerificationBadge, layoutLoading, layoutSessions;
+    private RecyclerView rvSessions;
+    private final SessionTimelineAdapter sessionAdapter = new SessionTimelineAdapter();
     private CardView cardErrorState;
     private MaterialButton btnSyncWorkout, btnVerifyWorkout;
     private ProgressBar progressBar;
 
+    private FitnessRepository repository;
+    private MyProofViewModel viewModel;
+    private ProofDayState currentState;
+    @Nullable private ProofRangeState currentRange;
     private FitnessOptions fitnessOptions;
-    private long selectedStartTime;
-    private long selectedEndTime;
 
     public MyProofFragment() {
     }
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
-        View view = inflater.inflate(R.layout.fragment_my_proof, container, false);
+        View view;
+        Trace.beginSection(INFLATE_SECTION);
+        try {
+            view = inflater.inflate(R.layout.fragment_my_proof, container, false);
+        } finally {
+            Trace.endSection();
+        }
+        viewModel = new ViewModelProvider(this).get(MyProofViewModel.class);
         initializeViews(view);
         setupInitialData();
         setupClickListeners();
         setupGoogleFitOptions();
+        viewModel.getState().observe(getViewLifecycleOwner(), this::render);
+        viewModel.getRange().observe(getViewLifecycleOwner(), range -> currentRange = range);
         checkGoogleFitPermissions();
         return view;
     }
 
     private void initializeViews(View view) {
         tvSelectedDate = view.findViewById(R.id.tv_selected_date);
+        tvSelectRange = view.findViewById(R.id.tv_select_range);
         tvWorkoutType = view.findViewById(R.id.tv_workout_type);
         tvVerificationStatus = view.findViewById(R.id.tv_verification_status);
         tvDurationValue = view.findViewById(R.id.tv_duration_value);
@@ -122,12 +130,17 @@ public class MyProofFragment extends Fragment {
         ivRetry = view.findViewById(R.id.iv_retry);
         tvActivitySummary = view.findViewById(R.id.tv_workout_type);
         tvHeartPtsValue = view.findViewById(R.id.tv_heart_pts_value);
+        tvHeartRateValue = view.findViewById(R.id.tv_heart_rate_value);
         layoutDateSelector = view.findViewById(R.id.layout_date_selector);
         layoutVerificationBadge = view.findViewById(R.id.layout_verification_badge);
         layoutLoading = view.findViewById(R.id.layout_loading);
         cardErrorState = view.findViewById(R.id.card_error_state);
         btnSyncWorkout = view.findViewById(R.id.btn_sync_workout);
         btnVerifyWorkout = view.findViewById(R.id.btn_verify_workout);
+        layoutSessions = view.findViewById(R.id.layout_sessions);
+        tvSessionsTitle = view.findViewById(R.id.tv_sessions_title);
+        rvSessions = view.findViewById(R.id.rv_sessions);
+        rvSessions.setAdapter(sessionAdapter);
 
         resetAllValues();
     }
@@ -142,56 +155,79 @@ public class MyProofFragment extends Fragment {
     }
 
     private void setupInitialData() {
-        Calendar today = Calendar.getInstance();
-        setSelectedDate(today);
         tvWorkoutType.setText("No Activity");
         tvVerificationStatus.setText("Not Synced");
         layoutVerificationBadge.setBackgroundResource(R.drawable.bg_verification_pending);
+        if (viewModel.getDayStart() == 0) {
+            Calendar initial = Calendar.getInstance();
+            long requested = getArguments() != null ? getArguments().getLong(ARG_DAY_START) : 0;
+            if (requested > 0) {
+                initial.setTimeInMillis(requested);
+            }
+            setSelectedDate(initial);
+        } else if (viewModel.isRange()) {
+            showSelectedRange(viewModel.getDayStart(), viewModel.getDayEnd());
+        } else {
+            Calendar selected = Calendar.getInstance();
+            selected.setTimeInMillis(viewModel.getDayStart());
+            showSelectedDate(selected);
+        }
     }
 
     private void setSelectedDate(Calendar calendar) {
-        String formattedDate = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault())
-                .format(calendar.getTime());
-        tvSelectedDate.setText(formattedDate);
+        showSelectedDate(calendar);
 
         calendar.set(Calendar.HOUR_OF_DAY, 0);
         calendar.set(Calendar.MINUTE, 0);
         calendar.set(Calendar.SECOND, 0);
         calendar.set(Calendar.MILLISECOND, 0);
-        selectedStartTime = calendar.getTimeInMillis();
+        long start = calendar.getTimeInMillis();
 
         calendar.set(Calendar.HOUR_OF_DAY, 23);
         calendar.set(Calendar.MINUTE, 59);
         calendar.set(Calendar.SECOND, 59);
         calendar.set(Calendar.MILLISECOND, 999);
-        selectedEndTime = calendar.getTimeInMillis();
+        viewModel.selectDay(start, calendar.getTimeInMillis());
+    }
+
+    private void showSelectedDate(Calendar calendar) {
+        tvSelectedDate.setText(new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault())
+                .format(calendar.getTime()));
+    }
+
+    /** [first day's midnight, last day's 23:59:59.999], like a single day. */
+    private void setSelectedRange(long firstDay, long lastDay) {
+        long end = TimeBuckets.nextDay(lastDay) - 1;
+        showSelectedRange(firstDay, end);
+        viewModel.selectRange(firstDay, end);
+    }
+
+    private void showSelectedRange(long start, long end) {
+        SimpleDateFormat format = new SimpleDateFormat("MMM dd", Locale.getDefault());
+        int days = 0;
+        for (long day = start; day < end; day = TimeBuckets.nextDay(day)) {
+            days++;
+        }
+        tvSelectedDate.setText(format.format(start) + " - " + format.format(end) + " (" + days + " days)");
     }
 
     private void setupClickListeners() {
         layoutDateSelector.setOnClickListener(v -> showDatePicker());
+        tvSelectRange.setOnClickListener(v -> showRangePicker());
         btnSyncWorkout.setOnClickListener(v -> startSyncProcess());
         btnVerifyWorkout.setOnClickListener(v -> startVerificationProcess());
         ivRetry.setOnClickListener(v -> retrySync());
     }
 
     private void setupGoogleFitOptions() {
-        fitnessOptions = FitnessOptions.builder()
-                .addDataType(DataType.TYPE_STEP_COUNT_DELTA, FitnessOptions.ACCESS_READ)
-                .addDataType(DataType.TYPE_DISTANCE_DELTA, FitnessOptions.ACCESS_READ)
-                .addDataType(DataType.TYPE_HEART_POINTS, FitnessOptions.ACCESS_READ)
-                .addDataType(DataType.TYPE_SPEED, FitnessOptions.ACCESS_READ)
-                .addDataType(DataType.TYPE_ACTIVITY_SEGMENT, FitnessOptions.ACCESS_READ)
-                .addDataType(DataType.AGGREGATE_STEP_COUNT_DELTA, FitnessOptions.ACCESS_READ)
-                .addDataType(DataType.AGGREGATE_DISTANCE_DELTA, FitnessOptions.ACCESS_READ)
-                .addDataType(DataType.AGGREGATE_HEART_POINTS, FitnessOptions.ACCESS_READ)
-                .addDataType(DataType.AGGREGATE_SPEED_SUMMARY, FitnessOptions.ACCESS_READ)
-                .build();
+        repository = FitnessRepository.getInstance(requireContext());
+        fitnessOptions = repository.getFitnessOptions(MetricGroups.PROOF);
     }
 
     private void checkGoogleFitPermissions() {
         if (getContext() == null) return;
 
-        GoogleSignInAccount account = GoogleSignIn.getAccountForExtension(requireContext(), fitnessOptions);
+        GoogleSignInAccount account = repository.getAccount(MetricGroups.PROOF);
 
         if (!GoogleSignIn.hasPermissions(account, fitnessOptions)) {
             GoogleSignIn.requestPermissions(this, GOOGLE_FIT_PERMISSIONS_REQUEST_CODE, account, fitnessOptions);
@@ -202,7 +238,7 @@ public class MyProofFragment extends Fragment {
     public void onActivityResult(int requestCode, int resultCode, @Nullable Intent data) {
         super.onActivityResult(requestCode, resultCode, data);
         if (requestCode == GOOGLE_FIT_PERMISSIONS_REQUEST_CODE) {
-            GoogleSignInAccount account = GoogleSignIn.getAccountForExtension(requireContext(), fitnessOptions);
+            GoogleSignInAccount account = repository.getAccount(MetricGroups.PROOF);
             if (GoogleSignIn.hasPermissions(account, fitnessOptions)) {
                 Log.d(TAG, "Google Fit permissions granted");
             } else {
@@ -229,11 +265,8 @@ public class MyProofFragment extends Fragment {
                         return;
                     }
 
-                    setSelectedDate(selectedCalendar);
-                    resetAllValues();
-                    tvVerificationStatus.setText("Not Synced");
-                    layoutVerificationBadge.setBackgroundResource(R.drawable.bg_verification_pending);
                     cardErrorState.setVisibility(View.GONE);
+                    setSelectedDate(selectedCalendar);
                 },
                 year, month, day
         );
@@ -242,10 +275,41 @@ public class MyProofFragment extends Fragment {
         datePickerDialog.show();
     }
 
+    private void showRangePicker() {
+        MaterialDatePicker<Pair<Long, Long>> picker = MaterialDatePicker.Builder.dateRangePicker()
+                .setTitleText("Select date range")
+                .setCalendarConstraints(new CalendarConstraints.Builder()
+                        .setValidator(DateValidatorPointBackward.now())
+                        .build())
+                .build();
+        picker.addOnPositiveButtonClickListener(selection -> {
+            if (selection.first == null || selection.second == null) return;
+            long first = localDay(selection.first);
+            long last = localDay(selection.second);
+            if (TimeBuckets.addDays(first, MAX_RANGE_DAYS) <= last) {
+                showErrorState("Ranges are limited to " + MAX_RANGE_DAYS + " days");
+                return;
+            }
+            cardErrorState.setVisibility(View.GONE);
+            setSelectedRange(first, last);
+        });
+        picker.show(getChildFragmentManager(), "range_picker");
+    }
+
+    /** The picker hands out UTC midnights; the app's days are local. */
+    private static long localDay(long utcMidnight) {
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        utc.setTimeInMillis(utcMidnight);
+        Calendar local = Calendar.getInstance();
+        local.clear();
+        local.set(utc.get(Calendar.YEAR), utc.get(Calendar.MONTH), utc.get(Calendar.DAY_OF_MONTH));
+        return local.getTimeInMillis();
+    }
+
     private void startSyncProcess() {
         if (getContext() == null) return;
 
-        GoogleSignInAccount account = GoogleSignIn.getAccountForExtension(requireContext(), fitnessOptions);
+        GoogleSignInAccount account = repository.getAccount(MetricGroups.PROOF);
 
         if (!GoogleSignIn.hasPermissions(account, fitnessOptions)) {
             showErrorState("Please grant Google Fit permissions first");
@@ -253,334 +317,100 @@ public class MyProofFragment extends Fragment {
             return;
         }
 
-        showLoadingState(true);
         cardErrorState.setVisibility(View.GONE);
-        resetAllValues();
-        fetchGoogleFitData(account);
+        viewModel.sync();
     }
 
-    private void fetchGoogleFitData(GoogleSignInAccount account) {
-        Log.d(TAG, "Fetching Google Fit data for period: " + new Date(selectedStartTime) + " to " + new Date(selectedEndTime));
-        fetchSessionData(account);
-        fetchAggregatedData(account);
-    }
+    private void render(ProofDayState state) {
+        if (!isAdded() || state.getDayStart() != viewModel.getDayStart()) return;
 
-    private void fetchSessionData(GoogleSignInAccount account) {
-        SessionReadRequest readRequest = new SessionReadRequest.Builder()
-                .setTimeInterval(selectedStartTime, selectedEndTime, TimeUnit.MILLISECONDS)
-                .read(DataType.TYPE_STEP_COUNT_DELTA)
-                .read(DataType.TYPE_DISTANCE_DELTA)
-                .read(DataType.TYPE_HEART_RATE_BPM)
-                .read(DataType.TYPE_SPEED)
-                .read(DataType.TYPE_ACTIVITY_SEGMENT)
-                .build();
-
-        Fitness.getSessionsClient(requireActivity(), account)
-                .readSession(readRequest)
-                .addOnSuccessListener(response -> {
-                    Log.d(TAG, "Session data fetched successfully. Sessions count: " + response.getSessions().size());
-
-                    boolean hasSessionData = false;
-                    String detectedActivity = "No Activity";
-                    long totalDuration = 0;
-
-                    for (Session session : response.getSessions()) {
-                        Log.d(TAG, "Session: " + session.getName() + ", Activity: " + session.getActivity());
-                        hasSessionData = true;
-                        detectedActivity = getFriendlyActivityName(session.getActivity());
-                        totalDuration += session.getEndTime(TimeUnit.MILLISECONDS) - session.getStartTime(TimeUnit.MILLISECONDS);
-
-                        List<DataSet> dataSets = response.getDataSet(session);
-                        for (DataSet dataSet : dataSets) {
-                            processDataSet(dataSet);
-                        }
-                    }
-
-                    if (hasSessionData) {
-                        tvWorkoutType.setText(detectedActivity);
-                        if (totalDuration > 0) {
-                            long minutes = TimeUnit.MILLISECONDS.toMinutes(totalDuration);
-                            long seconds = TimeUnit.MILLISECONDS.toSeconds(totalDuration) % 60;
-                            tvDurationValue.setText(String.format(Locale.getDefault(), "%02d:%02d", minutes, seconds));
-                        }
-                    }
-
-                    finalizeSyncProcess();
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to fetch session data", e);
-                    finalizeSyncProcess();
-                });
-    }
-
-    private void fetchAggregatedData(GoogleSignInAccount account) {
-        fetchSteps(account);
-        fetchActivityNames(account);
-        fetchDistance(account);
-        fetchHeartPts(account);
-        fetchSpeed(account);
-        fetchDuration(account);
-    }
-
-    private void fetchSteps(GoogleSignInAccount account) {
-        DataReadRequest stepsRequest = new DataReadRequest.Builder()
-                .aggregate(DataType.TYPE_STEP_COUNT_DELTA, DataType.AGGREGATE_STEP_COUNT_DELTA)
-                .setTimeRange(selectedStartTime, selectedEndTime, TimeUnit.MILLISECONDS)
-                .bucketByTime(1, TimeUnit.DAYS)
-                .build();
-
-        Fitness.getHistoryClient(requireActivity(), account)
-                .readData(stepsRequest)
-                .addOnSuccessListener(response -> {
-                    int totalSteps = 0;
-                    Log.d(TAG, "Number of buckets: " + response.getBuckets().size());
-                    for (Bucket bucket : response.getBuckets()) {
-                        for (DataSet dataSet : bucket.getDataSets()) {
-                            for (DataPoint dataPoint : dataSet.getDataPoints()) {
-                                totalSteps += dataPoint.getValue(Field.FIELD_STEPS).asInt();
-                            }
-                        }
-                    }
-                    tvStepsValue.setText(String.valueOf(totalSteps));
-                    Log.d(TAG, "Steps fetched: " + totalSteps);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to fetch steps: " + e.getMessage(), e);
-                    showErrorState("Failed to fetch steps");
-                });
-    }
-
-    private void fetchDistance(GoogleSignInAccount account) {
-        DataReadRequest distanceRequest = new DataReadRequest.Builder()
-                .aggregate(DataType.TYPE_DISTANCE_DELTA, DataType.AGGREGATE_DISTANCE_DELTA)
-                .setTimeRange(selectedStartTime, selectedEndTime, TimeUnit.MILLISECONDS)
-                .bucketByTime(1, TimeUnit.DAYS)
-                .build();
-
-        Fitness.getHistoryClient(requireActivity(), account)
-                .readData(distanceRequest)
-                .addOnSuccessListener(response -> {
-                    float totalDistance = 0;
-                    Log.d(TAG, "Number of buckets: " + response.getBuckets().size());
-                    for (Bucket bucket : response.getBuckets()) {
-                        for (DataSet dataSet : bucket.getDataSets()) {
-                            for (DataPoint dataPoint : dataSet.getDataPoints()) {
-                                totalDistance += dataPoint.getValue(Field.FIELD_DISTANCE).asFloat();
-                            }
-                        }
-                    }
-                    float distanceInKm = totalDistance / 1000f;
-                    tvDistanceValue.setText(String.format(Locale.getDefault(), "%.2f km", distanceInKm));
-                    Log.d(TAG, "Distance fetched: " + distanceInKm + " km");
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to fetch distance: " + e.getMessage(), e);
-                    showErrorState("Failed to fetch distance");
-                });
-    }
-
-    private void fetchHeartPts(GoogleSignInAccount account) {
-        DataReadRequest readRequest = new DataReadRequest.Builder()
-                .aggregate(DataType.TYPE_HEART_POINTS, DataType.AGGREGATE_HEART_POINTS)
-                .bucketByTime(1, TimeUnit.DAYS)
-                .setTimeRange(selectedStartTime, selectedEndTime, TimeUnit.MILLISECONDS)
-                .build();
-
-        Fitness.getHistoryClient(requireActivity(), account)
-                .readData(readRequest)
-                .addOnSuccessListener(response -> {
-                    float totalHeartPoints = 0;
-                    Log.d(TAG, "Number of buckets: " + response.getBuckets().size());
-                    for (Bucket bucket : response.getBuckets()) {
-                        for (DataSet dataSet : bucket.getDataSets()) {
-                            for (DataPoint dataPoint : dataSet.getDataPoints()) {
-                                totalHeartPoints += dataPoint.getValue(Field.FIELD_INTENSITY).asFloat();
-                            }
-                        }
-                    }
-                    tvHeartPtsValue.setText(String.format(Locale.getDefault(), "%.0f", totalHeartPoints));
-                    Log.d(TAG, "Heart Points fetched: " + totalHeartPoints);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to fetch heart points: " + e.getMessage(), e);
-                    showErrorState("Failed to fetch heart points");
-                });
-    }
-
-    private void fetchSpeed(GoogleSignInAccount account) {
-        DataReadRequest speedRequest = new DataReadRequest.Builder()
-                .aggregate(DataType.TYPE_SPEED, DataType.AGGREGATE_SPEED_SUMMARY)
-                .setTimeRange(selectedStartTime, selectedEndTime, TimeUnit.MILLISECONDS)
-                .bucketByTime(1, TimeUnit.DAYS)
-                .build();
-
-        Fitness.getHistoryClient(requireActivity(), account)
-                .readData(speedRequest)
-                .addOnSuccessListener(response -> {
-                    float avgSpeed = 0;
-                    Log.d(TAG, "Number of buckets: " + response.getBuckets().size());
-                    for (Bucket bucket : response.getBuckets()) {
-                        for (DataSet dataSet : bucket.getDataSets()) {
-                            for (DataPoint dataPoint : dataSet.getDataPoints()) {
-                                avgSpeed = dataPoint.getValue(Field.FIELD_AVERAGE).asFloat();
-                                break;
-                            }
-                        }
-                    }
-                    if (avgSpeed > 0) {
-                        float paceMinPerKm = (1000f / avgSpeed) / 60f;
-                        tvPaceValue.setText(String.format(Locale.getDefault(), "%.2f min/km", paceMinPerKm));
-                        Log.d(TAG, "Pace fetched: " + paceMinPerKm + " min/km");
-                    } else {
-                        tvPaceValue.setText("-- min/km");
-                        Log.d(TAG, "No valid pace data");
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to fetch speed: " + e.getMessage(), e);
-                    showErrorState("Failed to fetch pace");
-                });
-    }
-
-    private void fetchDuration(GoogleSignInAccount account) {
-        DataReadRequest durationRequest = new DataReadRequest.Builder()
-                .aggregate(DataType.TYPE_ACTIVITY_SEGMENT, DataType.AGGREGATE_ACTIVITY_SUMMARY)
-                .setTimeRange(selectedStartTime, selectedEndTime, TimeUnit.MILLISECONDS)
-                .bucketByTime(1, TimeUnit.DAYS)
-                .build();
-
-        Fitness.getHistoryClient(requireActivity(), account)
-                .readData(durationRequest)
-                .addOnSuccessListener(response -> {
-                    long totalDuration = 0;
-                    Log.d(TAG, "Number of buckets: " + response.getBuckets().size());
-                    for (Bucket bucket : response.getBuckets()) {
-                        for (DataSet dataSet : bucket.getDataSets()) {
-                            for (DataPoint dataPoint : dataSet.getDataPoints()) {
-                                totalDuration += dataPoint.getEndTime(TimeUnit.MILLISECONDS) - dataPoint.getStartTime(TimeUnit.MILLISECONDS);
-                            }
-                        }
-                    }
-                    long minutes = TimeUnit.MILLISECONDS.toMinutes(totalDuration);
-                    long seconds = TimeUnit.MILLISECONDS.toSeconds(totalDuration) % 60;
-                    tvDurationValue.setText(String.format(Locale.getDefault(), "%02d:%02d", minutes, seconds));
-                    Log.d(TAG, "Duration fetched: " + minutes + " minutes " + seconds + " seconds");
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to fetch duration: " + e.getMessage(), e);
-                    showErrorState("Failed to fetch duration");
-                });
-    }
-
-    private void fetchActivityNames(GoogleSignInAccount account) {
-        Log.d(TAG, "Fetching activity names from " + new Date(selectedStartTime) + " to " + new Date(selectedEndTime));
-
-        DataReadRequest activityRequest = new DataReadRequest.Builder()
-                .read(DataType.TYPE_ACTIVITY_SEGMENT)
-                .setTimeRange(selectedStartTime, selectedEndTime, TimeUnit.MILLISECONDS)
-                .bucketByTime(1, TimeUnit.DAYS)
-                .build();
-
-        Fitness.getHistoryClient(requireActivity(), account)
-                .readData(activityRequest)
-                .addOnSuccessListener(response -> {
-                    Set<String> activityNames = new HashSet<>();
-                    Log.d(TAG, "Number of buckets: " + response.getBuckets().size());
-
-                    for (Bucket bucket : response.getBuckets()) {
-                        for (DataSet dataSet : bucket.getDataSets()) {
-                            for (DataPoint dataPoint : dataSet.getDataPoints()) {
-                                String activityName = dataPoint.getValue(Field.FIELD_ACTIVITY).asActivity();
-                                String friendlyName = getFriendlyActivityName(activityName);
-                                activityNames.add(friendlyName);
-                                Log.d(TAG, "Activity: " + friendlyName);
-                            }
-                        }
-                    }
-
-                    String summary;
-                    if (activityNames.isEmpty()) {
-                        summary = "No activities recorded";
-                    } else {
-                        summary = TextUtils.join(", ", activityNames);
-                    }
-
-                    requireActivity().runOnUiThread(() -> tvActivitySummary.setText(summary));
-                    Log.d(TAG, "Activity names: " + summary);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to fetch activity names: " + e.getMessage(), e);
-                    if (e instanceof ApiException) {
-                        Log.e(TAG, "API error code: " + ((ApiException) e).getStatusCode());
-                    }
-                    requireActivity().runOnUiThread(() -> tvActivitySummary.setText("Error fetching activities"));
-                    showErrorState("Failed to fetch activity names");
-                });
-    }
-
-    private String getFriendlyActivityName(String activity) {
-        switch (activity) {
-            case FitnessActivities.WALKING:
-                return "Walking";
-            case FitnessActivities.RUNNING:
-                return "Running";
-            case FitnessActivities.RUNNING_JOGGING:
-                return "Jogging";
-            case FitnessActivities.BIKING:
-                return "Cycling";
-            case FitnessActivities.SLEEP:
-                return "Sleeping";
-            case FitnessActivities.YOGA:
-                return "Yoga";
-            default:
-                return activity;
+        SyncTrace trace = state.getTrace();
+        if (trace == null || trace.getWallMillis() >= 0) {
+            showState(state);
+            return;
         }
-    }
+        trace.onMain(() -> showState(state));
+        trace.finish();
+        Log.d(TAG, trace.toString());
+    }
+
+    private void showState(ProofDayState state) {
+        currentState = state;
+        tvDurationValue.setText(state.getDurationText());
+        tvStepsValue.setText(state.getStepsText());
+        tvDistanceValue.setText(state.getDistanceText());
+        tvHeartPtsValue.setText(state.getHeartPtsText());
+        tvPaceValue.setText(state.getPaceText());
+        tvActivitySummary.setText(state.getActivitySummaryText());
+        if (state.getWorkoutTypeText() != null) {
+            tvWorkoutType.setText(state.getWorkoutTypeText());
+        }
+        tvHeartRateValue.setVisibility(state.getHeartRateText() != null ? View.VISIBLE : View.GONE);
+        tvHeartRateValue.setText(state.getHeartRateText());
+        showSessions(state.getSessions());
 
-    private void processDataSet(DataSet dataSet) {
-        DataType dataType = dataSet.getDataType();
-
-        for (DataPoint dataPoint : dataSet.getDataPoints()) {
-            if (dataType.equals(DataType.TYPE_STEP_COUNT_DELTA)) {
-                int steps = dataPoint.getValue(Field.FIELD_STEPS).asInt();
-                tvStepsValue.setText(String.valueOf(steps));
-                Log.d(TAG, "Session steps: " + steps);
-            } else if (dataType.equals(DataType.TYPE_DISTANCE_DELTA)) {
-                float distance = dataPoint.getValue(Field.FIELD_DISTANCE).asFloat() / 1000f;
-                tvDistanceValue.setText(String.format(Locale.getDefault(), "%.2f km", distance));
-                Log.d(TAG, "Session distance: " + distance + " km");
-            } else if (dataType.equals(DataType.TYPE_HEART_RATE_BPM)) {
-                float heartRate = dataPoint.getValue(Field.FIELD_BPM).asFloat();
-                tvHeartRateValue.setText(String.format(Locale.getDefault(), "%.0f bpm", heartRate));
-                Log.d(TAG, "Session heart rate: " + heartRate + " bpm");
-            } else if (dataType.equals(DataType.TYPE_SPEED)) {
-                float speed = dataPoint.getValue(Field.FIELD_SPEED).asFloat();
-                if (speed > 0) {
-                    float pace = (1000f / speed) / 60f;
-                    tvPaceValue.setText(String.format(Locale.getDefault(), "%.2f min/km", pace));
-                    Log.d(TAG, "Session pace: " + pace + " min/km");
-                }
-            } else if (dataType.equals(DataType.TYPE_ACTIVITY_SEGMENT)) {
-                String activityName = getFriendlyActivityName(dataPoint.getValue(Field.FIELD_ACTIVITY).asActivity());
-                tvWorkoutType.setText(activityName);
-                Log.d(TAG, "Session activity: " + activityName);
-            }
+        switch (state.getStatus()) {
+            case NOT_SYNCED:
+                showLoadingState(false);
+                tvVerificationStatus.setText("Not Synced");
+                layoutVerificationBadge.setBackgroundResource(R.drawable.bg_verification_pending);
+                break;
+            case LOADING:
+                showLoadingState(true);
+                break;
+            case SYNCED:
+                showLoadingState(false);
+                tvVerificationStatus.setText("Synced");
+                layoutVerificationBadge.setBackgroundResource(R.drawable.bg_verification_success);
+                break;
+            case ERROR:
+                showErrorState(state.getErrorMessage());
+                break;
         }
     }
 
-    private void finalizeSyncProcess() {
-        showLoadingState(false);
-        tvVerificationStatus.setText("Synced");
-        layoutVerificationBadge.setBackgroundResource(R.drawable.bg_verification_success);
-        btnVerifyWorkout.setEnabled(true);
-        Log.d(TAG, "Sync process completed");
+    /**
+     * Up to {@link #TIMELINE_ROWS} sessions the list wraps them; past that it keeps a fixed height
+     * and scrolls inside the page, so only the rows on screen are ever inflated and bound.
+     */
+    private void showSessions(List<FitSession> sessions) {
+        layoutSessions.setVisibility(sessions.isEmpty() ? View.GONE : View.VISIBLE);
+        tvSessionsTitle.setText(sessions.size() == 1 ? "1 Session" : sessions.size() + " Sessions");
+        sessionAdapter.setShowsDates(viewModel.isRange());
+        ViewGroup.LayoutParams params = rvSessions.getLayoutParams();
+        int height = sessions.size() > TIMELINE_ROWS
+                ? getResources().getDimensionPixelSize(R.dimen.session_timeline_height)
+                : ViewGroup.LayoutParams.WRAP_CONTENT;
+        if (params.height != height) {
+            params.height = height;
+            rvSessions.setLayoutParams(params);
+        }
+        sessionAdapter.submitList(sessions);
     }
 
     private void startVerificationProcess() {
-        showLoadingState(true);
         cardErrorState.setVisibility(View.GONE);
+        if (currentState == null || !currentState.isVerifiable()) {
+            showErrorState("Sync with Google Fit before verifying. These numbers are not confirmed yet.");
+            return;
+        }
+        if (!currentState.hasData()) {
+            showErrorState("Verification failed. Please ensure you have valid workout data.");
+            return;
+        }
+        // Proofs are built before anything says "Verified", so a range with nothing to prove fails here.
+        long issuedAt = System.currentTimeMillis();
+        ProofRangeState range = viewModel.isRange() ? currentRange : null;
+        List<WorkoutProof> proofs = range != null
+                ? range.toProofs(issuedAt)
+                : Collections.singletonList(currentState.toProof(UUID.randomUUID().toString(), issuedAt));
+        if (proofs.isEmpty()) {
+            showErrorState("Verification failed. No day in this range has workout data.");
+            return;
+        }
+        showLoadingState(true);
 
-        HashMap<String, Object> workoutData = new HashMap<>();
+        Map<String, Object> workoutData = new LinkedHashMap<>();
         workoutData.put("date", tvSelectedDate.getText().toString());
         workoutData.put("workoutType", tvWorkoutType.getText().toString());
         workoutData.put("duration", tvDurationValue.getText().toString());
@@ -592,163 +422,146 @@ public class MyProofFragment extends Fragment {
 
         Log.d(TAG, "Workout data before verification: " + workoutData);
 
-        new Handler().postDelayed(() -> {
-            boolean isVerified = simulateVerification();
+        viewModel.checkPlausibility().addOnCompleteListener(ContextCompat.getMainExecutor(requireContext()), task -> {
+            if (!isAdded()) return;
             showLoadingState(false);
+            if (!task.isSuccessful()) {
+                Log.e(TAG, "Plausibility check failed", task.getException());
+                showErrorState("Verification failed. Could not read minute data from Google Fit.");
+                return;
+            }
+            PlausibilityReport report = task.getResult();
+            Log.d(TAG, report.toString());
+            if (!report.isPlausible()) {
+                showErrorState("Verification failed. The workout data is not plausible: "
+                        + report.getViolations().get(0).getMessage());
+                return;
+            }
 
-            if (isVerified) {
-                tvVerificationStatus.setText("Verified");
-                layoutVerificationBadge.setBackgroundResource(R.drawable.bg_verification_success);
-                ivVerificationIcon.setImageResource(R.drawable.ic_verify);
-                btnVerifyWorkout.setEnabled(false);
-                btnVerifyWorkout.setText("Verified");
-
-                String jsonWithHash = createJsonWithHash(workoutData);
-                if (jsonWithHash != null) {
-                    Log.d(TAG, "JSON with hash: " + jsonWithHash);
-                    publishToGitHubGist(jsonWithHash);
-                } else {
-                    showErrorState("Failed to create JSON with hash");
-                }
+            showVerified();
+            workoutData.put("minutesChecked", report.getMinutesChecked());
 
-                showWorkoutDataPopup(workoutData);
-            } else {
-                showErrorState("Verification failed. Please ensure you have valid workout data.");
+            if (range != null) {
+                verifyRange(range, proofs, workoutData);
+                return;
             }
-        }, 2000);
-    }
+            WorkoutProof proof = proofs.get(0);
+            byte[] encoded = ProofHasher.encode(proof);
+            Log.d(TAG, "Canonical proof: " + new String(encoded, StandardCharsets.UTF_8));
+            Context context = requireContext().getApplicationContext();
+            queueForPublishing(() -> {
+                ProofPublishWorker.openOutbox(context).enqueue("proof-" + proof.getProofId() + ".json", encoded);
+                recordIssued(context, Collections.singletonList(proof));
+                return null;
+            });
+            workoutData.put("proofHash", ProofHasher.hashHex(proof));
 
-    private boolean simulateVerification() {
-        String steps = tvStepsValue.getText().toString();
-        String activitySummary = tvActivitySummary.getText().toString();
-        String distance = tvDistanceValue.getText().toString();
+            showWorkoutDataPopup(workoutData);
+        });
+    }
 
-        try {
-            int stepCount = Integer.parseInt(steps);
-            float distanceCount = Float.parseFloat(distance.replace(" km", ""));
-            boolean hasActivity = !activitySummary.equals("No activities recorded") && !activitySummary.equals("Error fetching activities");
+    /**
+     * One proof per active day under a single Merkle root. The root is what gets published; each
+     * day's proof and receipt are archived first, so a published root is never missing its days.
+     */
+    private void verifyRange(ProofRangeState range, List<WorkoutProof> proofs, Map<String, Object> workoutData) {
+        MerkleBatch batch = MerkleBatch.of(proofs);
+        String rootHex = batch.getTree().getRootHex();
+        Context context = requireContext().getApplicationContext();
+        queueForPublishing(() -> {
+            ProofPublishWorker.openReceipts(context).save(batch);
+            ProofPublishWorker.openOutbox(context)
+                    .enqueue("range-" + rootHex.substring(0, 16) + ".json", batch.encodeRoot());
+            recordIssued(context, proofs);
+            return null;
+        });
 
-            return stepCount > 100 || distanceCount > 0.1 || hasActivity;
-        } catch (NumberFormatException e) {
-            return false;
+        workoutData.put("activeDays", range.getActiveDayCount() + " of " + range.getDays().size());
+        workoutData.put("merkleRoot", rootHex);
+        StringBuilder breakdown = new StringBuilder();
+        SimpleDateFormat format = new SimpleDateFormat("MMM dd", Locale.getDefault());
+        for (ProofDayState day : range.getDays()) {
+            if (!day.hasData()) continue;
+            breakdown.append("\n  ").append(format.format(day.getDayStart())).append(": ")
+                    .append(day.getStepsText()).append(" steps, ").append(day.getDistanceText());
         }
+        workoutData.put("days", breakdown.toString());
+        showWorkoutDataPopup(workoutData);
     }
 
-    private String computeSHA256Hash(String jsonString) {
-        try {
-            return DigestUtils.sha256Hex(jsonString);
-        } catch (Exception e) {
-            Log.e(TAG, "Error computing SHA-256 hash", e);
-            return null;
-        }
+    private void showVerified() {
+        tvVerificationStatus.setText("Verified");
+        layoutVerificationBadge.setBackgroundResource(R.drawable.bg_verification_success);
+        ivVerificationIcon.setImageResource(R.drawable.ic_verify);
+        btnVerifyWorkout.setEnabled(false);
+        btnVerifyWorkout.setText("Verified");
     }
 
-    private String createJsonWithHash(HashMap<String, Object> workoutData) {
-        try {
-            String proofId = UUID.randomUUID().toString();
-            Gson gson = new Gson();
-            String workoutJson = gson.toJson(workoutData);
-            String hash = computeSHA256Hash(workoutJson);
+    /** Notes each proof against its day for the History screen. Runs on the disk executor. */
+    private static void recordIssued(Context context, List<WorkoutProof> proofs) {
+        BucketStore store = FitnessRepository.getInstance(context).getBucketStore();
+        for (WorkoutProof proof : proofs) {
+            store.putProof(proof.getProofId(), proof.getDayStart(), proof.getIssuedAt());
+        }
+    }
 
-            if (hash == null) {
-                return null;
+    /** {@code save} puts the proof in the outbox first, so it is published even if we are offline right now. */
+    private void queueForPublishing(Callable<Void> save) {
+        Context context = requireContext().getApplicationContext();
+        Tasks.call(AppExecutors.diskIO(), save).addOnCompleteListener(ContextCompat.getMainExecutor(context), task -> {
+            if (!isAdded()) return;
+            if (!task.isSuccessful()) {
+                showErrorState("Could not save proof: " + task.getException().getMessage());
+                return;
             }
-
-            Map<String, Object> finalJson = new HashMap<>();
-            finalJson.put("proof_id", proofId);
-            finalJson.put("timestamp", System.currentTimeMillis());
-            finalJson.put("workout_data", workoutData);
-            finalJson.put("hash", hash);
-            finalJson.put("hash_algorithm", "SHA-256");
-
-            return gson.toJson(finalJson);
-        } catch (Exception e) {
-            Log.e(TAG, "Error creating JSON with hash", e);
-            return null;
-        }
+            if (!ProofPublishWorker.isTokenConfigured()) {
+                showErrorState("GitHub token not configured. Proof saved; it will be published once a token is set.");
+                return;
+            }
+            UUID request = PublishScheduler.requestNow(context);
+            WorkManager.getInstance(context).getWorkInfoByIdLiveData(request)
+                    .observe(getViewLifecycleOwner(), this::onPublishProgress);
+        });
     }
 
-    private void publishToGitHubGist(String jsonContent) {
-        if (TextUtils.isEmpty(GITHUB_TOKEN) || GITHUB_TOKEN.equals("Personal Access Token")) {
-            showErrorState("GitHub token not configured. Please set your personal access token.");
-            return;
+    private void onPublishProgress(@Nullable WorkInfo info) {
+        if (info == null) return;
+        switch (info.getState()) {
+            case ENQUEUED:
+                if (info.getRunAttemptCount() == 0) {
+                    Toast.makeText(requireContext(), "Proof saved, publishing when online", Toast.LENGTH_SHORT).show();
+                }
+                break;
+            case SUCCEEDED:
+                String[] urls = info.getOutputData().getStringArray(ProofPublishWorker.KEY_GIST_URLS);
+                if (urls != null && urls.length > 0) {
+                    showPublished(urls[urls.length - 1]);
+                }
+                break;
+            case FAILED:
+                String error = info.getOutputData().getString(ProofPublishWorker.KEY_ERROR);
+                showErrorState(error != null ? error : "Failed to publish to GitHub");
+                break;
+            default:
+                break;
         }
+    }
 
-        showLoadingState(true);
-
-        HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
-        logging.setLevel(HttpLoggingInterceptor.Level.BODY);
-
-        OkHttpClient client = new OkHttpClient.Builder()
-                .addInterceptor(logging)
-                .build();
-
-        Retrofit retrofit = new Retrofit.Builder()
-                .baseUrl(GITHUB_API_BASE_URL)
-                .client(client)
-                .addConverterFactory(GsonConverterFactory.create())
-                .build();
-
-        GitHubService service = retrofit.create(GitHubService.class);
-
-        Map<String, Object> fileContent = new HashMap<>();
-        fileContent.put("content", jsonContent);
-
-        Map<String, Object> files = new HashMap<>();
-        files.put("workout-proof.json", fileContent);
-
-        Map<String, Object> gistData = new HashMap<>();
-        gistData.put("description", "Workout Proof - " + new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault()).format(new Date()));
-        gistData.put("public", true);
-        gistData.put("files", files);
-
-        String authToken = "token " + GITHUB_TOKEN;
-        Call<JsonObject> call = service.createGist(authToken, "application/vnd.github.v3+json", gistData);
-
-        call.enqueue(new Callback<JsonObject>() {
-            @Override
-            public void onResponse(Call<JsonObject> call, Response<JsonObject> response) {
-                showLoadingState(false);
-
-                if (response.isSuccessful() && response.body() != null) {
-                    JsonObject gistResponse = response.body();
-                    String gistUrl = gistResponse.has("html_url") ?
-                            gistResponse.get("html_url").getAsString() : "Unknown URL";
-
-                    Log.d(TAG, "Successfully published to GitHub Gist: " + gistUrl);
-
-                    new AlertDialog.Builder(requireContext())
-                            .setTitle("Published to GitHub")
-                            .setMessage("Workout proof successfully published!\n\nGist URL: " + gistUrl)
-                            .setPositiveButton("Open", (dialog, which) -> {
-                                Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(gistUrl));
-                                startActivity(browserIntent);
-                            })
-                            .setNegativeButton("OK", (dialog, which) -> dialog.dismiss())
-                            .show();
-                } else {
-                    String errorMessage = "Failed to publish to GitHub";
-                    if (response.errorBody() != null) {
-                        try {
-                            errorMessage = response.errorBody().string();
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error reading error response", e);
-                        }
-                    }
-                    showErrorState(errorMessage);
-                }
-            }
+    private void showPublished(String gistUrl) {
+        Log.d(TAG, "Successfully published to GitHub Gist: " + gistUrl);
 
-            @Override
-            public void onFailure(Call<JsonObject> call, Throwable t) {
-                showLoadingState(false);
-                showErrorState("Network error: " + t.getMessage());
-                Log.e(TAG, "GitHub API call failed", t);
-            }
-        });
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Published to GitHub")
+                .setMessage("Workout proof successfully published!\n\nGist URL: " + gistUrl)
+                .setPositiveButton("Open", (dialog, which) -> {
+                    Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(gistUrl));
+                    startActivity(browserIntent);
+                })
+                .setNegativeButton("OK", (dialog, which) -> dialog.dismiss())
+                .show();
     }
 
-    private void showWorkoutDataPopup(HashMap<String, Object> workoutData) {
+    private void showWorkoutDataPopup(Map<String, Object> workoutData) {
         StringBuilder message = new StringBuilder();
         for (String key : workoutData.keySet()) {
             message.append(key).append(": ").append(workoutData.get(key)).append("\n");
@@ -772,7 +585,8 @@ public class MyProofFragment extends Fragment {
             btnSyncWorkout.setEnabled(!show);
         }
         if (btnVerifyWorkout != null && !btnVerifyWorkout.getText().toString().equals("Verified")) {
-            btnVerifyWorkout.setEnabled(!show);
+            // Prefetched or failed numbers stay unverifiable until a sync confirms them.
+            btnVerifyWorkout.setEnabled(!show && currentState != null && currentState.isVerifiable());
         }
     }
 
@@ -791,4 +605,11 @@ public class MyProofFragment extends Fragment {
         cardErrorState.setVisibility(View.GONE);
         startSyncProcess();
     }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        // The adapter outlives the view on the back stack and would keep the old tree attached.
+        rvSessions.setAdapter(null);
+    }
 }
\ No newline at end of file
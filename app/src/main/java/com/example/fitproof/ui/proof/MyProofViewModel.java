@@ -0,0 +1,231 @@
+package com.example.fitproof.ui.proof;
+
+import android.app.Application;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.fitproof.data.AppExecutors;
+import com.example.fitproof.data.FitnessRepository;
+import com.example.fitproof.data.analysis.PlausibilityEngine;
+import com.example.fitproof.data.analysis.PlausibilityReport;
+import com.example.fitproof.data.fit.FitBucket;
+import com.example.fitproof.data.fit.FitDataSource;
+import com.example.fitproof.data.fit.FitQuery;
+import com.example.fitproof.data.fit.FitSession;
+import com.example.fitproof.data.fit.MetricGroups;
+import com.example.fitproof.data.fit.SyncCoordinator;
+import com.example.fitproof.data.fit.SyncPlan;
+import com.example.fitproof.data.fit.SyncPlanner;
+import com.example.fitproof.data.fit.TimeBuckets;
+import com.example.fitproof.data.sync.ChunkedRead;
+import com.example.fitproof.data.sync.IncrementalSync;
+import com.example.fitproof.data.sync.MinuteSync;
+import com.example.fitproof.data.sync.SyncTrace;
+import com.google.android.gms.common.api.ApiException;
+import com.google.android.gms.tasks.Task;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Loads the selected day or range for My Proof, from disk first and from Fit on request. Every
+ * listener runs on the compute executor and the result reaches the fragment as a finished
+ * {@link ProofDayState}; a range also publishes its per-day breakdown as a {@link ProofRangeState}.
+ */
+public class MyProofViewModel extends AndroidViewModel {
+
+    private static final String TAG = "MyProofViewModel";
+
+    private final FitnessRepository repository;
+    private final Executor compute = AppExecutors.compute();
+    private final MutableLiveData<ProofDayState> state = new MutableLiveData<>();
+    private final MutableLiveData<ProofRangeState> range = new MutableLiveData<>();
+    private final PlausibilityEngine plausibility = PlausibilityEngine.withDefaultRules();
+    // Bumped whenever the day changes or a sync starts, so late results for an old request are dropped.
+    private final AtomicInteger generation = new AtomicInteger();
+
+    private volatile long dayStart;
+    private volatile long dayEnd;
+
+    public MyProofViewModel(@NonNull Application application) {
+        super(application);
+        repository = FitnessRepository.getInstance(application);
+    }
+
+    public LiveData<ProofDayState> getState() {
+        return state;
+    }
+
+    /** Null while a single day is selected or before the range has loaded. */
+    public LiveData<ProofRangeState> getRange() {
+        return range;
+    }
+
+    public long getDayStart() {
+        return dayStart;
+    }
+
+    public long getDayEnd() {
+        return dayEnd;
+    }
+
+    /** True when the selection spans more than one calendar day. */
+    public boolean isRange() {
+        return dayStart != 0 && dayEnd >= TimeBuckets.nextDay(dayStart);
+    }
+
+    /** Switches to [start, end] and shows whatever is on disk for it. */
+    public void selectDay(long start, long end) {
+        dayStart = start;
+        dayEnd = end;
+        int started = generation.incrementAndGet();
+        state.setValue(ProofDayState.empty(start, ProofDayState.Status.NOT_SYNCED));
+        range.setValue(null);
+        showCachedDay(started, start, end);
+    }
+
+    /** Like {@link #selectDay} for [first day's start, last day's end]. */
+    public void selectRange(long start, long end) {
+        selectDay(start, end);
+    }
+
+    public void sync() {
+        long start = dayStart;
+        long end = dayEnd;
+        boolean isRange = isRange();
+        SyncTrace trace = SyncTrace.begin(isRange ? "proof-range" : "proof");
+        int started = generation.incrementAndGet();
+        state.setValue(ProofDayState.empty(start, ProofDayState.Status.LOADING));
+        repository.invalidate();
+        Log.d(TAG, "Fetching Google Fit data for period: " + new Date(start) + " to " + new Date(end));
+
+        SyncPlan plan = SyncPlanner.forRange(start, end)
+                .aggregate(MetricGroups.PROOF)
+                .withSessions()
+                .build();
+        FitDataSource dataSource = repository.getDataSource();
+        IncrementalSync sync = repository.getIncrementalSync();
+        FitQuery query = plan.getAggregateQuery();
+
+        AtomicReference<List<FitBucket>> buckets = new AtomicReference<>();
+        AtomicReference<List<FitSession>> sessions = new AtomicReference<>();
+        SyncCoordinator coordinator = new SyncCoordinator(plan.getParts(), failures -> {
+            if (isRange) {
+                ProofRangeState result = ProofRangeState.forRange(start, end, ProofDayState.Status.SYNCED,
+                        buckets.get(), sessions.get(), trace);
+                if (failures.containsKey(SyncPlan.PART_AGGREGATES)) {
+                    result = result.withError("Failed to fetch workout data", "Error fetching activities");
+                }
+                postRange(started, result, end);
+                return;
+            }
+            ProofDayState result = ProofDayState.forDay(start, ProofDayState.Status.SYNCED,
+                    buckets.get(), sessions.get(), trace);
+            if (failures.containsKey(SyncPlan.PART_AGGREGATES)) {
+                result = result.withError("Failed to fetch workout data", "Error fetching activities");
+            }
+            postWithHeartRate(started, result, end);
+        });
+
+        sync.load(query.getMetrics(), query.getStartTime(), query.getEndTime(), FitQuery.DAY_BUCKET)
+                .addOnSuccessListener(compute, result -> {
+                    buckets.set(result);
+                    coordinator.partSucceeded(SyncPlan.PART_AGGREGATES);
+                })
+                .addOnFailureListener(compute, e -> {
+                    Log.e(TAG, "Failed to fetch aggregates: " + e.getMessage(), e);
+                    if (e instanceof ApiException) {
+                        Log.e(TAG, "API error code: " + ((ApiException) e).getStatusCode());
+                    }
+                    coordinator.partFailed(SyncPlan.PART_AGGREGATES, e);
+                });
+
+        // A long range reads its hourly aggregates in chunks inside IncrementalSync; sessions
+        // are chunked the same way so neither side is one huge read.
+        Task<List<FitSession>> sessionRead = isRange
+                ? ChunkedRead.read(plan.getStartTime(), plan.getEndTime(), compute, dataSource::readSessions)
+                : dataSource.readSessions(plan.getStartTime(), plan.getEndTime());
+        sessionRead
+                .addOnSuccessListener(compute, result -> {
+                    sessions.set(result);
+                    coordinator.partSucceeded(SyncPlan.PART_SESSIONS);
+                })
+                .addOnFailureListener(compute, e -> {
+                    Log.e(TAG, "Failed to fetch session data", e);
+                    coordinator.partFailed(SyncPlan.PART_SESSIONS, e);
+                });
+    }
+
+    /**
+     * Runs the plausibility rules over the raw minutes of the selected day or range, a day at a time
+     * so a range never holds more than a few days of minutes at once. Minutes the ingest already
+     * stored come from disk; only the rest, usually the last couple of hours, is read from Fit.
+     */
+    public Task<PlausibilityReport> checkPlausibility() {
+        MinuteSync minutes = repository.getMinuteSync();
+        ChunkedRead.Reader<PlausibilityReport> checkDay = (start, end) -> minutes.minutes(start, end)
+                .continueWith(compute, task -> Collections.singletonList(plausibility.check(task.getResult())));
+        return ChunkedRead.read(dayStart, dayEnd, 1, compute, checkDay)
+                .continueWith(compute, task -> PlausibilityReport.combine(task.getResult()));
+    }
+
+    private void showCachedDay(int started, long start, long end) {
+        IncrementalSync sync = repository.getIncrementalSync();
+        sync.loadCached(MetricGroups.PROOF, start, end, FitQuery.DAY_BUCKET)
+                .addOnSuccessListener(compute, days -> {
+                    if (days == null) {
+                        // Not settled yet (usually today): show what the prefetch left on disk,
+                        // but the day still needs a live sync before it can be verified.
+                        sync.peek(start, end, FitQuery.DAY_BUCKET).addOnSuccessListener(compute, prefetched -> {
+                            if (!prefetched.isEmpty()) {
+                                postWithHeartRate(started, ProofDayState.forDay(start,
+                                        ProofDayState.Status.NOT_SYNCED, prefetched, null, null), end);
+                            }
+                        });
+                        return;
+                    }
+                    if (days.isEmpty()) return;
+                    Log.d(TAG, "Serving " + new Date(start) + " from local store");
+                    if (end >= TimeBuckets.nextDay(start)) {
+                        postRange(started, ProofRangeState.forRange(start, end, ProofDayState.Status.SYNCED,
+                                days, null, null), end);
+                    } else {
+                        postWithHeartRate(started, ProofDayState.forDay(start, ProofDayState.Status.SYNCED,
+                                days, null, null), end);
+                    }
+                });
+    }
+
+    private void postRange(int started, ProofRangeState next, long end) {
+        if (generation.get() == started) {
+            range.postValue(next);
+        }
+        postWithHeartRate(started, next.getTotal(), end);
+    }
+
+    /**
+     * Adds the heart-rate figures stored for [the state's day, end) before posting. They come from
+     * the minute ingest on disk, so this never waits on Fit; without them the state goes as is.
+     */
+    private void postWithHeartRate(int started, ProofDayState next, long end) {
+        repository.getMinuteSync().heartRate(next.getDayStart(), end)
+                .addOnCompleteListener(compute, task -> post(started,
+                        task.isSuccessful() ? next.withHeartRate(task.getResult()) : next));
+    }
+
+    private void post(int started, ProofDayState next) {
+        if (generation.get() == started) {
+            state.postValue(next);
+        } else if (next.getTrace() != null) {
+            next.getTrace().finish();
+        }
+    }
+}
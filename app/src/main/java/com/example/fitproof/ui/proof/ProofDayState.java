@@ -0,0 +1,347 @@
+package com.example.fitproof.ui.proof;
+
+import androidx.annotation.Nullable;
+
+import com.example.fitproof.data.analysis.HeartRateSummary;
+import com.example.fitproof.data.fit.FitBucket;
+import com.example.fitproof.data.fit.FitSession;
+import com.example.fitproof.data.sync.SyncTrace;
+import com.example.fitproof.proof.WorkoutProof;
+import com.google.android.gms.fitness.FitnessActivities;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the My Proof card shows for one day, already formatted. Built on the compute executor from
+ * the day's buckets and sessions; the fragment only copies the strings into views.
+ */
+public final class ProofDayState {
+
+    public enum Status { NOT_SYNCED, LOADING, SYNCED, ERROR }
+
+    private final long dayStart;
+    private final Status status;
+    private final String durationText;
+    private final String stepsText;
+    private final String distanceText;
+    private final String heartPtsText;
+    private final String paceText;
+    private final String activitySummaryText;
+    @Nullable private final String workoutTypeText;
+    @Nullable private final String heartRateText;
+    @Nullable private final String errorMessage;
+    @Nullable private final SyncTrace trace;
+    @Nullable private final FitBucket dayTotals;
+    @Nullable private final FitSession lastSession;
+    private final long sessionMillis;
+    private final List<FitSession> sessions;
+
+    private ProofDayState(Builder builder) {
+        this.dayStart = builder.dayStart;
+        this.status = builder.status;
+        this.durationText = builder.durationText;
+        this.stepsText = builder.stepsText;
+        this.distanceText = builder.distanceText;
+        this.heartPtsText = builder.heartPtsText;
+        this.paceText = builder.paceText;
+        this.activitySummaryText = builder.activitySummaryText;
+        this.workoutTypeText = builder.workoutTypeText;
+        this.heartRateText = builder.heartRateText;
+        this.errorMessage = builder.errorMessage;
+        this.trace = builder.trace;
+        this.dayTotals = builder.dayTotals;
+        this.lastSession = builder.lastSession;
+        this.sessionMillis = builder.sessionMillis;
+        this.sessions = builder.sessions;
+    }
+
+    /** Blank card for a day nothing is known about yet. */
+    public static ProofDayState empty(long dayStart, Status status) {
+        return new Builder(dayStart, status).build();
+    }
+
+    /**
+     * Card for a day's buckets and sessions, either of which may be missing. Sessions win over the
+     * day totals for workout type, duration and pace, as they describe the actual workout.
+     */
+    public static ProofDayState forDay(long dayStart, Status status, @Nullable List<FitBucket> buckets,
+                                       @Nullable List<FitSession> sessions, @Nullable SyncTrace trace) {
+        Builder builder = new Builder(dayStart, status);
+        builder.trace = trace;
+        if (buckets != null && !buckets.isEmpty()) {
+            builder.aggregates(FitBucket.merge(buckets));
+        }
+        if (sessions != null) {
+            builder.sessions(sessions);
+        }
+        return builder.build();
+    }
+
+    public ProofDayState withError(String message, @Nullable String activitySummary) {
+        Builder builder = toBuilder();
+        builder.status = Status.ERROR;
+        builder.errorMessage = message;
+        if (activitySummary != null) {
+            builder.activitySummaryText = activitySummary;
+        }
+        return builder.build();
+    }
+
+    /**
+     * Fills in the heart-rate figures the minute ingest stored for the day (or range). They replace
+     * the plain daily average; the last session's own figures, when it has any, still win.
+     */
+    public ProofDayState withHeartRate(HeartRateSummary stored) {
+        if (!stored.hasData() || lastSession != null && lastSession.getHeartRate() != null) {
+            return this;
+        }
+        Builder builder = toBuilder();
+        builder.heartRateText = formatHeartRate(stored);
+        return builder.build();
+    }
+
+    public long getDayStart() {
+        return dayStart;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getDurationText() {
+        return durationText;
+    }
+
+    public String getStepsText() {
+        return stepsText;
+    }
+
+    public String getDistanceText() {
+        return distanceText;
+    }
+
+    public String getHeartPtsText() {
+        return heartPtsText;
+    }
+
+    public String getPaceText() {
+        return paceText;
+    }
+
+    public String getActivitySummaryText() {
+        return activitySummaryText;
+    }
+
+    /** Name of the last session's activity, or null when the day had no sessions. */
+    @Nullable
+    public String getWorkoutTypeText() {
+        return workoutTypeText;
+    }
+
+    /** Every session of the day (or range) in start order, for the timeline. Empty when none. */
+    public List<FitSession> getSessions() {
+        return sessions;
+    }
+
+    @Nullable
+    public String getHeartRateText() {
+        return heartRateText;
+    }
+
+    @Nullable
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    /** The live sync this state came out of, or null for states served from disk. */
+    @Nullable
+    public SyncTrace getTrace() {
+        return trace;
+    }
+
+    /**
+     * Only numbers a live Fit read (or the settled days on disk) confirmed can be proved. Prefetched
+     * numbers for a day that has not settled are shown as {@link Status#NOT_SYNCED} and are not.
+     */
+    public boolean isVerifiable() {
+        return status == Status.SYNCED;
+    }
+
+    /** True when Fit recorded anything for the day: steps, active time or a session. */
+    public boolean hasData() {
+        return lastSession != null
+                || dayTotals != null && (dayTotals.getSteps() > 0 || dayTotals.getActiveMillis() > 0);
+    }
+
+    /**
+     * The typed facts behind this card, for hashing. Uses the same precedence as the card: session
+     * duration over active time, the last session's activity as the workout type.
+     */
+    public WorkoutProof toProof(String proofId, long issuedAt) {
+        WorkoutProof.Builder proof = WorkoutProof.builder()
+                .setProofId(proofId)
+                .setDayStart(dayStart)
+                .setIssuedAt(issuedAt);
+        long duration = 0;
+        if (dayTotals != null) {
+            proof.setSteps(dayTotals.getSteps())
+                    .setDistanceMeters(dayTotals.getDistanceMeters())
+                    .setHeartPoints(dayTotals.getHeartPoints())
+                    .setAverageSpeed(dayTotals.getAverageSpeed())
+                    .addActivities(dayTotals.getActivities());
+            duration = dayTotals.getActiveMillis();
+        }
+        if (lastSession != null) {
+            proof.setWorkoutType(lastSession.getActivity());
+            if (sessionMillis > 0) {
+                duration = sessionMillis;
+            }
+        }
+        return proof.setDurationMillis(duration).build();
+    }
+
+    static String formatDuration(long millis) {
+        long minutes = TimeUnit.MILLISECONDS.toMinutes(millis);
+        long seconds = TimeUnit.MILLISECONDS.toSeconds(millis) % 60;
+        return String.format(Locale.getDefault(), "%02d:%02d", minutes, seconds);
+    }
+
+    static String formatPace(float metersPerSecond) {
+        float paceMinPerKm = (1000f / metersPerSecond) / 60f;
+        return String.format(Locale.getDefault(), "%.2f min/km", paceMinPerKm);
+    }
+
+    /** "142 avg, 171 max bpm", then time in zones 4-5 and the resting estimate when known. */
+    static String formatHeartRate(HeartRateSummary heart) {
+        StringBuilder text = new StringBuilder(String.format(Locale.getDefault(), "%.0f avg, %.0f max bpm",
+                heart.getMean(), heart.getMax()));
+        long hardMinutes = TimeUnit.MILLISECONDS.toMinutes(heart.getZoneMillis(4) + heart.getZoneMillis(5));
+        if (hardMinutes > 0) {
+            text.append(String.format(Locale.getDefault(), "\n%d min in zones 4-5", hardMinutes));
+        }
+        if (heart.getResting() > 0) {
+            text.append(String.format(Locale.getDefault(), "\nresting %.0f", heart.getResting()));
+        }
+        return text.toString();
+    }
+
+    static String getFriendlyActivityName(String activity) {
+        switch (activity) {
+            case FitnessActivities.WALKING:
+                return "Walking";
+            case FitnessActivities.RUNNING:
+                return "Running";
+            case FitnessActivities.RUNNING_JOGGING:
+                return "Jogging";
+            case FitnessActivities.BIKING:
+                return "Cycling";
+            case FitnessActivities.SLEEP:
+                return "Sleeping";
+            case FitnessActivities.YOGA:
+                return "Yoga";
+            default:
+                return activity;
+        }
+    }
+
+    private Builder toBuilder() {
+        Builder builder = new Builder(dayStart, status);
+        builder.durationText = durationText;
+        builder.stepsText = stepsText;
+        builder.distanceText = distanceText;
+        builder.heartPtsText = heartPtsText;
+        builder.paceText = paceText;
+        builder.activitySummaryText = activitySummaryText;
+        builder.workoutTypeText = workoutTypeText;
+        builder.heartRateText = heartRateText;
+        builder.errorMessage = errorMessage;
+        builder.trace = trace;
+        builder.dayTotals = dayTotals;
+        builder.lastSession = lastSession;
+        builder.sessionMillis = sessionMillis;
+        builder.sessions = sessions;
+        return builder;
+    }
+
+    private static final class Builder {
+        private final long dayStart;
+        private Status status;
+        private String durationText = "00:00";
+        private String stepsText = "0";
+        private String distanceText = "0.00 km";
+        private String heartPtsText = "0";
+        private String paceText = "-- min/km";
+        private String activitySummaryText = "No activities";
+        private String workoutTypeText;
+        private String heartRateText;
+        private String errorMessage;
+        private SyncTrace trace;
+        private FitBucket dayTotals;
+        private FitSession lastSession;
+        private long sessionMillis;
+        private List<FitSession> sessions = Collections.emptyList();
+
+        Builder(long dayStart, Status status) {
+            this.dayStart = dayStart;
+            this.status = status;
+        }
+
+        void aggregates(FitBucket day) {
+            dayTotals = day;
+            stepsText = String.valueOf(day.getSteps());
+            distanceText = String.format(Locale.getDefault(), "%.2f km", day.getDistanceMeters() / 1000f);
+            heartPtsText = String.format(Locale.getDefault(), "%.0f", day.getHeartPoints());
+            paceText = day.getAverageSpeed() > 0 ? formatPace(day.getAverageSpeed()) : "-- min/km";
+            durationText = formatDuration(day.getActiveMillis());
+            if (day.getAverageHeartRate() > 0) {
+                heartRateText = String.format(Locale.getDefault(), "%.0f bpm avg", day.getAverageHeartRate());
+            }
+
+            Set<String> activityNames = new LinkedHashSet<>();
+            for (String activity : day.getActivities()) {
+                activityNames.add(getFriendlyActivityName(activity));
+            }
+            activitySummaryText = activityNames.isEmpty()
+                    ? "No activities recorded" : String.join(", ", activityNames);
+        }
+
+        void sessions(List<FitSession> read) {
+            if (read.isEmpty()) return;
+
+            List<FitSession> sorted = new ArrayList<>(read);
+            Collections.sort(sorted, Comparator.comparingLong(FitSession::getStartTime));
+            sessions = Collections.unmodifiableList(sorted);
+            long totalDuration = 0;
+            for (FitSession session : sessions) {
+                totalDuration += session.getDurationMillis();
+            }
+
+            FitSession last = sessions.get(sessions.size() - 1);
+            lastSession = last;
+            sessionMillis = totalDuration;
+            workoutTypeText = getFriendlyActivityName(last.getActivity());
+            if (totalDuration > 0) {
+                durationText = formatDuration(totalDuration);
+            }
+            if (last.getLastSpeed() > 0) {
+                paceText = formatPace(last.getLastSpeed());
+            }
+            if (last.getHeartRate() != null) {
+                heartRateText = formatHeartRate(last.getHeartRate());
+            } else if (last.getLastHeartRate() > 0) {
+                heartRateText = String.format(Locale.getDefault(), "%.0f bpm", last.getLastHeartRate());
+            }
+        }
+
+        ProofDayState build() {
+            return new ProofDayState(this);
+        }
+    }
+}
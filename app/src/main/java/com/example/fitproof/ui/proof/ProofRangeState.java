@@ -0,0 +1,125 @@
+package com.example.fitproof.ui.proof;
+
+import androidx.annotation.Nullable;
+
+import com.example.fitproof.data.fit.FitBucket;
+import com.example.fitproof.data.fit.FitSession;
+import com.example.fitproof.data.fit.TimeBuckets;
+import com.example.fitproof.data.sync.SyncTrace;
+import com.example.fitproof.proof.MerkleBatch;
+import com.example.fitproof.proof.WorkoutProof;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * My Proof over several days: the totals card plus one {@link ProofDayState} per day. Built on
+ * the compute executor from the range's day buckets and sessions. The range proof is a
+ * {@link MerkleBatch} over the days that have data.
+ */
+public final class ProofRangeState {
+
+    private final long rangeStart;
+    private final long rangeEnd;
+    private final ProofDayState total;
+    private final List<ProofDayState> days;
+
+    private ProofRangeState(long rangeStart, long rangeEnd, ProofDayState total, List<ProofDayState> days) {
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+        this.total = total;
+        this.days = Collections.unmodifiableList(days);
+    }
+
+    /**
+     * Splits day buckets and sessions into days of [rangeStart, rangeEnd). Sessions read in
+     * chunks come back twice when they overlap a chunk edge; those are counted once.
+     */
+    public static ProofRangeState forRange(long rangeStart, long rangeEnd, ProofDayState.Status status,
+                                           @Nullable List<FitBucket> dayBuckets,
+                                           @Nullable List<FitSession> sessions, @Nullable SyncTrace trace) {
+        Map<Long, FitBucket> bucketByDay = new HashMap<>();
+        if (dayBuckets != null) {
+            for (FitBucket bucket : dayBuckets) {
+                bucketByDay.put(bucket.getStartTime(), bucket);
+            }
+        }
+        List<FitSession> unique = null;
+        Map<Long, List<FitSession>> sessionsByDay = new HashMap<>();
+        if (sessions != null) {
+            unique = new ArrayList<>(sessions.size());
+            Set<List<Long>> seen = new HashSet<>();
+            for (FitSession session : sessions) {
+                if (!seen.add(Arrays.asList(session.getStartTime(), session.getEndTime()))) continue;
+                unique.add(session);
+                long day = TimeBuckets.startOfDay(session.getStartTime());
+                List<FitSession> daySessions = sessionsByDay.get(day);
+                if (daySessions == null) {
+                    daySessions = new ArrayList<>();
+                    sessionsByDay.put(day, daySessions);
+                }
+                daySessions.add(session);
+            }
+        }
+
+        List<ProofDayState> days = new ArrayList<>();
+        for (long day = TimeBuckets.startOfDay(rangeStart); day < rangeEnd; day = TimeBuckets.nextDay(day)) {
+            FitBucket bucket = bucketByDay.get(day);
+            List<FitSession> daySessions = sessionsByDay.get(day);
+            days.add(ProofDayState.forDay(day, status,
+                    bucket != null ? Collections.singletonList(bucket) : null,
+                    sessions != null ? (daySessions != null ? daySessions : Collections.emptyList()) : null,
+                    null));
+        }
+        ProofDayState total = ProofDayState.forDay(rangeStart, status, dayBuckets, unique, trace);
+        return new ProofRangeState(rangeStart, rangeEnd, total, days);
+    }
+
+    public ProofRangeState withError(String message, @Nullable String activitySummary) {
+        return new ProofRangeState(rangeStart, rangeEnd, total.withError(message, activitySummary), days);
+    }
+
+    public long getRangeStart() {
+        return rangeStart;
+    }
+
+    public long getRangeEnd() {
+        return rangeEnd;
+    }
+
+    /** The card: sums over every day, sessions across the whole range. */
+    public ProofDayState getTotal() {
+        return total;
+    }
+
+    /** Every calendar day in the range, oldest first, including days without data. */
+    public List<ProofDayState> getDays() {
+        return days;
+    }
+
+    public int getActiveDayCount() {
+        int active = 0;
+        for (ProofDayState day : days) {
+            if (day.hasData()) active++;
+        }
+        return active;
+    }
+
+    /** One proof per day with data, oldest first, all issued at {@code issuedAt}. */
+    public List<WorkoutProof> toProofs(long issuedAt) {
+        List<WorkoutProof> proofs = new ArrayList<>();
+        for (ProofDayState day : days) {
+            if (day.hasData()) {
+                proofs.add(day.toProof(UUID.randomUUID().toString(), issuedAt));
+            }
+        }
+        return proofs;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.fitproof.ui.proof;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.fitproof.R;
+import com.example.fitproof.data.analysis.HeartRateSummary;
+import com.example.fitproof.data.fit.FitSession;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * One row per session of the selected day or range. Lists are diffed off the main thread by
+ * {@link ListAdapter}, so a re-sync that changes one session rebinds one row. A row's stats line
+ * is formatted the first time it is bound and kept for as long as the session is, so a day of
+ * dozens of sessions only pays for the rows that scroll into view, once each.
+ */
+final class SessionTimelineAdapter extends ListAdapter<FitSession, SessionTimelineAdapter.Holder> {
+
+    private static final DiffUtil.ItemCallback<FitSession> DIFF = new DiffUtil.ItemCallback<FitSession>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull FitSession a, @NonNull FitSession b) {
+            return a.getStartTime() == b.getStartTime() && a.getActivity().equals(b.getActivity());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull FitSession a, @NonNull FitSession b) {
+            return a.getEndTime() == b.getEndTime()
+                    && Objects.equals(a.getName(), b.getName())
+                    && a.getSteps() == b.getSteps()
+                    && a.getDistanceMeters() == b.getDistanceMeters()
+                    && a.getLastSpeed() == b.getLastSpeed()
+                    && a.getLastHeartRate() == b.getLastHeartRate()
+                    && Objects.equals(a.getHeartRate(), b.getHeartRate());
+        }
+    };
+
+    // Keyed by identity: FitSession has no equals, and a session read again is a new object.
+    private final Map<FitSession, String> stats = new WeakHashMap<>();
+    private final SimpleDateFormat endFormat = new SimpleDateFormat("HH:mm", Locale.getDefault());
+    private SimpleDateFormat timeFormat = endFormat;
+    private boolean showsDates;
+
+    SessionTimelineAdapter() {
+        super(DIFF);
+    }
+
+    /** Prefixes each row's times with its day, for ranges that span several. */
+    void setShowsDates(boolean showsDates) {
+        if (this.showsDates == showsDates) return;
+        this.showsDates = showsDates;
+        timeFormat = showsDates ? new SimpleDateFormat("EEE d, HH:mm", Locale.getDefault()) : endFormat;
+        notifyItemRangeChanged(0, getItemCount());
+    }
+
+    @NonNull
+    @Override
+    public Holder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View row = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_session, parent, false);
+        return new Holder(row);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull Holder holder, int position) {
+        FitSession session = getItem(position);
+        String activity = ProofDayState.getFriendlyActivityName(session.getActivity());
+        String name = session.getName();
+        holder.title.setText(name == null || name.isEmpty() || name.equalsIgnoreCase(activity)
+                ? activity : activity + " - " + name);
+        holder.time.setText(timeFormat.format(new Date(session.getStartTime())) + " - "
+                + endFormat.format(new Date(session.getEndTime())));
+        String line = stats.get(session);
+        if (line == null) {
+            line = formatStats(session);
+            stats.put(session, line);
+        }
+        holder.stats.setText(line);
+    }
+
+    /** "32:10, 4200 steps, 5.10 km, 6.16 min/km, 152 avg bpm", leaving out what is missing. */
+    static String formatStats(FitSession session) {
+        StringBuilder line = new StringBuilder(ProofDayState.formatDuration(session.getDurationMillis()));
+        if (session.getSteps() > 0) {
+            line.append(", ").append(session.getSteps()).append(" steps");
+        }
+        if (session.getDistanceMeters() > 0) {
+            line.append(String.format(Locale.getDefault(), ", %.2f km", session.getDistanceMeters() / 1000f));
+        }
+        if (session.getLastSpeed() > 0) {
+            line.append(", ").append(ProofDayState.formatPace(session.getLastSpeed()));
+        }
+        HeartRateSummary heart = session.getHeartRate();
+        if (heart != null && heart.hasData()) {
+            line.append(String.format(Locale.getDefault(), ", %.0f avg bpm", heart.getMean()));
+        } else if (session.getLastHeartRate() > 0) {
+            line.append(String.format(Locale.getDefault(), ", %.0f bpm", session.getLastHeartRate()));
+        }
+        return line.toString();
+    }
+
+    static final class Holder extends RecyclerView.ViewHolder {
+        final TextView title;
+        final TextView time;
+        final TextView stats;
+
+        Holder(View row) {
+            super(row);
+            title = row.findViewById(R.id.tv_session_title);
+            time = row.findViewById(R.id.tv_session_time);
+            stats = row.findViewById(R.id.tv_session_stats);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.fitproof.data;
+
+import com.google.android.gms.tasks.Task;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Blocks a test on a Play Services task. {@code Tasks.await} first checks it is off the main thread
+ * through {@code Looper}, which is not mocked in local unit tests, so they wait on a latch instead.
+ */
+public final class TestTasks {
+
+    private TestTasks() {
+    }
+
+    public static <T> T await(Task<T> task, long timeout, TimeUnit unit)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        CountDownLatch done = new CountDownLatch(1);
+        task.addOnCompleteListener(Runnable::run, result -> done.countDown());
+        if (!done.await(timeout, unit)) {
+            throw new TimeoutException("Task not complete after " + timeout + " " + unit);
+        }
+        if (task.isCanceled()) {
+            throw new CancellationException();
+        }
+        if (!task.isSuccessful()) {
+            throw new ExecutionException(task.getException());
+        }
+        return task.getResult();
+    }
+}
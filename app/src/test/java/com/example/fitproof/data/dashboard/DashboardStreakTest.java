@@ -0,0 +1,82 @@
+package com.example.fitproof.data.dashboard;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.fitproof.data.TestTasks;
+import com.example.fitproof.data.fit.FakeFitDataSource;
+import com.example.fitproof.data.fit.TimeBuckets;
+import com.example.fitproof.data.store.InMemoryBucketStore;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class DashboardStreakTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private FakeFitDataSource fit;
+    private InMemoryBucketStore store;
+    private ExecutorService disk;
+    private DashboardSync sync;
+
+    @Before
+    public void setUp() {
+        now.set(TimeBuckets.startOfDay(System.currentTimeMillis()) + TimeUnit.HOURS.toMillis(9));
+        fit = new FakeFitDataSource(5, 0);
+        store = new InMemoryBucketStore();
+        disk = Executors.newSingleThreadExecutor();
+        sync = new DashboardSync(fit, store, disk, now::get);
+    }
+
+    @After
+    public void tearDown() {
+        fit.shutdown();
+        disk.shutdownNow();
+    }
+
+    private DashboardSummary syncNow() throws Exception {
+        return TestTasks.await(sync.sync(), 10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void firstSyncBackfillsThenEachDayIsOneStep() throws Exception {
+        DashboardSummary first = syncNow();
+        int window = DashboardAggregator.WINDOW_DAYS;
+        // Every day of the backfill and the window is active in the fake.
+        assertEquals(DashboardSync.BACKFILL_DAYS + window, first.getStreak());
+        assertEquals(first.getStreak(), first.getLongestStreak());
+        // One window read plus a year of history in 90-day chunks.
+        int afterFirst = fit.getRoundTrips();
+        assertEquals(1 + 5, afterFirst);
+
+        // Next day: yesterday is folded in from the delta, no history is read again.
+        now.addAndGet(TimeUnit.DAYS.toMillis(1));
+        DashboardSummary second = syncNow();
+        assertEquals(afterFirst + 1, fit.getRoundTrips());
+        assertEquals(first.getStreak() + 1, second.getStreak());
+
+        // The next delta re-reads yesterday as quiet, which ends the run; the longest is remembered.
+        fit.setStepsPerBucket(10);
+        now.addAndGet(TimeUnit.DAYS.toMillis(1));
+        syncNow();
+        fit.setStepsPerBucket(4000);
+        now.addAndGet(TimeUnit.DAYS.toMillis(1));
+        DashboardSummary after = syncNow();
+        assertEquals(2, after.getStreak());
+        assertEquals(first.getStreak(), after.getLongestStreak());
+
+        StreakIndex tenK = store.getStreakIndex(10_000);
+        assertEquals(0, tenK.getLongest());
+        assertTrue(tenK.isCurrent(TimeBuckets.startOfDay(now.get())));
+
+        // Served from disk with the index, not capped at the window.
+        DashboardSummary cached = TestTasks.await(sync.loadCached(), 5, TimeUnit.SECONDS);
+        assertEquals(after.getLongestStreak(), cached.getLongestStreak());
+    }
+}
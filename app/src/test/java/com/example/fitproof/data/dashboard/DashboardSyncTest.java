@@ -0,0 +1,137 @@
+package com.example.fitproof.data.dashboard;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.example.fitproof.data.TestTasks;
+import com.example.fitproof.data.fit.FakeFitDataSource;
+import com.example.fitproof.data.fit.FitMetric;
+import com.example.fitproof.data.fit.FitQuery;
+import com.example.fitproof.data.fit.TimeBuckets;
+import com.example.fitproof.data.store.InMemoryBucketStore;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class DashboardSyncTest {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private final AtomicLong now = new AtomicLong();
+    private long today;
+    private FakeFitDataSource fit;
+    private InMemoryBucketStore store;
+    private ExecutorService disk;
+    private DashboardSync sync;
+
+    @Before
+    public void setUp() {
+        today = TimeBuckets.startOfDay(System.currentTimeMillis());
+        now.set(today + 9 * HOUR);
+        fit = new FakeFitDataSource(1, 0);
+        store = new InMemoryBucketStore();
+        disk = Executors.newSingleThreadExecutor();
+        sync = new DashboardSync(fit, store, disk, now::get);
+    }
+
+    @After
+    public void tearDown() {
+        fit.shutdown();
+        disk.shutdownNow();
+    }
+
+    private DashboardSummary syncNow() throws Exception {
+        return TestTasks.await(sync.sync(), 10, TimeUnit.SECONDS);
+    }
+
+    private long windowStart(long todayStart) {
+        return TimeBuckets.addDays(todayStart, -(DashboardAggregator.WINDOW_DAYS - 1));
+    }
+
+    /** The window read among the queries since {@code from}; history reads carry steps only. */
+    private FitQuery windowReadSince(int from) {
+        List<FitQuery> queries = fit.getQueries();
+        FitQuery window = null;
+        for (FitQuery query : queries.subList(from, queries.size())) {
+            if (query.getMetrics().contains(FitMetric.CALORIES)) {
+                assertNull("one window read per sync", window);
+                window = query;
+            }
+        }
+        assertNotNull(window);
+        return window;
+    }
+
+    @Test
+    public void deltaStartsAtTheLastSyncDayWithinTheWindow() {
+        long windowStart = windowStart(today);
+        assertEquals(windowStart, DashboardSync.deltaStart(0, today, windowStart));
+        assertEquals(today, DashboardSync.deltaStart(today + 8 * HOUR, today, windowStart));
+        long twoDaysAgo = TimeBuckets.addDays(today, -2);
+        assertEquals(twoDaysAgo, DashboardSync.deltaStart(twoDaysAgo + 20 * HOUR, today, windowStart));
+        // Older than the window, or ahead of the clock: the whole window, or just today.
+        assertEquals(windowStart, DashboardSync.deltaStart(TimeBuckets.addDays(today, -30), today, windowStart));
+        assertEquals(today, DashboardSync.deltaStart(TimeBuckets.addDays(today, 2), today, windowStart));
+    }
+
+    @Test
+    public void aResyncTheSameDayReadsOnlyTodayAndMergesItWithTheStoredDays() throws Exception {
+        DashboardSummary first = syncNow();
+        assertEquals(windowStart(today), windowReadSince(0).getStartTime());
+        assertEquals(4000, first.getTodaySteps());
+        assertEquals(4000f, first.getWeeklyAvgSteps(), 0.01f);
+
+        int queries = fit.getQueries().size();
+        fit.setStepsPerBucket(11_000);
+        now.addAndGet(HOUR);
+        DashboardSummary second = syncNow();
+
+        FitQuery delta = windowReadSince(queries);
+        assertEquals(today, delta.getStartTime());
+        assertEquals(TimeBuckets.nextDay(today), delta.getEndTime());
+        // Nothing else went out: the streak index was already through yesterday.
+        assertEquals(queries + 1, fit.getQueries().size());
+        assertEquals(11_000, second.getTodaySteps());
+        assertEquals((6 * 4000 + 11_000) / 7f, second.getWeeklyAvgSteps(), 0.01f);
+        assertEquals(DashboardAggregator.WINDOW_DAYS, second.getDayCount());
+        assertEquals(now.get(), second.getLastSyncTime());
+    }
+
+    @Test
+    public void daysLaterTheDeltaRereadsFromTheLastSyncDay() throws Exception {
+        syncNow();
+        long firstDay = today;
+
+        now.addAndGet(TimeUnit.DAYS.toMillis(3));
+        long newToday = TimeBuckets.startOfDay(now.get());
+        int queries = fit.getQueries().size();
+        fit.setStepsPerBucket(500);
+        DashboardSummary later = syncNow();
+
+        FitQuery delta = windowReadSince(queries);
+        assertEquals(firstDay, delta.getStartTime());
+        assertEquals(TimeBuckets.nextDay(newToday), delta.getEndTime());
+        // Three untouched days from the first sync, four re-read.
+        assertEquals((3 * 4000 + 4 * 500) / 7f, later.getWeeklyAvgSteps(), 0.01f);
+        assertEquals(DashboardAggregator.WINDOW_DAYS, later.getDayCount());
+    }
+
+    @Test
+    public void aSyncOlderThanTheWindowRereadsAllOfIt() throws Exception {
+        syncNow();
+
+        now.addAndGet(TimeUnit.DAYS.toMillis(30));
+        int queries = fit.getQueries().size();
+        syncNow();
+
+        assertEquals(windowStart(TimeBuckets.startOfDay(now.get())), windowReadSince(queries).getStartTime());
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.fitproof.data.fit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.example.fitproof.data.TestTasks;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CoalescingDataSourceTest {
+
+    private static final long MAX_AGE = 30_000;
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private FakeFitDataSource fit;
+    private CoalescingDataSource shared;
+
+    @Before
+    public void setUp() {
+        fit = new FakeFitDataSource(30, 0);
+        shared = new CoalescingDataSource(fit, MAX_AGE, now::get);
+    }
+
+    @After
+    public void tearDown() {
+        fit.shutdown();
+    }
+
+    @Test
+    public void identicalInFlightReadsShareOneTask() throws Exception {
+        // Home and My Proof opening back to back for the same window.
+        Task<List<FitBucket>> home = shared.readAggregates(query(MetricGroups.DASHBOARD, 0, 7 * DAY));
+        Task<List<FitBucket>> again = shared.readAggregates(query(MetricGroups.DASHBOARD, 0, 7 * DAY));
+        Task<List<FitSession>> sessions = shared.readSessions(0, DAY);
+        Task<List<FitSession>> sessionsAgain = shared.readSessions(0, DAY);
+
+        assertSame(home, again);
+        assertSame(sessions, sessionsAgain);
+        assertEquals(7, TestTasks.await(home, 5, TimeUnit.SECONDS).size());
+        TestTasks.await(sessions, 5, TimeUnit.SECONDS);
+        assertEquals(2, fit.getRoundTrips());
+    }
+
+    @Test
+    public void differentKeysAreNotShared() throws Exception {
+        Task<List<FitBucket>> days = shared.readAggregates(query(MetricGroups.DASHBOARD, 0, 7 * DAY));
+        Task<List<FitBucket>> otherTypes = shared.readAggregates(query(MetricGroups.PROOF, 0, 7 * DAY));
+        Task<List<FitBucket>> otherRange = shared.readAggregates(query(MetricGroups.DASHBOARD, DAY, 7 * DAY));
+        Task<List<FitBucket>> hours = shared.readAggregates(
+                new FitQuery(MetricGroups.DASHBOARD, 0, 7 * DAY, FitQuery.HOUR_BUCKET));
+
+        assertNotSame(days, otherTypes);
+        assertNotSame(days, otherRange);
+        assertNotSame(days, hours);
+        TestTasks.await(Tasks.whenAll(days, otherTypes, otherRange, hours), 5, TimeUnit.SECONDS);
+        assertEquals(4, fit.getRoundTrips());
+    }
+
+    @Test
+    public void landedResultIsReusedUntilItAges() throws Exception {
+        FitQuery week = query(MetricGroups.DASHBOARD, 0, 7 * DAY);
+        TestTasks.await(shared.readAggregates(week), 5, TimeUnit.SECONDS);
+
+        now.addAndGet(MAX_AGE - 1);
+        Task<List<FitBucket>> cached = shared.readAggregates(week);
+        assertTrue(cached.isComplete());
+        assertEquals(1, fit.getRoundTrips());
+
+        now.addAndGet(1);
+        TestTasks.await(shared.readAggregates(week), 5, TimeUnit.SECONDS);
+        assertEquals(2, fit.getRoundTrips());
+    }
+
+    @Test
+    public void invalidateForcesAFreshRead() throws Exception {
+        FitQuery week = query(MetricGroups.DASHBOARD, 0, 7 * DAY);
+        TestTasks.await(shared.readAggregates(week), 5, TimeUnit.SECONDS);
+
+        shared.invalidate();
+        TestTasks.await(shared.readAggregates(week), 5, TimeUnit.SECONDS);
+        assertEquals(2, fit.getRoundTrips());
+    }
+
+    @Test
+    public void failuresAreNotCached() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        FitDataSource flaky = new FitDataSource() {
+            @Override
+            public Task<List<FitBucket>> readAggregates(FitQuery query) {
+                return calls.incrementAndGet() == 1
+                        ? Tasks.forException(new IOException("offline"))
+                        : fit.readAggregates(query);
+            }
+
+            @Override
+            public Task<FitSeries> readMinutes(long startTime, long endTime) {
+                return fit.readMinutes(startTime, endTime);
+            }
+
+            @Override
+            public Task<List<FitSession>> readSessions(long startTime, long endTime) {
+                return fit.readSessions(startTime, endTime);
+            }
+        };
+        CoalescingDataSource source = new CoalescingDataSource(flaky, MAX_AGE, now::get);
+        FitQuery week = query(MetricGroups.DASHBOARD, 0, 7 * DAY);
+
+        Task<List<FitBucket>> failed = source.readAggregates(week);
+        try {
+            TestTasks.await(failed, 5, TimeUnit.SECONDS);
+        } catch (ExecutionException expected) {
+            assertFalse(failed.isSuccessful());
+        }
+        assertEquals(7, TestTasks.await(source.readAggregates(week), 5, TimeUnit.SECONDS).size());
+        assertEquals(2, calls.get());
+    }
+
+    private static FitQuery query(java.util.Set<FitMetric> metrics, long start, long end) {
+        return new FitQuery(metrics, start, end, FitQuery.DAY_BUCKET);
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.fitproof.data.fit;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the Fit history and sessions clients. Every read costs one round trip of
+ * {@code roundTripMillis} plus {@code perMetricMillis} for each metric it carries, and reads are
+ * served one at a time the way the Play Services binder queue serves them, unless more
+ * {@code servers} are asked for.
+ */
+public class FakeFitDataSource implements FitDataSource {
+
+    private final long roundTripMillis;
+    private final long perMetricMillis;
+    private final ExecutorService server;
+    private final AtomicInteger roundTrips = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final List<FitQuery> queries = Collections.synchronizedList(new ArrayList<>());
+    private volatile int stepsPerBucket = 4000;
+    private volatile float minuteHeartRate = 96f;
+
+    public FakeFitDataSource(long roundTripMillis, long perMetricMillis) {
+        this(roundTripMillis, perMetricMillis, 1);
+    }
+
+    public FakeFitDataSource(long roundTripMillis, long perMetricMillis, int servers) {
+        this.roundTripMillis = roundTripMillis;
+        this.perMetricMillis = perMetricMillis;
+        this.server = Executors.newFixedThreadPool(servers);
+    }
+
+    public void setStepsPerBucket(int stepsPerBucket) {
+        this.stepsPerBucket = stepsPerBucket;
+    }
+
+    public void setMinuteHeartRate(float bpm) {
+        this.minuteHeartRate = bpm;
+    }
+
+    public int getRoundTrips() {
+        return roundTrips.get();
+    }
+
+    /** The most aggregate reads that were ever waiting on this source at once. */
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    public List<FitQuery> getQueries() {
+        synchronized (queries) {
+            return new ArrayList<>(queries);
+        }
+    }
+
+    public void shutdown() {
+        server.shutdownNow();
+    }
+
+    @Override
+    public Task<List<FitBucket>> readAggregates(FitQuery query) {
+        roundTrips.incrementAndGet();
+        queries.add(query);
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        TaskCompletionSource<List<FitBucket>> source = new TaskCompletionSource<>();
+        server.execute(() -> {
+            sleep(roundTripMillis + perMetricMillis * query.getMetrics().size());
+            inFlight.decrementAndGet();
+            source.setResult(bucketsFor(query));
+        });
+        return source.getTask();
+    }
+
+    /** Every minute has a walking pace: 60 steps, 45 m, 0.75 m/s and 96 bpm unless set otherwise. */
+    @Override
+    public Task<FitSeries> readMinutes(long startTime, long endTime) {
+        roundTrips.incrementAndGet();
+        TaskCompletionSource<FitSeries> source = new TaskCompletionSource<>();
+        server.execute(() -> {
+            sleep(roundTripMillis + perMetricMillis * MetricGroups.RAW.size());
+            MinuteBins bins = new MinuteBins(startTime, endTime);
+            for (long t = startTime; t < endTime; t += FitQuery.MINUTE_BUCKET) {
+                long end = Math.min(t + FitQuery.MINUTE_BUCKET, endTime);
+                bins.addSteps(t, end, 60);
+                bins.addDistance(t, end, 45f);
+                bins.addSpeed(t, 0.75f);
+                bins.addHeartRate(t, minuteHeartRate);
+            }
+            source.setResult(bins.build());
+        });
+        return source.getTask();
+    }
+
+    @Override
+    public Task<List<FitSession>> readSessions(long startTime, long endTime) {
+        roundTrips.incrementAndGet();
+        TaskCompletionSource<List<FitSession>> source = new TaskCompletionSource<>();
+        server.execute(() -> {
+            sleep(roundTripMillis);
+            long start = startTime + TimeUnit.HOURS.toMillis(7);
+            source.setResult(Collections.singletonList(new FitSession("Morning run", "running",
+                    start, start + TimeUnit.MINUTES.toMillis(32), 4200, 5100f, 152f, 2.7f)));
+        });
+        return source.getTask();
+    }
+
+    private List<FitBucket> bucketsFor(FitQuery query) {
+        List<FitBucket> buckets = new ArrayList<>();
+        for (long t = query.getStartTime(); t < query.getEndTime(); t += query.getBucketMillis()) {
+            long end = Math.min(t + query.getBucketMillis(), query.getEndTime());
+            FitBucket.Builder builder = new FitBucket.Builder(t, end);
+            for (FitMetric metric : query.getMetrics()) {
+                switch (metric) {
+                    case STEPS:
+                        builder.addSteps(stepsPerBucket);
+                        break;
+                    case CALORIES:
+                        builder.addCalories(1800f);
+                        break;
+                    case DISTANCE:
+                        builder.addDistance(stepsPerBucket * 0.75f);
+                        break;
+                    case HEART_POINTS:
+                        builder.addHeartPoints(22f);
+                        break;
+                    case SPEED:
+                        builder.setAverageSpeed(1.4f);
+                        break;
+                    case HEART_RATE:
+                        builder.setAverageHeartRate(88f);
+                        break;
+                    case ACTIVITY:
+                        builder.addActivity("walking").addActiveMillis(TimeUnit.MINUTES.toMillis(45));
+                        break;
+                }
+            }
+            buckets.add(builder.build());
+        }
+        return buckets;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.fitproof.data.fit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the old one-read-per-metric sync in MyProofFragment with the planned sync against
+ * {@link FakeFitDataSource}, by round trips rather than wall-clock time so the result does not
+ * depend on how busy the machine running the tests is.
+ */
+public class SyncPlanBenchmarkTest {
+
+    private static final int ITERATIONS = 5;
+    private static final long DAY_START = 1_735_689_600_000L;
+    private static final long DAY_END = DAY_START + TimeUnit.DAYS.toMillis(1) - 1;
+
+    // fetchSteps, fetchActivityNames, fetchDistance, fetchHeartPts, fetchSpeed, fetchDuration
+    private static final FitMetric[] LEGACY_READS = {
+            FitMetric.STEPS, FitMetric.ACTIVITY, FitMetric.DISTANCE,
+            FitMetric.HEART_POINTS, FitMetric.SPEED, FitMetric.ACTIVITY
+    };
+
+    private FakeFitDataSource fake;
+
+    @Before
+    public void setUp() {
+        fake = new FakeFitDataSource(20, 1);
+    }
+
+    @After
+    public void tearDown() {
+        fake.shutdown();
+    }
+
+    @Test
+    public void plannedSyncCutsRoundTrips() throws Exception {
+        int legacyTrips = 0;
+        int plannedTrips = 0;
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            int before = fake.getRoundTrips();
+            runLegacy();
+            legacyTrips += fake.getRoundTrips() - before;
+
+            before = fake.getRoundTrips();
+            runPlanned();
+            plannedTrips += fake.getRoundTrips() - before;
+        }
+
+        assertEquals(7, legacyTrips / ITERATIONS);
+        assertEquals(2, plannedTrips / ITERATIONS);
+        // Every aggregate rides on the one history read.
+        assertEquals(5, plan().getAggregateQuery().getMetrics().size());
+    }
+
+    @Test
+    public void coordinatorWaitsForEveryPart() throws Exception {
+        SyncPlan plan = plan();
+        AtomicReference<Map<String, Exception>> landed = new AtomicReference<>();
+        SyncCoordinator coordinator = new SyncCoordinator(plan.getParts(), landed::set);
+
+        coordinator.partSucceeded(SyncPlan.PART_SESSIONS);
+        coordinator.partSucceeded(SyncPlan.PART_SESSIONS);
+        assertEquals(null, landed.get());
+
+        coordinator.partFailed(SyncPlan.PART_AGGREGATES, new IllegalStateException("offline"));
+        assertTrue(coordinator.isFinished());
+        assertEquals(1, landed.get().size());
+        assertTrue(landed.get().containsKey(SyncPlan.PART_AGGREGATES));
+    }
+
+    private void runLegacy() throws InterruptedException {
+        CountDownLatch allLanded = new CountDownLatch(LEGACY_READS.length + 1);
+        for (FitMetric metric : LEGACY_READS) {
+            fake.readAggregates(new FitQuery(EnumSet.of(metric), DAY_START, DAY_END, FitQuery.DAY_BUCKET))
+                    .addOnCompleteListener(Runnable::run, task -> allLanded.countDown());
+        }
+        fake.readSessions(DAY_START, DAY_END)
+                .addOnCompleteListener(Runnable::run, task -> allLanded.countDown());
+        assertTrue(allLanded.await(10, TimeUnit.SECONDS));
+    }
+
+    private void runPlanned() throws InterruptedException {
+        CountDownLatch synced = new CountDownLatch(1);
+        SyncPlan plan = plan();
+        SyncCoordinator coordinator = new SyncCoordinator(plan.getParts(), failures -> synced.countDown());
+        fake.readAggregates(plan.getAggregateQuery())
+                .addOnCompleteListener(Runnable::run, task -> coordinator.partSucceeded(SyncPlan.PART_AGGREGATES));
+        fake.readSessions(plan.getStartTime(), plan.getEndTime())
+                .addOnCompleteListener(Runnable::run, task -> coordinator.partSucceeded(SyncPlan.PART_SESSIONS));
+        assertTrue(synced.await(10, TimeUnit.SECONDS));
+    }
+
+    private static SyncPlan plan() {
+        return SyncPlanner.forRange(DAY_START, DAY_END)
+                .aggregate(FitMetric.STEPS, FitMetric.DISTANCE, FitMetric.HEART_POINTS,
+                        FitMetric.SPEED, FitMetric.ACTIVITY)
+                .withSessions()
+                .build();
+    }
+}
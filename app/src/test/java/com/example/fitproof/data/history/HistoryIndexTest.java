@@ -0,0 +1,102 @@
+package com.example.fitproof.data.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.fitproof.data.fit.FitBucket;
+import com.example.fitproof.data.fit.FitMetric;
+import com.example.fitproof.data.fit.FitQuery;
+import com.example.fitproof.data.fit.TimeBuckets;
+import com.example.fitproof.data.store.InMemoryBucketStore;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class HistoryIndexTest {
+
+    private static final int YEARS_OF_DAYS = 5 * 365;
+
+    private InMemoryBucketStore store;
+    private long now;
+    private long today;
+
+    @Before
+    public void setUp() {
+        store = new InMemoryBucketStore();
+        today = TimeBuckets.startOfDay(System.currentTimeMillis());
+        now = today + TimeUnit.HOURS.toMillis(9);
+    }
+
+    private void putDay(long day, int steps) {
+        List<FitBucket> bucket = new ArrayList<>();
+        bucket.add(new FitBucket.Builder(day, TimeBuckets.nextDay(day)).addSteps(steps).build());
+        store.putBuckets(FitQuery.DAY_BUCKET, EnumSet.of(FitMetric.STEPS), bucket);
+    }
+
+    @Test
+    public void emptyStoreHasNoDays() {
+        HistoryIndex index = new HistoryIndex(store, now);
+        assertEquals(0, index.size());
+        assertTrue(index.load(0, 30).isEmpty());
+    }
+
+    @Test
+    public void spansFromTheOldestDayToTodayNewestFirst() {
+        long oldest = TimeBuckets.addDays(today, -YEARS_OF_DAYS);
+        putDay(oldest, 1200);
+        putDay(TimeBuckets.addDays(today, -1), 8000);
+
+        HistoryIndex index = new HistoryIndex(store, now);
+        assertEquals(YEARS_OF_DAYS + 1, index.size());
+
+        List<HistoryDay> first = index.load(0, 30);
+        assertEquals(30, first.size());
+        assertEquals(today, first.get(0).getDayStart());
+        // Today was never synced; yesterday was.
+        assertNull(first.get(0).getTotals());
+        assertEquals(8000, first.get(1).getTotals().getSteps());
+        assertTrue(first.get(1).hasData());
+        for (int i = 1; i < first.size(); i++) {
+            assertTrue(first.get(i).getDayStart() < first.get(i - 1).getDayStart());
+        }
+    }
+
+    @Test
+    public void lastPageIsCutAtTheOldestDay() {
+        long oldest = TimeBuckets.addDays(today, -YEARS_OF_DAYS);
+        putDay(oldest, 1200);
+
+        HistoryIndex index = new HistoryIndex(store, now);
+        List<HistoryDay> last = index.load(index.size() - 10, 30);
+        assertEquals(10, last.size());
+        HistoryDay end = last.get(last.size() - 1);
+        assertEquals(oldest, end.getDayStart());
+        assertEquals(1200, end.getTotals().getSteps());
+        assertTrue(index.load(index.size(), 30).isEmpty());
+    }
+
+    @Test
+    public void countsProofsPerDay() {
+        long yesterday = TimeBuckets.addDays(today, -1);
+        putDay(TimeBuckets.addDays(today, -3), 500);
+        store.putProof("a", yesterday, now);
+        store.putProof("b", yesterday, now);
+        store.putProof("c", today, now);
+        // Issuing the same proof again does not count it twice.
+        store.putProof("c", today, now);
+
+        List<HistoryDay> days = new HistoryIndex(store, now).load(0, 30);
+        assertEquals(4, days.size());
+        assertEquals(1, days.get(0).getProofCount());
+        assertEquals(2, days.get(1).getProofCount());
+        assertEquals(0, days.get(2).getProofCount());
+        assertFalse(days.get(2).hasData());
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.fitproof.data.store;
+
+import com.example.fitproof.data.dashboard.StreakIndex;
+import com.example.fitproof.data.fit.FitBucket;
+import com.example.fitproof.data.fit.FitMetric;
+import com.example.fitproof.data.fit.FitQuery;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/** {@link BucketStore} kept in maps, with the same column-wise upsert as the SQLite store. */
+public class InMemoryBucketStore implements BucketStore {
+
+    private final Map<Long, TreeMap<Long, FitBucket>> buckets = new HashMap<>();
+    private final Map<FitMetric, SyncedRange> ranges = new EnumMap<>(FitMetric.class);
+    private final Map<String, Long> lastSync = new HashMap<>();
+    private final Map<Integer, StreakIndex> streaks = new HashMap<>();
+    private final Map<String, Long> proofDays = new HashMap<>();
+    private final List<OnChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public synchronized List<FitBucket> getBuckets(long bucketMillis, long start, long end) {
+        TreeMap<Long, FitBucket> rows = buckets.get(bucketMillis);
+        if (rows == null || start >= end) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(rows.subMap(start, end).values());
+    }
+
+    @Override
+    public void putBuckets(long bucketMillis, Set<FitMetric> metrics, List<FitBucket> incoming) {
+        if (incoming.isEmpty()) return;
+        synchronized (this) {
+            TreeMap<Long, FitBucket> rows = buckets.computeIfAbsent(bucketMillis, k -> new TreeMap<>());
+            for (FitBucket bucket : incoming) {
+                FitBucket old = rows.get(bucket.getStartTime());
+                rows.put(bucket.getStartTime(), old == null ? bucket : combine(old, bucket, metrics));
+            }
+        }
+        if (bucketMillis == FitQuery.DAY_BUCKET) {
+            notifyChanged();
+        }
+    }
+
+    @Override
+    public void deleteBuckets(long bucketMillis, long before) {
+        boolean deleted = false;
+        synchronized (this) {
+            TreeMap<Long, FitBucket> rows = buckets.get(bucketMillis);
+            if (rows != null && !rows.headMap(before).isEmpty()) {
+                rows.headMap(before).clear();
+                deleted = true;
+            }
+        }
+        if (deleted && bucketMillis == FitQuery.DAY_BUCKET) {
+            notifyChanged();
+        }
+    }
+
+    @Override
+    public synchronized long getFirstBucketStart(long bucketMillis) {
+        TreeMap<Long, FitBucket> rows = buckets.get(bucketMillis);
+        return rows == null || rows.isEmpty() ? -1 : rows.firstKey();
+    }
+
+    @Override
+    public synchronized SyncedRange getSyncedRange(FitMetric metric) {
+        return ranges.get(metric);
+    }
+
+    @Override
+    public synchronized void setSyncedRange(FitMetric metric, SyncedRange range) {
+        ranges.put(metric, range);
+    }
+
+    @Override
+    public synchronized long getLastSync(String key) {
+        Long time = lastSync.get(key);
+        return time == null ? 0 : time;
+    }
+
+    @Override
+    public synchronized void setLastSync(String key, long time) {
+        lastSync.put(key, time);
+    }
+
+    @Override
+    public synchronized StreakIndex getStreakIndex(int threshold) {
+        return streaks.get(threshold);
+    }
+
+    @Override
+    public synchronized void putStreakIndex(StreakIndex index) {
+        streaks.put(index.getThreshold(), index);
+    }
+
+    @Override
+    public void putProof(String proofId, long dayStart, long issuedAt) {
+        synchronized (this) {
+            proofDays.put(proofId, dayStart);
+        }
+        notifyChanged();
+    }
+
+    @Override
+    public synchronized Map<Long, Integer> getProofCounts(long start, long end) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (long day : proofDays.values()) {
+            if (day >= start && day < end) {
+                counts.merge(day, 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public void clear() {
+        synchronized (this) {
+            buckets.clear();
+            ranges.clear();
+            lastSync.clear();
+            streaks.clear();
+            proofDays.clear();
+        }
+        notifyChanged();
+    }
+
+    @Override
+    public void addOnChangeListener(OnChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeOnChangeListener(OnChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void notifyChanged() {
+        for (OnChangeListener listener : listeners) {
+            listener.onStoreChanged();
+        }
+    }
+
+    private static FitBucket combine(FitBucket old, FitBucket fresh, Set<FitMetric> metrics) {
+        FitBucket.Builder builder = new FitBucket.Builder(fresh.getStartTime(), fresh.getEndTime());
+        FitBucket steps = metrics.contains(FitMetric.STEPS) ? fresh : old;
+        FitBucket calories = metrics.contains(FitMetric.CALORIES) ? fresh : old;
+        FitBucket distance = metrics.contains(FitMetric.DISTANCE) ? fresh : old;
+        FitBucket heartPoints = metrics.contains(FitMetric.HEART_POINTS) ? fresh : old;
+        FitBucket speed = metrics.contains(FitMetric.SPEED) ? fresh : old;
+        FitBucket heartRate = metrics.contains(FitMetric.HEART_RATE) ? fresh : old;
+        FitBucket activity = metrics.contains(FitMetric.ACTIVITY) ? fresh : old;
+        builder.addSteps(steps.getSteps())
+                .addCalories(calories.getCalories())
+                .addDistance(distance.getDistanceMeters())
+                .addHeartPoints(heartPoints.getHeartPoints())
+                .setAverageSpeed(speed.getAverageSpeed())
+                .setAverageHeartRate(heartRate.getAverageHeartRate())
+                .addActiveMillis(activity.getActiveMillis());
+        for (String name : activity.getActivities()) {
+            builder.addActivity(name);
+        }
+        return builder.build();
+    }
+}
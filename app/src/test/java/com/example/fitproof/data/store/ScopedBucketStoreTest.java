@@ -0,0 +1,95 @@
+package com.example.fitproof.data.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.fitproof.data.TestTasks;
+import com.example.fitproof.data.fit.FakeFitDataSource;
+import com.example.fitproof.data.fit.FitBucket;
+import com.example.fitproof.data.fit.FitMetric;
+import com.example.fitproof.data.fit.FitQuery;
+import com.example.fitproof.data.fit.TimeBuckets;
+import com.example.fitproof.data.sync.IncrementalSync;
+import com.google.android.gms.tasks.Task;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class ScopedBucketStoreTest {
+
+    private static final Set<FitMetric> STEPS = EnumSet.of(FitMetric.STEPS);
+
+    private long today;
+    private InMemoryBucketStore store;
+    private ScopedBucketStore scope;
+    private ExecutorService disk;
+
+    @Before
+    public void setUp() {
+        today = TimeBuckets.startOfDay(System.currentTimeMillis());
+        store = new InMemoryBucketStore();
+        scope = new ScopedBucketStore(store);
+        disk = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        disk.shutdownNow();
+    }
+
+    private List<FitBucket> oneDay() {
+        return Collections.singletonList(new FitBucket.Builder(today, TimeBuckets.nextDay(today))
+                .addSteps(4000)
+                .build());
+    }
+
+    @Test
+    public void writesGoThroughUntilClosed() {
+        scope.putBuckets(FitQuery.DAY_BUCKET, STEPS, oneDay());
+        scope.setLastSync("minutes", 42L);
+        assertEquals(1, store.getBuckets(FitQuery.DAY_BUCKET, today, TimeBuckets.nextDay(today)).size());
+        assertEquals(42L, store.getLastSync("minutes"));
+
+        scope.close();
+        assertTrue(scope.isClosed());
+        scope.clear();
+        scope.setLastSync("minutes", 43L);
+        scope.setSyncedRange(FitMetric.STEPS, new SyncedRange(today, TimeBuckets.nextDay(today)));
+        scope.putProof("proof", today, today);
+
+        // Nothing changed underneath, and reads still see what the store holds.
+        assertEquals(42L, scope.getLastSync("minutes"));
+        assertEquals(1, scope.getBuckets(FitQuery.DAY_BUCKET, today, TimeBuckets.nextDay(today)).size());
+        assertNull(store.getSyncedRange(FitMetric.STEPS));
+        assertTrue(store.getProofCounts(today, TimeBuckets.nextDay(today)).isEmpty());
+    }
+
+    @Test
+    public void aReadInFlightAtSignOutWritesNothingBack() throws Exception {
+        FakeFitDataSource fit = new FakeFitDataSource(200, 0);
+        try {
+            long start = TimeBuckets.addDays(today, -7);
+            Task<List<FitBucket>> load = new IncrementalSync(fit, scope, disk)
+                    .load(STEPS, start, today, FitQuery.DAY_BUCKET);
+            // Sign-out: the scope closes, then the store is cleared, while the read is still out.
+            scope.close();
+            store.clear();
+
+            TestTasks.await(load, 5, TimeUnit.SECONDS);
+            assertTrue(store.getBuckets(FitQuery.DAY_BUCKET, start, today).isEmpty());
+            assertNull(store.getSyncedRange(FitMetric.STEPS));
+        } finally {
+            fit.shutdown();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.fitproof.data.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.fitproof.data.TestTasks;
+import com.example.fitproof.data.fit.FakeFitDataSource;
+import com.example.fitproof.data.fit.FitBucket;
+import com.example.fitproof.data.fit.FitQuery;
+import com.example.fitproof.data.fit.MetricGroups;
+import com.example.fitproof.data.fit.TimeBuckets;
+import com.example.fitproof.data.store.InMemoryBucketStore;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ChunkedReadTest {
+
+    private static final long ROUND_TRIP = 100;
+
+    private final ExecutorService disk = Executors.newSingleThreadExecutor();
+    private final ScheduledExecutorService timer = Executors.newScheduledThreadPool(4);
+
+    @After
+    public void tearDown() {
+        disk.shutdownNow();
+        timer.shutdownNow();
+    }
+
+    @Test
+    public void ninetyDaysCostAFewRoundTrips() throws Exception {
+        long start = TimeBuckets.addDays(TimeBuckets.startOfDay(System.currentTimeMillis()), -100);
+        long end = TimeBuckets.addDays(start, 90);
+        FakeFitDataSource fit = new FakeFitDataSource(ROUND_TRIP, 0, ChunkedRead.MAX_IN_FLIGHT);
+        InMemoryBucketStore store = new InMemoryBucketStore();
+        IncrementalSync sync = new IncrementalSync(fit, store, disk, () -> end + TimeUnit.DAYS.toMillis(10));
+
+        List<FitBucket> days = TestTasks.await(sync.load(MetricGroups.PROOF, start, end, FitQuery.DAY_BUCKET),
+                10, TimeUnit.SECONDS);
+
+        assertEquals(90, days.size());
+        assertEquals(start, days.get(0).getStartTime());
+        // 13 weekly reads, 3 at a time: 5 round trips, against 90 for day-by-day syncs.
+        assertEquals(13, fit.getRoundTrips());
+        for (FitQuery query : fit.getQueries()) {
+            assertTrue(query.toString(), query.getEndTime() - query.getStartTime() <= TimeUnit.DAYS.toMillis(8));
+        }
+        // Never more than three reads waiting on Fit at once.
+        assertEquals(ChunkedRead.MAX_IN_FLIGHT, fit.getMaxInFlight());
+
+        // Stored as one contiguous range, so it is served from disk from now on.
+        assertNotNull(TestTasks.await(sync.loadCached(MetricGroups.PROOF, start, end, FitQuery.DAY_BUCKET),
+                5, TimeUnit.SECONDS));
+        assertEquals(13, fit.getRoundTrips());
+        fit.shutdown();
+    }
+
+    @Test
+    public void outOfOrderChunksComeBackInOrder() throws Exception {
+        long start = TimeBuckets.startOfDay(System.currentTimeMillis()) + TimeUnit.HOURS.toMillis(9);
+        long end = TimeBuckets.addDays(TimeBuckets.startOfDay(start), 60);
+        Random random = new Random(3);
+
+        ChunkedRead<Long> read = ChunkedRead.start(start, end, 7, 3, disk, (chunkStart, chunkEnd) -> {
+            TaskCompletionSource<List<Long>> result = new TaskCompletionSource<>();
+            timer.schedule(() -> result.setResult(Collections.singletonList(chunkStart)),
+                    random.nextInt(40), TimeUnit.MILLISECONDS);
+            return result.getTask();
+        });
+        List<Long> starts = TestTasks.await(read.getTask(), 5, TimeUnit.SECONDS);
+
+        List<long[]> chunks = ChunkedRead.chunks(start, end, 7);
+        assertEquals(9, chunks.size());
+        assertEquals(start, chunks.get(0)[0]);
+        assertEquals(end, chunks.get(chunks.size() - 1)[1]);
+        List<Long> expected = new ArrayList<>();
+        for (long[] chunk : chunks) {
+            expected.add(chunk[0]);
+        }
+        assertEquals(expected, starts);
+        assertEquals(3, read.getMaxObservedInFlight());
+    }
+
+    @Test
+    public void firstFailureStopsTheRead() throws Exception {
+        long start = TimeBuckets.startOfDay(System.currentTimeMillis());
+        long end = TimeBuckets.addDays(start, 70);
+        AtomicInteger started = new AtomicInteger();
+        List<TaskCompletionSource<List<Long>>> held = Collections.synchronizedList(new ArrayList<>());
+
+        Task<List<Long>> read = ChunkedRead.start(start, end, 7, 2, disk, (chunkStart, chunkEnd) -> {
+            int index = started.getAndIncrement();
+            if (index == 1) {
+                return Tasks.forException(new IllegalStateException("quota"));
+            }
+            // Successes are held until the failure has landed.
+            TaskCompletionSource<List<Long>> result = new TaskCompletionSource<>();
+            held.add(result);
+            return result.getTask();
+        }).getTask();
+
+        try {
+            TestTasks.await(read, 5, TimeUnit.SECONDS);
+        } catch (ExecutionException expected) {
+            assertEquals("quota", expected.getCause().getMessage());
+        }
+        assertFalse(read.isSuccessful());
+        synchronized (held) {
+            for (TaskCompletionSource<List<Long>> result : held) {
+                result.setResult(Collections.singletonList(0L));
+            }
+        }
+        // Their completions run on the disk executor; once it has drained, none of them started a chunk.
+        disk.submit(() -> { }).get(5, TimeUnit.SECONDS);
+        assertEquals(2, started.get());
+    }
+}
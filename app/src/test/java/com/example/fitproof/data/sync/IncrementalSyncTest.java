@@ -0,0 +1,206 @@
+package com.example.fitproof.data.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.fitproof.data.TestTasks;
+import com.example.fitproof.data.fit.FakeFitDataSource;
+import com.example.fitproof.data.fit.FitBucket;
+import com.example.fitproof.data.fit.FitMetric;
+import com.example.fitproof.data.fit.FitQuery;
+import com.example.fitproof.data.fit.TimeBuckets;
+import com.example.fitproof.data.store.InMemoryBucketStore;
+import com.example.fitproof.data.store.SyncedRange;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class IncrementalSyncTest {
+
+    private static final Set<FitMetric> STEPS = EnumSet.of(FitMetric.STEPS);
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private final AtomicLong now = new AtomicLong();
+    private long today;
+    private FakeFitDataSource fit;
+    private InMemoryBucketStore store;
+    private ExecutorService disk;
+    private IncrementalSync sync;
+
+    @Before
+    public void setUp() {
+        today = TimeBuckets.startOfDay(System.currentTimeMillis());
+        now.set(today + 9 * HOUR);
+        fit = new FakeFitDataSource(1, 0, 3);
+        store = new InMemoryBucketStore();
+        disk = Executors.newSingleThreadExecutor();
+        sync = new IncrementalSync(fit, store, disk, now::get);
+    }
+
+    @After
+    public void tearDown() {
+        fit.shutdown();
+        disk.shutdownNow();
+    }
+
+    private List<FitBucket> loadDays(long start, long end) throws Exception {
+        return TestTasks.await(sync.load(STEPS, start, end, FitQuery.DAY_BUCKET), 5, TimeUnit.SECONDS);
+    }
+
+    private long daysAgo(int days) {
+        return TimeBuckets.addDays(today, -days);
+    }
+
+    /** The span the reads since query {@code from} covered, as {start, end}. */
+    private long[] fetchedSince(int from) {
+        List<FitQuery> queries = fit.getQueries();
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        for (FitQuery query : queries.subList(from, queries.size())) {
+            start = Math.min(start, query.getStartTime());
+            end = Math.max(end, query.getEndTime());
+        }
+        return new long[]{start, end};
+    }
+
+    private SyncedRange synced() {
+        return store.getSyncedRange(FitMetric.STEPS);
+    }
+
+    @Test
+    public void aRangeInsideWhatIsSyncedIsServedFromDisk() throws Exception {
+        assertEquals(10, loadDays(daysAgo(10), daysAgo(0)).size());
+        int reads = fit.getRoundTrips();
+
+        List<FitBucket> inside = loadDays(daysAgo(6), daysAgo(3));
+        assertEquals(3, inside.size());
+        assertEquals(daysAgo(6), inside.get(0).getStartTime());
+        assertEquals(reads, fit.getRoundTrips());
+        assertNotNull(TestTasks.await(sync.loadCached(STEPS, daysAgo(6), daysAgo(3), FitQuery.DAY_BUCKET),
+                5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void aDayFarBeforeTheSyncedSpanFetchesOnlyThatDay() throws Exception {
+        loadDays(daysAgo(10), daysAgo(0));
+        int queries = fit.getQueries().size();
+
+        long twoYearsBack = daysAgo(730);
+        assertEquals(1, loadDays(twoYearsBack, TimeBuckets.nextDay(twoYearsBack)).size());
+
+        long[] fetched = fetchedSince(queries);
+        assertEquals(twoYearsBack, fetched[0]);
+        assertEquals(TimeBuckets.nextDay(twoYearsBack), fetched[1]);
+        // Kept as its own span; the recent one is untouched.
+        assertEquals(2, synced().getSpanCount());
+        assertEquals(twoYearsBack, synced().getFrom(0));
+        assertEquals(daysAgo(10), synced().getFrom(1));
+    }
+
+    @Test
+    public void daysFarAfterTheSyncedSpanFetchOnlyThemselves() throws Exception {
+        loadDays(daysAgo(60), daysAgo(50));
+        int queries = fit.getQueries().size();
+
+        loadDays(daysAgo(3), daysAgo(1));
+
+        long[] fetched = fetchedSince(queries);
+        assertEquals(daysAgo(3), fetched[0]);
+        assertEquals(daysAgo(1), fetched[1]);
+        assertEquals(2, synced().getSpanCount());
+        assertEquals(daysAgo(50), synced().getUntil(0));
+        assertEquals(daysAgo(3), synced().getFrom(1));
+    }
+
+    @Test
+    public void anOverlappingRangeFetchesOnlyTheUncoveredPart() throws Exception {
+        loadDays(daysAgo(30), daysAgo(20));
+        int queries = fit.getQueries().size();
+
+        assertEquals(10, loadDays(daysAgo(25), daysAgo(15)).size());
+
+        long[] fetched = fetchedSince(queries);
+        assertEquals(daysAgo(20), fetched[0]);
+        assertEquals(daysAgo(15), fetched[1]);
+        assertEquals(1, synced().getSpanCount());
+        assertEquals(daysAgo(30), synced().getFrom());
+        assertEquals(daysAgo(15), synced().getUntil());
+
+        // Filling the gap between two spans joins them.
+        loadDays(daysAgo(10), daysAgo(5));
+        loadDays(daysAgo(15), daysAgo(10));
+        assertEquals(1, synced().getSpanCount());
+        assertEquals(daysAgo(5), synced().getUntil());
+    }
+
+    @Test
+    public void gapsAtBothEndsDoNotRereadTheMiddle() throws Exception {
+        loadDays(daysAgo(20), daysAgo(10));
+        int queries = fit.getQueries().size();
+
+        assertEquals(20, loadDays(daysAgo(25), daysAgo(5)).size());
+
+        List<FitQuery> reads = fit.getQueries().subList(queries, fit.getQueries().size());
+        long fetched = 0;
+        for (FitQuery read : reads) {
+            boolean before = read.getEndTime() <= daysAgo(20) && read.getStartTime() >= daysAgo(25);
+            boolean after = read.getStartTime() >= daysAgo(10) && read.getEndTime() <= daysAgo(5);
+            assertTrue("read inside the synced middle: " + read, before || after);
+            fetched += read.getEndTime() - read.getStartTime();
+        }
+        assertEquals(daysAgo(20) - daysAgo(25) + daysAgo(5) - daysAgo(10), fetched);
+        assertEquals(1, synced().getSpanCount());
+        assertEquals(daysAgo(25), synced().getFrom());
+        assertEquals(daysAgo(5), synced().getUntil());
+    }
+
+    @Test
+    public void theUnsettledTailIsFetchedAgain() throws Exception {
+        loadDays(daysAgo(2), TimeBuckets.nextDay(today));
+        // The watermark stays SETTLE_MILLIS behind now, at the start of that hour.
+        assertEquals(today + 7 * HOUR, synced().getUntil());
+        assertNull(TestTasks.await(sync.loadCached(STEPS, today, TimeBuckets.nextDay(today), FitQuery.DAY_BUCKET),
+                5, TimeUnit.SECONDS));
+
+        int queries = fit.getQueries().size();
+        now.addAndGet(HOUR);
+        loadDays(today, TimeBuckets.nextDay(today));
+        long[] fetched = fetchedSince(queries);
+        assertEquals(today + 7 * HOUR, fetched[0]);
+        assertEquals(TimeBuckets.nextDay(today), fetched[1]);
+        assertEquals(today + 8 * HOUR, synced().getUntil());
+    }
+
+    @Test
+    public void gapsAreTheUncoveredPartsInOrder() {
+        SyncedRange range = new SyncedRange(10, 20).extend(30, 40).extend(50, 60);
+        assertEquals(3, range.getSpanCount());
+        List<long[]> gaps = range.gaps(0, 55);
+        assertEquals(3, gaps.size());
+        assertEquals(0, gaps.get(0)[0]);
+        assertEquals(10, gaps.get(0)[1]);
+        assertEquals(20, gaps.get(1)[0]);
+        assertEquals(30, gaps.get(1)[1]);
+        assertEquals(40, gaps.get(2)[0]);
+        assertEquals(50, gaps.get(2)[1]);
+        assertEquals(0, range.gaps(32, 38).size());
+
+        // Touching spans merge; a span bridging two swallows both.
+        assertEquals(2, range.extend(20, 30).getSpanCount());
+        SyncedRange bridged = range.extend(15, 55);
+        assertEquals(1, bridged.getSpanCount());
+        assertEquals(10, bridged.getFrom());
+        assertEquals(60, bridged.getUntil());
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.fitproof.data.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.fitproof.data.TestTasks;
+import com.example.fitproof.data.analysis.HeartRateSummary;
+import com.example.fitproof.data.fit.FakeFitDataSource;
+import com.example.fitproof.data.fit.FitBucket;
+import com.example.fitproof.data.fit.FitMetric;
+import com.example.fitproof.data.fit.FitQuery;
+import com.example.fitproof.data.fit.FitSeries;
+import com.example.fitproof.data.fit.TimeBuckets;
+import com.example.fitproof.data.store.InMemoryBucketStore;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MinuteSyncTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private long today;
+    private FakeFitDataSource fit;
+    private InMemoryBucketStore store;
+    private ExecutorService disk;
+    private MinuteSync sync;
+
+    @Before
+    public void setUp() {
+        today = TimeBuckets.startOfDay(System.currentTimeMillis());
+        now.set(today + TimeUnit.HOURS.toMillis(9));
+        fit = new FakeFitDataSource(5, 0, 3);
+        store = new InMemoryBucketStore();
+        disk = Executors.newSingleThreadExecutor();
+        sync = new MinuteSync(fit, store, disk, now::get);
+    }
+
+    @After
+    public void tearDown() {
+        fit.shutdown();
+        disk.shutdownNow();
+    }
+
+    private List<FitBucket> query(long start, long end) throws Exception {
+        return TestTasks.await(sync.query(start, end), 5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void ingestsOnceAndAnswersEveryZoomLocally() throws Exception {
+        // Fit's own day aggregate, as IncrementalSync stored it; the minutes must not rewrite it.
+        store.putBuckets(FitQuery.DAY_BUCKET, EnumSet.of(FitMetric.STEPS, FitMetric.CALORIES),
+                Collections.singletonList(new FitBucket.Builder(today, TimeBuckets.nextDay(today))
+                        .addSteps(5000)
+                        .addCalories(1800f)
+                        .build()));
+
+        TestTasks.await(sync.sync(), 10, TimeUnit.SECONDS);
+        // A week of backfill plus today, one read per day.
+        assertEquals(MinuteSync.BACKFILL_DAYS + 1, fit.getRoundTrips());
+
+        long hour = TimeUnit.HOURS.toMillis(1);
+        List<FitBucket> chart = query(now.get() - 2 * hour, now.get());
+        assertEquals(120, chart.size());
+        assertEquals(60, chart.get(0).getSteps());
+
+        List<FitBucket> hours = query(today, TimeBuckets.nextDay(today));
+        assertEquals(9, hours.size());
+        assertEquals(3600, hours.get(8).getSteps());
+        assertEquals(96f, hours.get(8).getAverageHeartRate(), 0.01f);
+        assertEquals(0.75f, hours.get(8).getAverageSpeed(), 0.001f);
+
+        List<FitBucket> week = query(TimeBuckets.addDays(today, -6), TimeBuckets.nextDay(today));
+        assertEquals(7, week.size());
+        assertEquals(9 * 3600, week.get(6).getSteps());
+        assertEquals(fit.getRoundTrips(), MinuteSync.BACKFILL_DAYS + 1);
+        // Only minute rows were written.
+        assertTrue(store.getBuckets(FitQuery.HOUR_BUCKET, today, TimeBuckets.nextDay(today)).isEmpty());
+        FitBucket stored = store.getBuckets(FitQuery.DAY_BUCKET, today, TimeBuckets.nextDay(today)).get(0);
+        assertEquals(5000, stored.getSteps());
+        assertEquals(1800f, stored.getCalories(), 0f);
+
+        // Half an hour later only the unsettled tail is read, and the rolled-up rows move with it.
+        now.addAndGet(TimeUnit.MINUTES.toMillis(30));
+        TestTasks.await(sync.sync(), 10, TimeUnit.SECONDS);
+        assertEquals(MinuteSync.BACKFILL_DAYS + 2, fit.getRoundTrips());
+        List<FitBucket> later = query(today, TimeBuckets.nextDay(today));
+        assertEquals(10, later.size());
+        assertEquals(3600, later.get(7).getSteps());
+        assertEquals(1800, later.get(9).getSteps());
+        week = query(TimeBuckets.addDays(today, -6), TimeBuckets.nextDay(today));
+        assertEquals(9 * 3600 + 1800, week.get(6).getSteps());
+
+        HeartRateSummary heart = TestTasks.await(sync.heartRate(today, TimeBuckets.nextDay(today)),
+                5, TimeUnit.SECONDS);
+        assertEquals(9 * 60 + 30, heart.getSamples());
+        assertEquals(96f, heart.getMean(), 0.01f);
+        assertEquals(96f, heart.getResting(), 0.01f);
+        assertEquals(TimeUnit.MINUTES.toMillis(9 * 60 + 30), heart.getZoneMillis(1));
+    }
+
+    @Test
+    public void dayAveragesWeighEachHourByItsMinutes() throws Exception {
+        TestTasks.await(sync.sync(), 10, TimeUnit.SECONDS);
+        // Half an hour later the unsettled tail from 07:00 is read again, now at a run.
+        fit.setMinuteHeartRate(150f);
+        now.addAndGet(TimeUnit.MINUTES.toMillis(30));
+        TestTasks.await(sync.sync(), 10, TimeUnit.SECONDS);
+
+        List<FitBucket> hours = query(today, TimeBuckets.nextDay(today));
+        assertEquals(10, hours.size());
+        assertEquals(150f, hours.get(9).getAverageHeartRate(), 0.01f);
+        // 420 minutes at 96 and 150 at 150, not seven hours at 96 and three at 150.
+        float expected = (420 * 96f + 150 * 150f) / 570;
+        FitBucket day = query(today, TimeBuckets.addDays(today, 7)).get(0);
+        assertEquals(expected, day.getAverageHeartRate(), 0.01f);
+        HeartRateSummary heart = TestTasks.await(sync.heartRate(today, TimeBuckets.nextDay(today)),
+                5, TimeUnit.SECONDS);
+        assertEquals(heart.getMean(), day.getAverageHeartRate(), 0.01f);
+    }
+
+    @Test
+    public void picksTheLevelBySpan() {
+        assertEquals(FitQuery.MINUTE_BUCKET, MinuteSync.bucketMillisFor(TimeUnit.HOURS.toMillis(2)));
+        assertEquals(FitQuery.HOUR_BUCKET, MinuteSync.bucketMillisFor(TimeUnit.DAYS.toMillis(1)));
+        assertEquals(FitQuery.DAY_BUCKET, MinuteSync.bucketMillisFor(TimeUnit.DAYS.toMillis(7)));
+    }
+
+    @Test
+    public void settledMinutesAreReadFromDisk() throws Exception {
+        TestTasks.await(sync.sync(), 10, TimeUnit.SECONDS);
+        int roundTrips = fit.getRoundTrips();
+
+        long yesterday = TimeBuckets.addDays(today, -1);
+        FitSeries day = TestTasks.await(sync.minutes(yesterday, today), 5, TimeUnit.SECONDS);
+        assertEquals(1440, day.size());
+        assertEquals(roundTrips, fit.getRoundTrips());
+    }
+
+    @Test
+    public void onlyTheUnsettledPartIsReadFromFit() throws Exception {
+        TestTasks.await(sync.sync(), 10, TimeUnit.SECONDS);
+        int roundTrips = fit.getRoundTrips();
+
+        // The watermark sits at 07:00; 06:00-07:00 is on disk, 07:00-09:00 is not.
+        long hour = TimeUnit.HOURS.toMillis(1);
+        FitSeries morning = TestTasks.await(sync.minutes(today + 6 * hour, today + 9 * hour), 5, TimeUnit.SECONDS);
+        assertEquals(180, morning.size());
+        assertEquals(today + 6 * hour, morning.getStartTime(0));
+        assertEquals(today + 9 * hour, morning.getEndTime(179));
+        assertEquals(roundTrips + 1, fit.getRoundTrips());
+
+        // Before the backfill nothing is stored, so the whole span is one Fit read.
+        long old = TimeBuckets.addDays(today, -20);
+        assertEquals(60, TestTasks.await(sync.minutes(old, old + hour), 5, TimeUnit.SECONDS).size());
+        assertEquals(roundTrips + 2, fit.getRoundTrips());
+    }
+
+    @Test
+    public void nothingIsStoredBeforeTheFirstIngest() throws Exception {
+        long hour = TimeUnit.HOURS.toMillis(1);
+        assertEquals(60, TestTasks.await(sync.minutes(today, today + hour), 5, TimeUnit.SECONDS).size());
+        assertEquals(1, fit.getRoundTrips());
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.fitproof.data.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.example.fitproof.data.TestTasks;
+import com.example.fitproof.data.dashboard.DashboardAggregator;
+import com.example.fitproof.data.dashboard.DashboardSync;
+import com.example.fitproof.data.dashboard.StreakIndex;
+import com.example.fitproof.data.fit.FakeFitDataSource;
+import com.example.fitproof.data.fit.FitBucket;
+import com.example.fitproof.data.fit.FitQuery;
+import com.example.fitproof.data.fit.MetricGroups;
+import com.example.fitproof.data.fit.TimeBuckets;
+import com.example.fitproof.data.store.InMemoryBucketStore;
+import com.google.android.gms.tasks.Task;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class PrefetcherTest {
+
+    private static final long MIN_INTERVAL = TimeUnit.MINUTES.toMillis(15);
+
+    private final AtomicLong now = new AtomicLong();
+    private FakeFitDataSource fit;
+    private InMemoryBucketStore store;
+    private ExecutorService disk;
+    private Prefetcher prefetcher;
+
+    @Before
+    public void setUp() {
+        now.set(TimeBuckets.startOfDay(System.currentTimeMillis()) + TimeUnit.HOURS.toMillis(14));
+        fit = new FakeFitDataSource(20, 2);
+        store = new InMemoryBucketStore();
+        // Streaks already indexed through yesterday, so the dashboard sync is only its window read.
+        long yesterday = TimeBuckets.addDays(TimeBuckets.startOfDay(now.get()), -1);
+        for (int threshold : DashboardAggregator.STREAK_THRESHOLDS) {
+            store.putStreakIndex(StreakIndex.empty(threshold).finalizeDay(yesterday, 0));
+        }
+        disk = Executors.newSingleThreadExecutor();
+        prefetcher = new Prefetcher(
+                new DashboardSync(fit, store, disk, now::get),
+                new IncrementalSync(fit, store, disk, now::get),
+                null, store, disk, now::get, MIN_INTERVAL);
+    }
+
+    @After
+    public void tearDown() {
+        fit.shutdown();
+        disk.shutdownNow();
+    }
+
+    @Test
+    public void concurrentTriggersShareOneRun() throws Exception {
+        int triggers = 8;
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(triggers);
+        List<java.util.concurrent.Future<Task<Boolean>>> calls = new ArrayList<>();
+        for (int i = 0; i < triggers; i++) {
+            calls.add(callers.submit(() -> {
+                go.await();
+                return prefetcher.prefetch();
+            }));
+        }
+        go.countDown();
+
+        Task<Boolean> first = calls.get(0).get();
+        for (java.util.concurrent.Future<Task<Boolean>> call : calls) {
+            assertSame(first, call.get());
+        }
+        assertTrue(TestTasks.await(first, 5, TimeUnit.SECONDS));
+        callers.shutdownNow();
+
+        // One dashboard read plus one proof read, however many triggers came in.
+        assertEquals(2, fit.getRoundTrips());
+    }
+
+    @Test
+    public void skipsWithinMinInterval() throws Exception {
+        assertTrue(TestTasks.await(prefetcher.prefetch(), 5, TimeUnit.SECONDS));
+        int afterFirst = fit.getRoundTrips();
+
+        now.addAndGet(MIN_INTERVAL - 1);
+        assertFalse(TestTasks.await(prefetcher.prefetch(), 5, TimeUnit.SECONDS));
+        assertEquals(afterFirst, fit.getRoundTrips());
+
+        now.addAndGet(1);
+        assertTrue(TestTasks.await(prefetcher.prefetch(), 5, TimeUnit.SECONDS));
+        assertTrue(fit.getRoundTrips() > afterFirst);
+    }
+
+    @Test
+    public void leavesYesterdayAndTodayOnDisk() throws Exception {
+        TestTasks.await(prefetcher.prefetch(), 5, TimeUnit.SECONDS);
+
+        long todayStart = TimeBuckets.startOfDay(now.get());
+        IncrementalSync days = new IncrementalSync(fit, store, disk, now::get);
+        List<FitBucket> yesterday = TestTasks.await(days.loadCached(MetricGroups.PROOF,
+                TimeBuckets.addDays(todayStart, -1), todayStart, FitQuery.DAY_BUCKET), 5, TimeUnit.SECONDS);
+        List<FitBucket> today = TestTasks.await(days.peek(todayStart, TimeBuckets.nextDay(todayStart),
+                FitQuery.DAY_BUCKET), 5, TimeUnit.SECONDS);
+        int roundTrips = fit.getRoundTrips();
+
+        assertEquals(1, yesterday.size());
+        assertEquals(1, today.size());
+        assertTrue(today.get(0).getSteps() > 0);
+        assertTrue(TestTasks.await(new DashboardSync(fit, store, disk, now::get).loadCached(),
+                5, TimeUnit.SECONDS).hasData());
+        assertEquals(roundTrips, fit.getRoundTrips());
+    }
+
+    @Test
+    public void ingestsTheRawMinutesWhenGiven() throws Exception {
+        Prefetcher withMinutes = new Prefetcher(null, null, new MinuteSync(fit, store, disk, now::get),
+                store, disk, now::get, MIN_INTERVAL);
+        assertTrue(TestTasks.await(withMinutes.prefetch(), 10, TimeUnit.SECONDS));
+        int roundTrips = fit.getRoundTrips();
+
+        MinuteSync minutes = new MinuteSync(fit, store, disk, now::get);
+        List<FitBucket> lastHour = TestTasks.await(minutes.query(now.get() - TimeUnit.HOURS.toMillis(1),
+                now.get()), 5, TimeUnit.SECONDS);
+        assertEquals(60, lastHour.size());
+        assertTrue(TestTasks.await(minutes.heartRate(TimeBuckets.startOfDay(now.get()), now.get()),
+                5, TimeUnit.SECONDS).hasData());
+        assertEquals(roundTrips, fit.getRoundTrips());
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.fitproof.data.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class SpanRingTest {
+
+    @Test
+    public void keepsTheNewestInOrder() {
+        SpanRing ring = new SpanRing(4);
+        Span[] spans = new Span[6];
+        for (int i = 0; i < spans.length; i++) {
+            spans[i] = Span.start(Span.HTTP).setDetail("call " + i).end();
+            ring.record(spans[i]);
+        }
+
+        List<Span> recent = ring.snapshot();
+
+        assertEquals(4, recent.size());
+        for (int i = 0; i < 4; i++) {
+            assertSame(spans[i + 2], recent.get(i));
+        }
+        assertEquals(6, ring.getWritten());
+    }
+
+    @Test
+    public void concurrentWritersLoseNothingWithinCapacity() throws Exception {
+        SpanRing ring = new SpanRing(4096);
+        int writers = 4;
+        int each = 1000;
+        ExecutorService threads = Executors.newFixedThreadPool(writers);
+        CountDownLatch go = new CountDownLatch(1);
+        Set<Span> written = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int w = 0; w < writers; w++) {
+            Span[] mine = new Span[each];
+            for (int i = 0; i < each; i++) {
+                mine[i] = Span.start(Span.FIT_MINUTES).end();
+            }
+            Collections.addAll(written, mine);
+            threads.execute(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (Span span : mine) {
+                    ring.record(span);
+                }
+            });
+        }
+        go.countDown();
+        threads.shutdown();
+        threads.awaitTermination(10, TimeUnit.SECONDS);
+
+        List<Span> recent = ring.snapshot();
+        assertEquals(writers * each, recent.size());
+        Set<Span> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        seen.addAll(recent);
+        assertEquals(written, seen);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityMustBeAPowerOfTwo() {
+        new SpanRing(100);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.fitproof.data.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class SyncTraceTest {
+
+    @Test
+    public void countsOnlyWrappedWorkUntilFinished() throws Exception {
+        SyncTrace trace = SyncTrace.begin("test-sync");
+        assertEquals(-1, trace.getWallMillis());
+
+        trace.onMain(() -> sleep(20));
+        Thread.sleep(30); // off-main wait, not charged
+        trace.finish();
+        long mainNanos = trace.getMainThreadNanos();
+
+        assertTrue(mainNanos >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(trace.getWallMillis() >= 50);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(mainNanos) < trace.getWallMillis());
+
+        trace.onMain(() -> sleep(5));
+        trace.finish();
+        assertEquals(mainNanos, trace.getMainThreadNanos());
+    }
+
+    @Test
+    public void finishedTracesAreKeptOnce() {
+        SyncTrace trace = SyncTrace.begin("recent-sync");
+        trace.finish();
+        trace.finish();
+
+        List<SyncTrace> recent = SyncTrace.recent();
+        assertEquals(trace, recent.get(recent.size() - 1));
+        assertEquals(1, recent.stream().filter(t -> t == trace).count());
+    }
+
+    @Test
+    public void collectsTheCallsMadeWhileRunning() {
+        Span.start(Span.FIT_SESSIONS).end(); // before the sync
+        SyncTrace trace = SyncTrace.begin("spans-sync");
+        Span.Timer aggregates = Span.start(Span.FIT_AGGREGATES).setBuckets(24).setPoints(96);
+        Span.start(Span.FIT_SESSIONS).fail(new IllegalStateException("no account"));
+        sleep(10);
+        aggregates.end();
+        trace.finish();
+        Span.start(Span.HTTP).end(); // after it
+
+        List<Span> spans = trace.getSpans();
+        assertEquals(2, spans.size());
+        assertEquals(Span.FIT_SESSIONS, spans.get(0).getType());
+        assertTrue(spans.get(0).isFailed());
+        assertEquals(Span.FIT_AGGREGATES, trace.getSlowest().getType());
+        assertTrue(trace.summarize(), trace.summarize().contains("fit.aggregates x1 (0 failed)"));
+        assertTrue(trace.summarize(), trace.summarize().contains("fit.sessions x1 (1 failed)"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
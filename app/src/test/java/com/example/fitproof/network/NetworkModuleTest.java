@@ -0,0 +1,112 @@
+package com.example.fitproof.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.example.fitproof.publish.GitHubService;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import mockwebserver3.MockResponse;
+import mockwebserver3.MockWebServer;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.logging.HttpLoggingInterceptor;
+
+public class NetworkModuleTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final MockWebServer server = new MockWebServer();
+    private NetworkModule module;
+
+    @Before
+    public void setUp() throws Exception {
+        server.start();
+        module = new NetworkModule(folder.newFolder("http"), HttpLoggingInterceptor.Level.NONE);
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void callsShareOnePooledConnection() throws Exception {
+        int calls = 20;
+        for (int i = 0; i < calls; i++) {
+            server.enqueue(new MockResponse.Builder().body("{\"html_url\":\"u" + i + "\"}").build());
+        }
+        GitHubService service = module.getService(GitHubService.class, server.url("/").toString());
+
+        for (int i = 0; i < calls; i++) {
+            assertTrue(service.createGist("token t", GitHubService.ACCEPT, Collections.singletonMap("i", i))
+                    .execute().isSuccessful());
+        }
+
+        NetworkStats.Snapshot stats = module.getStats().snapshot();
+        assertEquals(calls, stats.getRequests());
+        assertEquals(1, stats.getConnectionsOpened());
+        assertEquals(0, stats.getFailures());
+        assertTrue(stats.getBytesSent() > 0);
+        assertTrue(stats.getBytesReceived() > 0);
+    }
+
+    @Test
+    public void servicesAreBuiltOnce() {
+        String url = server.url("/").toString();
+        assertSame(module.getService(GitHubService.class, url), module.getService(GitHubService.class, url));
+    }
+
+    @Test
+    public void cacheableResponsesAreServedFromDisk() throws Exception {
+        server.enqueue(new MockResponse.Builder()
+                .addHeader("Cache-Control", "max-age=60")
+                .body("profile")
+                .build());
+        OkHttpClient client = module.getClient();
+        Request request = new Request.Builder().url(server.url("/users/me")).build();
+
+        for (int i = 0; i < 3; i++) {
+            try (Response response = client.newCall(request).execute()) {
+                assertEquals("profile", response.body().string());
+            }
+        }
+
+        assertEquals(1, server.getRequestCount());
+        NetworkStats.Snapshot stats = module.getStats().snapshot();
+        assertEquals(3, stats.getRequests());
+        assertEquals(2, stats.getCacheHits());
+        assertEquals("profile".length(), stats.getBytesReceived());
+        assertFalse(stats.getRecent().get(0).isCacheHit());
+        assertTrue(stats.getRecent().get(2).isCacheHit());
+    }
+
+    @Test
+    public void failedCallsAreCounted() throws Exception {
+        String url = server.url("/").toString();
+        server.close();
+        Request request = new Request.Builder().url(url).build();
+
+        try {
+            module.getClient().newCall(request).execute().close();
+        } catch (IOException expected) {
+            // Nothing is listening any more.
+        }
+
+        NetworkStats.Snapshot stats = module.getStats().snapshot();
+        assertEquals(1, stats.getFailures());
+        assertEquals(-1, stats.getRecent().get(0).getCode());
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.fitproof.publish;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mockwebserver3.Dispatcher;
+import mockwebserver3.MockResponse;
+import mockwebserver3.MockWebServer;
+import mockwebserver3.RecordedRequest;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+public class GistPublisherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final MockWebServer server = new MockWebServer();
+    private final List<Long> sleeps = new ArrayList<>();
+    private long now = TimeUnit.DAYS.toMillis(20000);
+    private ProofOutbox outbox;
+    private GitHubService service;
+
+    @Before
+    public void setUp() throws Exception {
+        server.start();
+        outbox = new ProofOutbox(folder.newFolder("outbox"));
+        service = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .addConverterFactory(GsonConverterFactory.create())
+                .build()
+                .create(GitHubService.class);
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void batchesManyProofsPerGist() throws Exception {
+        int proofs = 1000;
+        for (int i = 0; i < proofs; i++) {
+            outbox.enqueue("proof-" + i + ".json", proof(i));
+        }
+        AtomicInteger files = new AtomicInteger();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                JsonObject gist = JsonParser.parseString(request.getBody().utf8()).getAsJsonObject();
+                files.addAndGet(gist.getAsJsonObject("files").size());
+                return created(server.getRequestCount());
+            }
+        });
+
+        GistPublisher.DrainResult result = publisher().drain();
+
+        assertTrue(result.toString(), result.isComplete());
+        assertEquals(proofs, result.getPublished());
+        assertEquals(proofs, files.get());
+        assertEquals(proofs / GistPublisher.MAX_FILES_PER_GIST, result.getRequests());
+        assertEquals(result.getRequests(), server.getRequestCount());
+        assertEquals(0, outbox.size());
+    }
+
+    @Test
+    public void retriesServerErrorsWithBackoff() throws Exception {
+        outbox.enqueue("proof-1.json", proof(1));
+        server.enqueue(new MockResponse.Builder().code(502).build());
+        server.enqueue(new MockResponse.Builder().code(503).build());
+        server.enqueue(created(1));
+
+        GistPublisher.DrainResult result = publisher().drain();
+
+        assertTrue(result.isComplete());
+        assertEquals(3, result.getRequests());
+        assertEquals(2, sleeps.size());
+        assertBackoff(1, sleeps.get(0));
+        assertBackoff(2, sleeps.get(1));
+        assertEquals("https://gist.example/1", result.getGistUrls().get(0));
+    }
+
+    @Test
+    public void waitsOutShortRateLimits() throws Exception {
+        outbox.enqueue("proof-1.json", proof(1));
+        server.enqueue(new MockResponse.Builder().code(429).addHeader("Retry-After", "7").build());
+        server.enqueue(created(1));
+
+        GistPublisher.DrainResult result = publisher().drain();
+
+        assertTrue(result.isComplete());
+        assertEquals(1, sleeps.size());
+        assertEquals(7000L, (long) sleeps.get(0));
+    }
+
+    @Test
+    public void defersWhenQuotaIsSpent() throws Exception {
+        outbox.enqueue("proof-1.json", proof(1));
+        outbox.enqueue("proof-2.json", proof(2));
+        long reset = TimeUnit.MILLISECONDS.toSeconds(now) + 3600;
+        // The first batch goes through but spends the last request of the hour.
+        server.enqueue(new MockResponse.Builder().code(201).body("{}")
+                .addHeader("X-RateLimit-Remaining", "0")
+                .addHeader("X-RateLimit-Reset", Long.toString(reset))
+                .build());
+
+        GistPublisher.DrainResult result = publisher(1).drain();
+
+        assertEquals(1, result.getPublished());
+        assertEquals(1, server.getRequestCount());
+        assertEquals(TimeUnit.SECONDS.toMillis(reset), result.getRetryAt());
+        assertNull(result.getError());
+        assertEquals(1, outbox.size());
+    }
+
+    @Test
+    public void stopsOnPermanentErrorsAndKeepsTheOutbox() throws Exception {
+        outbox.enqueue("proof-1.json", proof(1));
+        server.enqueue(new MockResponse.Builder().code(401).body("{\"message\":\"Bad credentials\"}").build());
+
+        GistPublisher.DrainResult result = publisher().drain();
+
+        assertEquals(0, result.getRetryAt());
+        assertNotNull(result.getError());
+        assertTrue(result.getError().contains("401"));
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, outbox.size());
+    }
+
+    private GistPublisher publisher() {
+        return publisher(GistPublisher.MAX_FILES_PER_GIST);
+    }
+
+    private GistPublisher publisher(int maxFiles) {
+        return new GistPublisher(service, "secret", outbox, maxFiles, GistPublisher.MAX_BYTES_PER_GIST,
+                () -> now, millis -> {
+                    sleeps.add(millis);
+                    now += millis;
+                });
+    }
+
+    private static void assertBackoff(int attempt, long millis) {
+        long cap = Math.min(GistPublisher.MAX_BACKOFF_MILLIS, GistPublisher.INITIAL_BACKOFF_MILLIS << (attempt - 1));
+        assertTrue(millis + " for attempt " + attempt, millis >= cap / 2 && millis <= cap);
+    }
+
+    private static MockResponse created(int id) {
+        return new MockResponse.Builder()
+                .code(201)
+                .body("{\"html_url\":\"https://gist.example/" + id + "\"}")
+                .build();
+    }
+
+    private static byte[] proof(int i) {
+        return ("{\"v\":1,\"proof_id\":\"" + i + "\",\"hash\":\"" + Integer.toHexString(i * 31) + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.fitproof.publish;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+public class ProofOutboxTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void entriesSurviveReopenInEnqueueOrder() throws Exception {
+        File dir = folder.newFolder("outbox");
+        ProofOutbox outbox = new ProofOutbox(dir);
+        outbox.enqueue("proof-b.json", bytes("{\"b\":1}"));
+        outbox.enqueue("proof-a.json", bytes("{\"a\":1}"));
+
+        ProofOutbox reopened = new ProofOutbox(dir);
+        reopened.enqueue("proof-c.json", bytes("{\"c\":1}"));
+        List<ProofOutbox.Entry> entries = reopened.peek(10, Long.MAX_VALUE);
+
+        assertEquals(3, entries.size());
+        assertEquals("proof-b.json", entries.get(0).getName());
+        assertEquals("proof-a.json", entries.get(1).getName());
+        assertEquals("proof-c.json", entries.get(2).getName());
+        assertArrayEquals(bytes("{\"a\":1}"), entries.get(1).getContent());
+    }
+
+    @Test
+    public void peekRespectsCountAndByteBudgets() throws Exception {
+        ProofOutbox outbox = new ProofOutbox(folder.newFolder("outbox"));
+        for (int i = 0; i < 5; i++) {
+            outbox.enqueue("p" + i + ".json", new byte[100]);
+        }
+
+        assertEquals(3, outbox.peek(3, Long.MAX_VALUE).size());
+        assertEquals(2, outbox.peek(10, 250).size());
+        // An entry larger than the budget still goes out on its own.
+        assertEquals(1, outbox.peek(10, 10).size());
+    }
+
+    @Test
+    public void removeAndTornWrites() throws Exception {
+        File dir = folder.newFolder("outbox");
+        ProofOutbox outbox = new ProofOutbox(dir);
+        outbox.enqueue("keep.json", bytes("1"));
+        List<ProofOutbox.Entry> first = outbox.peek(1, Long.MAX_VALUE);
+        outbox.enqueue("next.json", bytes("2"));
+        outbox.remove(first);
+        outbox.remove(first);
+
+        File torn = new File(dir, "0000000000000000099-torn.json.tmp");
+        Files.write(torn.toPath(), bytes("{"));
+        ProofOutbox reopened = new ProofOutbox(dir);
+
+        assertEquals(1, reopened.size());
+        assertEquals("next.json", reopened.peek(10, Long.MAX_VALUE).get(0).getName());
+        assertTrue(!torn.exists());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsPathLikeNames() throws Exception {
+        new ProofOutbox(folder.newFolder("outbox")).enqueue("../escape.json", bytes("x"));
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.fitproof.ui.home;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import androidx.lifecycle.SavedStateHandle;
+
+import com.example.fitproof.data.dashboard.DashboardSummary;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class HomeSavedStateTest {
+
+    @Test
+    public void aSavedSummaryIsRestoredAsItWas() {
+        DashboardSummary summary = new DashboardSummary(8421, 2140.5f, 7312.3f, 2010.7f, 12, 40, 7, 1_700_000_000_000L);
+        SavedStateHandle handle = new SavedStateHandle();
+        HomeSavedState.save(handle, summary);
+
+        DashboardSummary restored = HomeSavedState.restore(handle);
+        assertNotNull(restored);
+        assertEquals(summary.getTodaySteps(), restored.getTodaySteps());
+        assertEquals(summary.getTodayCalories(), restored.getTodayCalories(), 0f);
+        assertEquals(summary.getWeeklyAvgSteps(), restored.getWeeklyAvgSteps(), 0f);
+        assertEquals(summary.getWeeklyAvgCalories(), restored.getWeeklyAvgCalories(), 0f);
+        assertEquals(summary.getStreak(), restored.getStreak());
+        assertEquals(summary.getLongestStreak(), restored.getLongestStreak());
+        assertEquals(summary.getDayCount(), restored.getDayCount());
+        assertEquals(summary.getLastSyncTime(), restored.getLastSyncTime());
+    }
+
+    @Test
+    public void aFreshHandleRestoresNothing() {
+        assertNull(HomeSavedState.restore(new SavedStateHandle()));
+    }
+
+    @Test
+    public void stateSavedBeforeTheLongestStreakWasKeptIsIgnored() {
+        // What an older build left in the handle before the process was killed.
+        Map<String, Object> old = new HashMap<>();
+        old.put("today_steps", 8421);
+        old.put("today_calories", 2140.5f);
+        old.put("weekly_avg_steps", 7312.3f);
+        old.put("weekly_avg_calories", 2010.7f);
+        old.put("streak", 12);
+        old.put("day_count", 7);
+        old.put("last_sync", 1_700_000_000_000L);
+
+        assertNull(HomeSavedState.restore(new SavedStateHandle(old)));
+    }
+}
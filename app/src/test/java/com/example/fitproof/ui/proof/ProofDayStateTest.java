@@ -0,0 +1,44 @@
+package com.example.fitproof.ui.proof;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.fitproof.data.fit.FitBucket;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ProofDayStateTest {
+
+    private static final long DAY_START = 1_735_689_600_000L;
+
+    private static List<FitBucket> activeDay() {
+        return Collections.singletonList(new FitBucket.Builder(DAY_START, DAY_START + TimeUnit.DAYS.toMillis(1))
+                .addSteps(8000)
+                .addDistance(6100f)
+                .addActiveMillis(TimeUnit.MINUTES.toMillis(70))
+                .build());
+    }
+
+    @Test
+    public void prefetchedNumbersCannotBeVerified() {
+        // What the screen shows from the prefetch for a day that has not settled yet.
+        ProofDayState prefetched = ProofDayState.forDay(DAY_START, ProofDayState.Status.NOT_SYNCED,
+                activeDay(), null, null);
+        assertTrue(prefetched.hasData());
+        assertFalse(prefetched.isVerifiable());
+    }
+
+    @Test
+    public void onlyASyncedDayCanBeVerified() {
+        ProofDayState synced = ProofDayState.forDay(DAY_START, ProofDayState.Status.SYNCED, activeDay(), null, null);
+        assertTrue(synced.isVerifiable());
+
+        assertFalse(synced.withError("Failed to fetch workout data", null).isVerifiable());
+        assertFalse(ProofDayState.empty(DAY_START, ProofDayState.Status.LOADING).isVerifiable());
+        assertFalse(ProofDayState.empty(DAY_START, ProofDayState.Status.NOT_SYNCED).isVerifiable());
+    }
+}
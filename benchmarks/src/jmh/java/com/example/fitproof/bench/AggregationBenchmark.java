@@ -0,0 +1,132 @@
+package com.example.fitproof.bench;
+
+import com.example.fitproof.data.dashboard.DashboardAggregator;
+import com.example.fitproof.data.dashboard.DashboardSummary;
+import com.example.fitproof.data.fit.FitBucket;
+import com.example.fitproof.data.fit.FitMetric;
+import com.example.fitproof.data.fit.FitQuery;
+import com.example.fitproof.data.fit.FitSeries;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The loops behind the dashboard and the proof card: summing raw data points into buckets (the
+ * old fetchSteps/fetchDistance loops), rolling hours up into days, and folding the day rows into
+ * the dashboard summary (HomeFragment.displayFitnessData before DashboardAggregator). The
+ * {@code series*} variants do the same work over {@link FitSeries} columns.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AggregationBenchmark {
+
+    /** 1 = one proof card, 7 = the dashboard window, 365 = a year of history. */
+    @Param({"1", "7", "365"})
+    public int days;
+
+    private SyntheticData.RawPoints points;
+    private List<FitBucket> hours;
+    private List<FitBucket> dayRows;
+
+    private FitSeries minuteSeries;
+    private FitSeries hourSeries;
+    private FitSeries daySeries;
+    private long[] hourBoundaries;
+    private long[] dayBoundaries;
+    private double[] hourSteps;
+    private double[] hourMeters;
+
+    @Setup
+    public void setUp() {
+        points = new SyntheticData.RawPoints(days, 42);
+        hours = SyntheticData.hours(days * 24, 42);
+        dayRows = SyntheticData.days(days, 42);
+
+        FitSeries.Builder minutes = new FitSeries.Builder(points.startTimes.length);
+        for (int i = 0; i < points.startTimes.length; i++) {
+            long start = points.startTimes[i];
+            minutes.add(start, start + SyntheticData.MINUTE).addSteps(points.steps[i]).addDistance(points.meters[i]);
+        }
+        minuteSeries = minutes.build();
+        hourSeries = FitSeries.of(hours);
+        daySeries = FitSeries.of(dayRows);
+        hourBoundaries = new long[days * 24 + 1];
+        for (int i = 0; i < hourBoundaries.length; i++) {
+            hourBoundaries[i] = SyntheticData.DAY_START + i * FitQuery.HOUR_BUCKET;
+        }
+        dayBoundaries = new long[days + 1];
+        for (int i = 0; i < dayBoundaries.length; i++) {
+            dayBoundaries[i] = SyntheticData.DAY_START + i * FitQuery.DAY_BUCKET;
+        }
+        hourSteps = new double[days * 24];
+        hourMeters = new double[days * 24];
+    }
+
+    /** Per-minute step and distance deltas summed into one bucket per hour. */
+    @Benchmark
+    public void rawPointsIntoHours(Blackhole sink) {
+        long hourEnd = 0;
+        FitBucket.Builder hour = null;
+        for (int i = 0; i < points.startTimes.length; i++) {
+            long start = points.startTimes[i];
+            if (start >= hourEnd) {
+                if (hour != null) sink.consume(hour.build());
+                long hourStart = start - (start - SyntheticData.DAY_START) % FitQuery.HOUR_BUCKET;
+                hourEnd = hourStart + FitQuery.HOUR_BUCKET;
+                hour = new FitBucket.Builder(hourStart, hourEnd);
+            }
+            hour.addSteps(points.steps[i]).addDistance(points.meters[i]);
+        }
+        if (hour != null) sink.consume(hour.build());
+    }
+
+    /** The rollup IncrementalSync does after a fetch: 24 hourly rows merged per day. */
+    @Benchmark
+    public void hoursIntoDays(Blackhole sink) {
+        for (int day = 0; day < days; day++) {
+            long start = SyntheticData.DAY_START + day * FitQuery.DAY_BUCKET;
+            sink.consume(FitBucket.merge(start, start + FitQuery.DAY_BUCKET, hours.subList(day * 24, day * 24 + 24)));
+        }
+    }
+
+    @Benchmark
+    public DashboardSummary dashboardSummary() {
+        return DashboardAggregator.summarize(dayRows, dayRows.get(dayRows.size() - 1).getStartTime(), 0);
+    }
+
+    /** {@link #rawPointsIntoHours} over columns, into caller-owned arrays. */
+    @Benchmark
+    public void seriesMinutesIntoHours(Blackhole sink) {
+        minuteSeries.rollup(FitMetric.STEPS, hourBoundaries, hourSteps);
+        minuteSeries.rollup(FitMetric.DISTANCE, hourBoundaries, hourMeters);
+        sink.consume(hourSteps);
+        sink.consume(hourMeters);
+    }
+
+    /** {@link #hoursIntoDays} over columns; only the day rows themselves are allocated. */
+    @Benchmark
+    public FitSeries seriesHoursIntoDays() {
+        return hourSeries.rollup(dayBoundaries);
+    }
+
+    /** The window totals and extremes the dashboard reads, straight off the columns. */
+    @Benchmark
+    public void seriesDayStats(Blackhole sink) {
+        int size = daySeries.size();
+        sink.consume(daySeries.average(FitMetric.STEPS, 0, size));
+        sink.consume(daySeries.average(FitMetric.CALORIES, 0, size));
+        sink.consume(daySeries.max(FitMetric.STEPS, 0, size));
+        sink.consume(daySeries.min(FitMetric.STEPS, 0, size));
+    }
+}
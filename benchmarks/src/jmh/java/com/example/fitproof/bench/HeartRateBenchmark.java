@@ -0,0 +1,67 @@
+package com.example.fitproof.bench;
+
+import com.example.fitproof.data.analysis.HeartRateAccumulator;
+import com.example.fitproof.data.analysis.HeartRateSummary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heart-rate figures for a 1 Hz chest-strap session of one to eight hours: the single-pass
+ * {@link HeartRateAccumulator} against keeping every sample and sorting for the resting rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HeartRateBenchmark {
+
+    @Param({"1", "4", "8"})
+    public int hours;
+
+    private long[] times;
+    private float[] bpm;
+
+    @Setup
+    public void setUp() {
+        int seconds = hours * 3600;
+        bpm = SyntheticData.heartRate(seconds, 42);
+        times = new long[seconds];
+        for (int i = 0; i < seconds; i++) {
+            times[i] = SyntheticData.DAY_START + i * 1000L;
+        }
+    }
+
+    @Benchmark
+    public HeartRateSummary singlePass() {
+        HeartRateAccumulator heart = new HeartRateAccumulator();
+        for (int i = 0; i < times.length; i++) {
+            heart.add(times[i], bpm[i]);
+        }
+        return heart.summarize();
+    }
+
+    /** The obvious version: filter into a copy, average it, sort it for the 5th percentile. */
+    @Benchmark
+    public float copyAndSort() {
+        float[] kept = new float[bpm.length];
+        int count = 0;
+        double sum = 0;
+        for (float sample : bpm) {
+            if (sample >= HeartRateAccumulator.MIN_BPM && sample <= HeartRateAccumulator.MAX_BPM) {
+                kept[count++] = sample;
+                sum += sample;
+            }
+        }
+        Arrays.sort(kept, 0, count);
+        return (float) (sum / count) + kept[count / 20];
+    }
+}
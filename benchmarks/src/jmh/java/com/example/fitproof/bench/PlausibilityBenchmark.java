@@ -0,0 +1,38 @@
+package com.example.fitproof.bench;
+
+import com.example.fitproof.data.analysis.PlausibilityEngine;
+import com.example.fitproof.data.analysis.PlausibilityReport;
+import com.example.fitproof.data.fit.FitSeries;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/** Every default plausibility rule over one day of minute rows; the budget on a phone is 50 ms. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PlausibilityBenchmark {
+
+    private final PlausibilityEngine engine = PlausibilityEngine.withDefaultRules();
+    private FitSeries day;
+
+    @Setup
+    public void setUp() {
+        day = SyntheticData.dayOfMinutes(7);
+        if (!engine.check(day).isPlausible()) {
+            throw new IllegalStateException("The synthetic day should pass: " + engine.check(day));
+        }
+    }
+
+    @Benchmark
+    public PlausibilityReport checkDay() {
+        return engine.check(day);
+    }
+}
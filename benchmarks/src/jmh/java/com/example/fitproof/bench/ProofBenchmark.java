@@ -0,0 +1,109 @@
+package com.example.fitproof.bench;
+
+import com.example.fitproof.proof.MerkleTree;
+import com.example.fitproof.proof.ProofDecoder;
+import com.example.fitproof.proof.ProofEncoder;
+import com.example.fitproof.proof.ProofFormatException;
+import com.example.fitproof.proof.ProofHasher;
+import com.example.fitproof.proof.WorkoutProof;
+import com.google.gson.Gson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Proof serialisation and SHA-256 hashing, against {@code legacyMapGsonHex}: the map, Gson and
+ * hex-string hashing that MyProofFragment.createJsonWithHash used to do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProofBenchmark {
+
+    private final ProofEncoder encoder = new ProofEncoder();
+    private final ProofDecoder decoder = new ProofDecoder();
+    private final Gson gson = new Gson();
+    private WorkoutProof proof;
+    private byte[] published;
+    private HashMap<String, Object> legacyWorkoutData;
+
+    @Setup
+    public void setUp() {
+        proof = SyntheticData.proof(7);
+        published = encoder.encode(proof);
+        legacyWorkoutData = new HashMap<>();
+        legacyWorkoutData.put("date", "Jan 01, 2025");
+        legacyWorkoutData.put("workoutType", "Running");
+        legacyWorkoutData.put("duration", "00:42:13");
+        legacyWorkoutData.put("activitySummary", "Walking, Running, Still");
+        legacyWorkoutData.put("steps", "8421");
+        legacyWorkoutData.put("distance", "6.01 km");
+        legacyWorkoutData.put("heartPts", "24");
+        legacyWorkoutData.put("pace", "5:07 min/km");
+    }
+
+    @Benchmark
+    public byte[] hash() {
+        return encoder.hash(proof);
+    }
+
+    @Benchmark
+    public byte[] encodeWithHash() {
+        return encoder.encode(proof);
+    }
+
+    @Benchmark
+    public WorkoutProof decodeAndVerify() throws ProofFormatException {
+        return decoder.decode(published).getProof();
+    }
+
+    @Benchmark
+    public String legacyMapGsonHex() throws Exception {
+        String workoutJson = gson.toJson(legacyWorkoutData);
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(workoutJson.getBytes(StandardCharsets.UTF_8));
+        Map<String, Object> finalJson = new HashMap<>();
+        finalJson.put("proof_id", "3f1c2a9e-0000-4000-8000-000000000007");
+        finalJson.put("timestamp", 1_735_761_600_000L);
+        finalJson.put("workout_data", legacyWorkoutData);
+        finalJson.put("hash", ProofHasher.toHex(digest));
+        finalJson.put("hash_algorithm", "SHA-256");
+        return gson.toJson(finalJson);
+    }
+
+    /** A month or a year of daily proofs under one root. */
+    @State(Scope.Thread)
+    public static class Batch {
+
+        @Param({"30", "365"})
+        public int days;
+
+        List<byte[]> hashes;
+
+        @Setup
+        public void setUp() {
+            hashes = new ArrayList<>(days);
+            for (int i = 0; i < days; i++) {
+                hashes.add(ProofHasher.hash(SyntheticData.proof(i)));
+            }
+        }
+    }
+
+    @Benchmark
+    public byte[] merkleRoot(Batch batch) {
+        return MerkleTree.build(batch.hashes).getRoot();
+    }
+}
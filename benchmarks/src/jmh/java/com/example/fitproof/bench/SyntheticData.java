@@ -0,0 +1,137 @@
+package com.example.fitproof.bench;
+
+import com.example.fitproof.data.fit.FitBucket;
+import com.example.fitproof.data.fit.FitQuery;
+import com.example.fitproof.data.fit.FitSeries;
+import com.example.fitproof.proof.WorkoutProof;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Seeded, realistic-looking Fit data so runs on different commits measure the same inputs. */
+final class SyntheticData {
+
+    static final long DAY_START = 1_735_689_600_000L;
+    static final long MINUTE = 60_000L;
+
+    private static final String[] ACTIVITIES = {"walking", "running", "biking", "still", "in_vehicle"};
+
+    private SyntheticData() {
+    }
+
+    static WorkoutProof proof(int seed) {
+        Random random = new Random(seed);
+        return WorkoutProof.builder()
+                .setProofId("3f1c2a9e-0000-4000-8000-" + String.format("%012d", seed))
+                .setDayStart(DAY_START + seed * FitQuery.DAY_BUCKET)
+                .setIssuedAt(DAY_START + seed * FitQuery.DAY_BUCKET + 20 * 3_600_000L)
+                .setWorkoutType("running")
+                .setDurationMillis(1_200_000 + random.nextInt(3_600_000))
+                .setSteps(2_000 + random.nextInt(18_000))
+                .setDistanceMeters(1_000 + random.nextFloat() * 14_000)
+                .setHeartPoints(random.nextFloat() * 60)
+                .setAverageSpeed(1 + random.nextFloat() * 3)
+                .addActivity("walking")
+                .addActivity("running")
+                .addActivity("still")
+                .build();
+    }
+
+    /** {@code count} hourly buckets starting at {@link #DAY_START}, active during waking hours. */
+    static List<FitBucket> hours(int count, long seed) {
+        Random random = new Random(seed);
+        List<FitBucket> hours = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long start = DAY_START + i * FitQuery.HOUR_BUCKET;
+            int hourOfDay = i % 24;
+            boolean awake = hourOfDay >= 7 && hourOfDay < 23;
+            FitBucket.Builder hour = new FitBucket.Builder(start, start + FitQuery.HOUR_BUCKET)
+                    .addSteps(awake ? random.nextInt(1_500) : 0)
+                    .addCalories(60 + random.nextFloat() * 120)
+                    .addDistance(awake ? random.nextFloat() * 1_200 : 0)
+                    .addHeartPoints(awake ? random.nextFloat() * 5 : 0)
+                    .setAverageSpeed(awake ? 1 + random.nextFloat() : 0)
+                    .addActiveMillis(awake ? random.nextInt(1_800_000) : 0)
+                    .addActivity(ACTIVITIES[random.nextInt(ACTIVITIES.length)]);
+            hours.add(hour.build());
+        }
+        return hours;
+    }
+
+    /** {@code count} day buckets, oldest first. */
+    static List<FitBucket> days(int count, long seed) {
+        Random random = new Random(seed);
+        List<FitBucket> days = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long start = DAY_START + i * FitQuery.DAY_BUCKET;
+            days.add(new FitBucket.Builder(start, start + FitQuery.DAY_BUCKET)
+                    .addSteps(random.nextInt(5) == 0 ? random.nextInt(100) : 2_000 + random.nextInt(15_000))
+                    .addCalories(1_600 + random.nextFloat() * 1_200)
+                    .build());
+        }
+        return days;
+    }
+
+    /**
+     * A 1 Hz chest-strap stream of {@code seconds} samples: a slow drift between easy and hard
+     * efforts, beat-to-beat noise and the odd dropout reading far too low or too high.
+     */
+    static float[] heartRate(int seconds, long seed) {
+        Random random = new Random(seed);
+        float[] bpm = new float[seconds];
+        for (int i = 0; i < seconds; i++) {
+            double effort = 0.5 + 0.5 * Math.sin(i / 600.0);
+            bpm[i] = (float) (70 + effort * 100 + random.nextGaussian() * 3);
+            if (random.nextInt(2_000) == 0) {
+                bpm[i] = random.nextBoolean() ? 20f : 255f;
+            }
+        }
+        return bpm;
+    }
+
+    /**
+     * One day of minute rows as {@code readMinutes} returns them: a quiet night, walking through
+     * the day and an hour's run in the evening, every minute carrying a heart rate.
+     */
+    static FitSeries dayOfMinutes(long seed) {
+        Random random = new Random(seed);
+        FitSeries.Builder day = new FitSeries.Builder(24 * 60);
+        for (int m = 0; m < 24 * 60; m++) {
+            long start = DAY_START + m * MINUTE;
+            boolean running = m >= 18 * 60 && m < 19 * 60;
+            boolean awake = m >= 7 * 60 && m < 23 * 60;
+            int steps = running ? 160 + random.nextInt(15) : awake && random.nextInt(3) == 0 ? random.nextInt(110) : 0;
+            float stride = running ? 1.0f + random.nextFloat() * 0.2f : 0.7f;
+            day.add(start, start + MINUTE)
+                    .addSteps(steps)
+                    .addDistance(steps * stride)
+                    .addActiveMillis(steps > 0 ? MINUTE : 0)
+                    .setAverageHeartRate(running ? 145 + random.nextInt(20) : 60 + random.nextInt(steps / 4 + 10));
+        }
+        return day.build();
+    }
+
+    /**
+     * Raw per-minute samples for {@code days} days, as Fit returns step and distance deltas:
+     * parallel arrays of start times, steps and metres.
+     */
+    static final class RawPoints {
+        final long[] startTimes;
+        final int[] steps;
+        final float[] meters;
+
+        RawPoints(int days, long seed) {
+            int count = days * 24 * 60;
+            Random random = new Random(seed);
+            startTimes = new long[count];
+            steps = new int[count];
+            meters = new float[count];
+            for (int i = 0; i < count; i++) {
+                startTimes[i] = DAY_START + i * MINUTE;
+                steps[i] = random.nextInt(4) == 0 ? random.nextInt(120) : 0;
+                meters[i] = steps[i] * 0.75f;
+            }
+        }
+    }
+}
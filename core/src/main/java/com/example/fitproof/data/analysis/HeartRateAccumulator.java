@@ -0,0 +1,157 @@
+package com.example.fitproof.data.analysis;
+
+import com.example.fitproof.data.fit.FitSeries;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-pass heart-rate statistics over a stream of samples in time order: min, max, mean, time
+ * in each zone and a resting estimate, in constant memory however long the stream is. Works for a
+ * 1 Hz chest-strap session as well as a day of minute averages; see {@link #add} and
+ * {@link #addInterval}.
+ *
+ * <p>Each sample holds until the next one, up to {@link #MAX_GAP_MILLIS}; a longer gap is a sensor
+ * that was off, not a steady heart. Samples outside {@link #MIN_BPM}..{@link #MAX_BPM} or out of
+ * time order are dropped as artifacts.
+ */
+public final class HeartRateAccumulator {
+
+    public static final float MIN_BPM = 30f;
+    public static final float MAX_BPM = 240f;
+    public static final long MAX_GAP_MILLIS = TimeUnit.MINUTES.toMillis(2);
+    /** Used when the user's own maximum is not known. */
+    public static final int DEFAULT_MAX_HEART_RATE = 190;
+    /** Zones 1-5 are 50-60 % ... 90-100 % of the maximum; index 0 is everything below zone 1. */
+    public static final int ZONES = 6;
+    // Resting rate is the calmest stretch of this length, not the single lowest sample, so one
+    // dropout reading low does not become the estimate.
+    static final long RESTING_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long RESTING_MIN_COVERAGE_MILLIS = RESTING_WINDOW_MILLIS * 3 / 5;
+
+    private final float maxHeartRate;
+
+    private int samples;
+    private int rejected;
+    private float min = Float.NaN;
+    private float max = Float.NaN;
+    private double sampleSum;
+    private double weightedSum;
+    private long weightedMillis;
+    private final long[] zoneMillis = new long[ZONES];
+
+    // The pending instantaneous sample, which holds until the next one arrives.
+    private long lastTime = Long.MIN_VALUE;
+    private float lastBpm;
+    private long lastAccepted = Long.MIN_VALUE;
+
+    private long windowIndex = Long.MIN_VALUE;
+    private double windowSum;
+    private long windowMillis;
+    private float resting = Float.NaN;
+
+    public HeartRateAccumulator() {
+        this(DEFAULT_MAX_HEART_RATE);
+    }
+
+    public HeartRateAccumulator(int maxHeartRate) {
+        if (maxHeartRate <= 0) {
+            throw new IllegalArgumentException("maxHeartRate must be positive");
+        }
+        this.maxHeartRate = maxHeartRate;
+    }
+
+    /** One instantaneous sample. It is weighted by the time until the next sample arrives. */
+    public void add(long timeMillis, float bpm) {
+        if (!accept(timeMillis, bpm)) return;
+        if (lastTime != Long.MIN_VALUE) {
+            accumulate(lastTime, Math.min(timeMillis - lastTime, MAX_GAP_MILLIS), lastBpm);
+        }
+        count(bpm);
+        lastTime = timeMillis;
+        lastBpm = bpm;
+    }
+
+    /**
+     * An average already taken over [startMillis, endMillis), e.g. a minute row. Weighted by its
+     * own length rather than by the gap to whatever comes next.
+     */
+    public void addInterval(long startMillis, long endMillis, float bpm) {
+        if (!accept(startMillis, bpm)) return;
+        if (lastTime != Long.MIN_VALUE && lastTime < startMillis) {
+            // A pending instantaneous sample holds until this interval starts.
+            accumulate(lastTime, Math.min(startMillis - lastTime, MAX_GAP_MILLIS), lastBpm);
+        }
+        count(bpm);
+        accumulate(startMillis, Math.max(0, endMillis - startMillis), bpm);
+        lastTime = Long.MIN_VALUE;
+        // Later samples must not go back before this interval.
+        lastAccepted = Math.max(startMillis, endMillis - 1);
+    }
+
+    /** Every row of {@code series} that carries a heart rate, as intervals. */
+    public void addAll(FitSeries series) {
+        for (int i = 0; i < series.size(); i++) {
+            float bpm = series.getAverageHeartRate(i);
+            if (bpm > 0) {
+                addInterval(series.getStartTime(i), series.getEndTime(i), bpm);
+            }
+        }
+    }
+
+    /** The figures so far. The accumulator can keep taking samples afterwards. */
+    public HeartRateSummary summarize() {
+        float restingSoFar = resting;
+        if (windowMillis >= RESTING_MIN_COVERAGE_MILLIS) {
+            float open = (float) (windowSum / windowMillis);
+            restingSoFar = Float.isNaN(restingSoFar) ? open : Math.min(restingSoFar, open);
+        }
+        float mean = weightedMillis > 0
+                ? (float) (weightedSum / weightedMillis)
+                : samples > 0 ? (float) (sampleSum / samples) : 0f;
+        return new HeartRateSummary(samples, rejected, samples > 0 ? min : 0f, samples > 0 ? max : 0f,
+                mean, Float.isNaN(restingSoFar) ? 0f : restingSoFar, zoneMillis.clone());
+    }
+
+    /** The zone {@code bpm} falls in for this maximum: 0 below 50 %, then 1-5 in 10 % steps. */
+    public int zoneOf(float bpm) {
+        float fraction = bpm / maxHeartRate;
+        if (fraction < 0.5f) return 0;
+        return Math.min((int) ((fraction - 0.5f) * 10f) + 1, ZONES - 1);
+    }
+
+    private boolean accept(long timeMillis, float bpm) {
+        if (!(bpm >= MIN_BPM && bpm <= MAX_BPM) || timeMillis < lastAccepted) {
+            rejected++;
+            return false;
+        }
+        lastAccepted = timeMillis;
+        return true;
+    }
+
+    private void count(float bpm) {
+        samples++;
+        sampleSum += bpm;
+        if (Float.isNaN(min) || bpm < min) min = bpm;
+        if (Float.isNaN(max) || bpm > max) max = bpm;
+    }
+
+    private void accumulate(long startMillis, long millis, float bpm) {
+        if (millis <= 0) return;
+        weightedSum += (double) bpm * millis;
+        weightedMillis += millis;
+        zoneMillis[zoneOf(bpm)] += millis;
+
+        long window = Math.floorDiv(startMillis, RESTING_WINDOW_MILLIS);
+        if (window != windowIndex) {
+            if (windowMillis >= RESTING_MIN_COVERAGE_MILLIS) {
+                float mean = (float) (windowSum / windowMillis);
+                resting = Float.isNaN(resting) ? mean : Math.min(resting, mean);
+            }
+            windowIndex = window;
+            windowSum = 0;
+            windowMillis = 0;
+        }
+        windowSum += (double) bpm * millis;
+        windowMillis += millis;
+    }
+}
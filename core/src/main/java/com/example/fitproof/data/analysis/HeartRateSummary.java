@@ -0,0 +1,99 @@
+package com.example.fitproof.data.analysis;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * What {@link HeartRateAccumulator} knows about a session or a day. Rates are in bpm and are 0
+ * when there were no usable samples; the resting estimate is also 0 when no calm stretch was long
+ * enough to judge.
+ */
+public final class HeartRateSummary {
+
+    private final int samples;
+    private final int rejected;
+    private final float min;
+    private final float max;
+    private final float mean;
+    private final float resting;
+    private final long[] zoneMillis;
+
+    HeartRateSummary(int samples, int rejected, float min, float max, float mean, float resting,
+                     long[] zoneMillis) {
+        this.samples = samples;
+        this.rejected = rejected;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+        this.resting = resting;
+        this.zoneMillis = zoneMillis;
+    }
+
+    public boolean hasData() {
+        return samples > 0;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    /** Samples dropped as out of range or out of order. */
+    public int getRejected() {
+        return rejected;
+    }
+
+    public float getMin() {
+        return min;
+    }
+
+    public float getMax() {
+        return max;
+    }
+
+    /** Time-weighted mean. */
+    public float getMean() {
+        return mean;
+    }
+
+    public float getResting() {
+        return resting;
+    }
+
+    /** Time spent in {@code zone}, 0 (below zone 1) to 5. */
+    public long getZoneMillis(int zone) {
+        return zoneMillis[zone];
+    }
+
+    public long getTotalMillis() {
+        long total = 0;
+        for (long millis : zoneMillis) {
+            total += millis;
+        }
+        return total;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HeartRateSummary)) return false;
+        HeartRateSummary that = (HeartRateSummary) o;
+        return samples == that.samples
+                && rejected == that.rejected
+                && Float.compare(min, that.min) == 0
+                && Float.compare(max, that.max) == 0
+                && Float.compare(mean, that.mean) == 0
+                && Float.compare(resting, that.resting) == 0
+                && Arrays.equals(zoneMillis, that.zoneMillis);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hash(samples, rejected, min, max, mean, resting) + Arrays.hashCode(zoneMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "HeartRateSummary{" + samples + " samples, min=" + min + ", max=" + max + ", mean=" + mean
+                + ", resting=" + resting + ", totalMillis=" + getTotalMillis() + "}";
+    }
+}
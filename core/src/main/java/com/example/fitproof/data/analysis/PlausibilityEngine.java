@@ -0,0 +1,34 @@
+package com.example.fitproof.data.analysis;
+
+import com.example.fitproof.data.fit.FitSeries;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that a workout's raw minute rows look like a person moving rather than a shaken phone,
+ * a car or a doubled-up step stream. Each rule is one linear pass of sliding windows, so a day of
+ * minutes (1,440 rows) takes well under a millisecond for all of them.
+ */
+public final class PlausibilityEngine {
+
+    private final List<PlausibilityRule> rules;
+
+    public PlausibilityEngine(List<PlausibilityRule> rules) {
+        this.rules = new ArrayList<>(rules);
+    }
+
+    /** {@link PlausibilityRules#defaults()}. */
+    public static PlausibilityEngine withDefaultRules() {
+        return new PlausibilityEngine(PlausibilityRules.defaults());
+    }
+
+    /** Runs every rule over {@code minutes}, which must be in time order as {@link FitSeries} keeps them. */
+    public PlausibilityReport check(FitSeries minutes) {
+        PlausibilityReport.Builder report = new PlausibilityReport.Builder(minutes.size());
+        for (PlausibilityRule rule : rules) {
+            rule.check(minutes, report);
+        }
+        return report.build();
+    }
+}
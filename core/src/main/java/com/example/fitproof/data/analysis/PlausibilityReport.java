@@ -0,0 +1,112 @@
+package com.example.fitproof.data.analysis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** What {@link PlausibilityEngine} found in a stretch of minute rows. */
+public final class PlausibilityReport {
+
+    /** One rule broken over [startTime, endTime). Overlapping windows of one rule are merged. */
+    public static final class Violation {
+        private final String rule;
+        private final long startTime;
+        private final long endTime;
+        private final String message;
+
+        Violation(String rule, long startTime, long endTime, String message) {
+            this.rule = rule;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.message = message;
+        }
+
+        public String getRule() {
+            return rule;
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
+        public long getEndTime() {
+            return endTime;
+        }
+
+        /** Describes the first window that broke the rule. */
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return rule + " [" + startTime + ", " + endTime + "): " + message;
+        }
+    }
+
+    private final int minutesChecked;
+    private final List<Violation> violations;
+
+    private PlausibilityReport(int minutesChecked, List<Violation> violations) {
+        this.minutesChecked = minutesChecked;
+        this.violations = Collections.unmodifiableList(violations);
+    }
+
+    /** The reports of consecutive stretches, e.g. the days of a range, as one. */
+    public static PlausibilityReport combine(List<PlausibilityReport> reports) {
+        int minutes = 0;
+        List<Violation> violations = new ArrayList<>();
+        for (PlausibilityReport report : reports) {
+            minutes += report.minutesChecked;
+            violations.addAll(report.violations);
+        }
+        return new PlausibilityReport(minutes, violations);
+    }
+
+    public boolean isPlausible() {
+        return violations.isEmpty();
+    }
+
+    public int getMinutesChecked() {
+        return minutesChecked;
+    }
+
+    public List<Violation> getViolations() {
+        return violations;
+    }
+
+    @Override
+    public String toString() {
+        return "PlausibilityReport{" + minutesChecked + " minutes, violations=" + violations + "}";
+    }
+
+    public static final class Builder {
+        private final int minutesChecked;
+        private final List<Violation> violations = new ArrayList<>();
+
+        Builder(int minutesChecked) {
+            this.minutesChecked = minutesChecked;
+        }
+
+        /**
+         * Records that {@code rule} failed over [startTime, endTime). A window that overlaps or
+         * touches the rule's previous one extends it rather than adding another violation.
+         */
+        public Builder flag(String rule, long startTime, long endTime, String message) {
+            if (!violations.isEmpty()) {
+                Violation last = violations.get(violations.size() - 1);
+                if (last.rule.equals(rule) && startTime <= last.endTime) {
+                    violations.set(violations.size() - 1, new Violation(rule, Math.min(last.startTime, startTime),
+                            Math.max(last.endTime, endTime), last.message));
+                    return this;
+                }
+            }
+            violations.add(new Violation(rule, startTime, endTime, message));
+            return this;
+        }
+
+        public PlausibilityReport build() {
+            return new PlausibilityReport(minutesChecked, new ArrayList<>(violations));
+        }
+    }
+}
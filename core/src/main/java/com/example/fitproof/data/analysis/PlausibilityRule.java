@@ -0,0 +1,15 @@
+package com.example.fitproof.data.analysis;
+
+import com.example.fitproof.data.fit.FitSeries;
+
+/**
+ * One check {@link PlausibilityEngine} runs over a day of minute rows. Rules keep no state
+ * between calls, so one engine can check several days at once.
+ */
+public interface PlausibilityRule {
+
+    String getName();
+
+    /** Flags every stretch of {@code minutes} that breaks this rule, in time order. */
+    void check(FitSeries minutes, PlausibilityReport.Builder report);
+}
@@ -0,0 +1,237 @@
+package com.example.fitproof.data.analysis;
+
+import com.example.fitproof.data.fit.FitSeries;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The built-in {@link PlausibilityRule}s. Each slides a trailing window over the minute rows,
+ * keeping running sums as rows enter and leave, so a day is one pass per rule whatever the window
+ * length. Thresholds sit outside what any person manages on foot, so a genuine workout never
+ * trips them; they are meant to catch devices, vehicles and doubled streams.
+ */
+public final class PlausibilityRules {
+
+    /** Faster than any full minute of sprinting (the 400 m record averages 9.3 m/s). */
+    public static final float MAX_MINUTE_FOOT_SPEED = 10.5f;
+    /** Faster than the 5,000 m record (6.6 m/s) held for ten minutes. */
+    public static final float MAX_SUSTAINED_FOOT_SPEED = 6.7f;
+    /**
+     * Steps per minute from which a minute counts as on foot. Below it the steps are bumps on a
+     * bike or in a car, and speed says nothing about legs.
+     */
+    public static final int ON_FOOT_CADENCE = 60;
+    /** Steps per minute; sprinters peak near 280 for seconds, not for a minute. */
+    public static final int MAX_CADENCE = 250;
+    /** Metres per step. Shorter is shuffling in place, longer is a vehicle carrying the phone. */
+    public static final float MIN_STRIDE = 0.2f;
+    public static final float MAX_STRIDE = 2.6f;
+    /** Cadence from which the heart has to be working. */
+    public static final int RUNNING_CADENCE = 150;
+    /** The lowest mean heart rate accepted at running cadence, unless resting plus 20 is higher. */
+    public static final float EFFORT_MIN_BPM = 100f;
+    /** Step time beyond a minute's length, above which two sources counted the same minute. */
+    public static final long OVERLAP_TOLERANCE_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long SHORT_WINDOW = TimeUnit.MINUTES.toMillis(5);
+    private static final long LONG_WINDOW = TimeUnit.MINUTES.toMillis(10);
+    // Fewer steps than this in a short window say too little about stride length.
+    private static final int MIN_STRIDE_STEPS = 300;
+    private static final int MIN_EFFORT_MINUTES = 8;
+    private static final int MIN_OVERLAP_MINUTES = 3;
+
+    private PlausibilityRules() {
+    }
+
+    /** Every rule below, in the order they are reported. */
+    public static List<PlausibilityRule> defaults() {
+        return Arrays.asList(footSpeed(), stride(), heartResponse(), sourceOverlap());
+    }
+
+    /** Physiologically possible speed in minutes on foot, per minute and over ten. */
+    public static PlausibilityRule footSpeed() {
+        return new SlidingRule("foot-speed", LONG_WINDOW, 1) {
+            @Override
+            void add(FitSeries minutes, int row, double[] window, int sign) {
+                if (cadence(minutes, row) >= ON_FOOT_CADENCE) {
+                    window[0] += sign * minutes.getDistanceMeters(row);
+                }
+            }
+
+            @Override
+            void evaluate(FitSeries minutes, int first, int last, double[] window,
+                          PlausibilityReport.Builder report) {
+                if (cadence(minutes, last) >= ON_FOOT_CADENCE) {
+                    float speed = minutes.getDistanceMeters(last) * 1000f / length(minutes, last);
+                    if (speed > MAX_MINUTE_FOOT_SPEED) {
+                        report.flag(getName(), minutes.getStartTime(last), minutes.getEndTime(last),
+                                String.format(Locale.ROOT, "%.1f m/s on foot for a minute", speed));
+                    }
+                }
+                double sustained = window[0] * 1000 / LONG_WINDOW;
+                if (sustained > MAX_SUSTAINED_FOOT_SPEED) {
+                    report.flag(getName(), minutes.getStartTime(first), minutes.getEndTime(last),
+                            String.format(Locale.ROOT, "%.1f m/s on foot for ten minutes", sustained));
+                }
+            }
+        };
+    }
+
+    /**
+     * Cadence against speed: the distance covered per step must be a human stride, and the steps
+     * themselves must come at a pace legs can keep up. Minutes with steps but no distance (a
+     * treadmill, no GPS) say nothing about stride and are left out.
+     */
+    public static PlausibilityRule stride() {
+        return new SlidingRule("stride", SHORT_WINDOW, 2) {
+            @Override
+            void add(FitSeries minutes, int row, double[] window, int sign) {
+                if (minutes.getSteps(row) > 0 && minutes.getDistanceMeters(row) > 0) {
+                    window[0] += sign * minutes.getSteps(row);
+                    window[1] += sign * minutes.getDistanceMeters(row);
+                }
+            }
+
+            @Override
+            void evaluate(FitSeries minutes, int first, int last, double[] window,
+                          PlausibilityReport.Builder report) {
+                float cadence = cadence(minutes, last);
+                if (cadence > MAX_CADENCE) {
+                    report.flag(getName(), minutes.getStartTime(last), minutes.getEndTime(last),
+                            String.format(Locale.ROOT, "%.0f steps/min", cadence));
+                }
+                if (window[0] < MIN_STRIDE_STEPS) return;
+                double stride = window[1] / window[0];
+                if (stride < MIN_STRIDE || stride > MAX_STRIDE) {
+                    report.flag(getName(), minutes.getStartTime(first), minutes.getEndTime(last),
+                            String.format(Locale.ROOT, "%.2f m per step over %.0f steps", stride, window[0]));
+                }
+            }
+        };
+    }
+
+    /**
+     * Heart rate against effort: ten minutes mostly at running cadence must raise the heart rate
+     * above {@link #EFFORT_MIN_BPM} and 20 over the day's resting rate. Days without heart-rate
+     * data are not judged.
+     */
+    public static PlausibilityRule heartResponse() {
+        return new SlidingRule("heart-response", LONG_WINDOW, 3) {
+            @Override
+            double[] begin(FitSeries minutes) {
+                HeartRateAccumulator heart = new HeartRateAccumulator();
+                heart.addAll(minutes);
+                double[] window = super.begin(minutes);
+                window[0] = Math.max(EFFORT_MIN_BPM, heart.summarize().getResting() + 20f);
+                return window;
+            }
+
+            @Override
+            void add(FitSeries minutes, int row, double[] window, int sign) {
+                float bpm = minutes.getAverageHeartRate(row);
+                if (bpm > 0 && cadence(minutes, row) >= RUNNING_CADENCE) {
+                    window[1] += sign;
+                    window[2] += sign * bpm;
+                }
+            }
+
+            @Override
+            void evaluate(FitSeries minutes, int first, int last, double[] window,
+                          PlausibilityReport.Builder report) {
+                if (window[1] < MIN_EFFORT_MINUTES) return;
+                double mean = window[2] / window[1];
+                if (mean < window[0]) {
+                    report.flag(getName(), minutes.getStartTime(first), minutes.getEndTime(last),
+                            String.format(Locale.ROOT, "%.0f bpm over %.0f minutes at running cadence",
+                                    mean, window[1]));
+                }
+            }
+        };
+    }
+
+    /**
+     * Duplicate-source overlap: minutes whose step points add up to more than the minute, three or
+     * more times in five minutes. A single such minute is usually two sources handing over.
+     */
+    public static PlausibilityRule sourceOverlap() {
+        return new SlidingRule("source-overlap", SHORT_WINDOW, 1) {
+            @Override
+            void add(FitSeries minutes, int row, double[] window, int sign) {
+                if (minutes.getActiveMillis(row) > length(minutes, row) + OVERLAP_TOLERANCE_MILLIS) {
+                    window[0] += sign;
+                }
+            }
+
+            @Override
+            void evaluate(FitSeries minutes, int first, int last, double[] window,
+                          PlausibilityReport.Builder report) {
+                if (window[0] >= MIN_OVERLAP_MINUTES) {
+                    report.flag(getName(), minutes.getStartTime(first), minutes.getEndTime(last),
+                            String.format(Locale.ROOT, "%.0f of 5 minutes counted steps from two sources",
+                                    window[0]));
+                }
+            }
+        };
+    }
+
+    private static long length(FitSeries minutes, int row) {
+        return Math.max(minutes.getEndTime(row) - minutes.getStartTime(row), 1);
+    }
+
+    private static float cadence(FitSeries minutes, int row) {
+        return (float) minutes.getSteps(row) * MINUTE / length(minutes, row);
+    }
+
+    /**
+     * A rule over trailing windows of {@code windowMillis}. Each row is added as the window's end
+     * reaches it and removed once it starts before the window does; the running sums live in a
+     * per-call array, so the rule itself holds no state.
+     */
+    abstract static class SlidingRule implements PlausibilityRule {
+        private final String name;
+        private final long windowMillis;
+        private final int slots;
+
+        SlidingRule(String name, long windowMillis, int slots) {
+            this.name = name;
+            this.windowMillis = windowMillis;
+            this.slots = slots;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public final void check(FitSeries minutes, PlausibilityReport.Builder report) {
+            double[] window = begin(minutes);
+            int first = 0;
+            for (int last = 0; last < minutes.size(); last++) {
+                add(minutes, last, window, 1);
+                long from = minutes.getEndTime(last) - windowMillis;
+                while (first < last && minutes.getStartTime(first) < from) {
+                    add(minutes, first, window, -1);
+                    first++;
+                }
+                evaluate(minutes, first, last, window, report);
+            }
+        }
+
+        /** The running sums, empty unless a rule needs something from the whole day first. */
+        double[] begin(FitSeries minutes) {
+            return new double[slots];
+        }
+
+        /** Adds row {@code row} to the sums ({@code sign} 1) or takes it back out (-1). */
+        abstract void add(FitSeries minutes, int row, double[] window, int sign);
+
+        /** Checks the window of rows {@code first}..{@code last} once {@code last} has entered. */
+        abstract void evaluate(FitSeries minutes, int first, int last, double[] window,
+                               PlausibilityReport.Builder report);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.fitproof.data.dashboard;
+
+import com.example.fitproof.data.fit.FitBucket;
+import com.example.fitproof.data.fit.TimeBuckets;
+
+import java.util.List;
+
+/**
+ * Folds the daily buckets of the dashboard window into today's totals, the weekly average and
+ * the streak. The streak comes from the persisted {@link StreakIndex} when it is up to date, and
+ * from the window alone otherwise.
+ */
+public final class DashboardAggregator {
+
+    public static final int WINDOW_DAYS = 7;
+    public static final int STREAK_STEP_THRESHOLD = 100; // Minimum steps to count as an active day
+    /** Every threshold a {@link StreakIndex} is kept for; the dashboard shows the first. */
+    public static final int[] STREAK_THRESHOLDS = {STREAK_STEP_THRESHOLD, 10_000};
+
+    private DashboardAggregator() {
+    }
+
+    /** @param days daily buckets of the window, oldest first */
+    public static DashboardSummary summarize(List<FitBucket> days, long todayStart, long lastSyncTime) {
+        return summarize(days, todayStart, lastSyncTime, null);
+    }
+
+    /**
+     * @param days daily buckets of the window, oldest first
+     * @param streakIndex index for {@link #STREAK_STEP_THRESHOLD}, or null if there is none yet
+     */
+    public static DashboardSummary summarize(List<FitBucket> days, long todayStart, long lastSyncTime,
+                                             StreakIndex streakIndex) {
+        int todaySteps = 0;
+        float todayCalories = 0f;
+        float totalSteps = 0;
+        float totalCalories = 0f;
+
+        for (FitBucket day : days) {
+            int dailySteps = day.getSteps();
+            float dailyCalories = day.getCalories();
+
+            if (day.getStartTime() == todayStart) {
+                todaySteps = dailySteps;
+                todayCalories = dailyCalories;
+            }
+
+            // Accumulate for weekly average
+            totalSteps += dailySteps;
+            totalCalories += dailyCalories;
+        }
+
+        int streak;
+        int longest;
+        if (streakIndex != null && streakIndex.isCurrent(todayStart)) {
+            streak = streakIndex.currentAsOf(todayStart, todaySteps);
+            longest = streakIndex.longestAsOf(todayStart, todaySteps);
+        } else {
+            streak = windowStreak(days, todayStart, STREAK_STEP_THRESHOLD);
+            longest = streak;
+        }
+
+        return new DashboardSummary(todaySteps, todayCalories, totalSteps / WINDOW_DAYS,
+                totalCalories / WINDOW_DAYS, streak, longest, days.size(), lastSyncTime);
+    }
+
+    /**
+     * Active days in a row counted back from today, within {@code days} only. Today not being
+     * active yet does not break it; a missing or inactive earlier day does.
+     */
+    static int windowStreak(List<FitBucket> days, long todayStart, int threshold) {
+        int streak = 0;
+        long expected = todayStart;
+        for (int i = days.size() - 1; i >= 0; i--) {
+            long start = days.get(i).getStartTime();
+            if (start > expected) continue;
+            if (start < expected && expected == todayStart) {
+                // No row for today yet; count from yesterday.
+                expected = TimeBuckets.addDays(todayStart, -1);
+            }
+            if (start != expected) break;
+            if (days.get(i).getSteps() >= threshold) {
+                streak++;
+            } else if (expected != todayStart) {
+                break;
+            }
+            expected = TimeBuckets.addDays(expected, -1);
+        }
+        return streak;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.fitproof.data.dashboard;
+
+/**
+ * Immutable numbers shown on the Home dashboard.
+ */
+public final class DashboardSummary {
+
+    private final int todaySteps;
+    private final float todayCalories;
+    private final float weeklyAvgSteps;
+    private final float weeklyAvgCalories;
+    private final int streak;
+    private final int longestStreak;
+    private final int dayCount;
+    private final long lastSyncTime;
+
+    public DashboardSummary(int todaySteps, float todayCalories, float weeklyAvgSteps, float weeklyAvgCalories,
+                            int streak, int longestStreak, int dayCount, long lastSyncTime) {
+        this.todaySteps = todaySteps;
+        this.todayCalories = todayCalories;
+        this.weeklyAvgSteps = weeklyAvgSteps;
+        this.weeklyAvgCalories = weeklyAvgCalories;
+        this.streak = streak;
+        this.longestStreak = longestStreak;
+        this.dayCount = dayCount;
+        this.lastSyncTime = lastSyncTime;
+    }
+
+    public int getTodaySteps() {
+        return todaySteps;
+    }
+
+    public float getTodayCalories() {
+        return todayCalories;
+    }
+
+    public float getWeeklyAvgSteps() {
+        return weeklyAvgSteps;
+    }
+
+    public float getWeeklyAvgCalories() {
+        return weeklyAvgCalories;
+    }
+
+    /** Active days in a row up to today. */
+    public int getStreak() {
+        return streak;
+    }
+
+    /** Longest streak on record; the window streak until the streak index has caught up. */
+    public int getLongestStreak() {
+        return longestStreak;
+    }
+
+    /** Number of days in the window that had any data at all. */
+    public int getDayCount() {
+        return dayCount;
+    }
+
+    public long getLastSyncTime() {
+        return lastSyncTime;
+    }
+
+    public boolean hasData() {
+        return dayCount > 0;
+    }
+}
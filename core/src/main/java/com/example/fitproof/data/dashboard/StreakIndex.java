@@ -0,0 +1,95 @@
+package com.example.fitproof.data.dashboard;
+
+import com.example.fitproof.data.fit.TimeBuckets;
+
+/**
+ * Running streak state for one step threshold, over all finalized days: the current streak
+ * ending on the last finalized day, the longest streak ever and the last active day. Each day is
+ * folded in once, in order, in constant time, so nothing before {@link #getFinalizedThrough()}
+ * is ever read again. Today is still open and is only added on top in {@link #currentAsOf}.
+ */
+public final class StreakIndex {
+
+    private final int threshold;
+    private final long finalizedThrough;
+    private final int current;
+    private final int longest;
+    private final long lastActiveDay;
+
+    /**
+     * @param finalizedThrough start of the last day folded in, or 0 if none
+     * @param lastActiveDay start of the last finalized day that met the threshold, or 0 if none
+     */
+    public StreakIndex(int threshold, long finalizedThrough, int current, int longest, long lastActiveDay) {
+        this.threshold = threshold;
+        this.finalizedThrough = finalizedThrough;
+        this.current = current;
+        this.longest = longest;
+        this.lastActiveDay = lastActiveDay;
+    }
+
+    public static StreakIndex empty(int threshold) {
+        return new StreakIndex(threshold, 0, 0, 0, 0);
+    }
+
+    /**
+     * Folds in the day starting at {@code dayStart}. Days must come oldest first; a day at or
+     * before {@link #getFinalizedThrough()} is ignored, and a skipped day breaks the streak.
+     */
+    public StreakIndex finalizeDay(long dayStart, int steps) {
+        if (finalizedThrough != 0 && dayStart <= finalizedThrough) {
+            return this;
+        }
+        boolean follows = finalizedThrough != 0 && TimeBuckets.nextDay(finalizedThrough) == dayStart;
+        if (steps < threshold) {
+            return new StreakIndex(threshold, dayStart, 0, longest, lastActiveDay);
+        }
+        int streak = follows ? current + 1 : 1;
+        return new StreakIndex(threshold, dayStart, streak, Math.max(longest, streak), dayStart);
+    }
+
+    /**
+     * The streak as of today, counted back from today. A today that has not reached the
+     * threshold yet does not break the streak; the user still has the rest of the day.
+     */
+    public int currentAsOf(long todayStart, int todaySteps) {
+        int carried = isCurrent(todayStart) ? current : 0;
+        return todaySteps >= threshold ? carried + 1 : carried;
+    }
+
+    public int longestAsOf(long todayStart, int todaySteps) {
+        return Math.max(longest, currentAsOf(todayStart, todaySteps));
+    }
+
+    /** True when every day before today has been folded in. */
+    public boolean isCurrent(long todayStart) {
+        return finalizedThrough != 0 && TimeBuckets.nextDay(finalizedThrough) == todayStart;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public long getFinalizedThrough() {
+        return finalizedThrough;
+    }
+
+    /** Active days in a row ending on {@link #getFinalizedThrough()}. */
+    public int getCurrent() {
+        return current;
+    }
+
+    public int getLongest() {
+        return longest;
+    }
+
+    public long getLastActiveDay() {
+        return lastActiveDay;
+    }
+
+    @Override
+    public String toString() {
+        return "StreakIndex{>=" + threshold + ", through=" + finalizedThrough + ", current=" + current
+                + ", longest=" + longest + ", lastActive=" + lastActiveDay + "}";
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.fitproof.data.fit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable totals for one time bucket, converted once from the Fit response.
+ */
+public final class FitBucket {
+
+    private final long startTime;
+    private final long endTime;
+    private final int steps;
+    private final float calories;
+    private final float distanceMeters;
+    private final float heartPoints;
+    private final float averageSpeed;
+    private final float averageHeartRate;
+    private final long activeMillis;
+    private final List<String> activities;
+
+    private FitBucket(Builder builder) {
+        this.startTime = builder.startTime;
+        this.endTime = builder.endTime;
+        this.steps = builder.steps;
+        this.calories = builder.calories;
+        this.distanceMeters = builder.distanceMeters;
+        this.heartPoints = builder.heartPoints;
+        this.averageSpeed = builder.averageSpeed;
+        this.averageHeartRate = builder.averageHeartRate;
+        this.activeMillis = builder.activeMillis;
+        this.activities = Collections.unmodifiableList(new ArrayList<>(builder.activities));
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public int getSteps() {
+        return steps;
+    }
+
+    public float getCalories() {
+        return calories;
+    }
+
+    public float getDistanceMeters() {
+        return distanceMeters;
+    }
+
+    public float getHeartPoints() {
+        return heartPoints;
+    }
+
+    /** Average speed in m/s, or 0 when no speed samples fell in the bucket. */
+    public float getAverageSpeed() {
+        return averageSpeed;
+    }
+
+    /** Average heart rate in bpm, or 0 when no heart rate samples fell in the bucket. */
+    public float getAverageHeartRate() {
+        return averageHeartRate;
+    }
+
+    public long getActiveMillis() {
+        return activeMillis;
+    }
+
+    public List<String> getActivities() {
+        return activities;
+    }
+
+    /**
+     * Folds consecutive buckets into one spanning all of them. Additive metrics are summed,
+     * speed and heart rate are averaged over the buckets that had any, activities are
+     * de-duplicated in order.
+     */
+    public static FitBucket merge(List<FitBucket> buckets) {
+        if (buckets.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to merge");
+        }
+        return merge(buckets.get(0).startTime, buckets.get(buckets.size() - 1).endTime, buckets);
+    }
+
+    /** Same as {@link #merge(List)} but stamps the result with an explicit range, e.g. a whole day. */
+    public static FitBucket merge(long startTime, long endTime, List<FitBucket> buckets) {
+        Builder merged = new Builder(startTime, endTime);
+        Set<String> activities = new LinkedHashSet<>();
+        float speedSum = 0f;
+        int speedBuckets = 0;
+        float heartRateSum = 0f;
+        int heartRateBuckets = 0;
+        for (FitBucket bucket : buckets) {
+            merged.steps += bucket.steps;
+            merged.calories += bucket.calories;
+            merged.distanceMeters += bucket.distanceMeters;
+            merged.heartPoints += bucket.heartPoints;
+            merged.activeMillis += bucket.activeMillis;
+            if (bucket.averageSpeed > 0) {
+                speedSum += bucket.averageSpeed;
+                speedBuckets++;
+            }
+            if (bucket.averageHeartRate > 0) {
+                heartRateSum += bucket.averageHeartRate;
+                heartRateBuckets++;
+            }
+            activities.addAll(bucket.activities);
+        }
+        merged.averageSpeed = speedBuckets == 0 ? 0f : speedSum / speedBuckets;
+        merged.averageHeartRate = heartRateBuckets == 0 ? 0f : heartRateSum / heartRateBuckets;
+        merged.activities.addAll(activities);
+        return merged.build();
+    }
+
+    @Override
+    public String toString() {
+        return "FitBucket{" + startTime + "-" + endTime + ", steps=" + steps + ", calories=" + calories
+                + ", distance=" + distanceMeters + ", heartPts=" + heartPoints + ", speed=" + averageSpeed
+                + ", hr=" + averageHeartRate + ", active=" + activeMillis + ", activities=" + activities + "}";
+    }
+
+    public static final class Builder {
+        private final long startTime;
+        private final long endTime;
+        private int steps;
+        private float calories;
+        private float distanceMeters;
+        private float heartPoints;
+        private float averageSpeed;
+        private float averageHeartRate;
+        private long activeMillis;
+        private final List<String> activities = new ArrayList<>();
+
+        public Builder(long startTime, long endTime) {
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+
+        public Builder addSteps(int steps) {
+            this.steps += steps;
+            return this;
+        }
+
+        public Builder addCalories(float calories) {
+            this.calories += calories;
+            return this;
+        }
+
+        public Builder addDistance(float meters) {
+            this.distanceMeters += meters;
+            return this;
+        }
+
+        public Builder addHeartPoints(float heartPoints) {
+            this.heartPoints += heartPoints;
+            return this;
+        }
+
+        public Builder setAverageSpeed(float metersPerSecond) {
+            this.averageSpeed = metersPerSecond;
+            return this;
+        }
+
+        public Builder setAverageHeartRate(float bpm) {
+            this.averageHeartRate = bpm;
+            return this;
+        }
+
+        public Builder addActiveMillis(long millis) {
+            this.activeMillis += millis;
+            return this;
+        }
+
+        public Builder addActivity(String activity) {
+            if (!activities.contains(activity)) {
+                activities.add(activity);
+            }
+            return this;
+        }
+
+        public FitBucket build() {
+            return new FitBucket(this);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.fitproof.data.fit;
+
+/**
+ * Aggregates the app reads from Google Fit. The mapping to Fit data types lives in
+ * the app's {@code GoogleFitDataSource} so this stays free of Play Services classes.
+ */
+public enum FitMetric {
+    STEPS,
+    CALORIES,
+    DISTANCE,
+    HEART_POINTS,
+    SPEED,
+    HEART_RATE,
+    ACTIVITY
+}
@@ -0,0 +1,75 @@
+package com.example.fitproof.data.fit;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One bucketed aggregate read: which metrics, over which range, at which bucket size.
+ */
+public final class FitQuery {
+
+    public static final long MINUTE_BUCKET = TimeUnit.MINUTES.toMillis(1);
+    public static final long HOUR_BUCKET = TimeUnit.HOURS.toMillis(1);
+    public static final long DAY_BUCKET = TimeUnit.DAYS.toMillis(1);
+
+    private final Set<FitMetric> metrics;
+    private final long startTime;
+    private final long endTime;
+    private final long bucketMillis;
+
+    public FitQuery(Set<FitMetric> metrics, long startTime, long endTime, long bucketMillis) {
+        if (metrics.isEmpty()) {
+            throw new IllegalArgumentException("A query needs at least one metric");
+        }
+        if (endTime <= startTime) {
+            throw new IllegalArgumentException("Empty time range: " + startTime + " - " + endTime);
+        }
+        this.metrics = Collections.unmodifiableSet(EnumSet.copyOf(metrics));
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.bucketMillis = bucketMillis;
+    }
+
+    public Set<FitMetric> getMetrics() {
+        return metrics;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FitQuery)) return false;
+        FitQuery other = (FitQuery) o;
+        return startTime == other.startTime
+                && endTime == other.endTime
+                && bucketMillis == other.bucketMillis
+                && metrics.equals(other.metrics);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = metrics.hashCode();
+        result = 31 * result + Long.hashCode(startTime);
+        result = 31 * result + Long.hashCode(endTime);
+        result = 31 * result + Long.hashCode(bucketMillis);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "FitQuery{" + metrics + ", " + startTime + "-" + endTime + ", bucket=" + bucketMillis + "}";
+    }
+}
@@ -0,0 +1,455 @@
+package com.example.fitproof.data.fit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Column-per-metric form of a run of buckets: one primitive array per metric, indexed by row,
+ * with rows in start-time order. A Fit response is converted into this once; sums, averages,
+ * min/max and rollups then walk the arrays without boxing or allocating per row.
+ *
+ * <p>Row ranges are half-open {@code [from, to)}. Speed and heart rate follow {@link FitBucket}:
+ * 0 means the row had no samples, and such rows are left out of their averages and extremes.
+ */
+public final class FitSeries {
+
+    private static final String[] NO_ACTIVITIES = new String[0];
+
+    private final int size;
+    private final long[] startTimes;
+    private final long[] endTimes;
+    private final int[] steps;
+    private final float[] calories;
+    private final float[] distanceMeters;
+    private final float[] heartPoints;
+    private final float[] averageSpeed;
+    private final float[] averageHeartRate;
+    private final long[] activeMillis;
+    // Labels are not aggregated numerically; rows without any share one empty array.
+    private final String[][] activities;
+
+    private FitSeries(Builder builder) {
+        this.size = builder.size;
+        this.startTimes = Arrays.copyOf(builder.startTimes, size);
+        this.endTimes = Arrays.copyOf(builder.endTimes, size);
+        this.steps = Arrays.copyOf(builder.steps, size);
+        this.calories = Arrays.copyOf(builder.calories, size);
+        this.distanceMeters = Arrays.copyOf(builder.distanceMeters, size);
+        this.heartPoints = Arrays.copyOf(builder.heartPoints, size);
+        this.averageSpeed = Arrays.copyOf(builder.averageSpeed, size);
+        this.averageHeartRate = Arrays.copyOf(builder.averageHeartRate, size);
+        this.activeMillis = Arrays.copyOf(builder.activeMillis, size);
+        this.activities = Arrays.copyOf(builder.activities, size);
+    }
+
+    public static FitSeries of(List<FitBucket> buckets) {
+        Builder builder = new Builder(buckets.size());
+        for (FitBucket bucket : buckets) {
+            builder.add(bucket);
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getStartTime(int row) {
+        return startTimes[row];
+    }
+
+    public long getEndTime(int row) {
+        return endTimes[row];
+    }
+
+    public int getSteps(int row) {
+        return steps[row];
+    }
+
+    public float getCalories(int row) {
+        return calories[row];
+    }
+
+    public float getDistanceMeters(int row) {
+        return distanceMeters[row];
+    }
+
+    public float getHeartPoints(int row) {
+        return heartPoints[row];
+    }
+
+    public float getAverageSpeed(int row) {
+        return averageSpeed[row];
+    }
+
+    public float getAverageHeartRate(int row) {
+        return averageHeartRate[row];
+    }
+
+    public long getActiveMillis(int row) {
+        return activeMillis[row];
+    }
+
+    /** The first row starting at or after {@code time}, or {@link #size()} if there is none. */
+    public int indexAtOrAfter(long time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (startTimes[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Total of an additive metric over rows [from, to). {@link FitMetric#ACTIVITY} totals active
+     * time in milliseconds; speed and heart rate are not additive and are rejected.
+     */
+    public double sum(FitMetric metric, int from, int to) {
+        checkRange(from, to);
+        switch (metric) {
+            case STEPS:
+                long total = 0;
+                for (int i = from; i < to; i++) {
+                    total += steps[i];
+                }
+                return total;
+            case ACTIVITY:
+                long millis = 0;
+                for (int i = from; i < to; i++) {
+                    millis += activeMillis[i];
+                }
+                return millis;
+            case SPEED:
+            case HEART_RATE:
+                throw new IllegalArgumentException(metric + " is an average, not a total");
+            default:
+                return sum(floats(metric), from, to);
+        }
+    }
+
+    /**
+     * Mean per row over [from, to). Speed and heart rate are averaged over the rows that had
+     * samples, the same way {@link FitBucket#merge(List)} does. 0 for an empty range.
+     */
+    public double average(FitMetric metric, int from, int to) {
+        checkRange(from, to);
+        if (isSampled(metric)) {
+            return sampledAverage(floats(metric), from, to);
+        }
+        return from == to ? 0 : sum(metric, from, to) / (to - from);
+    }
+
+    /** Smallest per-row value over [from, to), or NaN if no row qualifies. */
+    public double min(FitMetric metric, int from, int to) {
+        return extreme(metric, from, to, false);
+    }
+
+    /** Largest per-row value over [from, to), or NaN if no row qualifies. */
+    public double max(FitMetric metric, int from, int to) {
+        return extreme(metric, from, to, true);
+    }
+
+    /**
+     * Writes one value per bucket {@code [boundaries[k], boundaries[k + 1])} into {@code out[k]}:
+     * the total for additive metrics, the average for speed and heart rate. Rows are assigned by
+     * start time and walked once, so a year of minutes rolls up into days with no allocation.
+     */
+    public void rollup(FitMetric metric, long[] boundaries, double[] out) {
+        if (boundaries.length == 0) return;
+        if (out.length < boundaries.length - 1) {
+            throw new IllegalArgumentException("out holds " + out.length + " of "
+                    + (boundaries.length - 1) + " buckets");
+        }
+        int row = indexAtOrAfter(boundaries[0]);
+        for (int k = 0; k + 1 < boundaries.length; k++) {
+            int from = row;
+            long end = boundaries[k + 1];
+            while (row < size && startTimes[row] < end) {
+                row++;
+            }
+            out[k] = isSampled(metric) ? sampledAverage(floats(metric), from, row) : sum(metric, from, row);
+        }
+    }
+
+    /**
+     * Every metric rolled up into buckets {@code [boundaries[k], boundaries[k + 1])}, with the
+     * same rules as {@link FitBucket#merge(long, long, List)}. Buckets no row falls into are left
+     * out rather than written as zeros.
+     */
+    public FitSeries rollup(long[] boundaries) {
+        Builder out = new Builder(Math.max(0, boundaries.length - 1));
+        if (boundaries.length == 0) return out.build();
+        List<String> labels = new ArrayList<>();
+        int row = indexAtOrAfter(boundaries[0]);
+        for (int k = 0; k + 1 < boundaries.length; k++) {
+            int from = row;
+            long end = boundaries[k + 1];
+            while (row < size && startTimes[row] < end) {
+                row++;
+            }
+            if (from == row) continue;
+
+            out.add(boundaries[k], end)
+                    .addSteps((int) sum(FitMetric.STEPS, from, row))
+                    .addCalories((float) sum(calories, from, row))
+                    .addDistance((float) sum(distanceMeters, from, row))
+                    .addHeartPoints((float) sum(heartPoints, from, row))
+                    .setAverageSpeed((float) sampledAverage(averageSpeed, from, row))
+                    .setAverageHeartRate((float) sampledAverage(averageHeartRate, from, row))
+                    .addActiveMillis((long) sum(FitMetric.ACTIVITY, from, row));
+            labels.clear();
+            for (int i = from; i < row; i++) {
+                for (String activity : activities[i]) {
+                    if (!labels.contains(activity)) {
+                        labels.add(activity);
+                    }
+                }
+            }
+            for (String activity : labels) {
+                out.addActivity(activity);
+            }
+        }
+        return out.build();
+    }
+
+    public FitBucket getBucket(int row) {
+        FitBucket.Builder bucket = new FitBucket.Builder(startTimes[row], endTimes[row])
+                .addSteps(steps[row])
+                .addCalories(calories[row])
+                .addDistance(distanceMeters[row])
+                .addHeartPoints(heartPoints[row])
+                .setAverageSpeed(averageSpeed[row])
+                .setAverageHeartRate(averageHeartRate[row])
+                .addActiveMillis(activeMillis[row]);
+        for (String activity : activities[row]) {
+            bucket.addActivity(activity);
+        }
+        return bucket.build();
+    }
+
+    /** Row objects for callers that still take buckets, e.g. the store. */
+    public List<FitBucket> toBuckets() {
+        List<FitBucket> buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(getBucket(i));
+        }
+        return buckets;
+    }
+
+    private float[] floats(FitMetric metric) {
+        switch (metric) {
+            case CALORIES:
+                return calories;
+            case DISTANCE:
+                return distanceMeters;
+            case HEART_POINTS:
+                return heartPoints;
+            case SPEED:
+                return averageSpeed;
+            case HEART_RATE:
+                return averageHeartRate;
+            default:
+                throw new IllegalArgumentException("Not a float column: " + metric);
+        }
+    }
+
+    private static double sum(float[] column, int from, int to) {
+        double total = 0;
+        for (int i = from; i < to; i++) {
+            total += column[i];
+        }
+        return total;
+    }
+
+    private static boolean isSampled(FitMetric metric) {
+        return metric == FitMetric.SPEED || metric == FitMetric.HEART_RATE;
+    }
+
+    private static double sampledAverage(float[] column, int from, int to) {
+        double total = 0;
+        int samples = 0;
+        for (int i = from; i < to; i++) {
+            if (column[i] > 0) {
+                total += column[i];
+                samples++;
+            }
+        }
+        return samples == 0 ? 0 : total / samples;
+    }
+
+    private double extreme(FitMetric metric, int from, int to, boolean max) {
+        checkRange(from, to);
+        double best = Double.NaN;
+        for (int i = from; i < to; i++) {
+            double value;
+            switch (metric) {
+                case STEPS:
+                    value = steps[i];
+                    break;
+                case ACTIVITY:
+                    value = activeMillis[i];
+                    break;
+                case SPEED:
+                case HEART_RATE:
+                    float sample = floats(metric)[i];
+                    if (sample <= 0) continue;
+                    value = sample;
+                    break;
+                default:
+                    value = floats(metric)[i];
+                    break;
+            }
+            if (Double.isNaN(best) || (max ? value > best : value < best)) {
+                best = value;
+            }
+        }
+        return best;
+    }
+
+    private void checkRange(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("[" + from + ", " + to + ") of " + size);
+        }
+    }
+
+    /**
+     * Appends rows in start-time order; the adders apply to the row opened by the last
+     * {@link #add(long, long)}. Columns grow by doubling, so a response of unknown length costs a
+     * few array copies rather than an object per row.
+     */
+    public static final class Builder {
+        private int size;
+        private long[] startTimes;
+        private long[] endTimes;
+        private int[] steps;
+        private float[] calories;
+        private float[] distanceMeters;
+        private float[] heartPoints;
+        private float[] averageSpeed;
+        private float[] averageHeartRate;
+        private long[] activeMillis;
+        private String[][] activities;
+
+        public Builder(int capacity) {
+            int initial = Math.max(capacity, 1);
+            startTimes = new long[initial];
+            endTimes = new long[initial];
+            steps = new int[initial];
+            calories = new float[initial];
+            distanceMeters = new float[initial];
+            heartPoints = new float[initial];
+            averageSpeed = new float[initial];
+            averageHeartRate = new float[initial];
+            activeMillis = new long[initial];
+            activities = new String[initial][];
+        }
+
+        /** Opens a new row. Rows must come in start-time order. */
+        public Builder add(long startTime, long endTime) {
+            if (size > 0 && startTime < startTimes[size - 1]) {
+                throw new IllegalArgumentException("Row at " + startTime + " is before " + startTimes[size - 1]);
+            }
+            if (size == startTimes.length) {
+                grow();
+            }
+            startTimes[size] = startTime;
+            endTimes[size] = endTime;
+            activities[size] = NO_ACTIVITIES;
+            size++;
+            return this;
+        }
+
+        public Builder add(FitBucket bucket) {
+            add(bucket.getStartTime(), bucket.getEndTime())
+                    .addSteps(bucket.getSteps())
+                    .addCalories(bucket.getCalories())
+                    .addDistance(bucket.getDistanceMeters())
+                    .addHeartPoints(bucket.getHeartPoints())
+                    .setAverageSpeed(bucket.getAverageSpeed())
+                    .setAverageHeartRate(bucket.getAverageHeartRate())
+                    .addActiveMillis(bucket.getActiveMillis());
+            for (String activity : bucket.getActivities()) {
+                addActivity(activity);
+            }
+            return this;
+        }
+
+        public Builder addSteps(int steps) {
+            this.steps[last()] += steps;
+            return this;
+        }
+
+        public Builder addCalories(float calories) {
+            this.calories[last()] += calories;
+            return this;
+        }
+
+        public Builder addDistance(float meters) {
+            this.distanceMeters[last()] += meters;
+            return this;
+        }
+
+        public Builder addHeartPoints(float heartPoints) {
+            this.heartPoints[last()] += heartPoints;
+            return this;
+        }
+
+        public Builder setAverageSpeed(float metersPerSecond) {
+            this.averageSpeed[last()] = metersPerSecond;
+            return this;
+        }
+
+        public Builder setAverageHeartRate(float bpm) {
+            this.averageHeartRate[last()] = bpm;
+            return this;
+        }
+
+        public Builder addActiveMillis(long millis) {
+            this.activeMillis[last()] += millis;
+            return this;
+        }
+
+        public Builder addActivity(String activity) {
+            int row = last();
+            String[] current = activities[row];
+            for (String existing : current) {
+                if (existing.equals(activity)) return this;
+            }
+            String[] added = Arrays.copyOf(current, current.length + 1);
+            added[current.length] = activity;
+            activities[row] = added;
+            return this;
+        }
+
+        public FitSeries build() {
+            return new FitSeries(this);
+        }
+
+        private int last() {
+            if (size == 0) {
+                throw new IllegalStateException("add(startTime, endTime) opens a row first");
+            }
+            return size - 1;
+        }
+
+        private void grow() {
+            int capacity = startTimes.length * 2;
+            startTimes = Arrays.copyOf(startTimes, capacity);
+            endTimes = Arrays.copyOf(endTimes, capacity);
+            steps = Arrays.copyOf(steps, capacity);
+            calories = Arrays.copyOf(calories, capacity);
+            distanceMeters = Arrays.copyOf(distanceMeters, capacity);
+            heartPoints = Arrays.copyOf(heartPoints, capacity);
+            averageSpeed = Arrays.copyOf(averageSpeed, capacity);
+            averageHeartRate = Arrays.copyOf(averageHeartRate, capacity);
+            activeMillis = Arrays.copyOf(activeMillis, capacity);
+            activities = Arrays.copyOf(activities, capacity);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.fitproof.data.fit;
+
+import com.example.fitproof.data.analysis.HeartRateSummary;
+
+/**
+ * Immutable view of one recorded Fit session and the samples read along with it.
+ */
+public final class FitSession {
+
+    private final String name;
+    private final String activity;
+    private final long startTime;
+    private final long endTime;
+    private final int steps;
+    private final float distanceMeters;
+    private final float lastHeartRate;
+    private final float lastSpeed;
+    private final HeartRateSummary heartRate;
+
+    public FitSession(String name, String activity, long startTime, long endTime,
+                      int steps, float distanceMeters, float lastHeartRate, float lastSpeed) {
+        this(name, activity, startTime, endTime, steps, distanceMeters, lastHeartRate, lastSpeed, null);
+    }
+
+    public FitSession(String name, String activity, long startTime, long endTime,
+                      int steps, float distanceMeters, float lastHeartRate, float lastSpeed,
+                      HeartRateSummary heartRate) {
+        this.name = name;
+        this.activity = activity;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.steps = steps;
+        this.distanceMeters = distanceMeters;
+        this.lastHeartRate = lastHeartRate;
+        this.lastSpeed = lastSpeed;
+        this.heartRate = heartRate;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getActivity() {
+        return activity;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public long getDurationMillis() {
+        return endTime - startTime;
+    }
+
+    public int getSteps() {
+        return steps;
+    }
+
+    public float getDistanceMeters() {
+        return distanceMeters;
+    }
+
+    /** Last heart-rate sample in bpm, or 0 when the session carried none. */
+    public float getLastHeartRate() {
+        return lastHeartRate;
+    }
+
+    /** Every heart-rate sample of the session folded together, or null when none were read. */
+    public HeartRateSummary getHeartRate() {
+        return heartRate;
+    }
+
+    /** Last speed sample in m/s, or 0 when the session carried none. */
+    public float getLastSpeed() {
+        return lastSpeed;
+    }
+}
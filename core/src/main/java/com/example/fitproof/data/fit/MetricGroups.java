@@ -0,0 +1,28 @@
+package com.example.fitproof.data.fit;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The metric sets each screen reads, which are also the scopes each screen asks the user for.
+ */
+public final class MetricGroups {
+
+    public static final Set<FitMetric> DASHBOARD = Collections.unmodifiableSet(
+            EnumSet.of(FitMetric.STEPS, FitMetric.CALORIES));
+
+    /** Heart rate is in here because the session timeline and the plausibility check both read it. */
+    public static final Set<FitMetric> PROOF = Collections.unmodifiableSet(
+            EnumSet.of(FitMetric.STEPS, FitMetric.DISTANCE, FitMetric.HEART_POINTS,
+                    FitMetric.SPEED, FitMetric.HEART_RATE, FitMetric.ACTIVITY));
+
+    /** What Fit records point by point, ingested per minute by MinuteSync. */
+    public static final Set<FitMetric> RAW = Collections.unmodifiableSet(
+            EnumSet.of(FitMetric.STEPS, FitMetric.DISTANCE, FitMetric.SPEED, FitMetric.HEART_RATE));
+
+    public static final Set<FitMetric> ALL = Collections.unmodifiableSet(EnumSet.allOf(FitMetric.class));
+
+    private MetricGroups() {
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.fitproof.data.fit;
+
+/**
+ * Bins raw Fit points into one row per minute of a range. Deltas (steps, distance) that span
+ * several minutes are spread over them in proportion to the overlap, and the part outside the
+ * range is dropped; samples (speed, heart rate) go to the minute they were taken in and are
+ * averaged within it. Minutes no point touched are left out of the result.
+ *
+ * <p>A minute's active time is how long step points covered it. The merged step stream should
+ * never cover a minute twice, so more than a minute of it means two sources were counted.
+ */
+public final class MinuteBins {
+
+    private static final long MINUTE = FitQuery.MINUTE_BUCKET;
+
+    private final long start;
+    private final int minutes;
+    private final int[] steps;
+    private final long[] stepMillis;
+    private final float[] distance;
+    private final float[] speedSum;
+    private final int[] speedCount;
+    private final float[] heartRateSum;
+    private final int[] heartRateCount;
+    private final boolean[] touched;
+
+    /** Bins for [start, end), widened to whole minutes. */
+    public MinuteBins(long start, long end) {
+        this.start = start - Math.floorMod(start, MINUTE);
+        this.minutes = (int) Math.max(0, (end - this.start + MINUTE - 1) / MINUTE);
+        steps = new int[minutes];
+        stepMillis = new long[minutes];
+        distance = new float[minutes];
+        speedSum = new float[minutes];
+        speedCount = new int[minutes];
+        heartRateSum = new float[minutes];
+        heartRateCount = new int[minutes];
+        touched = new boolean[minutes];
+    }
+
+    public void addSteps(long pointStart, long pointEnd, int count) {
+        long span = Math.max(pointEnd - pointStart, 1);
+        int first = clampedMinute(pointStart);
+        int last = clampedMinute(Math.max(pointStart, pointEnd - 1));
+        long covered = 0;
+        int assigned = 0;
+        for (int m = first; m <= last && m >= 0; m++) {
+            long overlap = overlap(m, pointStart, pointStart + span);
+            if (overlap == 0) continue;
+            covered += overlap;
+            // Running rounding, so the minutes add up to the covered share exactly.
+            int upTo = (int) Math.round((double) count * covered / span);
+            steps[m] += upTo - assigned;
+            assigned = upTo;
+            if (count > 0) {
+                stepMillis[m] += overlap;
+            }
+            touched[m] = true;
+        }
+    }
+
+    public void addDistance(long pointStart, long pointEnd, float meters) {
+        long span = Math.max(pointEnd - pointStart, 1);
+        int first = clampedMinute(pointStart);
+        int last = clampedMinute(Math.max(pointStart, pointEnd - 1));
+        for (int m = first; m <= last && m >= 0; m++) {
+            long overlap = overlap(m, pointStart, pointStart + span);
+            if (overlap == 0) continue;
+            distance[m] += meters * overlap / span;
+            touched[m] = true;
+        }
+    }
+
+    public void addSpeed(long time, float metersPerSecond) {
+        int m = minuteOf(time);
+        if (m < 0) return;
+        speedSum[m] += metersPerSecond;
+        speedCount[m]++;
+        touched[m] = true;
+    }
+
+    public void addHeartRate(long time, float bpm) {
+        int m = minuteOf(time);
+        if (m < 0) return;
+        heartRateSum[m] += bpm;
+        heartRateCount[m]++;
+        touched[m] = true;
+    }
+
+    public FitSeries build() {
+        int rows = 0;
+        for (boolean t : touched) {
+            if (t) rows++;
+        }
+        FitSeries.Builder series = new FitSeries.Builder(rows);
+        for (int m = 0; m < minutes; m++) {
+            if (!touched[m]) continue;
+            long minuteStart = start + m * MINUTE;
+            series.add(minuteStart, minuteStart + MINUTE)
+                    .addSteps(steps[m])
+                    .addDistance(distance[m])
+                    .addActiveMillis(stepMillis[m])
+                    .setAverageSpeed(speedCount[m] == 0 ? 0f : speedSum[m] / speedCount[m])
+                    .setAverageHeartRate(heartRateCount[m] == 0 ? 0f : heartRateSum[m] / heartRateCount[m]);
+        }
+        return series.build();
+    }
+
+    /** The minute index of {@code time}, or -1 outside the range. */
+    private int minuteOf(long time) {
+        if (time < start) return -1;
+        long m = (time - start) / MINUTE;
+        return m < minutes ? (int) m : -1;
+    }
+
+    /** Like {@link #minuteOf} but pinned to the range, or -1 if the range is empty. */
+    private int clampedMinute(long time) {
+        if (minutes == 0) return -1;
+        long m = Math.floorDiv(time - start, MINUTE);
+        return (int) Math.max(0, Math.min(minutes - 1, m));
+    }
+
+    private long overlap(int minute, long from, long to) {
+        long minuteStart = start + minute * MINUTE;
+        return Math.max(0, Math.min(to, minuteStart + MINUTE) - Math.max(from, minuteStart));
+    }
+}
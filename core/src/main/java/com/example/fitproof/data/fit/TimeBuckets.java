@@ -0,0 +1,85 @@
+package com.example.fitproof.data.fit;
+
+import java.util.Arrays;
+import java.util.Calendar;
+
+/**
+ * Local-time bucket boundaries. Hours and days are cut in the device time zone so buckets line
+ * up with what the user calls "today", including half-hour offsets and DST days.
+ */
+public final class TimeBuckets {
+
+    private TimeBuckets() {
+    }
+
+    public static long startOfDay(long time) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(time);
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        return cal.getTimeInMillis();
+    }
+
+    public static long nextDay(long dayStart) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(dayStart);
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        return cal.getTimeInMillis();
+    }
+
+    public static long addDays(long dayStart, int days) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(dayStart);
+        cal.add(Calendar.DAY_OF_MONTH, days);
+        return cal.getTimeInMillis();
+    }
+
+    /**
+     * Local midnights from the one starting the day of {@code from} up to the first at or after
+     * {@code until}, as boundaries for {@link FitSeries#rollup(long[])}.
+     */
+    public static long[] dayBoundaries(long from, long until) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(startOfDay(from));
+        int days = 0;
+        while (cal.getTimeInMillis() < until) {
+            cal.add(Calendar.DAY_OF_MONTH, 1);
+            days++;
+        }
+        long[] boundaries = new long[days + 1];
+        cal.setTimeInMillis(startOfDay(from));
+        for (int i = 0; i <= days; i++) {
+            boundaries[i] = cal.getTimeInMillis();
+            cal.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        return boundaries;
+    }
+
+    /** Local hour starts from the one containing {@code from} up to the first at or after {@code until}. */
+    public static long[] hourBoundaries(long from, long until) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(startOfHour(from));
+        long[] boundaries = new long[16];
+        int count = 0;
+        while (true) {
+            if (count == boundaries.length) {
+                boundaries = Arrays.copyOf(boundaries, count * 2);
+            }
+            boundaries[count++] = cal.getTimeInMillis();
+            if (cal.getTimeInMillis() >= until) break;
+            cal.add(Calendar.HOUR_OF_DAY, 1);
+        }
+        return Arrays.copyOf(boundaries, count);
+    }
+
+    public static long startOfHour(long time) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(time);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        return cal.getTimeInMillis();
+    }
+}
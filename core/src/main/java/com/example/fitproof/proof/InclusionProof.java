@@ -0,0 +1,131 @@
+package com.example.fitproof.proof;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * The path from one leaf of a {@link MerkleTree} to its root: the leaf's position, the tree size,
+ * and one sibling hash per level that has one. Checking it costs one hash per sibling, so
+ * O(log n) however many proofs the root covers. Immutable.
+ */
+public final class InclusionProof {
+
+    // index (4) + count (4) + path length (1), then the siblings.
+    private static final int HEADER_BYTES = 9;
+
+    private final int leafIndex;
+    private final int leafCount;
+    private final byte[] siblings;
+
+    InclusionProof(int leafIndex, int leafCount, byte[] siblings) {
+        this.leafIndex = leafIndex;
+        this.leafCount = leafCount;
+        this.siblings = siblings;
+    }
+
+    public int getLeafIndex() {
+        return leafIndex;
+    }
+
+    public int getLeafCount() {
+        return leafCount;
+    }
+
+    public int getPathLength() {
+        return siblings.length / MerkleTree.HASH_BYTES;
+    }
+
+    public byte[] getSibling(int level) {
+        return Arrays.copyOfRange(siblings, level * MerkleTree.HASH_BYTES, (level + 1) * MerkleTree.HASH_BYTES);
+    }
+
+    /** The root this path leads to from {@code proofHash}. */
+    public byte[] computeRoot(byte[] proofHash) {
+        return computeRoot(ProofEncoder.newDigest(), proofHash);
+    }
+
+    /** True if {@code proofHash} sits at this position under {@code root}. */
+    public boolean verify(byte[] proofHash, byte[] root) {
+        return verify(ProofEncoder.newDigest(), proofHash, root);
+    }
+
+    /** As {@link #verify(byte[], byte[])}, reusing {@code digest} for callers checking many paths. */
+    public boolean verify(MessageDigest digest, byte[] proofHash, byte[] root) {
+        return proofHash.length == MerkleTree.HASH_BYTES
+                && MessageDigest.isEqual(computeRoot(digest, proofHash), root);
+    }
+
+    private byte[] computeRoot(MessageDigest digest, byte[] proofHash) {
+        byte[] node = MerkleTree.leafHash(digest, proofHash);
+        int used = 0;
+        for (int width = leafCount, at = leafIndex; width > 1; width = (width + 1) / 2, at >>= 1) {
+            int sibling = at ^ 1;
+            if (sibling >= width) {
+                continue;
+            }
+            digest.update(MerkleTree.NODE_PREFIX);
+            if ((at & 1) == 0) {
+                digest.update(node);
+                digest.update(siblings, used * MerkleTree.HASH_BYTES, MerkleTree.HASH_BYTES);
+            } else {
+                digest.update(siblings, used * MerkleTree.HASH_BYTES, MerkleTree.HASH_BYTES);
+                digest.update(node);
+            }
+            node = digest.digest();
+            used++;
+        }
+        return node;
+    }
+
+    /** Compact binary form: big-endian index and count, the path length, then the siblings. */
+    public byte[] toBytes() {
+        return ByteBuffer.allocate(HEADER_BYTES + siblings.length)
+                .putInt(leafIndex)
+                .putInt(leafCount)
+                .put((byte) getPathLength())
+                .put(siblings)
+                .array();
+    }
+
+    public static InclusionProof fromBytes(byte[] bytes) throws ProofFormatException {
+        if (bytes.length < HEADER_BYTES) {
+            throw new ProofFormatException("Inclusion proof is too short");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int index = buffer.getInt();
+        int count = buffer.getInt();
+        int length = buffer.get() & 0xff;
+        return of(index, count, Arrays.copyOfRange(bytes, HEADER_BYTES, bytes.length), length);
+    }
+
+    /** Checks that the shape matches what a tree of {@code count} leaves has at {@code index}. */
+    static InclusionProof of(int index, int count, byte[] siblings, int declaredLength) throws ProofFormatException {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new ProofFormatException("Leaf " + index + " of " + count + " is out of range");
+        }
+        int expected = MerkleTree.pathLength(index, count);
+        if (declaredLength != expected || siblings.length != expected * MerkleTree.HASH_BYTES) {
+            throw new ProofFormatException("Expected " + expected + " siblings for leaf " + index + " of " + count);
+        }
+        return new InclusionProof(index, count, siblings);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof InclusionProof)) return false;
+        InclusionProof that = (InclusionProof) o;
+        return leafIndex == that.leafIndex && leafCount == that.leafCount && Arrays.equals(siblings, that.siblings);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * leafIndex + leafCount) + Arrays.hashCode(siblings);
+    }
+
+    @Override
+    public String toString() {
+        return "InclusionProof{leaf=" + leafIndex + "/" + leafCount + ", path=" + getPathLength() + '}';
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.fitproof.proof;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Many daily proofs committed to by one Merkle root. Only {@link #encodeRoot()} is published; each
+ * day keeps its full proof plus a {@link MerkleReceipt}, which together show the day was covered
+ * by the published root. Leaves are in the order given, which callers keep by day.
+ */
+public final class MerkleBatch {
+
+    public static final int VERSION = 1;
+
+    private final List<WorkoutProof> proofs;
+    private final List<byte[]> hashes;
+    private final MerkleTree tree;
+
+    private MerkleBatch(List<WorkoutProof> proofs, List<byte[]> hashes) {
+        this.proofs = proofs;
+        this.hashes = hashes;
+        this.tree = MerkleTree.build(hashes);
+    }
+
+    public static MerkleBatch of(List<WorkoutProof> proofs) {
+        List<WorkoutProof> copy = Collections.unmodifiableList(new ArrayList<>(proofs));
+        List<byte[]> hashes = new ArrayList<>(copy.size());
+        for (WorkoutProof proof : copy) {
+            hashes.add(ProofHasher.hash(proof));
+        }
+        return new MerkleBatch(copy, hashes);
+    }
+
+    public List<WorkoutProof> getProofs() {
+        return proofs;
+    }
+
+    public MerkleTree getTree() {
+        return tree;
+    }
+
+    public byte[] getProofHash(int index) {
+        return hashes.get(index).clone();
+    }
+
+    public MerkleReceipt receipt(int index) {
+        return new MerkleReceipt(hashes.get(index), tree.inclusionProof(index), tree.getRoot());
+    }
+
+    public long getFirstDay() {
+        long first = Long.MAX_VALUE;
+        for (WorkoutProof proof : proofs) {
+            first = Math.min(first, proof.getDayStart());
+        }
+        return first;
+    }
+
+    public long getLastDay() {
+        long last = Long.MIN_VALUE;
+        for (WorkoutProof proof : proofs) {
+            last = Math.max(last, proof.getDayStart());
+        }
+        return last;
+    }
+
+    /**
+     * The published document, canonical JSON:
+     * {@code {"v":1,"leaf_count":30,"first_day":...,"last_day":...,"hash_algorithm":"SHA-256","merkle_root":"..."}}.
+     */
+    public byte[] encodeRoot() {
+        String json = "{\"v\":" + VERSION
+                + ",\"leaf_count\":" + tree.getLeafCount()
+                + ",\"first_day\":" + getFirstDay()
+                + ",\"last_day\":" + getLastDay()
+                + ",\"hash_algorithm\":\"" + ProofEncoder.HASH_ALGORITHM
+                + "\",\"merkle_root\":\"" + tree.getRootHex()
+                + "\"}";
+        return json.getBytes(StandardCharsets.US_ASCII);
+    }
+}
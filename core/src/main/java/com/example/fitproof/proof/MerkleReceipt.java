@@ -0,0 +1,168 @@
+package com.example.fitproof.proof;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * What a single day keeps after a batch publish: its proof hash, its {@link InclusionProof} and
+ * the root it leads to. Serialised as canonical JSON in a fixed field order, like proofs:
+ *
+ * <pre>{"v":1,"proof_hash":"...","leaf_index":3,"leaf_count":30,"path":["...",...],
+ * "hash_algorithm":"SHA-256","merkle_root":"..."}</pre>
+ */
+public final class MerkleReceipt {
+
+    public static final int VERSION = 1;
+
+    private final byte[] proofHash;
+    private final InclusionProof path;
+    private final byte[] root;
+
+    public MerkleReceipt(byte[] proofHash, InclusionProof path, byte[] root) {
+        this.proofHash = proofHash.clone();
+        this.path = path;
+        this.root = root.clone();
+    }
+
+    public byte[] getProofHash() {
+        return proofHash.clone();
+    }
+
+    public InclusionProof getPath() {
+        return path;
+    }
+
+    public byte[] getRoot() {
+        return root.clone();
+    }
+
+    /** True if the path really leads from the proof hash to the root. */
+    public boolean verify() {
+        return path.verify(proofHash, root);
+    }
+
+    public byte[] encode() {
+        StringBuilder json = new StringBuilder(160 + 67 * path.getPathLength());
+        json.append("{\"v\":").append(VERSION)
+                .append(",\"proof_hash\":\"").append(ProofHasher.toHex(proofHash))
+                .append("\",\"leaf_index\":").append(path.getLeafIndex())
+                .append(",\"leaf_count\":").append(path.getLeafCount())
+                .append(",\"path\":[");
+        for (int i = 0; i < path.getPathLength(); i++) {
+            json.append(i == 0 ? "\"" : ",\"").append(ProofHasher.toHex(path.getSibling(i))).append('"');
+        }
+        json.append("],\"hash_algorithm\":\"").append(ProofEncoder.HASH_ALGORITHM)
+                .append("\",\"merkle_root\":\"").append(ProofHasher.toHex(root))
+                .append("\"}");
+        return json.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /** Strict: accepts exactly what {@link #encode()} writes and nothing else. */
+    public static MerkleReceipt decode(byte[] bytes) throws ProofFormatException {
+        Reader in = new Reader(new String(bytes, StandardCharsets.US_ASCII));
+        in.expect("{\"v\":" + VERSION + ",\"proof_hash\":");
+        byte[] proofHash = in.hash();
+        in.expect(",\"leaf_index\":");
+        int index = in.integer();
+        in.expect(",\"leaf_count\":");
+        int count = in.integer();
+        in.expect(",\"path\":[");
+        int length = count < 1 || index < 0 || index >= count ? 0 : MerkleTree.pathLength(index, count);
+        byte[] siblings = new byte[length * MerkleTree.HASH_BYTES];
+        int read = 0;
+        while (!in.consume("]")) {
+            if (read == length || (read > 0 && !in.consume(","))) {
+                throw new ProofFormatException("Unexpected path entry at " + in.position);
+            }
+            System.arraycopy(in.hash(), 0, siblings, read * MerkleTree.HASH_BYTES, MerkleTree.HASH_BYTES);
+            read++;
+        }
+        InclusionProof path = InclusionProof.of(index, count, siblings, read);
+        in.expect(",\"hash_algorithm\":\"" + ProofEncoder.HASH_ALGORITHM + "\",\"merkle_root\":");
+        byte[] root = in.hash();
+        in.expect("}");
+        in.end();
+        return new MerkleReceipt(proofHash, path, root);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MerkleReceipt)) return false;
+        MerkleReceipt that = (MerkleReceipt) o;
+        return Arrays.equals(proofHash, that.proofHash) && path.equals(that.path) && Arrays.equals(root, that.root);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(proofHash) + path.hashCode()) + Arrays.hashCode(root);
+    }
+
+    /** Cursor over ASCII JSON with only the shapes a receipt uses. */
+    private static final class Reader {
+
+        private final String text;
+        private int position;
+
+        Reader(String text) {
+            this.text = text;
+        }
+
+        void expect(String literal) throws ProofFormatException {
+            if (!consume(literal)) {
+                throw new ProofFormatException("Expected " + literal + " at " + position);
+            }
+        }
+
+        boolean consume(String literal) {
+            if (text.startsWith(literal, position)) {
+                position += literal.length();
+                return true;
+            }
+            return false;
+        }
+
+        int integer() throws ProofFormatException {
+            int start = position;
+            while (position < text.length() && position - start < 10
+                    && text.charAt(position) >= '0' && text.charAt(position) <= '9') {
+                position++;
+            }
+            // Canonical: no sign, no leading zeros.
+            if (position == start || (text.charAt(start) == '0' && position - start > 1)) {
+                throw new ProofFormatException("Expected an integer at " + start);
+            }
+            long value = Long.parseLong(text.substring(start, position));
+            if (value > Integer.MAX_VALUE) {
+                throw new ProofFormatException("Integer out of range at " + start);
+            }
+            return (int) value;
+        }
+
+        byte[] hash() throws ProofFormatException {
+            expect("\"");
+            byte[] hash = new byte[MerkleTree.HASH_BYTES];
+            for (int i = 0; i < hash.length; i++) {
+                int high = lowerHexDigit();
+                int low = lowerHexDigit();
+                hash[i] = (byte) (high << 4 | low);
+            }
+            expect("\"");
+            return hash;
+        }
+
+        void end() throws ProofFormatException {
+            if (position != text.length()) {
+                throw new ProofFormatException("Trailing data at " + position);
+            }
+        }
+
+        private int lowerHexDigit() throws ProofFormatException {
+            char c = position < text.length() ? text.charAt(position) : 0;
+            position++;
+            if (c >= '0' && c <= '9') return c - '0';
+            if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+            throw new ProofFormatException("Expected a lowercase hex digit at " + (position - 1));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.fitproof.proof;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * A binary SHA-256 Merkle tree over proof hashes, so publishing one root commits to every proof
+ * under it. Leaves and inner nodes are hashed with different prefixes (0x00 and 0x01, as in
+ * RFC 6962), so no inner node can be passed off as a leaf. A level with an odd node count
+ * promotes its last node unchanged rather than duplicating it.
+ *
+ * <p>Each level is one flat array of 32-byte hashes; a tree of n leaves holds about 2n hashes.
+ */
+public final class MerkleTree {
+
+    public static final int HASH_BYTES = 32;
+
+    static final byte LEAF_PREFIX = 0x00;
+    static final byte NODE_PREFIX = 0x01;
+
+    // levels[0] holds the leaf nodes, the last level holds only the root.
+    private final byte[][] levels;
+    private final int leafCount;
+
+    private MerkleTree(byte[][] levels, int leafCount) {
+        this.levels = levels;
+        this.leafCount = leafCount;
+    }
+
+    /** A tree over {@code proofHashes}, in order. Each must be {@link #HASH_BYTES} long. */
+    public static MerkleTree build(List<byte[]> proofHashes) {
+        int count = proofHashes.size();
+        if (count == 0) {
+            throw new IllegalArgumentException("A Merkle tree needs at least one leaf");
+        }
+        MessageDigest digest = ProofEncoder.newDigest();
+        byte[][] levels = new byte[height(count) + 1][];
+
+        byte[] leaves = new byte[count * HASH_BYTES];
+        for (int i = 0; i < count; i++) {
+            byte[] hash = proofHashes.get(i);
+            if (hash.length != HASH_BYTES) {
+                throw new IllegalArgumentException("Leaf " + i + " is " + hash.length + " bytes");
+            }
+            digest.update(LEAF_PREFIX);
+            digest.update(hash);
+            digestInto(digest, leaves, i);
+        }
+        levels[0] = leaves;
+
+        int width = count;
+        for (int level = 1; level < levels.length; level++) {
+            byte[] below = levels[level - 1];
+            int parents = (width + 1) / 2;
+            byte[] nodes = new byte[parents * HASH_BYTES];
+            for (int i = 0; i < width / 2; i++) {
+                digest.update(NODE_PREFIX);
+                digest.update(below, 2 * i * HASH_BYTES, 2 * HASH_BYTES);
+                digestInto(digest, nodes, i);
+            }
+            if (width % 2 == 1) {
+                System.arraycopy(below, (width - 1) * HASH_BYTES, nodes, (parents - 1) * HASH_BYTES, HASH_BYTES);
+            }
+            levels[level] = nodes;
+            width = parents;
+        }
+        return new MerkleTree(levels, count);
+    }
+
+    public int getLeafCount() {
+        return leafCount;
+    }
+
+    public byte[] getRoot() {
+        return levels[levels.length - 1].clone();
+    }
+
+    public String getRootHex() {
+        return ProofHasher.toHex(levels[levels.length - 1]);
+    }
+
+    /** The sibling hashes from leaf {@code index} up to the root; at most ceil(log2 n) of them. */
+    public InclusionProof inclusionProof(int index) {
+        if (index < 0 || index >= leafCount) {
+            throw new IndexOutOfBoundsException("Leaf " + index + " of " + leafCount);
+        }
+        byte[] path = new byte[pathLength(index, leafCount) * HASH_BYTES];
+        int written = 0;
+        int width = leafCount;
+        int at = index;
+        for (int level = 0; width > 1; level++) {
+            int sibling = at ^ 1;
+            if (sibling < width) {
+                System.arraycopy(levels[level], sibling * HASH_BYTES, path, written * HASH_BYTES, HASH_BYTES);
+                written++;
+            }
+            at >>= 1;
+            width = (width + 1) / 2;
+        }
+        return new InclusionProof(index, leafCount, path);
+    }
+
+    /** Levels above the leaves for {@code count} leaves. */
+    static int height(int count) {
+        int height = 0;
+        for (int width = count; width > 1; width = (width + 1) / 2) {
+            height++;
+        }
+        return height;
+    }
+
+    /** Siblings on the way up from leaf {@code index}; promoted nodes have none. */
+    static int pathLength(int index, int count) {
+        int length = 0;
+        for (int width = count, at = index; width > 1; width = (width + 1) / 2, at >>= 1) {
+            if ((at ^ 1) < width) {
+                length++;
+            }
+        }
+        return length;
+    }
+
+    static byte[] leafHash(MessageDigest digest, byte[] proofHash) {
+        digest.update(LEAF_PREFIX);
+        return digest.digest(proofHash);
+    }
+
+    private static void digestInto(MessageDigest digest, byte[] into, int index) {
+        try {
+            digest.digest(into, index * HASH_BYTES, HASH_BYTES);
+        } catch (DigestException e) {
+            throw new AssertionError("SHA-256 output is always " + HASH_BYTES + " bytes", e);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.fitproof.proof;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Reads the published form written by {@link ProofEncoder} and checks it. Only canonical input is
+ * accepted: the fields must come in encoder order, the hash must match the body, and re-encoding
+ * the decoded proof must give back exactly the input bytes.
+ *
+ * <p>Like the encoder, an instance reuses its buffers and is not thread-safe.
+ */
+public final class ProofDecoder {
+
+    private final ProofEncoder encoder = new ProofEncoder();
+
+    private byte[] data;
+    private int position;
+    private int end;
+
+    /** A decoded proof together with the hash it was published with (already verified). */
+    public static final class Decoded {
+        private final WorkoutProof proof;
+        private final byte[] hash;
+
+        Decoded(WorkoutProof proof, byte[] hash) {
+            this.proof = proof;
+            this.hash = hash;
+        }
+
+        public WorkoutProof getProof() {
+            return proof;
+        }
+
+        public byte[] getHash() {
+            return hash.clone();
+        }
+
+        public String getHashHex() {
+            return ProofHasher.toHex(hash);
+        }
+    }
+
+    public Decoded decode(byte[] bytes) throws ProofFormatException {
+        return decode(bytes, 0, bytes.length);
+    }
+
+    public Decoded decode(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        byte[] chunk = new byte[512];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            out.write(chunk, 0, read);
+        }
+        return decode(out.toByteArray());
+    }
+
+    public Decoded decode(byte[] bytes, int offset, int length) throws ProofFormatException {
+        data = bytes;
+        position = offset;
+        end = offset + length;
+        try {
+            WorkoutProof.Builder builder = WorkoutProof.builder();
+            expect('{');
+            key(ProofEncoder.FIELD_VERSION, true);
+            long version = readLong();
+            if (version != WorkoutProof.VERSION) {
+                throw error("Unsupported proof version " + version);
+            }
+            builder.setVersion((int) version);
+            key(ProofEncoder.FIELD_PROOF_ID, false);
+            builder.setProofId(readString());
+            key(ProofEncoder.FIELD_DAY_START, false);
+            builder.setDayStart(readLong());
+            key(ProofEncoder.FIELD_ISSUED_AT, false);
+            builder.setIssuedAt(readLong());
+            key(ProofEncoder.FIELD_WORKOUT_TYPE, false);
+            builder.setWorkoutType(readString());
+            key(ProofEncoder.FIELD_DURATION, false);
+            builder.setDurationMillis(readLong());
+            key(ProofEncoder.FIELD_STEPS, false);
+            long steps = readLong();
+            if (steps < Integer.MIN_VALUE || steps > Integer.MAX_VALUE) {
+                throw error("Step count out of range");
+            }
+            builder.setSteps((int) steps);
+            key(ProofEncoder.FIELD_DISTANCE, false);
+            builder.setDistanceMillimeters(readMilli());
+            key(ProofEncoder.FIELD_HEART_POINTS, false);
+            builder.setHeartPointsMilli(readMilli());
+            key(ProofEncoder.FIELD_SPEED, false);
+            builder.setSpeedMillimetersPerSecond(readMilli());
+            key(ProofEncoder.FIELD_ACTIVITIES, false);
+            expect('[');
+            if (peek() != ']') {
+                builder.addActivity(readString());
+                while (peek() == ',') {
+                    position++;
+                    builder.addActivity(readString());
+                }
+            }
+            expect(']');
+            key(ProofEncoder.FIELD_HASH_ALGORITHM, false);
+            if (!ProofEncoder.HASH_ALGORITHM.equals(readString())) {
+                throw error("Unsupported hash algorithm");
+            }
+            key(ProofEncoder.FIELD_HASH, false);
+            byte[] hash = readHash();
+            expect('}');
+            if (position != end) {
+                throw error("Trailing bytes after proof");
+            }
+
+            WorkoutProof proof = builder.build();
+            if (!MessageDigest.isEqual(hash, encoder.hash(proof))) {
+                throw new ProofFormatException("Hash does not match proof contents");
+            }
+            if (!encoder.matches(proof, hash, bytes, offset, length)) {
+                throw new ProofFormatException("Proof is not in canonical form");
+            }
+            return new Decoded(proof, hash);
+        } finally {
+            data = null;
+        }
+    }
+
+    private void key(String name, boolean first) throws ProofFormatException {
+        if (!first) {
+            expect(',');
+        }
+        expect('"');
+        for (int i = 0; i < name.length(); i++) {
+            expect(name.charAt(i));
+        }
+        expect('"');
+        expect(':');
+    }
+
+    private long readLong() throws ProofFormatException {
+        boolean negative = peek() == '-';
+        if (negative) position++;
+        int start = position;
+        long value = 0;
+        while (position < end && data[position] >= '0' && data[position] <= '9') {
+            int digit = data[position++] - '0';
+            if (value > (Long.MAX_VALUE - digit) / 10) {
+                throw error("Number out of range");
+            }
+            value = value * 10 + digit;
+        }
+        if (position == start) {
+            throw error("Expected a number");
+        }
+        return negative ? -value : value;
+    }
+
+    private long readMilli() throws ProofFormatException {
+        boolean negative = peek() == '-';
+        if (negative) position++;
+        long whole = readLong();
+        if (whole < 0) {
+            throw error("Unexpected sign");
+        }
+        expect('.');
+        long fraction = 0;
+        for (int i = 0; i < 3; i++) {
+            byte b = next();
+            if (b < '0' || b > '9') {
+                throw error("Expected three fraction digits");
+            }
+            fraction = fraction * 10 + (b - '0');
+        }
+        if (whole > (Long.MAX_VALUE - fraction) / 1000) {
+            throw error("Number out of range");
+        }
+        long milli = whole * 1000 + fraction;
+        return negative ? -milli : milli;
+    }
+
+    private String readString() throws ProofFormatException {
+        expect('"');
+        ByteArrayOutputStream raw = null;
+        int segment = position;
+        while (true) {
+            byte b = next();
+            if (b == '"') {
+                if (raw == null) {
+                    return new String(data, segment, position - 1 - segment, StandardCharsets.UTF_8);
+                }
+                raw.write(data, segment, position - 1 - segment);
+                return new String(raw.toByteArray(), StandardCharsets.UTF_8);
+            }
+            if (b == '\\') {
+                if (raw == null) raw = new ByteArrayOutputStream();
+                raw.write(data, segment, position - 1 - segment);
+                byte escaped = next();
+                if (escaped == 'u') {
+                    int c = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(next(), 16);
+                        if (digit < 0) throw error("Bad escape");
+                        c = c * 16 + digit;
+                    }
+                    raw.write(c);
+                } else if (escaped == '"' || escaped == '\\') {
+                    raw.write(escaped);
+                } else {
+                    throw error("Unsupported escape");
+                }
+                segment = position;
+            }
+        }
+    }
+
+    private byte[] readHash() throws ProofFormatException {
+        expect('"');
+        byte[] hash = new byte[32];
+        for (int i = 0; i < hash.length; i++) {
+            int high = Character.digit(next(), 16);
+            int low = Character.digit(next(), 16);
+            if (high < 0 || low < 0) {
+                throw error("Hash is not hex");
+            }
+            hash[i] = (byte) (high << 4 | low);
+        }
+        expect('"');
+        return hash;
+    }
+
+    private int peek() throws ProofFormatException {
+        if (position >= end) {
+            throw error("Unexpected end of proof");
+        }
+        return data[position];
+    }
+
+    private byte next() throws ProofFormatException {
+        if (position >= end) {
+            throw error("Unexpected end of proof");
+        }
+        return data[position++];
+    }
+
+    private void expect(char c) throws ProofFormatException {
+        if (next() != c) {
+            throw error("Expected '" + c + "'");
+        }
+    }
+
+    private ProofFormatException error(String message) {
+        return new ProofFormatException(message + " at byte " + (position - 1));
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.fitproof.proof;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Writes a {@link WorkoutProof} as canonical JSON: fixed field order, no whitespace, integers in
+ * plain decimal, fixed-point values with exactly three decimals, and strings escaped only where
+ * JSON requires it. The same proof therefore always produces the same bytes.
+ *
+ * <p>The hash is SHA-256 over the canonical body. The published form is the body with
+ * {@code hash_algorithm} and {@code hash} appended as its last two fields. Bytes go through a small
+ * reused buffer straight into the digest or the output stream; no JSON string is ever built.
+ *
+ * <p>Instances keep that buffer and a {@link MessageDigest}, so they are not thread-safe; use
+ * {@link ProofHasher} for a per-thread instance.
+ */
+public final class ProofEncoder {
+
+    public static final String HASH_ALGORITHM = "SHA-256";
+
+    static final String FIELD_VERSION = "v";
+    static final String FIELD_PROOF_ID = "proof_id";
+    static final String FIELD_DAY_START = "day_start";
+    static final String FIELD_ISSUED_AT = "issued_at";
+    static final String FIELD_WORKOUT_TYPE = "workout_type";
+    static final String FIELD_DURATION = "duration_ms";
+    static final String FIELD_STEPS = "steps";
+    static final String FIELD_DISTANCE = "distance_m";
+    static final String FIELD_HEART_POINTS = "heart_points";
+    static final String FIELD_SPEED = "avg_speed_mps";
+    static final String FIELD_ACTIVITIES = "activities";
+    static final String FIELD_HASH_ALGORITHM = "hash_algorithm";
+    static final String FIELD_HASH = "hash";
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final MessageDigest digest;
+    private final byte[] buffer = new byte[512];
+    private final byte[] digits = new byte[20];
+    private int position;
+    private final Target digestTarget;
+    private Target target;
+
+    public ProofEncoder() {
+        digest = newDigest();
+        digestTarget = digest::update;
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " is required on every platform", e);
+        }
+    }
+
+    /** SHA-256 of the canonical body. */
+    public byte[] hash(WorkoutProof proof) {
+        digest.reset();
+        try {
+            begin(digestTarget);
+            writeBody(proof);
+            put('}');
+            flush();
+        } catch (IOException e) {
+            throw new AssertionError("Digest writes cannot fail", e);
+        }
+        return digest.digest();
+    }
+
+    /** Writes the published form, body plus hash, to {@code out}. */
+    public void encode(WorkoutProof proof, OutputStream out) throws IOException {
+        writePublished(proof, hash(proof), out::write);
+    }
+
+    public byte[] encode(WorkoutProof proof) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(384);
+        try {
+            encode(proof, out);
+        } catch (IOException e) {
+            throw new AssertionError("In-memory writes cannot fail", e);
+        }
+        return out.toByteArray();
+    }
+
+    /** True if the published form of {@code proof} with {@code hash} is exactly {@code data[offset, offset + length)}. */
+    boolean matches(WorkoutProof proof, byte[] hash, byte[] data, int offset, int length) {
+        int[] compared = {offset};
+        boolean[] equal = {true};
+        try {
+            writePublished(proof, hash, (bytes, off, len) -> {
+                int at = compared[0];
+                if (!equal[0] || at + len > offset + length) {
+                    equal[0] = false;
+                    return;
+                }
+                for (int i = 0; i < len; i++) {
+                    if (bytes[off + i] != data[at + i]) {
+                        equal[0] = false;
+                        return;
+                    }
+                }
+                compared[0] = at + len;
+            });
+        } catch (IOException e) {
+            throw new AssertionError("Comparison cannot fail", e);
+        }
+        return equal[0] && compared[0] == offset + length;
+    }
+
+    private void writePublished(WorkoutProof proof, byte[] hash, Target target) throws IOException {
+        begin(target);
+        writeBody(proof);
+        put(',');
+        writeKey(FIELD_HASH_ALGORITHM);
+        writeString(HASH_ALGORITHM);
+        put(',');
+        writeKey(FIELD_HASH);
+        put('"');
+        for (byte b : hash) {
+            put(HEX[(b >> 4) & 0xf]);
+            put(HEX[b & 0xf]);
+        }
+        put('"');
+        put('}');
+        flush();
+    }
+
+    /** Everything up to, not including, the closing brace of the body. */
+    private void writeBody(WorkoutProof proof) throws IOException {
+        put('{');
+        writeKey(FIELD_VERSION);
+        writeLong(proof.getVersion());
+        put(',');
+        writeKey(FIELD_PROOF_ID);
+        writeString(proof.getProofId());
+        put(',');
+        writeKey(FIELD_DAY_START);
+        writeLong(proof.getDayStart());
+        put(',');
+        writeKey(FIELD_ISSUED_AT);
+        writeLong(proof.getIssuedAt());
+        put(',');
+        writeKey(FIELD_WORKOUT_TYPE);
+        writeString(proof.getWorkoutType());
+        put(',');
+        writeKey(FIELD_DURATION);
+        writeLong(proof.getDurationMillis());
+        put(',');
+        writeKey(FIELD_STEPS);
+        writeLong(proof.getSteps());
+        put(',');
+        writeKey(FIELD_DISTANCE);
+        writeMilli(proof.getDistanceMillimeters());
+        put(',');
+        writeKey(FIELD_HEART_POINTS);
+        writeMilli(proof.getHeartPointsMilli());
+        put(',');
+        writeKey(FIELD_SPEED);
+        writeMilli(proof.getSpeedMillimetersPerSecond());
+        put(',');
+        writeKey(FIELD_ACTIVITIES);
+        put('[');
+        boolean first = true;
+        for (String activity : proof.getActivities()) {
+            if (!first) put(',');
+            writeString(activity);
+            first = false;
+        }
+        put(']');
+    }
+
+    private void writeKey(String key) throws IOException {
+        put('"');
+        for (int i = 0; i < key.length(); i++) {
+            put(key.charAt(i));
+        }
+        put('"');
+        put(':');
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value < 0) {
+            put('-');
+            if (value == Long.MIN_VALUE) {
+                throw new IllegalArgumentException("Value out of range");
+            }
+            value = -value;
+        }
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        while (n > 0) {
+            put(digits[--n]);
+        }
+    }
+
+    /** Thousandths as a decimal with exactly three fraction digits, e.g. 1500 -> 1.500. */
+    private void writeMilli(long milli) throws IOException {
+        if (milli < 0) {
+            put('-');
+            if (milli == Long.MIN_VALUE) {
+                throw new IllegalArgumentException("Value out of range");
+            }
+            milli = -milli;
+        }
+        writeLong(milli / 1000);
+        put('.');
+        long fraction = milli % 1000;
+        put((byte) ('0' + fraction / 100));
+        put((byte) ('0' + fraction / 10 % 10));
+        put((byte) ('0' + fraction % 10));
+    }
+
+    private void writeString(String value) throws IOException {
+        put('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                put('\\');
+                put(c);
+            } else if (c < 0x20) {
+                put('\\');
+                put('u');
+                put('0');
+                put('0');
+                put(HEX[c >> 4]);
+                put(HEX[c & 0xf]);
+            } else if (c < 0x80) {
+                put(c);
+            } else if (c < 0x800) {
+                put((byte) (0xc0 | (c >> 6)));
+                put((byte) (0x80 | (c & 0x3f)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                put((byte) (0xf0 | (codePoint >> 18)));
+                put((byte) (0x80 | ((codePoint >> 12) & 0x3f)));
+                put((byte) (0x80 | ((codePoint >> 6) & 0x3f)));
+                put((byte) (0x80 | (codePoint & 0x3f)));
+            } else if (Character.isSurrogate(c)) {
+                throw new IllegalArgumentException("Unpaired surrogate in " + value);
+            } else {
+                put((byte) (0xe0 | (c >> 12)));
+                put((byte) (0x80 | ((c >> 6) & 0x3f)));
+                put((byte) (0x80 | (c & 0x3f)));
+            }
+        }
+        put('"');
+    }
+
+    private void begin(Target target) {
+        this.target = target;
+        position = 0;
+    }
+
+    private void put(char c) throws IOException {
+        put((byte) c);
+    }
+
+    private void put(byte b) throws IOException {
+        if (position == buffer.length) {
+            flush();
+        }
+        buffer[position++] = b;
+    }
+
+    private void flush() throws IOException {
+        if (position > 0) {
+            target.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private interface Target {
+        void write(byte[] bytes, int offset, int length) throws IOException;
+    }
+}
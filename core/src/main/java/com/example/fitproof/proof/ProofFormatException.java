@@ -0,0 +1,13 @@
+package com.example.fitproof.proof;
+
+import java.io.IOException;
+
+/** Input is not a canonical proof, or its hash does not match its contents. */
+public class ProofFormatException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ProofFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.fitproof.proof;
+
+/** Per-thread {@link ProofEncoder}s, so hashing many proofs reuses one digest and buffer per thread. */
+public final class ProofHasher {
+
+    private static final ThreadLocal<ProofEncoder> ENCODERS = ThreadLocal.withInitial(ProofEncoder::new);
+
+    private ProofHasher() {
+    }
+
+    public static byte[] hash(WorkoutProof proof) {
+        return ENCODERS.get().hash(proof);
+    }
+
+    public static String hashHex(WorkoutProof proof) {
+        return toHex(hash(proof));
+    }
+
+    /** The published form: canonical body followed by its hash. */
+    public static byte[] encode(WorkoutProof proof) {
+        return ENCODERS.get().encode(proof);
+    }
+
+    public static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = Character.forDigit((bytes[i] >> 4) & 0xf, 16);
+            hex[2 * i + 1] = Character.forDigit(bytes[i] & 0xf, 16);
+        }
+        return new String(hex);
+    }
+}
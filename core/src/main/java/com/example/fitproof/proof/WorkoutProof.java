@@ -0,0 +1,228 @@
+package com.example.fitproof.proof;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The facts a workout proof attests to, as typed values. Fractional quantities are held as
+ * thousandths in a {@code long} so encoding them never depends on how a runtime prints floats.
+ */
+public final class WorkoutProof {
+
+    public static final int VERSION = 1;
+
+    private final int version;
+    private final String proofId;
+    private final long dayStart;
+    private final long issuedAt;
+    private final String workoutType;
+    private final long durationMillis;
+    private final int steps;
+    private final long distanceMillimeters;
+    private final long heartPointsMilli;
+    private final long speedMillimetersPerSecond;
+    private final List<String> activities;
+
+    private WorkoutProof(Builder builder) {
+        this.version = builder.version;
+        this.proofId = Objects.requireNonNull(builder.proofId, "proofId");
+        this.dayStart = builder.dayStart;
+        this.issuedAt = builder.issuedAt;
+        this.workoutType = builder.workoutType;
+        this.durationMillis = builder.durationMillis;
+        this.steps = builder.steps;
+        this.distanceMillimeters = builder.distanceMillimeters;
+        this.heartPointsMilli = builder.heartPointsMilli;
+        this.speedMillimetersPerSecond = builder.speedMillimetersPerSecond;
+        this.activities = Collections.unmodifiableList(new ArrayList<>(builder.activities));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getProofId() {
+        return proofId;
+    }
+
+    /** Start of the local day the proof covers, epoch millis. */
+    public long getDayStart() {
+        return dayStart;
+    }
+
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    /** Fit activity of the last session that day, or an empty string when there was none. */
+    public String getWorkoutType() {
+        return workoutType;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public int getSteps() {
+        return steps;
+    }
+
+    public long getDistanceMillimeters() {
+        return distanceMillimeters;
+    }
+
+    public double getDistanceMeters() {
+        return distanceMillimeters / 1000.0;
+    }
+
+    public long getHeartPointsMilli() {
+        return heartPointsMilli;
+    }
+
+    public double getHeartPoints() {
+        return heartPointsMilli / 1000.0;
+    }
+
+    public long getSpeedMillimetersPerSecond() {
+        return speedMillimetersPerSecond;
+    }
+
+    public double getAverageSpeed() {
+        return speedMillimetersPerSecond / 1000.0;
+    }
+
+    public List<String> getActivities() {
+        return activities;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof WorkoutProof)) return false;
+        WorkoutProof that = (WorkoutProof) o;
+        return version == that.version
+                && dayStart == that.dayStart
+                && issuedAt == that.issuedAt
+                && durationMillis == that.durationMillis
+                && steps == that.steps
+                && distanceMillimeters == that.distanceMillimeters
+                && heartPointsMilli == that.heartPointsMilli
+                && speedMillimetersPerSecond == that.speedMillimetersPerSecond
+                && proofId.equals(that.proofId)
+                && workoutType.equals(that.workoutType)
+                && activities.equals(that.activities);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(version, proofId, dayStart, issuedAt, workoutType, durationMillis, steps,
+                distanceMillimeters, heartPointsMilli, speedMillimetersPerSecond, activities);
+    }
+
+    @Override
+    public String toString() {
+        return "WorkoutProof{" + proofId + ", day=" + dayStart + ", type=" + workoutType + ", steps=" + steps
+                + ", distanceMm=" + distanceMillimeters + ", activities=" + activities + "}";
+    }
+
+    public static final class Builder {
+        private int version = VERSION;
+        private String proofId;
+        private long dayStart;
+        private long issuedAt;
+        private String workoutType = "";
+        private long durationMillis;
+        private int steps;
+        private long distanceMillimeters;
+        private long heartPointsMilli;
+        private long speedMillimetersPerSecond;
+        private final List<String> activities = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        Builder setVersion(int version) {
+            this.version = version;
+            return this;
+        }
+
+        public Builder setProofId(String proofId) {
+            this.proofId = proofId;
+            return this;
+        }
+
+        public Builder setDayStart(long dayStart) {
+            this.dayStart = dayStart;
+            return this;
+        }
+
+        public Builder setIssuedAt(long issuedAt) {
+            this.issuedAt = issuedAt;
+            return this;
+        }
+
+        public Builder setWorkoutType(String workoutType) {
+            this.workoutType = workoutType == null ? "" : workoutType;
+            return this;
+        }
+
+        public Builder setDurationMillis(long durationMillis) {
+            this.durationMillis = durationMillis;
+            return this;
+        }
+
+        public Builder setSteps(int steps) {
+            this.steps = steps;
+            return this;
+        }
+
+        public Builder setDistanceMeters(double meters) {
+            return setDistanceMillimeters(Math.round(meters * 1000));
+        }
+
+        public Builder setDistanceMillimeters(long millimeters) {
+            this.distanceMillimeters = millimeters;
+            return this;
+        }
+
+        public Builder setHeartPoints(double heartPoints) {
+            return setHeartPointsMilli(Math.round(heartPoints * 1000));
+        }
+
+        public Builder setHeartPointsMilli(long heartPointsMilli) {
+            this.heartPointsMilli = heartPointsMilli;
+            return this;
+        }
+
+        public Builder setAverageSpeed(double metersPerSecond) {
+            return setSpeedMillimetersPerSecond(Math.round(metersPerSecond * 1000));
+        }
+
+        public Builder setSpeedMillimetersPerSecond(long millimetersPerSecond) {
+            this.speedMillimetersPerSecond = millimetersPerSecond;
+            return this;
+        }
+
+        public Builder addActivity(String activity) {
+            activities.add(Objects.requireNonNull(activity, "activity"));
+            return this;
+        }
+
+        public Builder addActivities(List<String> activities) {
+            for (String activity : activities) {
+                addActivity(activity);
+            }
+            return this;
+        }
+
+        public WorkoutProof build() {
+            return new WorkoutProof(this);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.fitproof.data.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+
+import com.example.fitproof.data.fit.FitSeries;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+public class HeartRateAccumulatorTest {
+
+    private static final long START = 1_735_689_600_000L;
+    private static final long SECOND = 1000L;
+
+    @Test
+    public void chestStrapSessionInOnePass() {
+        HeartRateAccumulator heart = new HeartRateAccumulator(190);
+        long t = START;
+        // Ten minutes of warm-up at rest, a 20 s dropout reading low, then twenty minutes hard.
+        for (int i = 0; i < 600; i++, t += SECOND) {
+            heart.add(t, i >= 300 && i < 320 ? 35f : 60f);
+        }
+        heart.add(t - 5 * SECOND, 120f); // out of order
+        heart.add(t, 300f); // not a heart
+        for (int i = 0; i < 1200; i++, t += SECOND) {
+            heart.add(t, 150f);
+        }
+
+        HeartRateSummary summary = heart.summarize();
+
+        assertEquals(1800, summary.getSamples());
+        assertEquals(2, summary.getRejected());
+        assertEquals(35f, summary.getMin(), 0f);
+        assertEquals(150f, summary.getMax(), 0f);
+        // The dropout drags the calmest window a little, not all the way down to 35.
+        assertEquals(60f, summary.getResting(), 3f);
+        // 150 of 190 is 79 %: zone 3. The last sample has nothing after it to hold until.
+        assertEquals(TimeUnit.MINUTES.toMillis(20) - SECOND, summary.getZoneMillis(3));
+        assertEquals(TimeUnit.MINUTES.toMillis(10), summary.getZoneMillis(0));
+        assertEquals(summary.getTotalMillis(), TimeUnit.MINUTES.toMillis(30) - SECOND);
+    }
+
+    @Test
+    public void matchesTwoPassOverRandomStream() {
+        Random random = new Random(5);
+        int count = 20_000;
+        long[] times = new long[count];
+        float[] bpm = new float[count];
+        long t = START;
+        for (int i = 0; i < count; i++) {
+            t += random.nextInt(10) == 0 ? random.nextInt(300) * SECOND : SECOND;
+            times[i] = t;
+            bpm[i] = 50 + random.nextInt(130);
+        }
+
+        HeartRateAccumulator heart = new HeartRateAccumulator();
+        for (int i = 0; i < count; i++) {
+            heart.add(times[i], bpm[i]);
+        }
+        HeartRateSummary summary = heart.summarize();
+
+        float min = Float.MAX_VALUE;
+        float max = 0;
+        double weighted = 0;
+        long millis = 0;
+        for (int i = 0; i < count; i++) {
+            min = Math.min(min, bpm[i]);
+            max = Math.max(max, bpm[i]);
+            if (i + 1 < count) {
+                long held = Math.min(times[i + 1] - times[i], HeartRateAccumulator.MAX_GAP_MILLIS);
+                weighted += bpm[i] * held;
+                millis += held;
+            }
+        }
+        assertEquals(min, summary.getMin(), 0f);
+        assertEquals(max, summary.getMax(), 0f);
+        assertEquals(weighted / millis, summary.getMean(), 0.01);
+        assertEquals(millis, summary.getTotalMillis());
+    }
+
+    @Test
+    public void minuteRowsAreWeightedByTheirOwnLength() {
+        long minute = TimeUnit.MINUTES.toMillis(1);
+        FitSeries.Builder rows = new FitSeries.Builder(3);
+        rows.add(START, START + minute).setAverageHeartRate(70f);
+        rows.add(START + minute, START + 2 * minute);
+        rows.add(START + 60 * minute, START + 61 * minute).setAverageHeartRate(130f);
+
+        HeartRateAccumulator heart = new HeartRateAccumulator();
+        heart.addAll(rows.build());
+        HeartRateSummary summary = heart.summarize();
+
+        assertEquals(2, summary.getSamples());
+        assertEquals(100f, summary.getMean(), 0.001f);
+        assertEquals(2 * minute, summary.getTotalMillis());
+        // Two minutes of data never make a calm five-minute stretch.
+        assertEquals(0f, summary.getResting(), 0f);
+        assertFalse(new HeartRateAccumulator().summarize().hasData());
+    }
+
+    @Test
+    public void summariesOfTheSameSamplesAreEqual() {
+        HeartRateAccumulator first = new HeartRateAccumulator(190);
+        HeartRateAccumulator second = new HeartRateAccumulator(190);
+        long t = START;
+        for (int i = 0; i < 600; i++, t += SECOND) {
+            first.add(t, 90f + i % 40);
+            second.add(t, 90f + i % 40);
+        }
+        assertEquals(first.summarize(), second.summarize());
+        assertEquals(first.summarize().hashCode(), second.summarize().hashCode());
+
+        second.add(t, 170f);
+        assertNotEquals(first.summarize(), second.summarize());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.fitproof.data.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.fitproof.data.fit.FitSeries;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class PlausibilityEngineTest {
+
+    private static final long START = 1_735_689_600_000L;
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private final PlausibilityEngine engine = PlausibilityEngine.withDefaultRules();
+
+    /** Appends {@code count} minute rows from minute {@code at} of the day. */
+    private static void minutes(FitSeries.Builder day, int at, int count, int steps, float meters, float bpm,
+                                long stepMillis) {
+        for (int i = 0; i < count; i++) {
+            long start = START + (at + i) * MINUTE;
+            day.add(start, start + MINUTE)
+                    .addSteps(steps)
+                    .addDistance(meters)
+                    .addActiveMillis(steps > 0 ? stepMillis : 0)
+                    .setAverageHeartRate(bpm);
+        }
+    }
+
+    private static List<String> rules(PlausibilityReport report) {
+        String[] rules = new String[report.getViolations().size()];
+        for (int i = 0; i < rules.length; i++) {
+            rules[i] = report.getViolations().get(i).getRule();
+        }
+        return Arrays.asList(rules);
+    }
+
+    @Test
+    public void ordinaryDayWithARunPasses() {
+        FitSeries.Builder day = new FitSeries.Builder(1440);
+        minutes(day, 0, 420, 0, 0f, 58f, 0);                // asleep
+        minutes(day, 420, 30, 100, 70f, 92f, MINUTE);       // walk to work
+        minutes(day, 450, 600, 4, 3f, 70f, 5_000);          // desk
+        minutes(day, 1050, 45, 165, 180f, 152f, MINUTE);    // 3 m/s run, 1.1 m strides
+        minutes(day, 1095, 345, 8, 5f, 65f, 8_000);
+
+        PlausibilityReport report = engine.check(day.build());
+
+        assertTrue(report.toString(), report.isPlausible());
+        assertEquals(1440, report.getMinutesChecked());
+    }
+
+    @Test
+    public void shakenPhoneDoesNotMoveTheHeart() {
+        FitSeries.Builder day = new FitSeries.Builder(60);
+        minutes(day, 600, 30, 180, 0f, 72f, MINUTE);
+
+        PlausibilityReport report = engine.check(day.build());
+
+        assertEquals(Arrays.asList("heart-response"), rules(report));
+        PlausibilityReport.Violation violation = report.getViolations().get(0);
+        // Flagged from the first full window of effort to the end, as one stretch.
+        assertEquals(START + 600 * MINUTE, violation.getStartTime());
+        assertEquals(START + 630 * MINUTE, violation.getEndTime());
+    }
+
+    @Test
+    public void stepsAtCarSpeedAreTooFastAndStrideTooFar() {
+        FitSeries.Builder day = new FitSeries.Builder(40);
+        // A trickle of steps from the bumps is a car ride, which is not for this engine to judge.
+        minutes(day, 420, 20, 30, 900f, 0f, MINUTE);
+        // Walking cadence at 15 m/s is a step generator riding along.
+        minutes(day, 480, 20, 120, 900f, 0f, MINUTE);
+
+        PlausibilityReport report = engine.check(day.build());
+
+        assertEquals(Arrays.asList("foot-speed", "stride"), rules(report));
+        assertEquals(START + 480 * MINUTE, report.getViolations().get(0).getStartTime());
+    }
+
+    @Test
+    public void doubledStepStreamIsCaughtButAHandOverIsNot() {
+        FitSeries.Builder day = new FitSeries.Builder(40);
+        minutes(day, 300, 1, 100, 70f, 0f, 2 * MINUTE);     // watch and phone hand over
+        minutes(day, 301, 19, 100, 70f, 0f, MINUTE);
+        minutes(day, 400, 10, 200, 140f, 0f, 2 * MINUTE);   // both counted for ten minutes
+
+        PlausibilityReport report = engine.check(day.build());
+
+        assertEquals(Arrays.asList("source-overlap"), rules(report));
+        assertEquals(START + 400 * MINUTE, report.getViolations().get(0).getStartTime());
+        assertEquals(START + 410 * MINUTE, report.getViolations().get(0).getEndTime());
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.fitproof.data.dashboard;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.example.fitproof.data.fit.FitBucket;
+import com.example.fitproof.data.fit.TimeBuckets;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class StreakIndexTest {
+
+    private static final int THRESHOLD = DashboardAggregator.STREAK_STEP_THRESHOLD;
+
+    private final long today = TimeBuckets.startOfDay(System.currentTimeMillis());
+
+    private long daysAgo(int days) {
+        return TimeBuckets.addDays(today, -days);
+    }
+
+    @Test
+    public void matchesFullRecountOverTwoYears() {
+        Random random = new Random(11);
+        int days = 730;
+        int[] steps = new int[days];
+        for (int i = 0; i < days; i++) {
+            // Long active runs with the odd lazy day.
+            steps[i] = random.nextInt(40) == 0 ? random.nextInt(THRESHOLD) : THRESHOLD + random.nextInt(12_000);
+        }
+
+        StreakIndex index = StreakIndex.empty(THRESHOLD);
+        for (int i = 0; i < days; i++) {
+            index = index.finalizeDay(daysAgo(days - i), steps[i]);
+        }
+
+        int current = 0;
+        int longest = 0;
+        int lastActive = -1;
+        for (int i = 0; i < days; i++) {
+            current = steps[i] >= THRESHOLD ? current + 1 : 0;
+            longest = Math.max(longest, current);
+            if (steps[i] >= THRESHOLD) lastActive = i;
+        }
+        assertTrue(index.isCurrent(today));
+        assertEquals(current, index.getCurrent());
+        assertEquals(longest, index.getLongest());
+        assertEquals(daysAgo(days - lastActive), index.getLastActiveDay());
+        assertTrue("longest " + longest, longest > DashboardAggregator.WINDOW_DAYS);
+    }
+
+    @Test
+    public void countsBackFromToday() {
+        StreakIndex index = StreakIndex.empty(THRESHOLD)
+                .finalizeDay(daysAgo(3), 0)
+                .finalizeDay(daysAgo(2), 5000)
+                .finalizeDay(daysAgo(1), 5000);
+
+        // Today not reached yet: the streak through yesterday stands.
+        assertEquals(2, index.currentAsOf(today, 40));
+        assertEquals(3, index.currentAsOf(today, 400));
+        assertEquals(3, index.longestAsOf(today, 400));
+
+        // A day that was never folded in breaks the streak.
+        long tomorrow = TimeBuckets.nextDay(today);
+        assertFalse(index.isCurrent(tomorrow));
+        assertEquals(0, index.currentAsOf(tomorrow, 0));
+        assertEquals(1, index.finalizeDay(today, 5000).finalizeDay(TimeBuckets.nextDay(tomorrow), 5000).getCurrent());
+
+        // Re-finalizing a day is a no-op.
+        assertSame(index, index.finalizeDay(daysAgo(2), 0));
+    }
+
+    @Test
+    public void windowStreakCountsBackFromToday() {
+        // Oldest first: inactive, then five active days up to yesterday, today still open.
+        int[] steps = {20, 3000, 3000, 3000, 3000, 3000, 10};
+        List<FitBucket> days = new ArrayList<>();
+        for (int i = 0; i < steps.length; i++) {
+            long start = daysAgo(steps.length - 1 - i);
+            days.add(new FitBucket.Builder(start, TimeBuckets.nextDay(start)).addSteps(steps[i]).build());
+        }
+
+        DashboardSummary summary = DashboardAggregator.summarize(days, today, 0);
+        assertEquals(5, summary.getStreak());
+
+        // Before the fix the walk went oldest-first and stopped at the first quiet day: 0 here.
+        days.set(3, new FitBucket.Builder(daysAgo(3), daysAgo(2)).addSteps(0).build());
+        assertEquals(2, DashboardAggregator.summarize(days, today, 0).getStreak());
+
+        // An up-to-date index wins over the window.
+        StreakIndex index = new StreakIndex(THRESHOLD, daysAgo(1), 120, 200, daysAgo(1));
+        DashboardSummary indexed = DashboardAggregator.summarize(days, today, 0, index);
+        assertEquals(120, indexed.getStreak());
+        assertEquals(200, indexed.getLongestStreak());
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.fitproof.data.fit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class FitSeriesTest {
+
+    private static final long DAY_START = TimeBuckets.startOfDay(System.currentTimeMillis());
+    private static final String[] ACTIVITIES = {"walking", "running", "still"};
+
+    private static List<FitBucket> hours(int count, long seed) {
+        Random random = new Random(seed);
+        List<FitBucket> hours = new ArrayList<>(count);
+        long start = DAY_START;
+        for (int i = 0; i < count; i++) {
+            long end = start + FitQuery.HOUR_BUCKET;
+            hours.add(new FitBucket.Builder(start, end)
+                    .addSteps(random.nextInt(1_500))
+                    .addCalories(random.nextFloat() * 120)
+                    .addDistance(random.nextFloat() * 1_200)
+                    .addHeartPoints(random.nextFloat() * 5)
+                    .setAverageSpeed(random.nextInt(3) == 0 ? 0 : 1 + random.nextFloat())
+                    .addActiveMillis(random.nextInt(1_800_000))
+                    .addActivity(ACTIVITIES[random.nextInt(ACTIVITIES.length)])
+                    .build());
+            start = end;
+        }
+        return hours;
+    }
+
+    @Test
+    public void dayRollupMatchesMerge() {
+        List<FitBucket> hours = hours(24 * 5 + 7, 3);
+        long until = hours.get(hours.size() - 1).getEndTime();
+        long[] days = TimeBuckets.dayBoundaries(DAY_START, until);
+
+        FitSeries rolled = FitSeries.of(hours).rollup(days);
+
+        assertEquals(days.length - 1, rolled.size());
+        int from = 0;
+        for (int d = 0; d < rolled.size(); d++) {
+            int to = from;
+            while (to < hours.size() && hours.get(to).getStartTime() < days[d + 1]) {
+                to++;
+            }
+            FitBucket expected = FitBucket.merge(days[d], days[d + 1], hours.subList(from, to));
+            FitBucket actual = rolled.getBucket(d);
+            assertEquals(expected.getStartTime(), actual.getStartTime());
+            assertEquals(expected.getEndTime(), actual.getEndTime());
+            assertEquals(expected.getSteps(), actual.getSteps());
+            assertEquals(expected.getCalories(), actual.getCalories(), 0.01f);
+            assertEquals(expected.getDistanceMeters(), actual.getDistanceMeters(), 0.1f);
+            assertEquals(expected.getHeartPoints(), actual.getHeartPoints(), 0.01f);
+            assertEquals(expected.getAverageSpeed(), actual.getAverageSpeed(), 0.0001f);
+            assertEquals(expected.getActiveMillis(), actual.getActiveMillis());
+            assertEquals(expected.getActivities(), actual.getActivities());
+            from = to;
+        }
+    }
+
+    @Test
+    public void aggregatesSkipRowsWithoutSpeed() {
+        FitSeries series = new FitSeries.Builder(2)
+                .add(0, 10).addSteps(300).setAverageSpeed(2f)
+                .add(10, 20).addSteps(100)
+                .add(20, 30).addSteps(500).setAverageSpeed(4f)
+                .build();
+
+        assertEquals(3, series.size());
+        assertEquals(900, series.sum(FitMetric.STEPS, 0, 3), 0);
+        assertEquals(300, series.average(FitMetric.STEPS, 0, 3), 0);
+        assertEquals(100, series.min(FitMetric.STEPS, 0, 3), 0);
+        assertEquals(500, series.max(FitMetric.STEPS, 0, 3), 0);
+        assertEquals(3f, series.average(FitMetric.SPEED, 0, 3), 0.0001);
+        assertEquals(2f, series.min(FitMetric.SPEED, 0, 3), 0);
+        assertTrue(Double.isNaN(series.max(FitMetric.SPEED, 1, 2)));
+
+        assertEquals(1, series.indexAtOrAfter(5));
+        assertEquals(3, series.indexAtOrAfter(25));
+
+        double[] out = new double[2];
+        series.rollup(FitMetric.STEPS, new long[]{0, 15, 30}, out);
+        assertEquals(400, out[0], 0);
+        assertEquals(500, out[1], 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rowsMustComeInOrder() {
+        new FitSeries.Builder(4).add(20, 30).add(10, 20);
+    }
+}
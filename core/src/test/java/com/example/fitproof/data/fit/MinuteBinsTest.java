@@ -0,0 +1,51 @@
+package com.example.fitproof.data.fit;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class MinuteBinsTest {
+
+    private static final long MINUTE = FitQuery.MINUTE_BUCKET;
+    private static final long START = 1_735_689_600_000L;
+
+    @Test
+    public void spreadsDeltasOverTheMinutesTheyCover() {
+        MinuteBins bins = new MinuteBins(START, START + 10 * MINUTE);
+        // 100 steps over two and a half minutes, starting half a minute in.
+        bins.addSteps(START + MINUTE / 2, START + 3 * MINUTE, 100);
+        bins.addDistance(START + MINUTE / 2, START + 3 * MINUTE, 75f);
+        // Starts before the range: only the part inside counts.
+        bins.addSteps(START - MINUTE, START + MINUTE, 50);
+
+        FitSeries series = bins.build();
+
+        assertEquals(3, series.size());
+        assertEquals(START, series.getStartTime(0));
+        assertEquals(20 + 25, series.getSteps(0));
+        assertEquals(40, series.getSteps(1));
+        assertEquals(40, series.getSteps(2));
+        assertEquals(125, series.sum(FitMetric.STEPS, 0, 3), 0);
+        assertEquals(75f, series.sum(FitMetric.DISTANCE, 0, 3), 0.001);
+        // Both points cover the second half of the first minute, so it counts 90 s of steps.
+        assertEquals(MINUTE * 3 / 2, series.getActiveMillis(0));
+        assertEquals(MINUTE, series.getActiveMillis(2));
+    }
+
+    @Test
+    public void averagesSamplesWithinAMinute() {
+        MinuteBins bins = new MinuteBins(START + 5_000, START + 2 * MINUTE);
+        bins.addHeartRate(START + 10_000, 90f);
+        bins.addHeartRate(START + 50_000, 110f);
+        bins.addSpeed(START + MINUTE + 1, 2f);
+        bins.addHeartRate(START + 5 * MINUTE, 150f);
+
+        FitSeries series = bins.build();
+
+        assertEquals(2, series.size());
+        assertEquals(100f, series.getAverageHeartRate(0), 0.001f);
+        assertEquals(0f, series.getAverageSpeed(0), 0f);
+        assertEquals(2f, series.getAverageSpeed(1), 0f);
+        assertEquals(100f, series.average(FitMetric.HEART_RATE, 0, 2), 0.001);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.fitproof.proof;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class MerkleTreeTest {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    private static List<byte[]> leaves(int count) {
+        MessageDigest digest = ProofEncoder.newDigest();
+        List<byte[]> leaves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            leaves.add(digest.digest(ByteBuffer.allocate(4).putInt(i).array()));
+        }
+        return leaves;
+    }
+
+    /** The same tree, spelled out recursively, one level at a time. */
+    private static byte[] referenceRoot(List<byte[]> proofHashes) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        List<byte[]> level = new ArrayList<>();
+        for (byte[] hash : proofHashes) {
+            digest.update((byte) 0);
+            level.add(digest.digest(hash));
+        }
+        while (level.size() > 1) {
+            List<byte[]> up = new ArrayList<>();
+            for (int i = 0; i + 1 < level.size(); i += 2) {
+                digest.update((byte) 1);
+                digest.update(level.get(i));
+                up.add(digest.digest(level.get(i + 1)));
+            }
+            if (level.size() % 2 == 1) {
+                up.add(level.get(level.size() - 1));
+            }
+            level = up;
+        }
+        return level.get(0);
+    }
+
+    @Test
+    public void matchesReferenceForEverySmallSize() throws Exception {
+        for (int n = 1; n <= 40; n++) {
+            List<byte[]> leaves = leaves(n);
+            MerkleTree tree = MerkleTree.build(leaves);
+            assertArrayEquals("n=" + n, referenceRoot(leaves), tree.getRoot());
+            for (int i = 0; i < n; i++) {
+                InclusionProof path = tree.inclusionProof(i);
+                assertTrue("n=" + n + " i=" + i, path.verify(leaves.get(i), tree.getRoot()));
+                assertEquals(InclusionProof.fromBytes(path.toBytes()), path);
+            }
+        }
+    }
+
+    @Test
+    public void hundredThousandLeavesVerifyInLogarithmicSteps() {
+        int n = 100_000;
+        List<byte[]> leaves = leaves(n);
+
+        MerkleTree tree = MerkleTree.build(leaves);
+        byte[] root = tree.getRoot();
+
+        int maxPath = 0;
+        MessageDigest digest = ProofEncoder.newDigest();
+        for (int i = 0; i < n; i++) {
+            InclusionProof path = tree.inclusionProof(i);
+            maxPath = Math.max(maxPath, path.getPathLength());
+            if (!path.verify(digest, leaves.get(i), root)) {
+                fail("Leaf " + i + " does not verify");
+            }
+        }
+
+        // ceil(log2(100000)) = 17
+        assertEquals(17, maxPath);
+        assertTrue(tree.inclusionProof(n - 1).toBytes().length <= 9 + 17 * 32);
+    }
+
+    @Test
+    public void tamperedInputsAreRejected() {
+        List<byte[]> leaves = leaves(1000);
+        MerkleTree tree = MerkleTree.build(leaves);
+        byte[] root = tree.getRoot();
+        InclusionProof path = tree.inclusionProof(417);
+
+        assertFalse(path.verify(leaves.get(418), root));
+        assertFalse(tree.inclusionProof(418).verify(leaves.get(417), root));
+
+        byte[] bytes = path.toBytes();
+        bytes[bytes.length - 1] ^= 1;
+        try {
+            assertFalse(InclusionProof.fromBytes(bytes).verify(leaves.get(417), root));
+        } catch (ProofFormatException e) {
+            fail(e.getMessage());
+        }
+
+        // A path that claims the wrong tree size has the wrong shape.
+        byte[] resized = path.toBytes();
+        ByteBuffer.wrap(resized).putInt(4, 3);
+        try {
+            InclusionProof.fromBytes(resized);
+            fail("Path shape not checked");
+        } catch (ProofFormatException expected) {
+            // Leaf 417 cannot be in a tree of 3.
+        }
+    }
+
+    @Test
+    public void innerNodesCannotPoseAsLeaves() {
+        List<byte[]> leaves = leaves(4);
+        MerkleTree tree = MerkleTree.build(leaves);
+        MerkleTree twoLeaves = MerkleTree.build(leaves.subList(0, 2));
+        // The root of the first pair is an inner node of the bigger tree; as a leaf it must not fit.
+        InclusionProof path = MerkleTree.build(Arrays.asList(twoLeaves.getRoot(), leaves.get(2))).inclusionProof(0);
+        assertFalse(path.verify(twoLeaves.getRoot(), tree.getRoot()));
+    }
+
+    @Test
+    public void receiptsRoundTripAndDecodeStrictly() throws Exception {
+        List<WorkoutProof> proofs = new ArrayList<>();
+        for (int day = 0; day < 30; day++) {
+            proofs.add(WorkoutProof.builder()
+                    .setProofId("day-" + day)
+                    .setDayStart(1_700_000_000_000L + day * DAY)
+                    .setSteps(5000 + day)
+                    .build());
+        }
+        MerkleBatch batch = MerkleBatch.of(proofs);
+
+        String root = new String(batch.encodeRoot(), StandardCharsets.US_ASCII);
+        assertEquals("{\"v\":1,\"leaf_count\":30,\"first_day\":1700000000000,\"last_day\":"
+                + (1_700_000_000_000L + 29 * DAY) + ",\"hash_algorithm\":\"SHA-256\",\"merkle_root\":\""
+                + batch.getTree().getRootHex() + "\"}", root);
+
+        for (int day = 0; day < 30; day++) {
+            MerkleReceipt receipt = batch.receipt(day);
+            byte[] encoded = receipt.encode();
+            MerkleReceipt decoded = MerkleReceipt.decode(encoded);
+            assertEquals(receipt, decoded);
+            assertTrue(decoded.verify());
+            assertArrayEquals(ProofHasher.hash(proofs.get(day)), decoded.getProofHash());
+            assertArrayEquals(encoded, decoded.encode());
+        }
+
+        String json = new String(batch.receipt(7).encode(), StandardCharsets.US_ASCII);
+        assertRejected(json.toUpperCase());
+        assertRejected(json.replace("\"leaf_index\":7", "\"leaf_index\":07"));
+        assertRejected(json.replace("],", ",\"" + batch.getTree().getRootHex() + "\"],"));
+        assertRejected(json + " ");
+    }
+
+    private static void assertRejected(String json) {
+        try {
+            MerkleReceipt.decode(json.getBytes(StandardCharsets.US_ASCII));
+            fail("Accepted " + json);
+        } catch (ProofFormatException expected) {
+            // Not canonical.
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.fitproof.proof;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+public class ProofCodecTest {
+
+    private static WorkoutProof sample() {
+        return WorkoutProof.builder()
+                .setProofId("3f1c2a9e-0000-4000-8000-000000000001")
+                .setDayStart(1_700_000_000_000L)
+                .setIssuedAt(1_700_050_000_000L)
+                .setWorkoutType("running")
+                .setDurationMillis(1_845_000)
+                .setSteps(8421)
+                .setDistanceMeters(6012.345f)
+                .setHeartPoints(24)
+                .setAverageSpeed(3.26)
+                .addActivity("running")
+                .addActivity("walking")
+                .build();
+    }
+
+    @Test
+    public void encodesFieldsInFixedOrderWithTypedNumbers() {
+        String json = new String(ProofHasher.encode(sample()), StandardCharsets.UTF_8);
+        assertTrue(json, json.startsWith("{\"v\":1,\"proof_id\":\"3f1c2a9e-0000-4000-8000-000000000001\","
+                + "\"day_start\":1700000000000,\"issued_at\":1700050000000,\"workout_type\":\"running\","
+                + "\"duration_ms\":1845000,\"steps\":8421,\"distance_m\":6012.345,\"heart_points\":24.000,"
+                + "\"avg_speed_mps\":3.260,\"activities\":[\"running\",\"walking\"],"
+                + "\"hash_algorithm\":\"SHA-256\",\"hash\":\""));
+    }
+
+    @Test
+    public void hashCoversExactlyTheCanonicalBody() throws Exception {
+        byte[] published = ProofHasher.encode(sample());
+        String json = new String(published, StandardCharsets.UTF_8);
+        String body = json.substring(0, json.indexOf(",\"hash_algorithm\"")) + "}";
+
+        byte[] expected = MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8));
+        assertArrayEquals(expected, ProofHasher.hash(sample()));
+        assertTrue(json.endsWith("\"hash\":\"" + ProofHasher.toHex(expected) + "\"}"));
+    }
+
+    @Test
+    public void roundTripIsByteForByte() throws Exception {
+        WorkoutProof proof = WorkoutProof.builder()
+                .setProofId("id-\"quoted\"\\slash\n\u00e9\u4e2d\ud83c\udfc3")
+                .setDayStart(-1)
+                .setWorkoutType("")
+                .setDistanceMillimeters(-1500)
+                .build();
+        byte[] published = ProofHasher.encode(proof);
+
+        ProofDecoder.Decoded decoded = new ProofDecoder().decode(new ByteArrayInputStream(published));
+        assertEquals(proof, decoded.getProof());
+        assertArrayEquals(ProofHasher.hash(proof), decoded.getHash());
+        assertArrayEquals(published, ProofHasher.encode(decoded.getProof()));
+    }
+
+    @Test
+    public void sameProofAlwaysHashesTheSame() {
+        WorkoutProof a = sample();
+        WorkoutProof b = WorkoutProof.builder()
+                .addActivity("running")
+                .addActivity("walking")
+                .setAverageSpeed(3.26)
+                .setHeartPoints(24)
+                .setDistanceMeters(6012.345f)
+                .setSteps(8421)
+                .setDurationMillis(1_845_000)
+                .setWorkoutType("running")
+                .setIssuedAt(1_700_050_000_000L)
+                .setDayStart(1_700_000_000_000L)
+                .setProofId("3f1c2a9e-0000-4000-8000-000000000001")
+                .build();
+        assertArrayEquals(ProofHasher.encode(a), ProofHasher.encode(b));
+        assertFalse(Arrays.equals(ProofHasher.hash(a),
+                ProofHasher.hash(WorkoutProof.builder().setProofId(a.getProofId()).setSteps(8422).build())));
+    }
+
+    @Test
+    public void rejectsTamperedHashAndContents() {
+        String json = new String(ProofHasher.encode(sample()), StandardCharsets.UTF_8);
+        assertRejected(json.replace("\"steps\":8421", "\"steps\":9421"));
+        int hashStart = json.lastIndexOf('"', json.length() - 3) + 1;
+        char flipped = json.charAt(hashStart) == '0' ? '1' : '0';
+        assertRejected(json.substring(0, hashStart) + flipped + json.substring(hashStart + 1));
+    }
+
+    @Test
+    public void rejectsNonCanonicalSpellings() {
+        String json = new String(ProofHasher.encode(sample()), StandardCharsets.UTF_8);
+        assertRejected(json.replace("\"steps\":8421", "\"steps\":08421"));
+        assertRejected(json.replace("\"heart_points\":24.000", "\"heart_points\":24.0"));
+        assertRejected(json.replace("{\"v\":1,", "{ \"v\":1,"));
+        assertRejected(json.replace("\"workout_type\":\"running\"", "\"workout_type\":\"r\\u0075nning\""));
+        assertRejected(json + " ");
+        assertRejected(json.substring(0, json.length() - 1));
+    }
+
+    @Test
+    public void hashesThousandsOfProofsCheaply() {
+        WorkoutProof.Builder builder = WorkoutProof.builder().setProofId("bench").addActivity("walking");
+        int count = 50_000;
+        byte[] last = null;
+        for (int i = 0; i < count; i++) {
+            last = ProofHasher.hash(builder.setSteps(i).build());
+        }
+        assertEquals(32, last.length);
+    }
+
+    private static void assertRejected(String json) {
+        try {
+            new ProofDecoder().decode(json.getBytes(StandardCharsets.UTF_8));
+            fail("Accepted " + json);
+        } catch (ProofFormatException expected) {
+            // expected
+        }
+    }
+}
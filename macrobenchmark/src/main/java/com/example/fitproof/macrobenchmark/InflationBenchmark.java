@@ -0,0 +1,71 @@
+package com.example.fitproof.macrobenchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Until;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Time spent inflating the two text-heavy screens, from the trace sections the fragments wrap
+ * around their {@code inflate} calls. Each iteration is a cold process, so the home screen pays
+ * for the first font load and My Proof shows what is left once the fonts are cached.
+ */
+@RunWith(AndroidJUnit4.class)
+public class InflationBenchmark {
+
+    private static final String PACKAGE = "com.example.fitproof";
+    private static final int ITERATIONS = 10;
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Test
+    public void inflateHome() {
+        rule.measureRepeated(PACKAGE,
+                Collections.singletonList(new TraceSectionMetric("inflate:fragment_home")),
+                new CompilationMode.Partial(), StartupMode.COLD, ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    return Unit.INSTANCE;
+                });
+    }
+
+    @Test
+    public void inflateMyProof() {
+        rule.measureRepeated(PACKAGE,
+                Collections.singletonList(new TraceSectionMetric("inflate:fragment_my_proof")),
+                new CompilationMode.Partial(), StartupMode.COLD, ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    openMyProof(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+
+    private static void openMyProof(MacrobenchmarkScope scope) {
+        scope.getDevice().findObject(By.desc("Open navigation drawer")).click();
+        scope.getDevice().wait(Until.findObject(By.text("My Proof")), TIMEOUT_MILLIS).click();
+        scope.getDevice().wait(Until.hasObject(By.res(PACKAGE, "tv_header_title")), TIMEOUT_MILLIS);
+    }
+}
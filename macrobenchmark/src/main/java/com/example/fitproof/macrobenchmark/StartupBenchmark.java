@@ -0,0 +1,72 @@
+package com.example.fitproof.macrobenchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Until;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Cold start of the {@code benchmark} build. {@code timeToInitialDisplayMs} is the first frame;
+ * {@code timeToFullDisplayMs} is time to data, reported by the home screen once it shows real
+ * numbers. With a cache the numbers come from the last run's snapshot; on a first run they wait
+ * for a sync against LocalFitDataSource.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StartupBenchmark {
+
+    private static final String PACKAGE = "com.example.fitproof";
+    private static final int ITERATIONS = 10;
+    private static final long DATA_TIMEOUT_MILLIS = 10_000;
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Test
+    public void coldStartWithCache() {
+        startup(false);
+    }
+
+    @Test
+    public void coldStartFirstRun() {
+        startup(true);
+    }
+
+    private void startup(boolean clearData) {
+        rule.measureRepeated(PACKAGE, Collections.singletonList(new StartupTimingMetric()),
+                new CompilationMode.Partial(), StartupMode.COLD, ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    if (clearData) {
+                        scope.getDevice().executeShellCommand("pm clear " + PACKAGE);
+                    } else {
+                        // Leaves a snapshot behind for the first measured start.
+                        startAndWaitForData(scope);
+                        scope.killProcess();
+                    }
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    startAndWaitForData(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+
+    private static void startAndWaitForData(MacrobenchmarkScope scope) {
+        scope.startActivityAndWait();
+        // The streak label reads "Streak" until a summary is bound, then "Streak: n days".
+        scope.getDevice().wait(Until.hasObject(By.res(PACKAGE, "streak").textStartsWith("Streak:")),
+                DATA_TIMEOUT_MILLIS);
+    }
+}
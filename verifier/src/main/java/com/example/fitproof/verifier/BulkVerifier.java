@@ -0,0 +1,278 @@
+package com.example.fitproof.verifier;
+
+import com.example.fitproof.proof.ProofDecoder;
+import com.example.fitproof.proof.ProofFormatException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Verifies proof documents from files and directories on all cores. The calling thread reads and
+ * splits input into chunks; a fixed pool decodes them with one {@link ProofDecoder} per thread.
+ * At most two chunks per thread are in flight, so memory stays bounded however large the input.
+ *
+ * <p>A {@code .jsonl} or {@code .ndjson} file holds one proof per line; any other file is a single
+ * proof. Directories are walked for files with those extensions.
+ */
+public final class BulkVerifier {
+
+    static final int CHUNK_DOCUMENTS = 256;
+    static final int MAX_REPORTED_FAILURES = 100;
+
+    private final int threads;
+
+    public BulkVerifier(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.threads = threads;
+    }
+
+    public Report verify(List<Path> inputs) throws IOException, InterruptedException {
+        return run((run, pool) -> {
+            for (Path input : inputs) {
+                if (Files.isDirectory(input)) {
+                    List<Path> files;
+                    try (Stream<Path> walk = Files.walk(input)) {
+                        files = walk.filter(Files::isRegularFile)
+                                .filter(path -> isLines(path) || path.toString().endsWith(".json"))
+                                .sorted()
+                                .collect(Collectors.toList());
+                    }
+                    for (Path file : files) {
+                        readFile(file, run, pool);
+                    }
+                } else {
+                    readFile(input, run, pool);
+                }
+            }
+        });
+    }
+
+    /** One proof per line from {@code in}, e.g. standard input. */
+    public Report verifyLines(InputStream in, String source) throws IOException, InterruptedException {
+        return run((run, pool) -> readLines(in, source, run, pool));
+    }
+
+    /** Feeds documents to a {@link Run} on the calling thread. */
+    private interface Input {
+        void read(Run run, ExecutorService pool) throws IOException, InterruptedException;
+    }
+
+    private Report run(Input input) throws IOException, InterruptedException {
+        Run run = new Run();
+        AtomicInteger threadIds = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "verifier-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long started = System.nanoTime();
+        try {
+            input.read(run, pool);
+            run.submit(pool);
+            // Every permit back means every chunk has been verified.
+            run.inFlight.acquire(2 * threads);
+        } finally {
+            pool.shutdownNow();
+        }
+        return run.report(threads, System.nanoTime() - started);
+    }
+
+    private void readFile(Path file, Run run, ExecutorService pool) throws IOException, InterruptedException {
+        if (isLines(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                readLines(in, file.toString(), run, pool);
+            }
+        } else {
+            run.add(Files.readAllBytes(file), file.toString(), pool);
+        }
+    }
+
+    private void readLines(InputStream in, String source, Run run, ExecutorService pool)
+            throws IOException, InterruptedException {
+        byte[] block = new byte[64 * 1024];
+        ByteArrayOutputStream partial = new ByteArrayOutputStream(512);
+        int lineNumber = 1;
+        int read;
+        while ((read = in.read(block)) != -1) {
+            int lineStart = 0;
+            for (int i = 0; i < read; i++) {
+                if (block[i] != '\n') continue;
+                byte[] line;
+                if (partial.size() > 0) {
+                    partial.write(block, lineStart, i - lineStart);
+                    line = partial.toByteArray();
+                    partial.reset();
+                } else {
+                    line = Arrays.copyOfRange(block, lineStart, i);
+                }
+                if (line.length > 0) {
+                    run.add(line, source + ":" + lineNumber, pool);
+                }
+                lineNumber++;
+                lineStart = i + 1;
+            }
+            partial.write(block, lineStart, read - lineStart);
+        }
+        if (partial.size() > 0) {
+            run.add(partial.toByteArray(), source + ":" + lineNumber, pool);
+        }
+    }
+
+    private static boolean isLines(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(".jsonl") || name.endsWith(".ndjson");
+    }
+
+    /** Trailing whitespace, such as an editor's final newline, is not part of the proof. */
+    private static int trimmedLength(byte[] document) {
+        int length = document.length;
+        while (length > 0 && (document[length - 1] == '\n' || document[length - 1] == '\r'
+                || document[length - 1] == ' ' || document[length - 1] == '\t')) {
+            length--;
+        }
+        return length;
+    }
+
+    /** State for one {@link #verify} call. */
+    private final class Run {
+
+        final Semaphore inFlight = new Semaphore(2 * threads);
+        final ThreadLocal<ProofDecoder> decoders = ThreadLocal.withInitial(ProofDecoder::new);
+        final LongAdder valid = new LongAdder();
+        final LongAdder invalid = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+
+        private List<byte[]> documents = new ArrayList<>(CHUNK_DOCUMENTS);
+        private List<String> sources = new ArrayList<>(CHUNK_DOCUMENTS);
+
+        void add(byte[] document, String source, ExecutorService pool) throws InterruptedException {
+            documents.add(document);
+            sources.add(source);
+            if (documents.size() == CHUNK_DOCUMENTS) {
+                submit(pool);
+            }
+        }
+
+        void submit(ExecutorService pool) throws InterruptedException {
+            if (documents.isEmpty()) return;
+            List<byte[]> chunk = documents;
+            List<String> chunkSources = sources;
+            documents = new ArrayList<>(CHUNK_DOCUMENTS);
+            sources = new ArrayList<>(CHUNK_DOCUMENTS);
+            inFlight.acquire();
+            pool.execute(() -> {
+                try {
+                    verifyChunk(chunk, chunkSources);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+
+        private void verifyChunk(List<byte[]> chunk, List<String> chunkSources) {
+            ProofDecoder decoder = decoders.get();
+            for (int i = 0; i < chunk.size(); i++) {
+                byte[] document = chunk.get(i);
+                bytes.add(document.length);
+                try {
+                    decoder.decode(document, 0, trimmedLength(document));
+                    valid.increment();
+                } catch (ProofFormatException | RuntimeException e) {
+                    invalid.increment();
+                    if (failures.size() < MAX_REPORTED_FAILURES) {
+                        failures.add(chunkSources.get(i) + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+
+        Report report(int threads, long elapsedNanos) {
+            List<String> reported;
+            synchronized (failures) {
+                reported = new ArrayList<>(failures);
+            }
+            Collections.sort(reported);
+            return new Report(valid.sum(), invalid.sum(), bytes.sum(), elapsedNanos, threads, reported);
+        }
+    }
+
+    /** Counts and timing for one run. */
+    public static final class Report {
+
+        private final long valid;
+        private final long invalid;
+        private final long bytes;
+        private final long elapsedNanos;
+        private final int threads;
+        private final List<String> failures;
+
+        Report(long valid, long invalid, long bytes, long elapsedNanos, int threads, List<String> failures) {
+            this.valid = valid;
+            this.invalid = invalid;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+            this.threads = threads;
+            this.failures = Collections.unmodifiableList(failures);
+        }
+
+        public long getValid() {
+            return valid;
+        }
+
+        public long getInvalid() {
+            return invalid;
+        }
+
+        public long getDocuments() {
+            return valid + invalid;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getElapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        }
+
+        public double getProofsPerSecond() {
+            return elapsedNanos == 0 ? 0 : getDocuments() * 1e9 / elapsedNanos;
+        }
+
+        public double getMegabytesPerSecond() {
+            return elapsedNanos == 0 ? 0 : bytes * 1e9 / elapsedNanos / (1024 * 1024);
+        }
+
+        /** The first {@link #MAX_REPORTED_FAILURES} failures, as "source: reason". */
+        public List<String> getFailures() {
+            return failures;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "%d proofs (%d valid, %d invalid) in %d ms on %d threads: %.0f proofs/s, %.1f MB/s",
+                    getDocuments(), valid, invalid, getElapsedMillis(), threads,
+                    getProofsPerSecond(), getMegabytesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.fitproof.verifier;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code fitproof-verify [--threads N] [--quiet] <file|dir|->...}
+ *
+ * <p>Checks every proof's hash and canonical form and prints a throughput summary. Exits 0 when
+ * all proofs are valid, 1 when any is not, 2 on bad usage or unreadable input.
+ */
+public final class VerifierCli {
+
+    static final int OK = 0;
+    static final int INVALID = 1;
+    static final int USAGE = 2;
+
+    private static final String USAGE_TEXT =
+            "usage: fitproof-verify [--threads N] [--quiet] <file|directory|->...\n"
+                    + "  .jsonl/.ndjson files and '-' (stdin) hold one proof per line;\n"
+                    + "  other files hold one proof; directories are searched recursively.";
+
+    private VerifierCli() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean quiet = false;
+        boolean stdin = false;
+        List<Path> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--threads") && i + 1 < args.length) {
+                try {
+                    threads = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    threads = 0;
+                }
+                if (threads < 1) {
+                    err.println("--threads must be a positive number");
+                    return USAGE;
+                }
+            } else if (arg.equals("--quiet")) {
+                quiet = true;
+            } else if (arg.equals("-")) {
+                stdin = true;
+            } else if (arg.equals("-h") || arg.equals("--help") || arg.startsWith("--")) {
+                err.println(USAGE_TEXT);
+                return USAGE;
+            } else {
+                Path path = Paths.get(arg);
+                if (!Files.exists(path)) {
+                    err.println("No such file or directory: " + arg);
+                    return USAGE;
+                }
+                inputs.add(path);
+            }
+        }
+        if (inputs.isEmpty() && !stdin) {
+            err.println(USAGE_TEXT);
+            return USAGE;
+        }
+
+        BulkVerifier verifier = new BulkVerifier(threads);
+        try {
+            List<BulkVerifier.Report> reports = new ArrayList<>();
+            if (!inputs.isEmpty()) {
+                reports.add(verifier.verify(inputs));
+            }
+            if (stdin) {
+                reports.add(verifier.verifyLines(System.in, "<stdin>"));
+            }
+            long invalid = 0;
+            for (BulkVerifier.Report report : reports) {
+                if (!quiet) {
+                    for (String failure : report.getFailures()) {
+                        out.println("INVALID " + failure);
+                    }
+                }
+                out.println(report);
+                invalid += report.getInvalid();
+            }
+            return invalid == 0 ? OK : INVALID;
+        } catch (IOException e) {
+            err.println("Cannot read input: " + e.getMessage());
+            return USAGE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            err.println("Interrupted");
+            return USAGE;
+        }
+    }
+}
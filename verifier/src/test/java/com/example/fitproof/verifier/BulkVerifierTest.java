@@ -0,0 +1,104 @@
+package com.example.fitproof.verifier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.fitproof.proof.ProofHasher;
+import com.example.fitproof.proof.WorkoutProof;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+public class BulkVerifierTest {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static WorkoutProof proof(int i) {
+        return WorkoutProof.builder()
+                .setProofId("proof-" + i)
+                .setDayStart(1_700_000_000_000L + (i % 365) * DAY)
+                .setIssuedAt(1_700_050_000_000L + i)
+                .setWorkoutType(i % 2 == 0 ? "running" : "walking")
+                .setDurationMillis(1_000_000 + i)
+                .setSteps(3000 + i % 9000)
+                .setDistanceMillimeters(2_500_000 + i)
+                .addActivity("walking")
+                .build();
+    }
+
+    @Test
+    public void verifiesLinesAndSingleFilesInParallel() throws Exception {
+        int lines = 50_000;
+        File dir = folder.newFolder("proofs");
+        try (OutputStream out = Files.newOutputStream(new File(dir, "batch.jsonl").toPath())) {
+            for (int i = 0; i < lines; i++) {
+                byte[] encoded = ProofHasher.encode(proof(i));
+                if (i == 1234) {
+                    // Change a step count without fixing the hash.
+                    encoded = new String(encoded, StandardCharsets.UTF_8)
+                            .replace("\"steps\":4234", "\"steps\":9999")
+                            .getBytes(StandardCharsets.UTF_8);
+                }
+                out.write(encoded);
+                out.write('\n');
+            }
+        }
+        File nested = new File(dir, "nested");
+        assertTrue(nested.mkdir());
+        for (int i = 0; i < 20; i++) {
+            byte[] encoded = ProofHasher.encode(proof(lines + i));
+            Files.write(new File(nested, "p" + i + ".json").toPath(), i == 0 ? encoded : withNewline(encoded));
+        }
+        Files.write(new File(nested, "broken.json").toPath(), "{\"v\":1}".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(nested, "notes.txt").toPath(), "ignored".getBytes(StandardCharsets.UTF_8));
+
+        BulkVerifier.Report parallel = new BulkVerifier(Runtime.getRuntime().availableProcessors())
+                .verify(Collections.singletonList(dir.toPath()));
+        BulkVerifier.Report single = new BulkVerifier(1).verify(Collections.singletonList(dir.toPath()));
+
+        assertEquals(lines + 21, parallel.getDocuments());
+        assertEquals(2, parallel.getInvalid());
+        assertEquals(single.getValid(), parallel.getValid());
+        assertEquals(single.getFailures(), parallel.getFailures());
+        assertTrue(parallel.getFailures().get(0), parallel.getFailures().get(0).contains("batch.jsonl:1235"));
+        assertTrue(parallel.getFailures().get(1).contains("broken.json"));
+    }
+
+    @Test
+    public void cliExitCodes() throws Exception {
+        File good = folder.newFile("good.json");
+        Files.write(good.toPath(), ProofHasher.encode(proof(1)));
+        File bad = folder.newFile("bad.jsonl");
+        Files.write(bad.toPath(), "not a proof\n".getBytes(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream print = new PrintStream(out, true, "UTF-8");
+        assertEquals(VerifierCli.OK, VerifierCli.run(new String[]{good.getPath()}, print, print));
+        assertEquals(VerifierCli.INVALID,
+                VerifierCli.run(new String[]{"--threads", "2", good.getPath(), bad.getPath()}, print, print));
+        assertTrue(out.toString("UTF-8").contains("INVALID " + bad.getPath() + ":1"));
+        assertEquals(VerifierCli.USAGE, VerifierCli.run(new String[0], print, print));
+        assertEquals(VerifierCli.USAGE, VerifierCli.run(new String[]{"--threads", "0", good.getPath()}, print, print));
+        assertEquals(VerifierCli.USAGE, VerifierCli.run(new String[]{"missing.json"}, print, print));
+    }
+
+    private static byte[] withNewline(byte[] encoded) {
+        byte[] copy = Arrays.copyOf(encoded, encoded.length + 1);
+        copy[encoded.length] = '\n';
+        return copy;
+    }
+}